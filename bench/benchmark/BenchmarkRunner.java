@@ -0,0 +1,26 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, which reports the allocation rate
+ * next to the throughput. All the usual JMH command line options are
+ * supported, for example a regular expression of the benchmarks to run.
+ * 
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException,
+			CommandLineOptionException {
+		new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,154 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import data.DataConverter;
+
+/**
+ * Benchmarks for converting raw values with DataConverter. Each invocation
+ * converts a batch of random raw values, so the score is in conversions per
+ * second.
+ * 
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataConverterBenchmark {
+	private static final int BATCH = 1024;
+
+	@Param({ "true", "false" })
+	public boolean unit;
+
+	private DataConverter dataConverter;
+	private short[] values;
+	private short[] directions;
+	private double[] converted;
+
+	@Setup
+	public void setUp() {
+		dataConverter = new DataConverter(unit);
+		Random random = new Random(42);
+		values = new short[BATCH];
+		directions = new short[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			// Realistic raw values with some undefined ones.
+			values[i] = i % 64 == 0 ? Short.MIN_VALUE : (short) random
+					.nextInt(30000);
+			directions[i] = i % 64 == 0 ? 255 : (short) random.nextInt(16);
+		}
+		converted = new double[BATCH];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertPressure(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertPressure(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertWindRun(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertWindRun(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertPrecipitation(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertPrecipitation(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertTemperature(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertTemperature(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertHumidity(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertHumidity(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertWindSpeed(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertWindSpeed(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertWindDirection(Blackhole blackhole) {
+		for (short direction : directions) {
+			blackhole.consume(dataConverter.convertWindDirection(direction));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertUV(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertUV(value));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertSolarEnergy(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertSolarEnergy(value));
+		}
+	}
+
+	/**
+	 * Primitive conversion without boxing for comparison with the boxed one.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void convertTemperatureValue(Blackhole blackhole) {
+		for (short value : values) {
+			blackhole.consume(dataConverter.convertTemperatureValue(value));
+		}
+	}
+
+	/**
+	 * Batch conversion into a reused array.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public double[] convertTemperatureBatch() {
+		return dataConverter.convertTemperature(values, converted);
+	}
+}
@@ -0,0 +1,514 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import analysis.Bucket;
+import analysis.Climatology;
+import analysis.Downsampler;
+import analysis.MonthNormal;
+
+import reader.BufferStrategy;
+import reader.CsvExporter;
+import reader.MonthCache;
+import reader.MultiStationReader;
+import reader.RecordCursor;
+import reader.RecordFilter;
+import reader.SummaryCursor;
+import reader.WlkArchive;
+import reader.WlkReader;
+import reader.WlkRecordVisitor;
+import struct.WeatherDataRecord;
+import data.DailySummary;
+import data.DailyWeatherData;
+import data.DataConverter;
+import data.RawWeatherDataRecord;
+import data.StationWeatherDataRecord;
+import data.SummaryField;
+import data.WeatherField;
+
+/**
+ * Benchmarks for reading *.wlk files with WlkReader and for decoding the
+ * weather data record struct. The directory with the files can be changed with
+ * the directory parameter (-p directory=...). It must contain file 2012-08.wlk.
+ * 
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WlkReaderBenchmark {
+	// Size of the header block and of each record.
+	private static final int HEADER_SIZE = 212;
+	private static final int RECORD_SIZE = 88;
+
+	@Param({ "test/test" })
+	public String directory;
+
+	private File monthFile;
+
+	// Buffer with the whole month and number of records in it.
+	private ByteBuffer buffer;
+	private int records;
+
+	// Sidecar index of the directory, which is kept outside of it.
+	private File indexFile;
+
+	// Cache of decoded months, which is shared by all the invocations.
+	private final MonthCache monthCache = new MonthCache(1L << 30);
+
+	// Copy of the month in a temporary directory, next to which the side
+	// file with the sketches is written.
+	private File sketchDirectory;
+
+	// Archive of the directory in the same temporary directory.
+	private File archiveFile;
+
+	@Setup
+	public void setUp() throws IOException {
+		monthFile = new File(directory, "2012-08.wlk");
+		buffer = WlkReader.getBufferFromFile(monthFile, BufferStrategy.HEAP);
+		records = (buffer.limit() - HEADER_SIZE) / RECORD_SIZE;
+		indexFile = File.createTempFile("wlk", ".index");
+		sketchDirectory = Files.createTempDirectory("wlk").toFile();
+		FileUtils.copyFileToDirectory(monthFile, sketchDirectory);
+		archiveFile = new File(sketchDirectory, "davisvan.wlka");
+		WlkArchive.export(new WlkReader(new File(directory)), archiveFile);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		indexFile.delete();
+		FileUtils.deleteDirectory(sketchDirectory);
+	}
+
+	/**
+	 * Buffer strategy, which is used by the benchmarks of reading only.
+	 */
+	@State(Scope.Benchmark)
+	public static class Strategy {
+		@Param({ "HEAP", "MAPPED", "DIRECT", "SPARSE" })
+		public BufferStrategy bufferStrategy;
+	}
+
+	private static List<DailyWeatherData> read(WlkReader wlkReader,
+			Strategy strategy) throws IOException {
+		wlkReader.setBufferStrategy(strategy.bufferStrategy);
+		return wlkReader.readData();
+	}
+
+	/**
+	 * Reads a whole month from a single file.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readFullMonth(Strategy strategy)
+			throws IOException {
+		return read(new WlkReader(monthFile), strategy);
+	}
+
+	/**
+	 * Reads a whole month from a single file, but decodes only outside
+	 * temperature, pressure and precipitation.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readFullMonthProjected(Strategy strategy)
+			throws IOException {
+		WlkReader wlkReader = new WlkReader(monthFile);
+		wlkReader.setFields(EnumSet.of(WeatherField.OUT_TEMP,
+				WeatherField.PRESSURE, WeatherField.PRECIPITATION));
+		wlkReader.setSummaryFields(EnumSet.of(SummaryField.OUT_TEMP));
+		return read(wlkReader, strategy);
+	}
+
+	/**
+	 * Reads a whole month from a single file into raw records, which are
+	 * converted only when their getters are called.
+	 */
+	@Benchmark
+	public List<RawWeatherDataRecord> readFullMonthRaw(Strategy strategy)
+			throws IOException {
+		WlkReader wlkReader = new WlkReader(monthFile);
+		wlkReader.setBufferStrategy(strategy.bufferStrategy);
+		return wlkReader.readRawRecords();
+	}
+
+	/**
+	 * Reads a single afternoon from the directory.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readNarrowRange(Strategy strategy)
+			throws IOException {
+		return read(new WlkReader(new File(directory), new DateTime(2012, 8, 5,
+				14, 0), new DateTime(2012, 8, 5, 18, 0)), strategy);
+	}
+
+	/**
+	 * Reads all the files in the directory.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readDirectory(Strategy strategy)
+			throws IOException {
+		return read(new WlkReader(new File(directory)), strategy);
+	}
+
+	/**
+	 * Computes the highest outside temperature of all the files in the
+	 * directory with a visitor, without creating the records.
+	 */
+	@Benchmark
+	public short visitDirectory(Strategy strategy) throws IOException {
+		WlkReader wlkReader = new WlkReader(new File(directory));
+		wlkReader.setBufferStrategy(strategy.bufferStrategy);
+		return visitMaxOutTemp(wlkReader);
+	}
+
+	/**
+	 * Computes the same highest outside temperature as visitDirectory from
+	 * the compressed archive of the directory.
+	 */
+	@Benchmark
+	public short visitArchive() throws IOException {
+		return visitMaxOutTemp(new WlkReader(archiveFile));
+	}
+
+	private static short visitMaxOutTemp(WlkReader wlkReader)
+			throws IOException {
+		final short[] max = { Short.MIN_VALUE };
+		wlkReader.visit(new WlkRecordVisitor() {
+			@Override
+			public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+				return true;
+			}
+
+			@Override
+			public void onRecord(long epochMinute, RecordCursor recordCursor) {
+				if (recordCursor.getOutsideTemp() > max[0]) {
+					max[0] = recordCursor.getOutsideTemp();
+				}
+			}
+		});
+		return max[0];
+	}
+
+	/**
+	 * Aggregates all the records of the directory into hourly buckets.
+	 */
+	@Benchmark
+	public List<Bucket> downsampleDirectory(Strategy strategy)
+			throws IOException {
+		WlkReader wlkReader = new WlkReader(new File(directory));
+		wlkReader.setBufferStrategy(strategy.bufferStrategy);
+		return Downsampler.downsample(wlkReader, 60);
+	}
+
+	/**
+	 * Reads only the daily summaries of the directory. The summaries are
+	 * always read with positional reads, so the buffer strategy is not used.
+	 */
+	@Benchmark
+	public List<DailySummary> readSummariesDirectory() throws IOException {
+		return new WlkReader(new File(directory)).readSummaries();
+	}
+
+	/**
+	 * Builds the month summaries and the normals of the directory from its
+	 * daily summaries.
+	 */
+	@Benchmark
+	public MonthNormal climatologyDirectory() throws IOException {
+		return Climatology.of(new WlkReader(new File(directory))).getNormal(1);
+	}
+
+	/**
+	 * Computes the 95th percentile of the wind speed of a month by collecting
+	 * and sorting the decoded records.
+	 */
+	@Benchmark
+	public double percentileSorted() throws IOException {
+		double[] windSpeeds = new double[records];
+		int size = 0;
+		for (DailyWeatherData dailyWeatherData : new WlkReader(monthFile)
+				.readData()) {
+			for (data.WeatherDataRecord record : dailyWeatherData
+					.getWeatherDataRecords()) {
+				if (record.getWindSpeed() != null) {
+					windSpeeds[size++] = record.getWindSpeed();
+				}
+			}
+		}
+		Arrays.sort(windSpeeds, 0, size);
+		return windSpeeds[Math.max(0, (int) Math.ceil(0.95 * size) - 1)];
+	}
+
+	/**
+	 * Computes the 95th percentile of the wind speed of a month with a sketch
+	 * which is fed from the records.
+	 */
+	@Benchmark
+	public double percentileSketch() throws IOException {
+		WlkReader wlkReader = new WlkReader(monthFile);
+		return wlkReader.readSketches(EnumSet.of(WeatherField.WIND_SPEED))
+				.get(WeatherField.WIND_SPEED)
+				.getQuantile(0.95, new DataConverter(true));
+	}
+
+	/**
+	 * Computes the 95th percentile of the wind speed of a month with the
+	 * sketches of the side file, which is built on the first invocation.
+	 */
+	@Benchmark
+	public double percentileSketchFile() throws IOException {
+		WlkReader wlkReader = new WlkReader(sketchDirectory);
+		wlkReader.setSketchFiles(true);
+		return wlkReader.readSketches(EnumSet.of(WeatherField.WIND_SPEED))
+				.get(WeatherField.WIND_SPEED)
+				.getQuantile(0.95, new DataConverter(true));
+	}
+
+	/**
+	 * Merges the records of four stations, which all read the directory, in
+	 * chronological order.
+	 */
+	@Benchmark
+	public long streamMultiStation() throws IOException {
+		Map<String, File> directories = new LinkedHashMap<String, File>();
+		for (int i = 0; i < 4; i++) {
+			directories.put("station" + i, new File(directory));
+		}
+		try (Stream<StationWeatherDataRecord> records = new MultiStationReader(
+				directories).streamRecords()) {
+			return records.count();
+		}
+	}
+
+	/**
+	 * Reads the records with outside temperature above 30 degrees Celsius from
+	 * all the files in the directory. Days are pruned with the daily
+	 * summaries.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readDirectoryFiltered(Strategy strategy)
+			throws IOException {
+		WlkReader wlkReader = new WlkReader(new File(directory));
+		wlkReader.setFilter(RecordFilter.greaterThan(WeatherField.OUT_TEMP,
+				30));
+		return read(wlkReader, strategy);
+	}
+
+	/**
+	 * Reads the same records as readDirectoryFiltered from the archive of the
+	 * directory. Days are pruned with the index of the blocks.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readArchiveFiltered() throws IOException {
+		WlkReader wlkReader = new WlkReader(archiveFile);
+		wlkReader.setFilter(RecordFilter.greaterThan(WeatherField.OUT_TEMP,
+				30));
+		return wlkReader.readData();
+	}
+
+	/**
+	 * Reads the same records as readDirectoryFiltered, but selects and prunes
+	 * the days with the sidecar index, which is loaded on each read.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readDirectoryIndexed(Strategy strategy)
+			throws IOException {
+		WlkReader wlkReader = new WlkReader(new File(directory));
+		wlkReader.setIndexFile(indexFile);
+		wlkReader.setFilter(RecordFilter.greaterThan(WeatherField.OUT_TEMP,
+				30));
+		return read(wlkReader, strategy);
+	}
+
+	// Fields of the CSV export benchmarks.
+	private static final EnumSet<WeatherField> CSV_FIELDS = EnumSet.of(
+			WeatherField.OUT_TEMP, WeatherField.PRESSURE,
+			WeatherField.OUT_HUMIDITY, WeatherField.PRECIPITATION,
+			WeatherField.WIND_SPEED, WeatherField.WIND_DIRECTION);
+
+	/**
+	 * Writer which only counts the characters, so that the CSV benchmarks
+	 * measure the formatting and not the disk.
+	 */
+	private static class CountingWriter extends Writer {
+		private long count;
+
+		@Override
+		public void write(char[] chars, int offset, int length) {
+			count += length;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Exports the same columns as exportCsv in the way it is done without the
+	 * exporter, by reading all the objects and formatting each boxed getter
+	 * with String.valueOf.
+	 */
+	@Benchmark
+	public long exportCsvStringValueOf() throws IOException {
+		CountingWriter countingWriter = new CountingWriter();
+		try (BufferedWriter writer = new BufferedWriter(countingWriter)) {
+			for (DailyWeatherData dailyWeatherData : new WlkReader(new File(
+					directory)).readData()) {
+				for (data.WeatherDataRecord record : dailyWeatherData
+						.getWeatherDataRecords()) {
+					writer.write(String.valueOf(record.getDate()) + " "
+							+ record.getTime().toString("HH:mm"));
+					writer.write("," + String.valueOf(record.getOutTemp()));
+					writer.write("," + String.valueOf(record.getPressure()));
+					writer.write("," + String.valueOf(record.getOutHumidity()));
+					writer.write("," + String.valueOf(record.getPrecipitation()));
+					writer.write("," + String.valueOf(record.getWindSpeed()));
+					writer.write("," + String.valueOf(record.getWindDirection()));
+					writer.write("\n");
+				}
+			}
+		}
+		return countingWriter.count;
+	}
+
+	/**
+	 * Exports the records of the directory with the streaming exporter.
+	 */
+	@Benchmark
+	public long exportCsv() throws IOException {
+		CountingWriter countingWriter = new CountingWriter();
+		new CsvExporter(CSV_FIELDS).export(new WlkReader(new File(directory)),
+				countingWriter);
+		return countingWriter.count;
+	}
+
+	/**
+	 * Reads all the files in the directory through the month cache, which
+	 * after the first invocation holds all the months.
+	 */
+	@Benchmark
+	public List<DailyWeatherData> readDirectoryCached() throws IOException {
+		WlkReader wlkReader = new WlkReader(new File(directory));
+		wlkReader.setMonthCache(monthCache);
+		return wlkReader.readData();
+	}
+
+	/**
+	 * Copies the whole month into a byte array.
+	 */
+	@Benchmark
+	public byte[] getBytesFromFile() throws IOException {
+		return WlkReader.getBytesFromFile(monthFile);
+	}
+
+	/**
+	 * Decodes all the fields of each record in the month with the struct. Daily
+	 * summaries are decoded as records as well, which does not change the
+	 * amount of work.
+	 */
+	@Benchmark
+	public void decodeStruct(Blackhole blackhole) {
+		WeatherDataRecord record = new WeatherDataRecord();
+		for (int i = 0; i < records; i++) {
+			record.setByteBuffer(buffer, HEADER_SIZE + i * RECORD_SIZE);
+			blackhole.consume(record.dataType.get());
+			blackhole.consume(record.archiveInterval.get());
+			blackhole.consume(record.iconFlags.get());
+			blackhole.consume(record.packedTime.get());
+			blackhole.consume(record.outsideTemp.get());
+			blackhole.consume(record.hiOutsideTemp.get());
+			blackhole.consume(record.lowOutsideTemp.get());
+			blackhole.consume(record.insideTemp.get());
+			blackhole.consume(record.barometer.get());
+			blackhole.consume(record.outsideHum.get());
+			blackhole.consume(record.insideHum.get());
+			blackhole.consume(record.rain.get());
+			blackhole.consume(record.hiRainRate.get());
+			blackhole.consume(record.windSpeed.get());
+			blackhole.consume(record.hiWindSpeed.get());
+			blackhole.consume(record.windDirection.get());
+			blackhole.consume(record.hiWindDirection.get());
+			blackhole.consume(record.numWindSamples.get());
+			blackhole.consume(record.solarRad.get());
+			blackhole.consume(record.hiSolarRad.get());
+			blackhole.consume(record.UV.get());
+			blackhole.consume(record.hiUV.get());
+			blackhole.consume(record.extraRad.get());
+			blackhole.consume(record.forecast.get());
+			blackhole.consume(record.ET.get());
+		}
+	}
+
+	/**
+	 * Decodes the same fields as decodeStruct with the flyweight cursor.
+	 */
+	@Benchmark
+	public void decodeCursor(Blackhole blackhole) {
+		RecordCursor record = new RecordCursor(buffer, HEADER_SIZE);
+		for (int i = 0; i < records; i++, record.next()) {
+			blackhole.consume(record.getDataType());
+			blackhole.consume(record.getArchiveInterval());
+			blackhole.consume(record.getIconFlags());
+			blackhole.consume(record.getPackedTime());
+			blackhole.consume(record.getOutsideTemp());
+			blackhole.consume(record.getHiOutsideTemp());
+			blackhole.consume(record.getLowOutsideTemp());
+			blackhole.consume(record.getInsideTemp());
+			blackhole.consume(record.getBarometer());
+			blackhole.consume(record.getOutsideHum());
+			blackhole.consume(record.getInsideHum());
+			blackhole.consume(record.getRain());
+			blackhole.consume(record.getHiRainRate());
+			blackhole.consume(record.getWindSpeed());
+			blackhole.consume(record.getHiWindSpeed());
+			blackhole.consume(record.getWindDirection());
+			blackhole.consume(record.getHiWindDirection());
+			blackhole.consume(record.getNumWindSamples());
+			blackhole.consume(record.getSolarRad());
+			blackhole.consume(record.getHiSolarRad());
+			blackhole.consume(record.getUV());
+			blackhole.consume(record.getHiUV());
+			blackhole.consume(record.getExtraRad());
+			blackhole.consume(record.getForecast());
+			blackhole.consume(record.getET());
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package analysis;
+
+import org.joda.time.LocalDateTime;
+
+import data.WeatherDataColumns;
+
+/**
+ * Aggregated values of the weather data records inside a fixed time bucket.
+ * Temperatures, pressure, humidity and wind speed are averaged, rain and
+ * evapotranspiration are summed, gusts and rain rate are maximized and the
+ * wind direction is the direction of the mean unit vector. Values are kept in
+ * primitive accumulators. Values without any defined record are NaN.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class Bucket {
+	// Start of the bucket in minutes since 1970-01-01 00:00 and its length.
+	private final int epochMinute;
+	private final int minutes;
+
+	// Number of records in the bucket.
+	private int records;
+
+	// Sums and numbers of defined values for the means.
+	private double outTempSum, inTempSum, pressureSum, outHumiditySum,
+			windSpeedSum;
+	private int outTempCount, inTempCount, pressureCount, outHumidityCount,
+			windSpeedCount;
+
+	// Sums of the unit vectors of the wind direction.
+	private double windDirectionSin, windDirectionCos;
+	private int windDirectionCount;
+
+	private double precipitation = Double.NaN;
+	private double ET = Double.NaN;
+	private double maxOutTemp = Double.NaN;
+	private double minOutTemp = Double.NaN;
+	private double maxWindSpeed = Double.NaN;
+	private double maxPrecipitationRate = Double.NaN;
+
+	/**
+	 * Constructs an empty bucket.
+	 *
+	 * @param epochMinute
+	 *            start of the bucket in minutes since 1970-01-01 00:00
+	 * @param minutes
+	 *            length of the bucket in minutes
+	 */
+	Bucket(int epochMinute, int minutes) {
+		this.epochMinute = epochMinute;
+		this.minutes = minutes;
+	}
+
+	/**
+	 * Adds the converted values of a single record. Undefined values are NaN
+	 * and are skipped.
+	 */
+	void add(double outTemp, double maxOutTemp, double minOutTemp,
+			double inTemp, double pressure, double outHumidity,
+			double precipitation, double maxPrecipitationRate,
+			double windSpeed, double maxWindSpeed, double windDirection,
+			double ET) {
+		records++;
+		if (!Double.isNaN(outTemp)) {
+			outTempSum += outTemp;
+			outTempCount++;
+		}
+		if (!Double.isNaN(inTemp)) {
+			inTempSum += inTemp;
+			inTempCount++;
+		}
+		if (!Double.isNaN(pressure)) {
+			pressureSum += pressure;
+			pressureCount++;
+		}
+		if (!Double.isNaN(outHumidity)) {
+			outHumiditySum += outHumidity;
+			outHumidityCount++;
+		}
+		if (!Double.isNaN(windSpeed)) {
+			windSpeedSum += windSpeed;
+			windSpeedCount++;
+		}
+		if (!Double.isNaN(windDirection)) {
+			double radians = Math.toRadians(windDirection);
+			windDirectionSin += Math.sin(radians);
+			windDirectionCos += Math.cos(radians);
+			windDirectionCount++;
+		}
+		this.precipitation = sum(this.precipitation, precipitation);
+		this.ET = sum(this.ET, ET);
+		this.maxOutTemp = max(this.maxOutTemp, maxOutTemp);
+		this.minOutTemp = min(this.minOutTemp, minOutTemp);
+		this.maxWindSpeed = max(this.maxWindSpeed, maxWindSpeed);
+		this.maxPrecipitationRate = max(this.maxPrecipitationRate,
+				maxPrecipitationRate);
+	}
+
+	private static double sum(double sum, double value) {
+		if (Double.isNaN(value)) {
+			return sum;
+		}
+		return Double.isNaN(sum) ? value : sum + value;
+	}
+
+	private static double max(double max, double value) {
+		if (Double.isNaN(value)) {
+			return max;
+		}
+		return Double.isNaN(max) || value > max ? value : max;
+	}
+
+	private static double min(double min, double value) {
+		if (Double.isNaN(value)) {
+			return min;
+		}
+		return Double.isNaN(min) || value < min ? value : min;
+	}
+
+	private static double mean(double sum, int count) {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * @return the start of the bucket in minutes since 1970-01-01 00:00
+	 */
+	public int getEpochMinute() {
+		return epochMinute;
+	}
+
+	/**
+	 * @return the length of the bucket in minutes
+	 */
+	public int getMinutes() {
+		return minutes;
+	}
+
+	/**
+	 * @return the start of the bucket
+	 */
+	public LocalDateTime getStart() {
+		return WeatherDataColumns.toLocalDateTime(epochMinute);
+	}
+
+	/**
+	 * @return the end of the bucket, which is the time of its last record
+	 */
+	public LocalDateTime getEnd() {
+		return WeatherDataColumns.toLocalDateTime(epochMinute + minutes);
+	}
+
+	/**
+	 * @return the number of records in the bucket
+	 */
+	public int getRecords() {
+		return records;
+	}
+
+	/**
+	 * @return the mean outTemp
+	 */
+	public double getOutTemp() {
+		return mean(outTempSum, outTempCount);
+	}
+
+	/**
+	 * @return the maxOutTemp
+	 */
+	public double getMaxOutTemp() {
+		return maxOutTemp;
+	}
+
+	/**
+	 * @return the minOutTemp
+	 */
+	public double getMinOutTemp() {
+		return minOutTemp;
+	}
+
+	/**
+	 * @return the mean inTemp
+	 */
+	public double getInTemp() {
+		return mean(inTempSum, inTempCount);
+	}
+
+	/**
+	 * @return the mean pressure
+	 */
+	public double getPressure() {
+		return mean(pressureSum, pressureCount);
+	}
+
+	/**
+	 * @return the mean outHumidity
+	 */
+	public double getOutHumidity() {
+		return mean(outHumiditySum, outHumidityCount);
+	}
+
+	/**
+	 * @return the total precipitation
+	 */
+	public double getPrecipitation() {
+		return precipitation;
+	}
+
+	/**
+	 * @return the maxPrecipitationRate
+	 */
+	public double getMaxPrecipitationRate() {
+		return maxPrecipitationRate;
+	}
+
+	/**
+	 * @return the mean windSpeed
+	 */
+	public double getWindSpeed() {
+		return mean(windSpeedSum, windSpeedCount);
+	}
+
+	/**
+	 * @return the maxWindSpeed, which is the highest gust
+	 */
+	public double getMaxWindSpeed() {
+		return maxWindSpeed;
+	}
+
+	/**
+	 * Returns the direction of the mean unit vector of the wind directions in
+	 * degrees (0 to 360). The direction is NaN if no direction is defined or
+	 * if the directions cancel out.
+	 *
+	 * @return the mean windDirection
+	 */
+	public double getWindDirection() {
+		double length = Math.hypot(windDirectionSin, windDirectionCos);
+		if (windDirectionCount == 0 || length < 1e-9 * windDirectionCount) {
+			return Double.NaN;
+		}
+		double degrees = Math.toDegrees(Math.atan2(windDirectionSin,
+				windDirectionCos));
+		return degrees < 0 ? degrees + 360 : degrees;
+	}
+
+	/**
+	 * @return the total ET
+	 */
+	public double getET() {
+		return ET;
+	}
+}
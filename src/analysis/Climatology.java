@@ -0,0 +1,132 @@
+package analysis;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.joda.time.LocalDate;
+
+import reader.WlkReader;
+import data.DailySummary;
+
+/**
+ * Climatology of a station, built from the daily summaries of many years. The
+ * daily summaries are aggregated into a summary of each month of each year,
+ * from which the normals and records of each month of the year are computed
+ * on request. Daily summaries can be added in any order.
+ * <p>
+ * Only the daily summaries are needed, so the climatology of a whole archive
+ * is best built with {@link WlkReader#readSummaries()}, which never reads the
+ * weather data records. The summary fields OUT_TEMP, PRECIPITATION,
+ * WIND_SPEED and DEGREE_DAYS of the reader must be selected.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class Climatology {
+	// Summaries of the months by the first days of the months.
+	private final SortedMap<LocalDate, MonthSummary> months = new TreeMap<LocalDate, MonthSummary>();
+
+	// Minimal number of days of a month summary to be used in the normals.
+	private int minDays = 1;
+
+	/**
+	 * Builds the climatology of all the days of the reader inside its date
+	 * time range. Only the daily summaries are read.
+	 *
+	 * @param wlkReader
+	 * @return climatology of the reader
+	 */
+	public static Climatology of(WlkReader wlkReader) throws IOException,
+			ArithmeticException {
+		Climatology climatology = new Climatology();
+		for (DailySummary dailySummary : wlkReader.readSummaries()) {
+			climatology.add(dailySummary);
+		}
+		return climatology;
+	}
+
+	/**
+	 * @return the minimal number of days of a month summary to be used in the
+	 *         normals
+	 */
+	public int getMinDays() {
+		return minDays;
+	}
+
+	/**
+	 * Sets the minimal number of days of a month summary to be used in the
+	 * normals, so that incomplete months do not lower the normal totals.
+	 *
+	 * @param minDays
+	 *            the minDays to set
+	 */
+	public void setMinDays(int minDays) {
+		this.minDays = minDays;
+	}
+
+	/**
+	 * Adds the daily summary of a day to the summary of its month.
+	 *
+	 * @param dailySummary
+	 */
+	public void add(DailySummary dailySummary) {
+		LocalDate month = dailySummary.getDate().withDayOfMonth(1);
+		MonthSummary monthSummary = months.get(month);
+		if (monthSummary == null) {
+			monthSummary = new MonthSummary(month);
+			months.put(month, monthSummary);
+		}
+		monthSummary.add(dailySummary);
+	}
+
+	/**
+	 * @return the summaries of the months in chronological order
+	 */
+	public Collection<MonthSummary> getMonths() {
+		return Collections.unmodifiableCollection(months.values());
+	}
+
+	/**
+	 * Returns the summary of a month of a year.
+	 *
+	 * @param year
+	 * @param monthOfYear
+	 *            month of the year (1 to 12)
+	 * @return summary of the month or null if there is no day of the month
+	 */
+	public MonthSummary getMonth(int year, int monthOfYear) {
+		return months.get(new LocalDate(year, monthOfYear, 1));
+	}
+
+	/**
+	 * Computes the normals and records of a month of the year from the
+	 * summaries of the month with at least the minimal number of days.
+	 *
+	 * @param monthOfYear
+	 *            month of the year (1 to 12)
+	 * @return normals of the month or null if there is no such month summary
+	 */
+	public MonthNormal getNormal(int monthOfYear)
+			throws IllegalArgumentException {
+		if (monthOfYear < 1 || monthOfYear > 12) {
+			throw new IllegalArgumentException(
+					"Month of the year must be between 1 and 12!");
+		}
+		List<MonthSummary> monthSummaries = new ArrayList<MonthSummary>();
+		for (MonthSummary monthSummary : months.values()) {
+			if (monthSummary.getMonthOfYear() == monthOfYear
+					&& monthSummary.getDays() >= minDays) {
+				monthSummaries.add(monthSummary);
+			}
+		}
+		return monthSummaries.isEmpty() ? null : new MonthNormal(monthOfYear,
+				monthSummaries);
+	}
+}
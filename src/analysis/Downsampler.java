@@ -0,0 +1,208 @@
+package analysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+import reader.RecordCursor;
+import reader.SummaryCursor;
+import reader.WlkReader;
+import reader.WlkRecordVisitor;
+import data.DataConverter;
+import data.WeatherDataColumns;
+import data.WeatherDataRecord;
+import data.WeatherField;
+
+/**
+ * Streaming aggregation of weather data records into fixed time buckets. The
+ * records must be added in chronological order. Each bucket is passed to the
+ * consumer as soon as a record of a later bucket is added or the downsampler
+ * is flushed, so only the current bucket is held in memory.
+ * <p>
+ * Buckets are aligned to 1970-01-01 00:00, which means that buckets whose
+ * length divides a day start at midnight. The time of a record is the end of
+ * its archive interval, so a record belongs to the bucket in which its
+ * interval ends. Buckets without records are not passed.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class Downsampler {
+	// Properties
+	private final int minutes;
+	private final Consumer<Bucket> consumer;
+
+	// Bucket which is currently aggregated.
+	private Bucket bucket;
+
+	// Date of the last added record and its minutes since 1970-01-01 00:00
+	// at the start of the day.
+	private LocalDate date;
+	private long dayMinute;
+
+	/**
+	 * Constructor for setting the length of the buckets and the consumer of
+	 * the complete buckets.
+	 *
+	 * @param minutes
+	 *            length of the buckets in minutes
+	 * @param consumer
+	 */
+	public Downsampler(int minutes, Consumer<Bucket> consumer)
+			throws IllegalArgumentException {
+		if (minutes <= 0) {
+			throw new IllegalArgumentException(
+					"Length of the buckets must be positive!");
+		}
+		this.minutes = minutes;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Aggregates the records of the reader into buckets in a single pass.
+	 * The records are visited straight from the buffers of the files, so no
+	 * record objects are created.
+	 *
+	 * @param wlkReader
+	 * @param minutes
+	 *            length of the buckets in minutes
+	 * @return list of buckets in chronological order
+	 */
+	public static List<Bucket> downsample(WlkReader wlkReader, int minutes)
+			throws IOException, ArithmeticException {
+		List<Bucket> buckets = new ArrayList<Bucket>();
+		Downsampler downsampler = new Downsampler(minutes, buckets::add);
+		wlkReader.visit(downsampler.visitor(new DataConverter(wlkReader
+				.isUnit())));
+		downsampler.flush();
+		return buckets;
+	}
+
+	/**
+	 * @return the length of the buckets in minutes
+	 */
+	public int getMinutes() {
+		return minutes;
+	}
+
+	/**
+	 * Adds a decoded weather data record.
+	 *
+	 * @param record
+	 */
+	public void add(WeatherDataRecord record) throws IllegalArgumentException {
+		// Minutes at the start of the day are computed once for each date.
+		if (!record.getDate().equals(date)) {
+			date = record.getDate();
+			dayMinute = WeatherDataColumns.toEpochMinute(new LocalDateTime(
+					date.getYear(), date.getMonthOfYear(),
+					date.getDayOfMonth(), 0, 0));
+		}
+		long epochMinute = dayMinute + record.getTime().getMillisOfDay()
+				/ 60000;
+
+		getBucket(epochMinute).add(value(record.getOutTemp()),
+				value(record.getMaxOutTemp()), value(record.getMinOutTemp()),
+				value(record.getInTemp()), value(record.getPressure()),
+				value(record.getOutHumidity()),
+				value(record.getPrecipitation()),
+				value(record.getMaxPrecipitationRate()),
+				value(record.getWindSpeed()), value(record.getMaxWindSpeed()),
+				value(record.getWindDirection()), value(record.getET()));
+	}
+
+	/**
+	 * Returns a visitor which adds the records of a reader straight from the
+	 * buffers of the files. Only the aggregated values are converted.
+	 *
+	 * @param dataConverter
+	 *            converter with the units of the reader
+	 * @return visitor of the records
+	 */
+	public WlkRecordVisitor visitor(final DataConverter dataConverter) {
+		return new WlkRecordVisitor() {
+			@Override
+			public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+				return true;
+			}
+
+			@Override
+			public void onRecord(long epochMinute, RecordCursor recordCursor) {
+				ByteBuffer buffer = recordCursor.getBuffer();
+				int position = recordCursor.getPosition();
+				getBucket(epochMinute).add(
+						WeatherField.OUT_TEMP.getValue(buffer, position, 0,
+								dataConverter),
+						WeatherField.MAX_OUT_TEMP.getValue(buffer, position,
+								0, dataConverter),
+						WeatherField.MIN_OUT_TEMP.getValue(buffer, position,
+								0, dataConverter),
+						WeatherField.IN_TEMP.getValue(buffer, position, 0,
+								dataConverter),
+						WeatherField.PRESSURE.getValue(buffer, position, 0,
+								dataConverter),
+						WeatherField.OUT_HUMIDITY.getValue(buffer, position,
+								0, dataConverter),
+						WeatherField.PRECIPITATION.getValue(buffer, position,
+								0, dataConverter),
+						WeatherField.MAX_PRECIPITATION_RATE.getValue(buffer,
+								position, 0, dataConverter),
+						WeatherField.WIND_SPEED.getValue(buffer, position, 0,
+								dataConverter),
+						WeatherField.MAX_WIND_SPEED.getValue(buffer,
+								position, 0, dataConverter),
+						WeatherField.WIND_DIRECTION.getValue(buffer,
+								position, 0, dataConverter),
+						WeatherField.ET.getValue(buffer, position, 0,
+								dataConverter));
+			}
+		};
+	}
+
+	/**
+	 * Passes the current bucket to the consumer. It should be called after
+	 * the last record is added.
+	 */
+	public void flush() {
+		if (bucket != null) {
+			consumer.accept(bucket);
+			bucket = null;
+		}
+	}
+
+	/**
+	 * Returns the bucket of the record. If the record belongs to a later
+	 * bucket, then the current bucket is passed to the consumer first.
+	 *
+	 * @param epochMinute
+	 *            time of the record in minutes since 1970-01-01 00:00
+	 * @return bucket of the record
+	 */
+	private Bucket getBucket(long epochMinute) throws IllegalArgumentException {
+		long start = Math.floorDiv(epochMinute - 1, minutes) * minutes;
+		if (bucket == null || start != bucket.getEpochMinute()) {
+			if (bucket != null && start < bucket.getEpochMinute()) {
+				throw new IllegalArgumentException(
+						"Records must be added in chronological order!");
+			}
+			flush();
+			bucket = new Bucket((int) start, minutes);
+		}
+		return bucket;
+	}
+
+	private static double value(Double value) {
+		return value == null ? Double.NaN : value;
+	}
+
+	private static double value(Integer value) {
+		return value == null ? Double.NaN : value;
+	}
+}
@@ -0,0 +1,237 @@
+package analysis;
+
+import java.util.List;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Normals of a month of the year across many years. The normals are the
+ * means of the values of the month summaries of the individual years and the
+ * records are the extremes of all the years with the dates of the days on
+ * which they were recorded. Values without any defined month are NaN and
+ * their dates are null.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class MonthNormal {
+	// Month of the year (1 to 12) and the number of years in the normals.
+	private final int monthOfYear;
+	private final int years;
+
+	// Means of the values of the years.
+	private final double avgOutTemp;
+	private final double meanMaxOutTemp;
+	private final double meanMinOutTemp;
+	private final double precipitation;
+	private final double rainDays;
+	private final double heatingDegreeDays;
+	private final double coolingDegreeDays;
+
+	// Records and the dates of the days with the records.
+	private double maxOutTemp = Double.NaN;
+	private LocalDate dateMaxOutTemp;
+	private double minOutTemp = Double.NaN;
+	private LocalDate dateMinOutTemp;
+	private double maxDailyRain = Double.NaN;
+	private LocalDate dateMaxDailyRain;
+	private double maxWindSpeed = Double.NaN;
+	private LocalDate dateMaxWindSpeed;
+
+	/**
+	 * Computes the normals from the month summaries of the years.
+	 *
+	 * @param monthOfYear
+	 * @param monthSummaries
+	 *            summaries of the month of the year, one for each year
+	 */
+	MonthNormal(int monthOfYear, List<MonthSummary> monthSummaries) {
+		this.monthOfYear = monthOfYear;
+		this.years = monthSummaries.size();
+
+		double[] avgOutTemps = new double[years];
+		double[] meanMaxOutTemps = new double[years];
+		double[] meanMinOutTemps = new double[years];
+		double[] precipitations = new double[years];
+		double[] rainDays = new double[years];
+		double[] heatingDegreeDays = new double[years];
+		double[] coolingDegreeDays = new double[years];
+		for (int i = 0; i < years; i++) {
+			MonthSummary monthSummary = monthSummaries.get(i);
+			avgOutTemps[i] = monthSummary.getAvgOutTemp();
+			meanMaxOutTemps[i] = monthSummary.getMeanMaxOutTemp();
+			meanMinOutTemps[i] = monthSummary.getMeanMinOutTemp();
+			precipitations[i] = monthSummary.getPrecipitation();
+			rainDays[i] = Double.isNaN(precipitations[i]) ? Double.NaN
+					: monthSummary.getRainDays();
+			heatingDegreeDays[i] = monthSummary.getHeatingDegreeDays();
+			coolingDegreeDays[i] = monthSummary.getCoolingDegreeDays();
+
+			if (monthSummary.getMaxOutTemp() > maxOutTemp
+					|| Double.isNaN(maxOutTemp)) {
+				maxOutTemp = monthSummary.getMaxOutTemp();
+				dateMaxOutTemp = monthSummary.getDateMaxOutTemp();
+			}
+			if (monthSummary.getMinOutTemp() < minOutTemp
+					|| Double.isNaN(minOutTemp)) {
+				minOutTemp = monthSummary.getMinOutTemp();
+				dateMinOutTemp = monthSummary.getDateMinOutTemp();
+			}
+			if (monthSummary.getMaxDailyRain() > maxDailyRain
+					|| Double.isNaN(maxDailyRain)) {
+				maxDailyRain = monthSummary.getMaxDailyRain();
+				dateMaxDailyRain = monthSummary.getDateMaxDailyRain();
+			}
+			if (monthSummary.getMaxWindSpeed() > maxWindSpeed
+					|| Double.isNaN(maxWindSpeed)) {
+				maxWindSpeed = monthSummary.getMaxWindSpeed();
+				dateMaxWindSpeed = monthSummary.getDateMaxWindSpeed();
+			}
+		}
+		this.avgOutTemp = mean(avgOutTemps);
+		this.meanMaxOutTemp = mean(meanMaxOutTemps);
+		this.meanMinOutTemp = mean(meanMinOutTemps);
+		this.precipitation = mean(precipitations);
+		this.rainDays = mean(rainDays);
+		this.heatingDegreeDays = mean(heatingDegreeDays);
+		this.coolingDegreeDays = mean(coolingDegreeDays);
+	}
+
+	/**
+	 * Returns the mean of the defined values.
+	 *
+	 * @param values
+	 * @return mean or NaN if no value is defined
+	 */
+	private static double mean(double[] values) {
+		double sum = 0;
+		int count = 0;
+		for (double value : values) {
+			if (!Double.isNaN(value)) {
+				sum += value;
+				count++;
+			}
+		}
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * @return the month of the year (1 to 12)
+	 */
+	public int getMonthOfYear() {
+		return monthOfYear;
+	}
+
+	/**
+	 * @return the number of years in the normals
+	 */
+	public int getYears() {
+		return years;
+	}
+
+	/**
+	 * @return the normal avgOutTemp
+	 */
+	public double getAvgOutTemp() {
+		return avgOutTemp;
+	}
+
+	/**
+	 * @return the normal of the mean daily maxOutTemp
+	 */
+	public double getMeanMaxOutTemp() {
+		return meanMaxOutTemp;
+	}
+
+	/**
+	 * @return the normal of the mean daily minOutTemp
+	 */
+	public double getMeanMinOutTemp() {
+		return meanMinOutTemp;
+	}
+
+	/**
+	 * @return the normal total precipitation
+	 */
+	public double getPrecipitation() {
+		return precipitation;
+	}
+
+	/**
+	 * @return the normal number of days with rain
+	 */
+	public double getRainDays() {
+		return rainDays;
+	}
+
+	/**
+	 * @return the normal total heating degree days
+	 */
+	public double getHeatingDegreeDays() {
+		return heatingDegreeDays;
+	}
+
+	/**
+	 * @return the normal total cooling degree days
+	 */
+	public double getCoolingDegreeDays() {
+		return coolingDegreeDays;
+	}
+
+	/**
+	 * @return the record maxOutTemp
+	 */
+	public double getMaxOutTemp() {
+		return maxOutTemp;
+	}
+
+	/**
+	 * @return the date of the record maxOutTemp
+	 */
+	public LocalDate getDateMaxOutTemp() {
+		return dateMaxOutTemp;
+	}
+
+	/**
+	 * @return the record minOutTemp
+	 */
+	public double getMinOutTemp() {
+		return minOutTemp;
+	}
+
+	/**
+	 * @return the date of the record minOutTemp
+	 */
+	public LocalDate getDateMinOutTemp() {
+		return dateMinOutTemp;
+	}
+
+	/**
+	 * @return the record maxDailyRain
+	 */
+	public double getMaxDailyRain() {
+		return maxDailyRain;
+	}
+
+	/**
+	 * @return the date of the record maxDailyRain
+	 */
+	public LocalDate getDateMaxDailyRain() {
+		return dateMaxDailyRain;
+	}
+
+	/**
+	 * @return the record maxWindSpeed
+	 */
+	public double getMaxWindSpeed() {
+		return maxWindSpeed;
+	}
+
+	/**
+	 * @return the date of the record maxWindSpeed
+	 */
+	public LocalDate getDateMaxWindSpeed() {
+		return dateMaxWindSpeed;
+	}
+}
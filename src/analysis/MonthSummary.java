@@ -0,0 +1,258 @@
+package analysis;
+
+import org.joda.time.LocalDate;
+
+import data.DailySummary;
+
+/**
+ * Summary of a single month of a single year, aggregated from the daily
+ * summaries of its days. Daily temperatures are averaged, rain and degree days
+ * are summed and the extremes are kept with the dates of the days on which
+ * they were recorded. Values without any defined day are NaN and their dates
+ * are null.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class MonthSummary {
+	// First day of the month.
+	private final LocalDate month;
+
+	// Number of days in the summary.
+	private int days;
+
+	// Sums and numbers of defined values for the means.
+	private double avgOutTempSum, maxOutTempSum, minOutTempSum;
+	private int avgOutTempCount, maxOutTempCount, minOutTempCount;
+
+	private double precipitation = Double.NaN;
+	private double heatingDegreeDays = Double.NaN;
+	private double coolingDegreeDays = Double.NaN;
+
+	// Number of days with rain.
+	private int rainDays;
+
+	// Extremes and the dates of the days with the extremes.
+	private double maxOutTemp = Double.NaN;
+	private LocalDate dateMaxOutTemp;
+	private double minOutTemp = Double.NaN;
+	private LocalDate dateMinOutTemp;
+	private double maxDailyRain = Double.NaN;
+	private LocalDate dateMaxDailyRain;
+	private double maxWindSpeed = Double.NaN;
+	private LocalDate dateMaxWindSpeed;
+
+	/**
+	 * Constructs an empty summary.
+	 *
+	 * @param month
+	 *            first day of the month
+	 */
+	MonthSummary(LocalDate month) {
+		this.month = month;
+	}
+
+	/**
+	 * Adds the daily summary of a day of the month. Undefined values are
+	 * skipped.
+	 *
+	 * @param dailySummary
+	 */
+	void add(DailySummary dailySummary) {
+		days++;
+		LocalDate date = dailySummary.getDate();
+
+		Double avgOutTemp = dailySummary.getAvgOutTemp();
+		if (avgOutTemp != null) {
+			avgOutTempSum += avgOutTemp;
+			avgOutTempCount++;
+		}
+		Double maxOutTemp = dailySummary.getMaxOutTemp();
+		if (maxOutTemp != null) {
+			maxOutTempSum += maxOutTemp;
+			maxOutTempCount++;
+			if (Double.isNaN(this.maxOutTemp) || maxOutTemp > this.maxOutTemp) {
+				this.maxOutTemp = maxOutTemp;
+				this.dateMaxOutTemp = date;
+			}
+		}
+		Double minOutTemp = dailySummary.getMinOutTemp();
+		if (minOutTemp != null) {
+			minOutTempSum += minOutTemp;
+			minOutTempCount++;
+			if (Double.isNaN(this.minOutTemp) || minOutTemp < this.minOutTemp) {
+				this.minOutTemp = minOutTemp;
+				this.dateMinOutTemp = date;
+			}
+		}
+
+		Double dailyRain = dailySummary.getDailyRain();
+		if (dailyRain != null) {
+			precipitation = Double.isNaN(precipitation) ? dailyRain
+					: precipitation + dailyRain;
+			if (dailyRain > 0) {
+				rainDays++;
+			}
+			if (Double.isNaN(maxDailyRain) || dailyRain > maxDailyRain) {
+				maxDailyRain = dailyRain;
+				dateMaxDailyRain = date;
+			}
+		}
+
+		Double heatDD = dailySummary.getIntegratedHeatDD65();
+		if (heatDD != null) {
+			heatingDegreeDays = Double.isNaN(heatingDegreeDays) ? heatDD
+					: heatingDegreeDays + heatDD;
+		}
+		Double coolDD = dailySummary.getIntegratedCoolDD65();
+		if (coolDD != null) {
+			coolingDegreeDays = Double.isNaN(coolingDegreeDays) ? coolDD
+					: coolingDegreeDays + coolDD;
+		}
+
+		Double maxWindSpeed = dailySummary.getMaxWindSpeed();
+		if (maxWindSpeed != null
+				&& (Double.isNaN(this.maxWindSpeed) || maxWindSpeed > this.maxWindSpeed)) {
+			this.maxWindSpeed = maxWindSpeed;
+			this.dateMaxWindSpeed = date;
+		}
+	}
+
+	private static double mean(double sum, int count) {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * @return the first day of the month
+	 */
+	public LocalDate getMonth() {
+		return month;
+	}
+
+	/**
+	 * @return the year of the month
+	 */
+	public int getYear() {
+		return month.getYear();
+	}
+
+	/**
+	 * @return the month of the year (1 to 12)
+	 */
+	public int getMonthOfYear() {
+		return month.getMonthOfYear();
+	}
+
+	/**
+	 * @return the number of days in the summary
+	 */
+	public int getDays() {
+		return days;
+	}
+
+	/**
+	 * @return the mean of the daily avgOutTemp
+	 */
+	public double getAvgOutTemp() {
+		return mean(avgOutTempSum, avgOutTempCount);
+	}
+
+	/**
+	 * @return the mean of the daily maxOutTemp
+	 */
+	public double getMeanMaxOutTemp() {
+		return mean(maxOutTempSum, maxOutTempCount);
+	}
+
+	/**
+	 * @return the mean of the daily minOutTemp
+	 */
+	public double getMeanMinOutTemp() {
+		return mean(minOutTempSum, minOutTempCount);
+	}
+
+	/**
+	 * @return the maxOutTemp of the month
+	 */
+	public double getMaxOutTemp() {
+		return maxOutTemp;
+	}
+
+	/**
+	 * @return the date of the maxOutTemp
+	 */
+	public LocalDate getDateMaxOutTemp() {
+		return dateMaxOutTemp;
+	}
+
+	/**
+	 * @return the minOutTemp of the month
+	 */
+	public double getMinOutTemp() {
+		return minOutTemp;
+	}
+
+	/**
+	 * @return the date of the minOutTemp
+	 */
+	public LocalDate getDateMinOutTemp() {
+		return dateMinOutTemp;
+	}
+
+	/**
+	 * @return the total precipitation
+	 */
+	public double getPrecipitation() {
+		return precipitation;
+	}
+
+	/**
+	 * @return the number of days with rain
+	 */
+	public int getRainDays() {
+		return rainDays;
+	}
+
+	/**
+	 * @return the maxDailyRain
+	 */
+	public double getMaxDailyRain() {
+		return maxDailyRain;
+	}
+
+	/**
+	 * @return the date of the maxDailyRain
+	 */
+	public LocalDate getDateMaxDailyRain() {
+		return dateMaxDailyRain;
+	}
+
+	/**
+	 * @return the total heating degree days
+	 */
+	public double getHeatingDegreeDays() {
+		return heatingDegreeDays;
+	}
+
+	/**
+	 * @return the total cooling degree days
+	 */
+	public double getCoolingDegreeDays() {
+		return coolingDegreeDays;
+	}
+
+	/**
+	 * @return the maxWindSpeed of the month
+	 */
+	public double getMaxWindSpeed() {
+		return maxWindSpeed;
+	}
+
+	/**
+	 * @return the date of the maxWindSpeed
+	 */
+	public LocalDate getDateMaxWindSpeed() {
+		return dateMaxWindSpeed;
+	}
+}
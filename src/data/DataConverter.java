@@ -12,6 +12,7 @@ import javax.measure.quantity.Temperature;
 import javax.measure.quantity.Velocity;
 import javax.measure.unit.NonSI;
 import javax.measure.unit.SI;
+import javax.measure.converter.UnitConverter;
 import javax.measure.unit.Unit;
 
 /**
@@ -41,6 +42,25 @@ public class DataConverter {
 	static Unit<Length> KILOMETER = SI.KILOMETER;
 	static Unit<Length> MILE_DECI = SI.DECI(NonSI.MILE);
 
+	// Converters are created once, because getConverterTo builds the chain
+	// of converters on each call.
+	static final UnitConverter PRESSURE_CONVERTER = INCH_OF_MERCURY_MILI
+			.getConverterTo(HECTO_PASCAL);
+	static final UnitConverter WIND_RUN_CONVERTER = MILE_DECI
+			.getConverterTo(KILOMETER);
+	static final UnitConverter PRECIPITATION_CONVERTER = INCH_MILI
+			.getConverterTo(MILIMETER);
+	static final UnitConverter TEMPERATURE_CONVERTER = FAHRENHEIT_DECI
+			.getConverterTo(CELSIUS);
+	static final UnitConverter WIND_SPEED_CONVERTER = MPH_DECI
+			.getConverterTo(MPS);
+
+	// Number of values in the 16-bit raw domain.
+	static final int TABLE_SIZE = 1 << 16;
+
+	// Precomputed values for the selected unit conversion.
+	private final ConversionTables tables;
+
 	/**
 	 * Constructor.
 	 * 
@@ -48,6 +68,34 @@ public class DataConverter {
 	 */
 	public DataConverter(boolean unit) {
 		this.unit = unit;
+		this.tables = unit ? MetricTables.TABLES : ImperialTables.TABLES;
+	}
+
+	/**
+	 * @return whether values are converted to metric units
+	 */
+	public boolean isUnit() {
+		return unit;
+	}
+
+	/**
+	 * Returns the index of the raw value in the conversion tables.
+	 * 
+	 * @param value
+	 * @return index in the tables
+	 */
+	static int index(short value) {
+		return value - Short.MIN_VALUE;
+	}
+
+	/**
+	 * Returns the converted value or null if the value is undefined (NaN).
+	 * 
+	 * @param converted
+	 * @return converted value
+	 */
+	private static Double box(double converted) {
+		return Double.isNaN(converted) ? null : converted;
 	}
 
 	/**
@@ -59,20 +107,7 @@ public class DataConverter {
 	 * @return converted pressure
 	 */
 	public Double convertPressure(Short pressure) {
-		if (pressure == Short.MIN_VALUE) {
-			return null;
-		} else {
-			// Is unit conversion enabled?
-			if (this.unit) {
-				// Conversion from imperial unit (inch of mercury mili) to
-				// metric units (hecto pascal).
-				return INCH_OF_MERCURY_MILI.getConverterTo(HECTO_PASCAL)
-						.convert(pressure);
-			} else {
-				// Only division with 1e3.
-				return (double) (pressure / 1e3);
-			}
-		}
+		return box(convertPressureValue(pressure));
 	}
 
 	/**
@@ -84,19 +119,7 @@ public class DataConverter {
 	 * @return converted windrun
 	 */
 	public Double convertWindRun(Short windRun) {
-		if (windRun == Short.MIN_VALUE) {
-			return null;
-		} else {
-			// Is unit conversion enabled?
-			if (this.unit) {
-				// Conversion from imperial unit (deci mile) to metric units
-				// (kilometer).
-				return MILE_DECI.getConverterTo(KILOMETER).convert(windRun);
-			} else {
-				// Only division with 1e1.
-				return (double) (windRun / 1e1);
-			}
-		}
+		return box(convertWindRunValue(windRun));
 	}
 
 	/**
@@ -106,19 +129,7 @@ public class DataConverter {
 	 * @return converted precipitation
 	 */
 	public Double convertPrecipitation(Short precipitation) {
-		if (precipitation == Short.MIN_VALUE) {
-			return null;
-		} else {
-			// Is unit conversion enabled?
-			if (this.unit) {
-				// Conversion from imperial unit (inch) to metric units (mm).
-				return INCH_MILI.getConverterTo(MILIMETER).convert(
-						precipitation);
-			} else {
-				// Only division with 1e3.
-				return (double) (precipitation / 1e3);
-			}
-		}
+		return box(convertPrecipitationValue(precipitation));
 	}
 
 	/**
@@ -128,20 +139,7 @@ public class DataConverter {
 	 * @return converted temperature
 	 */
 	public Double convertTemperature(Short temperature) {
-		if (temperature == Short.MIN_VALUE) {
-			return null;
-		} else {
-			// Is unit conversion enabled?
-			if (this.unit) {
-				// Conversion from imperial unit (fahrenheti deci) to metric
-				// units (celsius).
-				return FAHRENHEIT_DECI.getConverterTo(CELSIUS).convert(
-						temperature);
-			} else {
-				// Only division with 1e1.
-				return (double) (temperature / 1e1);
-			}
-		}
+		return box(convertTemperatureValue(temperature));
 	}
 
 	/**
@@ -152,14 +150,8 @@ public class DataConverter {
 	 * @return converted humidity
 	 */
 	public Integer convertHumidity(Short humidity) {
-		if (humidity == Short.MIN_VALUE) {
-			return null;
-		} else {
-			// Round to nearest integer.
-			BigDecimal roundedHumidity = new BigDecimal((double) humidity / 10);
-			roundedHumidity = roundedHumidity.setScale(0, RoundingMode.HALF_UP);
-			return roundedHumidity.intValue();
-		}
+		double converted = convertHumidityValue(humidity);
+		return Double.isNaN(converted) ? null : (int) converted;
 	}
 
 	/**
@@ -169,19 +161,7 @@ public class DataConverter {
 	 * @return converted wind speed
 	 */
 	public Double convertWindSpeed(Short windSpeed) {
-		if (windSpeed == Short.MIN_VALUE) {
-			return null;
-		} else {
-			// Is unit conversion enabled?
-			if (this.unit) {
-				// Conversion from imperial unit (mph deci) to metric units
-				// (m/s).
-				return MPH_DECI.getConverterTo(MPS).convert(windSpeed);
-			} else {
-				// Only division with 1e1.
-				return (double) (windSpeed / 1e1);
-			}
-		}
+		return box(convertWindSpeedValue(windSpeed));
 	}
 
 	/**
@@ -191,10 +171,240 @@ public class DataConverter {
 	 * @return converted wind direction
 	 */
 	public Double convertWindDirection(Short windDirection) {
+		return box(convertWindDirectionValue(windDirection));
+	}
+
+	/**
+	 * Conversion from tenths of an UV index to UV index.
+	 * 
+	 * @param UV
+	 * @return converted UV index
+	 */
+	public Double convertUV(Short UV) {
+		return box(convertUVValue(UV));
+	}
+
+	/**
+	 * Conversion from Ly (Langley) to J/m^2.
+	 * 
+	 * @param solarEnergy
+	 * @return converted solar energy
+	 */
+	public Double convertSolarEnergy(Short solarEnergy) {
+		return box(convertSolarEnergyValue(solarEnergy));
+	}
+
+	/**
+	 * Conversion of degree days from tenths of fahrenheit degree days to
+	 * celsius degree days. Degree days are a temperature difference, so only
+	 * the scale is converted.
+	 * 
+	 * @param degreeDays
+	 * @return converted degree days
+	 */
+	public Double convertDegreeDays(Short degreeDays) {
+		return box(convertDegreeDaysValue(degreeDays));
+	}
+
+	/**
+	 * Converts pressure in the same way as convertPressure, but without boxing.
+	 * 
+	 * @param pressure
+	 * @return converted pressure or NaN if the value is undefined
+	 */
+	public double convertPressureValue(short pressure) {
+		return tables.pressure[index(pressure)];
+	}
+
+	/**
+	 * Converts an array of pressure values in one call. Undefined values are
+	 * converted to NaN.
+	 * 
+	 * @param pressures
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertPressure(short[] pressures, double[] converted) {
+		if (converted == null) {
+			converted = new double[pressures.length];
+		}
+		for (int i = 0; i < pressures.length; i++) {
+			converted[i] = tables.pressure[index(pressures[i])];
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts wind run in the same way as convertWindRun, but without boxing.
+	 * 
+	 * @param windRun
+	 * @return converted wind run or NaN if the value is undefined
+	 */
+	public double convertWindRunValue(short windRun) {
+		return tables.windRun[index(windRun)];
+	}
+
+	/**
+	 * Converts an array of wind run values in one call. Undefined values are
+	 * converted to NaN.
+	 * 
+	 * @param windRuns
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertWindRun(short[] windRuns, double[] converted) {
+		if (converted == null) {
+			converted = new double[windRuns.length];
+		}
+		for (int i = 0; i < windRuns.length; i++) {
+			converted[i] = tables.windRun[index(windRuns[i])];
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts precipitation in the same way as convertPrecipitation, but
+	 * without boxing.
+	 * 
+	 * @param precipitation
+	 * @return converted precipitation or NaN if the value is undefined
+	 */
+	public double convertPrecipitationValue(short precipitation) {
+		return tables.precipitation[index(precipitation)];
+	}
+
+	/**
+	 * Converts an array of precipitation values in one call. Undefined values
+	 * are converted to NaN.
+	 * 
+	 * @param precipitations
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertPrecipitation(short[] precipitations,
+			double[] converted) {
+		if (converted == null) {
+			converted = new double[precipitations.length];
+		}
+		for (int i = 0; i < precipitations.length; i++) {
+			converted[i] = tables.precipitation[index(precipitations[i])];
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts temperature in the same way as convertTemperature, but without
+	 * boxing.
+	 * 
+	 * @param temperature
+	 * @return converted temperature or NaN if the value is undefined
+	 */
+	public double convertTemperatureValue(short temperature) {
+		return tables.temperature[index(temperature)];
+	}
+
+	/**
+	 * Converts an array of temperature values in one call. Undefined values are
+	 * converted to NaN.
+	 * 
+	 * @param temperatures
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertTemperature(short[] temperatures,
+			double[] converted) {
+		if (converted == null) {
+			converted = new double[temperatures.length];
+		}
+		for (int i = 0; i < temperatures.length; i++) {
+			converted[i] = tables.temperature[index(temperatures[i])];
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts humidity in the same way as convertHumidity, but without boxing.
+	 * The value is rounded to the nearest integer.
+	 * 
+	 * @param humidity
+	 * @return converted humidity or NaN if the value is undefined
+	 */
+	public double convertHumidityValue(short humidity) {
+		return tables.humidity[index(humidity)];
+	}
+
+	/**
+	 * Converts an array of humidity values in one call. Undefined values are
+	 * converted to NaN.
+	 * 
+	 * @param humidities
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertHumidity(short[] humidities, double[] converted) {
+		if (converted == null) {
+			converted = new double[humidities.length];
+		}
+		for (int i = 0; i < humidities.length; i++) {
+			converted[i] = tables.humidity[index(humidities[i])];
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts wind speed in the same way as convertWindSpeed, but without
+	 * boxing.
+	 * 
+	 * @param windSpeed
+	 * @return converted wind speed or NaN if the value is undefined
+	 */
+	public double convertWindSpeedValue(short windSpeed) {
+		return tables.windSpeed[index(windSpeed)];
+	}
+
+	/**
+	 * Converts an array of wind speed values in one call. Undefined values are
+	 * converted to NaN.
+	 * 
+	 * @param windSpeeds
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertWindSpeed(short[] windSpeeds, double[] converted) {
+		if (converted == null) {
+			converted = new double[windSpeeds.length];
+		}
+		for (int i = 0; i < windSpeeds.length; i++) {
+			converted[i] = tables.windSpeed[index(windSpeeds[i])];
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts wind direction in the same way as convertWindDirection, but
+	 * without boxing.
+	 * 
+	 * @param windDirection
+	 * @return converted wind direction or NaN if the value is undefined
+	 */
+	public double convertWindDirectionValue(short windDirection) {
 		// If wind direction is 255 then it means that the wind
-		// speed was 0 and direction is undefined.
-		if (windDirection == 255) {
-			return null;
+		// speed was 0 and direction is undefined. The raw byte is sign
+		// extended, so 255 is also read as -1.
+		if ((windDirection & 0xFF) == 255) {
+			return Double.NaN;
 		} else {
 			// Wind direction code multiplied by 22.5.
 			return windDirection * 22.5;
@@ -202,14 +412,35 @@ public class DataConverter {
 	}
 
 	/**
-	 * Conversion from tenths of an UV index to UV index.
+	 * Converts an array of wind direction values in one call. Undefined values
+	 * are converted to NaN.
+	 * 
+	 * @param windDirections
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertWindDirection(short[] windDirections,
+			double[] converted) {
+		if (converted == null) {
+			converted = new double[windDirections.length];
+		}
+		for (int i = 0; i < windDirections.length; i++) {
+			converted[i] = convertWindDirectionValue(windDirections[i]);
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts UV index in the same way as convertUV, but without boxing.
 	 * 
 	 * @param UV
-	 * @return converted UV index
+	 * @return converted UV index or NaN if the value is undefined
 	 */
-	public Double convertUV(Short UV) {
+	public double convertUVValue(short UV) {
 		if (UV == Short.MIN_VALUE) {
-			return null;
+			return Double.NaN;
 		} else {
 			// No conversion only division.
 			return UV / 1e1;
@@ -217,14 +448,35 @@ public class DataConverter {
 	}
 
 	/**
-	 * Conversion from Ly (Langley) to J/m^2.
+	 * Converts an array of UV index values in one call. Undefined values are
+	 * converted to NaN.
+	 * 
+	 * @param UVs
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertUV(short[] UVs, double[] converted) {
+		if (converted == null) {
+			converted = new double[UVs.length];
+		}
+		for (int i = 0; i < UVs.length; i++) {
+			converted[i] = convertUVValue(UVs[i]);
+		}
+		return converted;
+	}
+
+	/**
+	 * Converts solar energy in the same way as convertSolarEnergy, but without
+	 * boxing.
 	 * 
 	 * @param solarEnergy
-	 * @return converted solar energy
+	 * @return converted solar energy or NaN if the value is undefined
 	 */
-	public Double convertSolarEnergy(Short solarEnergy) {
+	public double convertSolarEnergyValue(short solarEnergy) {
 		if (solarEnergy == Short.MIN_VALUE) {
-			return null;
+			return Double.NaN;
 		} else {
 			// Is unit conversion enabled?
 			if (this.unit) {
@@ -236,4 +488,119 @@ public class DataConverter {
 			}
 		}
 	}
+
+	/**
+	 * Converts degree days in the same way as convertDegreeDays, but without
+	 * boxing.
+	 * 
+	 * @param degreeDays
+	 * @return converted degree days or NaN if the value is undefined
+	 */
+	public double convertDegreeDaysValue(short degreeDays) {
+		if (degreeDays == Short.MIN_VALUE) {
+			return Double.NaN;
+		} else {
+			// Is unit conversion enabled?
+			if (this.unit) {
+				// Difference of 1 F equals difference of 5/9 C.
+				return degreeDays / 1e1 * 5 / 9;
+			} else {
+				// Only division with 1e1.
+				return degreeDays / 1e1;
+			}
+		}
+	}
+
+	/**
+	 * Converts an array of solar energy values in one call. Undefined values
+	 * are converted to NaN.
+	 * 
+	 * @param solarEnergies
+	 * @param converted
+	 *            array for the converted values, a new one is allocated if it
+	 *            is null
+	 * @return array of converted values
+	 */
+	public double[] convertSolarEnergy(short[] solarEnergies,
+			double[] converted) {
+		if (converted == null) {
+			converted = new double[solarEnergies.length];
+		}
+		for (int i = 0; i < solarEnergies.length; i++) {
+			converted[i] = convertSolarEnergyValue(solarEnergies[i]);
+		}
+		return converted;
+	}
+
+	/**
+	 * Conversion tables over the full 16-bit raw domain for the quantities
+	 * which need unit conversion or rounding. The undefined value
+	 * (Short.MIN_VALUE) is stored as NaN. The tables are computed in the same
+	 * way as the values were computed on each call, so the results are equal.
+	 */
+	static class ConversionTables {
+		final double[] pressure = new double[TABLE_SIZE];
+		final double[] windRun = new double[TABLE_SIZE];
+		final double[] precipitation = new double[TABLE_SIZE];
+		final double[] temperature = new double[TABLE_SIZE];
+		final double[] windSpeed = new double[TABLE_SIZE];
+		final double[] humidity = new double[TABLE_SIZE];
+
+		ConversionTables(boolean unit) {
+			for (int i = 0; i < TABLE_SIZE; i++) {
+				short value = (short) (i + Short.MIN_VALUE);
+				if (value == Short.MIN_VALUE) {
+					pressure[i] = Double.NaN;
+					windRun[i] = Double.NaN;
+					precipitation[i] = Double.NaN;
+					temperature[i] = Double.NaN;
+					windSpeed[i] = Double.NaN;
+					humidity[i] = Double.NaN;
+					continue;
+				}
+
+				// Is unit conversion enabled?
+				if (unit) {
+					// Conversion from imperial units (inch of mercury mili,
+					// deci mile, inch, fahrenheit deci, mph deci) to metric
+					// units (hecto pascal, kilometer, mm, celsius, m/s).
+					pressure[i] = PRESSURE_CONVERTER.convert(value);
+					windRun[i] = WIND_RUN_CONVERTER.convert(value);
+					precipitation[i] = PRECIPITATION_CONVERTER.convert(value);
+					temperature[i] = TEMPERATURE_CONVERTER.convert(value);
+					windSpeed[i] = WIND_SPEED_CONVERTER.convert(value);
+				} else {
+					// Only division with 1e3 or 1e1.
+					pressure[i] = value / 1e3;
+					windRun[i] = value / 1e1;
+					precipitation[i] = value / 1e3;
+					temperature[i] = value / 1e1;
+					windSpeed[i] = value / 1e1;
+				}
+
+				// Round to nearest integer.
+				BigDecimal roundedHumidity = new BigDecimal(
+						(double) value / 10);
+				roundedHumidity = roundedHumidity.setScale(0,
+						RoundingMode.HALF_UP);
+				humidity[i] = roundedHumidity.intValue();
+			}
+		}
+	}
+
+	/**
+	 * Holder for the tables with conversion to metric units, which are
+	 * computed on first use.
+	 */
+	private static class MetricTables {
+		static final ConversionTables TABLES = new ConversionTables(true);
+	}
+
+	/**
+	 * Holder for the tables without conversion to metric units, which are
+	 * computed on first use.
+	 */
+	private static class ImperialTables {
+		static final ConversionTables TABLES = new ConversionTables(false);
+	}
 }
@@ -0,0 +1,241 @@
+package data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch of the distribution of a single weather field, from which
+ * quantiles such as the median or the 95th percentile are computed. Values
+ * are counted by their raw 16-bit values, which are quantized to the
+ * resolution of the sensors (e.g. tenths of a degree), so the sketch is exact
+ * and its size depends only on the range of the values, not on the number of
+ * records. Sketches of days or months can be merged into sketches of any
+ * longer period without losing accuracy.
+ * <p>
+ * Counts are kept in a dense array over the range of the raw values added so
+ * far, which grows as needed. The raw values are converted only when the
+ * quantiles are computed, so the same sketch serves both unit systems.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class QuantileSketch {
+	private static final int[] EMPTY = new int[0];
+
+	// Properties
+	private final WeatherField field;
+
+	// Raw value of the first count and the counts of the raw values.
+	private int minRaw;
+	private int[] counts = EMPTY;
+
+	// Number of values in the sketch.
+	private long count;
+
+	/**
+	 * Constructs an empty sketch of the field.
+	 *
+	 * @param field
+	 *            weather field with a single value
+	 */
+	public QuantileSketch(WeatherField field) throws IllegalArgumentException {
+		if (field.getWidth() != 1) {
+			throw new IllegalArgumentException(
+					"Sketches are only supported for fields with a single value!");
+		}
+		this.field = field;
+	}
+
+	/**
+	 * @return the field
+	 */
+	public WeatherField getField() {
+		return field;
+	}
+
+	/**
+	 * @return the number of values in the sketch
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Adds a raw value of the field. Undefined values should not be added.
+	 *
+	 * @param raw
+	 */
+	public void add(short raw) {
+		add(raw, 1);
+	}
+
+	/**
+	 * Adds the raw value the specified number of times.
+	 *
+	 * @param raw
+	 * @param n
+	 */
+	private void add(int raw, int n) {
+		if (counts.length == 0) {
+			minRaw = raw;
+			counts = new int[16];
+		} else if (raw < minRaw || raw >= minRaw + counts.length) {
+			// Grow at least twice, so that adding is amortized constant.
+			int low = Math.min(raw, minRaw);
+			int high = Math.max(raw, minRaw + counts.length - 1);
+			int length = Math.max(high - low + 1, 2 * counts.length);
+			if (raw < minRaw) {
+				low = Math.max(high - length + 1, Short.MIN_VALUE);
+			}
+			int[] grown = new int[length];
+			System.arraycopy(counts, 0, grown, minRaw - low, counts.length);
+			minRaw = low;
+			counts = grown;
+		}
+		counts[raw - minRaw] += n;
+		count += n;
+	}
+
+	/**
+	 * Merges the values of the other sketch into this sketch.
+	 *
+	 * @param other
+	 *            sketch of the same field
+	 */
+	public void merge(QuantileSketch other) throws IllegalArgumentException {
+		if (other.field != field) {
+			throw new IllegalArgumentException(
+					"Only sketches of the same field can be merged!");
+		}
+		for (int i = 0; i < other.counts.length; i++) {
+			if (other.counts[i] > 0) {
+				add(other.minRaw + i, other.counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Computes the quantile of the values with the nearest rank method, which
+	 * means that the quantile is always one of the values in the sketch.
+	 *
+	 * @param quantile
+	 *            quantile between 0 and 1, e.g. 0.95 for the 95th percentile
+	 * @param dataConverter
+	 * @return converted value of the quantile or NaN if the sketch is empty
+	 */
+	public double getQuantile(double quantile, DataConverter dataConverter)
+			throws IllegalArgumentException {
+		return getQuantiles(new double[] { quantile }, dataConverter)[0];
+	}
+
+	/**
+	 * Computes several quantiles of the values in a single pass over the
+	 * counts.
+	 *
+	 * @param quantiles
+	 *            quantiles between 0 and 1
+	 * @param dataConverter
+	 * @return converted values of the quantiles, NaN if the sketch is empty
+	 */
+	public double[] getQuantiles(double[] quantiles,
+			DataConverter dataConverter) throws IllegalArgumentException {
+		for (double quantile : quantiles) {
+			if (!(quantile >= 0 && quantile <= 1)) {
+				throw new IllegalArgumentException(
+						"Quantile must be between 0 and 1!");
+			}
+		}
+		double[] values = new double[quantiles.length];
+		if (count == 0) {
+			Arrays.fill(values, Double.NaN);
+			return values;
+		}
+
+		// Converted values are sorted, as the conversion of single byte
+		// values is not monotonic in the raw value.
+		int bins = 0;
+		for (int c : counts) {
+			if (c > 0) {
+				bins++;
+			}
+		}
+		double[] converted = new double[bins];
+		long[] binCounts = new long[bins];
+		Integer[] order = new Integer[bins];
+		for (int i = 0, bin = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				converted[bin] = field.convert((short) (minRaw + i),
+						dataConverter);
+				binCounts[bin] = counts[i];
+				order[bin] = bin;
+				bin++;
+			}
+		}
+		Arrays.sort(order, (bin1, bin2) -> Double.compare(converted[bin1],
+				converted[bin2]));
+
+		for (int q = 0; q < quantiles.length; q++) {
+			long rank = Math.max(1, (long) Math.ceil(quantiles[q] * count));
+			long cumulative = 0;
+			for (Integer bin : order) {
+				cumulative += binCounts[bin];
+				if (cumulative >= rank) {
+					values[q] = converted[bin];
+					break;
+				}
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Writes the sketch as pairs of the raw values and their counts.
+	 *
+	 * @param out
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		int bins = 0;
+		for (int c : counts) {
+			if (c > 0) {
+				bins++;
+			}
+		}
+		out.writeUTF(field.name());
+		out.writeInt(bins);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				out.writeShort(minRaw + i);
+				out.writeInt(counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Reads a sketch written by writeTo.
+	 *
+	 * @param in
+	 * @return sketch
+	 */
+	public static QuantileSketch readFrom(DataInput in) throws IOException {
+		QuantileSketch sketch;
+		try {
+			sketch = new QuantileSketch(WeatherField.valueOf(in.readUTF()));
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unknown field of the sketch!", e);
+		}
+		int bins = in.readInt();
+		for (int i = 0; i < bins; i++) {
+			short raw = in.readShort();
+			int n = in.readInt();
+			if (n <= 0) {
+				throw new IOException("Count of the sketch must be positive!");
+			}
+			sketch.add(raw, n);
+		}
+		return sketch;
+	}
+}
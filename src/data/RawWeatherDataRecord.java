@@ -0,0 +1,354 @@
+package data;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.joda.time.LocalTime;
+
+/**
+ * Weather data record which keeps the raw 88B archive record of the *.wlk
+ * file. Values are converted only when their getter is called, with the data
+ * converter of the reader, which is shared by all the records of a read.
+ * Getters return the same values as the getters of the WeatherDataRecord
+ * class. Missing data is represented as NULL values.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class RawWeatherDataRecord {
+	/**
+	 * Size of the raw weather data record in bytes.
+	 */
+	public static final int SIZE = 88;
+
+	// Properties
+	private final byte[] raw;
+	private final int epochMinute;
+	private final DataConverter dataConverter;
+
+	/**
+	 * Constructor for setting the raw record, its time and the converter of
+	 * the values. The raw record is not copied.
+	 *
+	 * @param raw
+	 *            bytes of the archive record in LITTLE ENDIAN order
+	 * @param epochMinute
+	 *            time of the record in minutes since 1970-01-01 00:00
+	 * @param dataConverter
+	 */
+	public RawWeatherDataRecord(byte[] raw, int epochMinute,
+			DataConverter dataConverter) {
+		if (raw.length != SIZE) {
+			throw new IllegalArgumentException(
+					"Raw weather data record must be 88B long!");
+		}
+		this.raw = raw;
+		this.epochMinute = epochMinute;
+		this.dataConverter = dataConverter;
+	}
+
+	/**
+	 * @return the time in minutes since 1970-01-01 00:00
+	 */
+	public int getEpochMinute() {
+		return epochMinute;
+	}
+
+	/**
+	 * @return the dataConverter
+	 */
+	public DataConverter getDataConverter() {
+		return dataConverter;
+	}
+
+	/**
+	 * Reads the raw value of the field in the same way as
+	 * WeatherField.getRaw.
+	 *
+	 * @param field
+	 * @param index
+	 *            index of the value for fields with more than one value
+	 * @return raw value
+	 */
+	public short getRaw(WeatherField field, int index) {
+		int offset = field.getOffset() + field.getSize() * index;
+		if (field.getSize() == 1) {
+			return raw[offset];
+		} else {
+			return (short) ((raw[offset] & 0xFF) | (raw[offset + 1] << 8));
+		}
+	}
+
+	/**
+	 * Converts the value of the field.
+	 *
+	 * @param field
+	 * @param index
+	 *            index of the value for fields with more than one value
+	 * @return converted value or NaN if the value is undefined
+	 */
+	public double getValue(WeatherField field, int index) {
+		return field.convert(getRaw(field, index), dataConverter);
+	}
+
+	private Double getDouble(WeatherField field) {
+		double value = getValue(field, 0);
+		return Double.isNaN(value) ? null : value;
+	}
+
+	private Integer getInteger(WeatherField field) {
+		double value = getValue(field, 0);
+		return Double.isNaN(value) ? null : (int) value;
+	}
+
+	private Double[] getDoubles(WeatherField field) {
+		Double[] values = new Double[field.getWidth()];
+		for (int i = 0; i < values.length; i++) {
+			double value = getValue(field, i);
+			values[i] = Double.isNaN(value) ? null : value;
+		}
+		return values;
+	}
+
+	/**
+	 * @return the date time
+	 */
+	public LocalDateTime getDateTime() {
+		return WeatherDataColumns.toLocalDateTime(epochMinute);
+	}
+
+	/**
+	 * @return the date
+	 */
+	public LocalDate getDate() {
+		return getDateTime().toLocalDate();
+	}
+
+	/**
+	 * @return the time
+	 */
+	public LocalTime getTime() {
+		return getDateTime().toLocalTime();
+	}
+
+	/**
+	 * @return the archiveInterval
+	 */
+	public int getArchiveInterval() {
+		return getRaw(WeatherField.ARCHIVE_INTERVAL, 0);
+	}
+
+	/**
+	 * @return the iconFlags
+	 */
+	public int getIconFlags() {
+		return getRaw(WeatherField.ICON_FLAGS, 0);
+	}
+
+	/**
+	 * @return the numwindSamples
+	 */
+	public Integer getNumwindSamples() {
+		return getInteger(WeatherField.NUM_WIND_SAMPLES);
+	}
+
+	/**
+	 * @return the outTemp
+	 */
+	public Double getOutTemp() {
+		return getDouble(WeatherField.OUT_TEMP);
+	}
+
+	/**
+	 * @return the maxOutTemp
+	 */
+	public Double getMaxOutTemp() {
+		return getDouble(WeatherField.MAX_OUT_TEMP);
+	}
+
+	/**
+	 * @return the minOutTemp
+	 */
+	public Double getMinOutTemp() {
+		return getDouble(WeatherField.MIN_OUT_TEMP);
+	}
+
+	/**
+	 * @return the inTemp
+	 */
+	public Double getInTemp() {
+		return getDouble(WeatherField.IN_TEMP);
+	}
+
+	/**
+	 * @return the pressure
+	 */
+	public Double getPressure() {
+		return getDouble(WeatherField.PRESSURE);
+	}
+
+	/**
+	 * @return the outHumidity
+	 */
+	public Integer getOutHumidity() {
+		return getInteger(WeatherField.OUT_HUMIDITY);
+	}
+
+	/**
+	 * @return the inHumidity
+	 */
+	public Integer getInHumidity() {
+		return getInteger(WeatherField.IN_HUMIDITY);
+	}
+
+	/**
+	 * @return the precipitation
+	 */
+	public Double getPrecipitation() {
+		return getDouble(WeatherField.PRECIPITATION);
+	}
+
+	/**
+	 * @return the maxPrecipitationRate
+	 */
+	public Double getMaxPrecipitationRate() {
+		return getDouble(WeatherField.MAX_PRECIPITATION_RATE);
+	}
+
+	/**
+	 * @return the windSpeed
+	 */
+	public Double getWindSpeed() {
+		return getDouble(WeatherField.WIND_SPEED);
+	}
+
+	/**
+	 * @return the maxWindSpeed
+	 */
+	public Double getMaxWindSpeed() {
+		return getDouble(WeatherField.MAX_WIND_SPEED);
+	}
+
+	/**
+	 * @return the windDirection
+	 */
+	public Double getWindDirection() {
+		return getDouble(WeatherField.WIND_DIRECTION);
+	}
+
+	/**
+	 * @return the maxWindDirection
+	 */
+	public Double getMaxWindDirection() {
+		return getDouble(WeatherField.MAX_WIND_DIRECTION);
+	}
+
+	/**
+	 * @return the solarRad
+	 */
+	public Double getSolarRad() {
+		return getDouble(WeatherField.SOLAR_RAD);
+	}
+
+	/**
+	 * @return the maxSolarRad
+	 */
+	public Double getMaxSolarRad() {
+		return getDouble(WeatherField.MAX_SOLAR_RAD);
+	}
+
+	/**
+	 * @return the UV
+	 */
+	public Double getUV() {
+		return getDouble(WeatherField.UV);
+	}
+
+	/**
+	 * @return the maxUV
+	 */
+	public Double getMaxUV() {
+		return getDouble(WeatherField.MAX_UV);
+	}
+
+	/**
+	 * @return the leafTemp
+	 */
+	public Double[] getLeafTemp() {
+		return getDoubles(WeatherField.LEAF_TEMP);
+	}
+
+	/**
+	 * @return the extraRad
+	 */
+	public Double getExtraRad() {
+		return getDouble(WeatherField.EXTRA_RAD);
+	}
+
+	/**
+	 * @return the forecast
+	 */
+	public Integer getForecast() {
+		return getInteger(WeatherField.FORECAST);
+	}
+
+	/**
+	 * @return the ET
+	 */
+	public Double getET() {
+		return getDouble(WeatherField.ET);
+	}
+
+	/**
+	 * @return the soilTemp
+	 */
+	public Double[] getSoilTemp() {
+		return getDoubles(WeatherField.SOIL_TEMP);
+	}
+
+	/**
+	 * @return the extraTemp
+	 */
+	public Double[] getExtraTemp() {
+		return getDoubles(WeatherField.EXTRA_TEMP);
+	}
+
+	/**
+	 * Converts all the values into a weather data record.
+	 *
+	 * @return converted weather data record
+	 */
+	public WeatherDataRecord toWeatherDataRecord() {
+		WeatherDataRecord record = new WeatherDataRecord();
+		LocalDateTime dateTime = getDateTime();
+		record.setDate(dateTime.toLocalDate());
+		record.setTime(dateTime.toLocalTime());
+		record.setArchiveInterval(getArchiveInterval());
+		record.setIconFlags(getIconFlags());
+		record.setNumwindSamples(getNumwindSamples());
+		record.setOutTemp(getOutTemp());
+		record.setMaxOutTemp(getMaxOutTemp());
+		record.setMinOutTemp(getMinOutTemp());
+		record.setInTemp(getInTemp());
+		record.setPressure(getPressure());
+		record.setOutHumidity(getOutHumidity());
+		record.setInHumidity(getInHumidity());
+		record.setPrecipitation(getPrecipitation());
+		record.setMaxPrecipitationRate(getMaxPrecipitationRate());
+		record.setWindSpeed(getWindSpeed());
+		record.setMaxWindSpeed(getMaxWindSpeed());
+		record.setWindDirection(getWindDirection());
+		record.setMaxWindDirection(getMaxWindDirection());
+		record.setSolarRad(getSolarRad());
+		record.setMaxSolarRad(getMaxSolarRad());
+		record.setUV(getUV());
+		record.setMaxUV(getMaxUV());
+		record.setLeafTemp(getLeafTemp());
+		record.setExtraRad(getExtraRad());
+		record.setForecast(getForecast());
+		record.setET(getET());
+		record.setSoilTemp(getSoilTemp());
+		record.setExtraTemp(getExtraTemp());
+		return record;
+	}
+}
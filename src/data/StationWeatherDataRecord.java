@@ -0,0 +1,57 @@
+package data;
+
+/**
+ * Weather data record tagged with the id of the station which recorded it.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class StationWeatherDataRecord {
+	// Properties
+	String stationId;
+	WeatherDataRecord weatherDataRecord;
+
+	/**
+	 * Constructs the record from the id of the station and the weather data
+	 * record.
+	 *
+	 * @param stationId
+	 * @param weatherDataRecord
+	 */
+	public StationWeatherDataRecord(String stationId,
+			WeatherDataRecord weatherDataRecord) {
+		this.stationId = stationId;
+		this.weatherDataRecord = weatherDataRecord;
+	}
+
+	/**
+	 * @return the stationId
+	 */
+	public String getStationId() {
+		return stationId;
+	}
+
+	/**
+	 * @param stationId
+	 *            the stationId to set
+	 */
+	public void setStationId(String stationId) {
+		this.stationId = stationId;
+	}
+
+	/**
+	 * @return the weatherDataRecord
+	 */
+	public WeatherDataRecord getWeatherDataRecord() {
+		return weatherDataRecord;
+	}
+
+	/**
+	 * @param weatherDataRecord
+	 *            the weatherDataRecord to set
+	 */
+	public void setWeatherDataRecord(WeatherDataRecord weatherDataRecord) {
+		this.weatherDataRecord = weatherDataRecord;
+	}
+}
@@ -0,0 +1,100 @@
+package data;
+
+/**
+ * Groups of the values of the daily summary. Each group contains the highest,
+ * lowest and average values of a quantity together with the times of the
+ * extremes, where the daily summary records them. The date and the data span
+ * of the daily summary are always set.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public enum SummaryField {
+	/**
+	 * Outside temperature.
+	 */
+	OUT_TEMP,
+
+	/**
+	 * Inside temperature.
+	 */
+	IN_TEMP,
+
+	/**
+	 * Wind chill.
+	 */
+	WIND_CHILL,
+
+	/**
+	 * Dew point.
+	 */
+	DEW_POINT,
+
+	/**
+	 * Outside humidity.
+	 */
+	OUT_HUMIDITY,
+
+	/**
+	 * Inside humidity.
+	 */
+	IN_HUMIDITY,
+
+	/**
+	 * Pressure.
+	 */
+	PRESSURE,
+
+	/**
+	 * Wind speed, highest 10 minute average wind speed, wind run and number
+	 * of wind packets.
+	 */
+	WIND_SPEED,
+
+	/**
+	 * Minutes of the wind from each direction.
+	 */
+	WIND_DIRECTION_DISTRIBUTION,
+
+	/**
+	 * Daily rain and the highest rain rate.
+	 */
+	PRECIPITATION,
+
+	/**
+	 * Daily UV dose and the highest UV index.
+	 */
+	UV,
+
+	/**
+	 * Daily solar energy, minutes of sun light and the highest solar
+	 * radiation.
+	 */
+	SOLAR,
+
+	/**
+	 * Daily evapotranspiration.
+	 */
+	ET,
+
+	/**
+	 * Heat index.
+	 */
+	HEAT_INDEX,
+
+	/**
+	 * THSW index.
+	 */
+	THSW_INDEX,
+
+	/**
+	 * THW index.
+	 */
+	THW_INDEX,
+
+	/**
+	 * Integrated heating and cooling degree days.
+	 */
+	DEGREE_DAYS
+}
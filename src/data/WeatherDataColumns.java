@@ -0,0 +1,398 @@
+package data;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+
+/**
+ * Columnar container for weather data records. Each field is stored in its own
+ * primitive array, integer fields in an int array and all the other fields in
+ * a double array. Fields with more than one value store all the values of a
+ * record next to each other. Missing values are marked in a bitmap per field.
+ * The time of the records is stored as minutes since 1970-01-01 00:00 in local
+ * time.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WeatherDataColumns {
+	// Initial number of rows.
+	private static final int INITIAL_CAPACITY = 1440;
+
+	// Number of fields.
+	private static final int FIELDS = WeatherField.values().length;
+
+	// Properties
+	private final Set<WeatherField> fields;
+	private int size;
+	private int[] timestamps;
+	private final double[][] doubleColumns = new double[FIELDS][];
+	private final int[][] intColumns = new int[FIELDS][];
+	private final BitSet[] missing = new BitSet[FIELDS];
+
+	/**
+	 * Constructs empty columns for all the fields.
+	 */
+	public WeatherDataColumns() {
+		this(EnumSet.allOf(WeatherField.class));
+	}
+
+	/**
+	 * Constructs empty columns for the specified fields only.
+	 *
+	 * @param fields
+	 */
+	public WeatherDataColumns(Set<WeatherField> fields) {
+		this(fields, INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs empty columns for the specified fields only, with room for
+	 * the specified number of rows.
+	 *
+	 * @param fields
+	 * @param capacity
+	 *            initial number of rows
+	 */
+	public WeatherDataColumns(Set<WeatherField> fields, int capacity) {
+		this.fields = EnumSet.copyOf(fields);
+		this.timestamps = new int[capacity];
+		for (WeatherField field : this.fields) {
+			int ordinal = field.ordinal();
+			if (field.isInteger()) {
+				intColumns[ordinal] = new int[capacity * field.getWidth()];
+			} else {
+				doubleColumns[ordinal] = new double[capacity
+						* field.getWidth()];
+			}
+			missing[ordinal] = new BitSet();
+		}
+	}
+
+	/**
+	 * Converts local date time to minutes since 1970-01-01 00:00.
+	 *
+	 * @param dateTime
+	 * @return epoch minute
+	 */
+	public static int toEpochMinute(LocalDateTime dateTime) {
+		return (int) (dateTime.toDateTime(DateTimeZone.UTC).getMillis() / 60000);
+	}
+
+	/**
+	 * Converts minutes since 1970-01-01 00:00 to local date time.
+	 *
+	 * @param epochMinute
+	 * @return local date time
+	 */
+	public static LocalDateTime toLocalDateTime(int epochMinute) {
+		return new LocalDateTime(epochMinute * 60000L, DateTimeZone.UTC);
+	}
+
+	/**
+	 * Adds a new row with all the values set to zero.
+	 *
+	 * @param epochMinute
+	 *            time of the record in minutes since 1970-01-01 00:00
+	 * @return index of the new row
+	 */
+	public int addRow(int epochMinute) {
+		if (size == timestamps.length) {
+			int capacity = Math.max(size * 2, 1);
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			for (WeatherField field : fields) {
+				int ordinal = field.ordinal();
+				if (field.isInteger()) {
+					intColumns[ordinal] = Arrays.copyOf(intColumns[ordinal],
+							capacity * field.getWidth());
+				} else {
+					doubleColumns[ordinal] = Arrays.copyOf(
+							doubleColumns[ordinal], capacity * field.getWidth());
+				}
+			}
+		}
+		timestamps[size] = epochMinute;
+		return size++;
+	}
+
+	/**
+	 * Sets the value of the field. NaN marks the value as missing.
+	 *
+	 * @param field
+	 * @param row
+	 * @param index
+	 *            index of the value for fields with more than one value
+	 * @param value
+	 */
+	public void setValue(WeatherField field, int row, int index, double value) {
+		int ordinal = field.ordinal();
+		int position = row * field.getWidth() + index;
+		if (Double.isNaN(value)) {
+			missing[ordinal].set(position);
+		} else {
+			missing[ordinal].clear(position);
+		}
+		if (field.isInteger()) {
+			intColumns[ordinal][position] = Double.isNaN(value) ? 0
+					: (int) value;
+		} else {
+			doubleColumns[ordinal][position] = value;
+		}
+	}
+
+	/**
+	 * @return the number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the fields stored in the columns
+	 */
+	public Set<WeatherField> getFields() {
+		return EnumSet.copyOf(fields);
+	}
+
+	/**
+	 * @param row
+	 * @return the time of the row in minutes since 1970-01-01 00:00
+	 */
+	public int getTimestamp(int row) {
+		return timestamps[row];
+	}
+
+	/**
+	 * Returns the column of timestamps. Only the first size values are valid.
+	 *
+	 * @return the timestamps
+	 */
+	public int[] getTimestamps() {
+		return timestamps;
+	}
+
+	/**
+	 * Returns the double column of the field. Only the first size * width
+	 * values are valid. Missing values are NaN.
+	 *
+	 * @param field
+	 * @return the column or null if the field is not stored or is an integer
+	 *         field
+	 */
+	public double[] getDoubleColumn(WeatherField field) {
+		return doubleColumns[field.ordinal()];
+	}
+
+	/**
+	 * Returns the int column of the field. Only the first size * width values
+	 * are valid. Missing values are zero and marked in the missing bitmap.
+	 *
+	 * @param field
+	 * @return the column or null if the field is not stored or is not an
+	 *         integer field
+	 */
+	public int[] getIntColumn(WeatherField field) {
+		return intColumns[field.ordinal()];
+	}
+
+	/**
+	 * Returns the bitmap of missing values of the field. The bit of the value
+	 * is at row * width + index.
+	 *
+	 * @param field
+	 * @return the bitmap or null if the field is not stored
+	 */
+	public BitSet getMissing(WeatherField field) {
+		return missing[field.ordinal()];
+	}
+
+	/**
+	 * @param field
+	 * @param row
+	 * @param index
+	 * @return whether the value is missing
+	 */
+	public boolean isMissing(WeatherField field, int row, int index) {
+		return missing[field.ordinal()].get(row * field.getWidth() + index);
+	}
+
+	/**
+	 * Returns the value of the field in the row. Integer values are widened to
+	 * double.
+	 *
+	 * @param field
+	 * @param row
+	 * @param index
+	 * @return the value or NaN if the value is missing
+	 */
+	public double getValue(WeatherField field, int row, int index) {
+		int ordinal = field.ordinal();
+		int position = row * field.getWidth() + index;
+		if (missing[ordinal].get(position)) {
+			return Double.NaN;
+		} else if (field.isInteger()) {
+			return intColumns[ordinal][position];
+		} else {
+			return doubleColumns[ordinal][position];
+		}
+	}
+
+	/**
+	 * Creates a weather data record from the row. Fields that are not stored
+	 * in the columns are not set.
+	 *
+	 * @param row
+	 * @return weather data record
+	 */
+	public WeatherDataRecord getRecord(int row) {
+		WeatherDataRecord record = new WeatherDataRecord();
+		getValues(row, record);
+		LocalDateTime dateTime = toLocalDateTime(timestamps[row]);
+		record.setDate(dateTime.toLocalDate());
+		record.setTime(dateTime.toLocalTime());
+		return record;
+	}
+
+	/**
+	 * Sets the values of the row to the weather data record. The date and
+	 * the time of the record and the fields that are not stored in the
+	 * columns are not set.
+	 *
+	 * @param row
+	 * @param record
+	 */
+	public void getValues(int row, WeatherDataRecord record) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", size: "
+					+ size);
+		}
+		for (WeatherField field : fields) {
+			switch (field) {
+			case ARCHIVE_INTERVAL:
+				record.setArchiveInterval(getInteger(field, row));
+				break;
+			case ICON_FLAGS:
+				record.setIconFlags(getInteger(field, row));
+				break;
+			case NUM_WIND_SAMPLES:
+				record.setNumwindSamples(getInteger(field, row));
+				break;
+			case OUT_TEMP:
+				record.setOutTemp(getDouble(field, row));
+				break;
+			case MAX_OUT_TEMP:
+				record.setMaxOutTemp(getDouble(field, row));
+				break;
+			case MIN_OUT_TEMP:
+				record.setMinOutTemp(getDouble(field, row));
+				break;
+			case IN_TEMP:
+				record.setInTemp(getDouble(field, row));
+				break;
+			case PRESSURE:
+				record.setPressure(getDouble(field, row));
+				break;
+			case OUT_HUMIDITY:
+				record.setOutHumidity(getInteger(field, row));
+				break;
+			case IN_HUMIDITY:
+				record.setInHumidity(getInteger(field, row));
+				break;
+			case PRECIPITATION:
+				record.setPrecipitation(getDouble(field, row));
+				break;
+			case MAX_PRECIPITATION_RATE:
+				record.setMaxPrecipitationRate(getDouble(field, row));
+				break;
+			case WIND_SPEED:
+				record.setWindSpeed(getDouble(field, row));
+				break;
+			case MAX_WIND_SPEED:
+				record.setMaxWindSpeed(getDouble(field, row));
+				break;
+			case WIND_DIRECTION:
+				record.setWindDirection(getDouble(field, row));
+				break;
+			case MAX_WIND_DIRECTION:
+				record.setMaxWindDirection(getDouble(field, row));
+				break;
+			case SOLAR_RAD:
+				record.setSolarRad(getDouble(field, row));
+				break;
+			case MAX_SOLAR_RAD:
+				record.setMaxSolarRad(getDouble(field, row));
+				break;
+			case UV:
+				record.setUV(getDouble(field, row));
+				break;
+			case MAX_UV:
+				record.setMaxUV(getDouble(field, row));
+				break;
+			case LEAF_TEMP:
+				record.setLeafTemp(getDoubles(field, row));
+				break;
+			case EXTRA_RAD:
+				record.setExtraRad(getDouble(field, row));
+				break;
+			case FORECAST:
+				record.setForecast(getInteger(field, row));
+				break;
+			case ET:
+				record.setET(getDouble(field, row));
+				break;
+			case SOIL_TEMP:
+				record.setSoilTemp(getDoubles(field, row));
+				break;
+			case EXTRA_TEMP:
+				record.setExtraTemp(getDoubles(field, row));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns a view of the rows as weather data records. The records are
+	 * created when they are accessed.
+	 *
+	 * @return list of weather data records
+	 */
+	public List<WeatherDataRecord> asRecords() {
+		return new AbstractList<WeatherDataRecord>() {
+			@Override
+			public WeatherDataRecord get(int index) {
+				return getRecord(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	private Integer getInteger(WeatherField field, int row) {
+		return isMissing(field, row, 0) ? null
+				: intColumns[field.ordinal()][row];
+	}
+
+	private Double getDouble(WeatherField field, int row) {
+		return isMissing(field, row, 0) ? null
+				: doubleColumns[field.ordinal()][row];
+	}
+
+	private Double[] getDoubles(WeatherField field, int row) {
+		Double[] values = new Double[field.getWidth()];
+		for (int i = 0; i < values.length; i++) {
+			double value = getValue(field, row, i);
+			values[i] = Double.isNaN(value) ? null : value;
+		}
+		return values;
+	}
+}
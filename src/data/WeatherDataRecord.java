@@ -1,5 +1,6 @@
 package data;
 
+import org.joda.time.LocalDate;
 import org.joda.time.LocalTime;
 
 /**
@@ -15,6 +16,7 @@ public class WeatherDataRecord {
 	// Meta data.
 	private int archiveInterval;
 	private int iconFlags;
+	private LocalDate date;
 	private LocalTime time;
 	private Integer numwindSamples;
 
@@ -164,6 +166,24 @@ public class WeatherDataRecord {
 		this.iconFlags = iconFlags;
 	}
 
+	/**
+	 * The date of the record. Record with time 00:00 is recorded at the end of
+	 * the previous day, which means that its date is the date of the next day.
+	 * 
+	 * @return the date
+	 */
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/**
+	 * @param date
+	 *            the date to set
+	 */
+	public void setDate(LocalDate date) {
+		this.date = date;
+	}
+
 	/**
 	 * @return the time
 	 */
@@ -0,0 +1,171 @@
+package data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fields of the weather data record. Each field knows where its raw value is
+ * located in the 88B archive record of the *.wlk file and how the raw value is
+ * converted to the value of the WeatherDataRecord class. Fields of extra
+ * sensors contain more than one value.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public enum WeatherField {
+	ARCHIVE_INTERVAL(1, 1, 1, Conversion.NONE, true),
+	ICON_FLAGS(2, 1, 1, Conversion.NONE, true),
+	NUM_WIND_SAMPLES(30, 2, 1, Conversion.NONE, true),
+	OUT_TEMP(6, 2, 1, Conversion.TEMPERATURE, false),
+	MAX_OUT_TEMP(8, 2, 1, Conversion.TEMPERATURE, false),
+	MIN_OUT_TEMP(10, 2, 1, Conversion.TEMPERATURE, false),
+	IN_TEMP(12, 2, 1, Conversion.TEMPERATURE, false),
+	PRESSURE(14, 2, 1, Conversion.PRESSURE, false),
+	OUT_HUMIDITY(16, 2, 1, Conversion.HUMIDITY, true),
+	IN_HUMIDITY(18, 2, 1, Conversion.HUMIDITY, true),
+	PRECIPITATION(20, 2, 1, Conversion.PRECIPITATION, false),
+	MAX_PRECIPITATION_RATE(22, 2, 1, Conversion.PRECIPITATION, false),
+	WIND_SPEED(24, 2, 1, Conversion.WIND_SPEED, false),
+	MAX_WIND_SPEED(26, 2, 1, Conversion.WIND_SPEED, false),
+	WIND_DIRECTION(28, 1, 1, Conversion.WIND_DIRECTION, false),
+	MAX_WIND_DIRECTION(29, 1, 1, Conversion.WIND_DIRECTION, false),
+	SOLAR_RAD(32, 2, 1, Conversion.SOLAR_ENERGY, false),
+	MAX_SOLAR_RAD(34, 2, 1, Conversion.SOLAR_ENERGY, false),
+	UV(36, 1, 1, Conversion.UV, false),
+	MAX_UV(37, 1, 1, Conversion.UV, false),
+	LEAF_TEMP(38, 1, 4, Conversion.EXTRA_TEMPERATURE, false),
+	EXTRA_RAD(42, 2, 1, Conversion.NONE, false),
+	FORECAST(56, 1, 1, Conversion.NONE, true),
+	ET(57, 1, 1, Conversion.PRECIPITATION, false),
+	SOIL_TEMP(58, 1, 6, Conversion.EXTRA_TEMPERATURE, false),
+	EXTRA_TEMP(74, 1, 7, Conversion.EXTRA_TEMPERATURE, false);
+
+	/**
+	 * Conversion of the raw value to the value in user specified units.
+	 */
+	enum Conversion {
+		NONE, TEMPERATURE, EXTRA_TEMPERATURE, PRESSURE, HUMIDITY,
+		PRECIPITATION, WIND_SPEED, WIND_DIRECTION, SOLAR_ENERGY, UV
+	}
+
+	// Offset of the first value inside of the weather data record.
+	private final int offset;
+
+	// Size of a single raw value in bytes (1 or 2).
+	private final int size;
+
+	// Number of values of the field.
+	private final int width;
+
+	private final Conversion conversion;
+
+	// Whether the converted values are integers.
+	private final boolean integer;
+
+	private WeatherField(int offset, int size, int width,
+			Conversion conversion, boolean integer) {
+		this.offset = offset;
+		this.size = size;
+		this.width = width;
+		this.conversion = conversion;
+		this.integer = integer;
+	}
+
+	/**
+	 * @return the offset of the first value inside of the weather data record
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the size of a single raw value in bytes
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of values of the field
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return whether the converted values are integers
+	 */
+	public boolean isInteger() {
+		return integer;
+	}
+
+	/**
+	 * Reads the raw value of the field from the weather data record which
+	 * starts at the specified offset in the byte buffer. The byte buffer must
+	 * be in LITTLE ENDIAN order. Single byte values are sign extended in the
+	 * same way as by the struct.
+	 *
+	 * @param buffer
+	 * @param recordOffset
+	 *            offset of the weather data record
+	 * @param index
+	 *            index of the value for fields with more than one value
+	 * @return raw value
+	 */
+	public short getRaw(ByteBuffer buffer, int recordOffset, int index) {
+		if (size == 1) {
+			return buffer.get(recordOffset + offset + index);
+		} else {
+			return buffer.getShort(recordOffset + offset + 2 * index);
+		}
+	}
+
+	/**
+	 * Converts the raw value of the field in the same way as it is converted
+	 * for the WeatherDataRecord class.
+	 *
+	 * @param raw
+	 * @param dataConverter
+	 * @return converted value or NaN if the value is undefined
+	 */
+	public double convert(short raw, DataConverter dataConverter) {
+		switch (conversion) {
+		case TEMPERATURE:
+			return dataConverter.convertTemperatureValue(raw);
+		case EXTRA_TEMPERATURE:
+			// Extra sensors are represented in whole degrees F + 90.
+			return dataConverter.convertTemperatureValue((short) (raw - 90));
+		case PRESSURE:
+			return dataConverter.convertPressureValue(raw);
+		case HUMIDITY:
+			return dataConverter.convertHumidityValue(raw);
+		case PRECIPITATION:
+			return dataConverter.convertPrecipitationValue(raw);
+		case WIND_SPEED:
+			return dataConverter.convertWindSpeedValue(raw);
+		case WIND_DIRECTION:
+			return dataConverter.convertWindDirectionValue(raw);
+		case SOLAR_ENERGY:
+			return dataConverter.convertSolarEnergyValue(raw);
+		case UV:
+			return dataConverter.convertUVValue(raw);
+		default:
+			return raw;
+		}
+	}
+
+	/**
+	 * Reads and converts the value of the field from the weather data record
+	 * which starts at the specified offset in the byte buffer.
+	 *
+	 * @param buffer
+	 * @param recordOffset
+	 * @param index
+	 * @param dataConverter
+	 * @return converted value or NaN if the value is undefined
+	 */
+	public double getValue(ByteBuffer buffer, int recordOffset, int index,
+			DataConverter dataConverter) {
+		return convert(getRaw(buffer, recordOffset, index), dataConverter);
+	}
+}
@@ -0,0 +1,62 @@
+package generator;
+
+/**
+ * Sensors which are populated in the generated *.wlk files. The sensors of the
+ * integrated sensor suite (outside temperature and humidity, barometer, wind
+ * and rain) are always populated. Values of the sensors that are not
+ * populated are written as dash values, the same way as they are written by
+ * WeatherLink for a station without those sensors.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public enum SensorProfile {
+	/**
+	 * Only the sensors of the integrated sensor suite.
+	 */
+	BASIC(false, false, false),
+
+	/**
+	 * Integrated sensor suite with the inside sensors of the console and the
+	 * solar radiation and UV sensors.
+	 */
+	STANDARD(true, true, false),
+
+	/**
+	 * All the sensors including leaf, soil and extra temperature and
+	 * humidity sensors.
+	 */
+	FULL(true, true, true);
+
+	private final boolean inside;
+	private final boolean solar;
+	private final boolean extra;
+
+	private SensorProfile(boolean inside, boolean solar, boolean extra) {
+		this.inside = inside;
+		this.solar = solar;
+		this.extra = extra;
+	}
+
+	/**
+	 * @return whether inside temperature and humidity are populated
+	 */
+	public boolean hasInside() {
+		return inside;
+	}
+
+	/**
+	 * @return whether solar radiation, UV and ET are populated
+	 */
+	public boolean hasSolar() {
+		return solar;
+	}
+
+	/**
+	 * @return whether leaf, soil and extra sensors are populated
+	 */
+	public boolean hasExtra() {
+		return extra;
+	}
+}
@@ -0,0 +1,861 @@
+package generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javolution.io.Struct.Unsigned8;
+
+import org.joda.time.LocalDate;
+
+import struct.DailySummary1;
+import struct.DailySummary2;
+import struct.HeaderBlock;
+import struct.WeatherDataRecord;
+
+/**
+ * Generator of synthetic *.wlk files for testing and benchmarking the reader
+ * on archives of any length. For each month between the start and the end
+ * date a file named yyyy-MM.wlk is written into the directory. Each file
+ * contains the header block with the day index, and for each day of the date
+ * range the two daily summary records followed by the weather data records
+ * with the selected archive interval.
+ *
+ * The weather follows seasonal and daily cycles with random variation. The
+ * values are generated from the seed, which means that the same settings
+ * always produce the same files. The daily summaries are computed from the
+ * generated records.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkGenerator {
+	static final int HEADER_SIZE = 212;
+	static final int RECORD_SIZE = 88;
+
+	private static final int MINUTES_PER_DAY = 1440;
+
+	// Values that are not available are written as dash values.
+	private static final short DASH = Short.MIN_VALUE;
+	private static final byte DASH_BYTE = (byte) 0xFF;
+
+	// Identification code of the file format written by WeatherLink 5.3.
+	private static final byte[] ID_CODE = { 'W', 'D', 'A', 'T', '5', '.',
+			'3', 0, 0, 0, 0, 0, 0, 0, 5, 3 };
+
+	// Properties
+	private File directory;
+	private LocalDate dateStart;
+	private LocalDate dateEnd;
+	private int archiveInterval = 1;
+	private SensorProfile sensorProfile = SensorProfile.STANDARD;
+	private long seed;
+
+	/**
+	 * Constructs a generator that writes the files with the data from the
+	 * start date to the end date (both inclusive) into the directory.
+	 *
+	 * @param directory
+	 * @param dateStart
+	 * @param dateEnd
+	 */
+	public WlkGenerator(File directory, LocalDate dateStart,
+			LocalDate dateEnd) {
+		this.directory = directory;
+		this.dateStart = dateStart;
+		this.dateEnd = dateEnd;
+	}
+
+	/**
+	 * Generates the files from the command line. The arguments are the
+	 * directory, the start date and the end date (yyyy-MM-dd) and optionally
+	 * the archive interval in minutes, the sensor profile and the seed.
+	 *
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: WlkGenerator <directory> <start date> "
+					+ "<end date> [archive interval] [sensor profile] [seed]");
+			System.exit(1);
+		}
+		WlkGenerator wlkGenerator = new WlkGenerator(new File(args[0]),
+				new LocalDate(args[1]), new LocalDate(args[2]));
+		if (args.length > 3) {
+			wlkGenerator.setArchiveInterval(Integer.parseInt(args[3]));
+		}
+		if (args.length > 4) {
+			wlkGenerator.setSensorProfile(SensorProfile.valueOf(args[4]));
+		}
+		if (args.length > 5) {
+			wlkGenerator.setSeed(Long.parseLong(args[5]));
+		}
+		for (File file : wlkGenerator.generate()) {
+			System.out.println(file);
+		}
+	}
+
+	/**
+	 * Writes the files for all the months of the date range. Existing files
+	 * with the same names are overwritten.
+	 *
+	 * @return the written files in chronological order
+	 * @throws IOException
+	 */
+	public List<File> generate() throws IOException {
+		if (this.dateEnd.isBefore(this.dateStart)) {
+			throw new IllegalArgumentException(
+					"End date must not be before start date");
+		}
+		if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+			throw new IOException("Could not create directory "
+					+ this.directory);
+		}
+
+		// The state of the weather continues from month to month.
+		WeatherModel weatherModel = new WeatherModel(new Random(this.seed));
+
+		List<File> files = new ArrayList<File>();
+		for (LocalDate month = this.dateStart.withDayOfMonth(1); !month
+				.isAfter(this.dateEnd); month = month.plusMonths(1)) {
+			File file = new File(this.directory, String.format(
+					"%04d-%02d.wlk", month.getYear(), month.getMonthOfYear()));
+			writeMonth(file, month, weatherModel);
+			files.add(file);
+		}
+		return files;
+	}
+
+	/**
+	 * Writes a single file with the days of the month that are inside of the
+	 * date range.
+	 *
+	 * @param file
+	 * @param month
+	 *            first day of the month
+	 * @param weatherModel
+	 * @throws IOException
+	 */
+	private void writeMonth(File file, LocalDate month,
+			WeatherModel weatherModel) throws IOException {
+		int recordsInDay = MINUTES_PER_DAY / this.archiveInterval + 2;
+		int daysInMonth = month.dayOfMonth().getMaximumValue();
+
+		// Header block with the day index. Index 0 is not used and days
+		// without data have zero records.
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(
+				ByteOrder.LITTLE_ENDIAN);
+		HeaderBlock headerBlock = new HeaderBlock();
+		headerBlock.setByteBuffer(header, 0);
+		for (int i = 0; i < ID_CODE.length; i++) {
+			header.put(i, ID_CODE[i]);
+		}
+		int startPos = 0;
+		for (int day = 1; day <= daysInMonth; day++) {
+			if (isInRange(month.withDayOfMonth(day))) {
+				headerBlock.dayIndex[day].recordsInDay
+						.set((short) recordsInDay);
+				headerBlock.dayIndex[day].startPos.set(startPos);
+				startPos += recordsInDay;
+			}
+		}
+		headerBlock.totalRecords.set(startPos);
+
+		// Records of a day are generated into a buffer, which is reused for
+		// all the days of the month.
+		ByteBuffer dayBuffer = ByteBuffer.allocate(recordsInDay * RECORD_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		DailySummary1 dailySummary1 = new DailySummary1();
+		DailySummary2 dailySummary2 = new DailySummary2();
+		WeatherDataRecord weatherDataRecord = new WeatherDataRecord();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(channel, header);
+			for (int day = 1; day <= daysInMonth; day++) {
+				LocalDate date = month.withDayOfMonth(day);
+				if (!isInRange(date)) {
+					continue;
+				}
+
+				DayStatistics dayStatistics = new DayStatistics();
+				for (int i = 2; i < recordsInDay; i++) {
+					// Minutes past midnight of the end of the archive period.
+					int minute = (i - 1) * this.archiveInterval;
+					weatherModel.next(date, minute, this.archiveInterval);
+					weatherDataRecord.setByteBuffer(dayBuffer, i * RECORD_SIZE);
+					setWeatherDataRecord(weatherDataRecord, weatherModel,
+							minute);
+					dayStatistics.add(weatherModel, minute,
+							this.archiveInterval);
+				}
+
+				dailySummary1.setByteBuffer(dayBuffer, 0);
+				setDailySummary1(dailySummary1, dayStatistics);
+				dailySummary2.setByteBuffer(dayBuffer, RECORD_SIZE);
+				setDailySummary2(dailySummary2, dayStatistics);
+
+				dayBuffer.clear();
+				writeFully(channel, dayBuffer);
+			}
+		}
+	}
+
+	/**
+	 * @param date
+	 * @return whether the date is inside of the date range
+	 */
+	private boolean isInRange(LocalDate date) {
+		return !date.isBefore(this.dateStart) && !date.isAfter(this.dateEnd);
+	}
+
+	/**
+	 * Writes the remaining bytes of the buffer to the channel.
+	 *
+	 * @param channel
+	 * @param buffer
+	 * @throws IOException
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Sets all the values of the weather data record struct to the current
+	 * values of the weather model.
+	 *
+	 * @param weatherDataRecord
+	 * @param weatherModel
+	 * @param minute
+	 */
+	private void setWeatherDataRecord(WeatherDataRecord weatherDataRecord,
+			WeatherModel weatherModel, int minute) {
+		boolean inside = this.sensorProfile.hasInside();
+		boolean solar = this.sensorProfile.hasSolar();
+		boolean extra = this.sensorProfile.hasExtra();
+
+		weatherDataRecord.dataType.set((byte) 1);
+		weatherDataRecord.archiveInterval.set((byte) this.archiveInterval);
+		weatherDataRecord.iconFlags.set((byte) 0);
+		weatherDataRecord.moreFlags.set((byte) 0);
+		weatherDataRecord.packedTime.set((short) minute);
+		weatherDataRecord.outsideTemp.set((short) weatherModel.outTemp);
+		weatherDataRecord.hiOutsideTemp.set((short) weatherModel.hiOutTemp);
+		weatherDataRecord.lowOutsideTemp.set((short) weatherModel.lowOutTemp);
+		weatherDataRecord.insideTemp.set(inside ? (short) weatherModel.inTemp
+				: DASH);
+		weatherDataRecord.barometer.set((short) weatherModel.barometer);
+		weatherDataRecord.outsideHum.set((short) weatherModel.outHum);
+		weatherDataRecord.insideHum.set(inside ? (short) weatherModel.inHum
+				: DASH);
+		weatherDataRecord.rain.set(weatherModel.rain);
+		weatherDataRecord.hiRainRate.set((short) weatherModel.rainRate);
+		weatherDataRecord.windSpeed.set((short) weatherModel.windSpeed);
+		weatherDataRecord.hiWindSpeed.set((short) weatherModel.hiWindSpeed);
+		weatherDataRecord.windDirection
+				.set(weatherModel.windSpeed == 0 ? DASH_BYTE
+						: (byte) weatherModel.windDirection);
+		weatherDataRecord.hiWindDirection
+				.set(weatherModel.hiWindSpeed == 0 ? DASH_BYTE
+						: (byte) weatherModel.hiWindDirection);
+		weatherDataRecord.numWindSamples
+				.set((short) weatherModel.numWindSamples);
+		weatherDataRecord.solarRad.set(solar ? (short) weatherModel.solarRad
+				: DASH);
+		weatherDataRecord.hiSolarRad.set(solar ? (short) weatherModel.hiSolarRad
+				: DASH);
+		weatherDataRecord.UV.set(solar ? (byte) weatherModel.uv : DASH_BYTE);
+		weatherDataRecord.hiUV.set(solar ? (byte) weatherModel.hiUV
+				: DASH_BYTE);
+		weatherDataRecord.extraRad.set(DASH);
+		for (int i = 0; i < weatherDataRecord.newSensors.length; i++) {
+			weatherDataRecord.newSensors[i].set(DASH);
+		}
+		weatherDataRecord.forecast.set((byte) (weatherModel.raining ? 2 : 8));
+		weatherDataRecord.ET.set(solar ? (byte) weatherModel.et : 0);
+
+		// Extra sensors are represented in whole degrees F + 90.
+		int extraTemp = weatherModel.outTemp / 10 + 90;
+		for (int i = 0; i < weatherDataRecord.leafTemp.length; i++) {
+			weatherDataRecord.leafTemp[i].set(extra ? (byte) extraTemp
+					: DASH_BYTE);
+			weatherDataRecord.leafWetness[i].set(extra ? (byte) (weatherModel
+					.raining ? 15 : 0) : DASH_BYTE);
+		}
+		for (int i = 0; i < weatherDataRecord.soilTemp.length; i++) {
+			weatherDataRecord.soilTemp[i].set(extra ? (byte) (weatherModel
+					.soilTemp / 10 + 90 - i) : DASH_BYTE);
+			weatherDataRecord.soilMoisture[i].set(extra ? (byte) (20 + 5 * i)
+					: DASH_BYTE);
+		}
+		for (int i = 0; i < weatherDataRecord.extraTemp.length; i++) {
+			weatherDataRecord.extraTemp[i].set(extra ? (byte) (extraTemp + i
+					- 3) : DASH_BYTE);
+			weatherDataRecord.extraHum[i].set(extra ? (byte) (weatherModel
+					.outHum / 10) : DASH_BYTE);
+		}
+	}
+
+	/**
+	 * Sets all the values of the daily summary 1 struct from the statistics
+	 * of the day. Values that are not generated are set to dash values.
+	 *
+	 * @param dailySummary1
+	 * @param dayStatistics
+	 */
+	private void setDailySummary1(DailySummary1 dailySummary1,
+			DayStatistics dayStatistics) {
+		boolean inside = this.sensorProfile.hasInside();
+		boolean solar = this.sensorProfile.hasSolar();
+		int records = dayStatistics.records;
+
+		for (Unsigned8 timeValue : dailySummary1.timeValues) {
+			timeValue.set((short) 0xFF);
+		}
+
+		dailySummary1.dataType.set((byte) 2);
+		dailySummary1.reserved.set((byte) 0);
+		dailySummary1.dataSpan.set((short) (records * this.archiveInterval));
+		dailySummary1.hiOutTemp.set((short) dayStatistics.hiOutTemp);
+		dailySummary1.lowOutTemp.set((short) dayStatistics.lowOutTemp);
+		dailySummary1.hiInTemp.set(inside ? (short) dayStatistics.hiInTemp
+				: DASH);
+		dailySummary1.lowInTemp.set(inside ? (short) dayStatistics.lowInTemp
+				: DASH);
+		dailySummary1.avgOutTemp
+				.set((short) (dayStatistics.sumOutTemp / records));
+		dailySummary1.avgInTemp.set(inside ? (short) (dayStatistics.sumInTemp
+				/ records) : DASH);
+		dailySummary1.hiChill.set(DASH);
+		dailySummary1.lowChill.set(DASH);
+		dailySummary1.hiDew.set(DASH);
+		dailySummary1.lowDew.set(DASH);
+		dailySummary1.avgChill.set(DASH);
+		dailySummary1.avgDew.set(DASH);
+		dailySummary1.hiOutHum.set((short) dayStatistics.hiOutHum);
+		dailySummary1.lowOutHum.set((short) dayStatistics.lowOutHum);
+		dailySummary1.hiInHum.set(inside ? (short) dayStatistics.hiInHum
+				: DASH);
+		dailySummary1.lowInHum.set(inside ? (short) dayStatistics.lowInHum
+				: DASH);
+		dailySummary1.avgOutHum
+				.set((short) (dayStatistics.sumOutHum / records));
+		dailySummary1.hiBar.set((short) dayStatistics.hiBar);
+		dailySummary1.lowBar.set((short) dayStatistics.lowBar);
+		dailySummary1.avgBar.set((short) (dayStatistics.sumBar / records));
+		dailySummary1.hiSpeed.set((short) dayStatistics.hiSpeed);
+		dailySummary1.avgSpeed.set((short) (dayStatistics.sumSpeed / records));
+		dailySummary1.dailyWindRunTotal.set((short) (dayStatistics.sumSpeed
+				* this.archiveInterval / 60));
+		dailySummary1.hi10MinSpeed.set(DASH);
+		dailySummary1.dirHiSpeed.set((short) (dayStatistics.hiSpeed == 0 ? 255
+				: dayStatistics.dirHiSpeed));
+		dailySummary1.hi10MinDir.set((short) 255);
+		dailySummary1.dailyRainTotal.set((short) dayStatistics.rainTotal);
+		dailySummary1.hiRainRate.set((short) dayStatistics.hiRainRate);
+		dailySummary1.dailyUVDose.set(DASH);
+		dailySummary1.hiUV.set(solar ? (short) dayStatistics.hiUV : 255);
+
+		// Times of the extremes.
+		setTimeValue(dailySummary1.timeValues, 0,
+				dayStatistics.timeHiOutTemp);
+		setTimeValue(dailySummary1.timeValues, 1,
+				dayStatistics.timeLowOutTemp);
+		if (inside) {
+			setTimeValue(dailySummary1.timeValues, 2,
+					dayStatistics.timeHiInTemp);
+			setTimeValue(dailySummary1.timeValues, 3,
+					dayStatistics.timeLowInTemp);
+			setTimeValue(dailySummary1.timeValues, 10,
+					dayStatistics.timeHiInHum);
+			setTimeValue(dailySummary1.timeValues, 11,
+					dayStatistics.timeLowInHum);
+		}
+		setTimeValue(dailySummary1.timeValues, 8, dayStatistics.timeHiOutHum);
+		setTimeValue(dailySummary1.timeValues, 9, dayStatistics.timeLowOutHum);
+		setTimeValue(dailySummary1.timeValues, 12, dayStatistics.timeHiBar);
+		setTimeValue(dailySummary1.timeValues, 13, dayStatistics.timeLowBar);
+		setTimeValue(dailySummary1.timeValues, 14, dayStatistics.timeHiSpeed);
+		setTimeValue(dailySummary1.timeValues, 16,
+				dayStatistics.timeHiRainRate);
+		if (solar) {
+			setTimeValue(dailySummary1.timeValues, 17,
+					dayStatistics.timeHiUV);
+		}
+	}
+
+	/**
+	 * Sets all the values of the daily summary 2 struct from the statistics
+	 * of the day. Values that are not generated are set to dash values.
+	 *
+	 * @param dailySummary2
+	 * @param dayStatistics
+	 */
+	private void setDailySummary2(DailySummary2 dailySummary2,
+			DayStatistics dayStatistics) {
+		boolean solar = this.sensorProfile.hasSolar();
+
+		for (Unsigned8 timeValue : dailySummary2.timeValues) {
+			timeValue.set((short) 0xFF);
+		}
+
+		dailySummary2.dataType.set((byte) 3);
+		dailySummary2.reserved.set((byte) 0);
+		dailySummary2.todayWeather.set(0);
+		dailySummary2.numWindPackets.set(dayStatistics.numWindPackets);
+		dailySummary2.hiSolar.set(solar ? (short) dayStatistics.hiSolar : DASH);
+		// Solar energy in 1/10 Ly, where 1 Ly = 41840 J/m^2.
+		dailySummary2.dailySolarEnergy.set(solar ? (short) (dayStatistics
+				.sumSolar * this.archiveInterval * 60 / 4184) : DASH);
+		dailySummary2.minSunLight.set(solar ? (short) (dayStatistics
+				.sunLightRecords * this.archiveInterval) : DASH);
+		dailySummary2.dailyETTotal.set(solar ? (short) dayStatistics.etTotal
+				: DASH);
+		dailySummary2.hiHeat.set(DASH);
+		dailySummary2.lowHeat.set(DASH);
+		dailySummary2.avgHeat.set(DASH);
+		dailySummary2.hiTHSW.set(DASH);
+		dailySummary2.lowTHSW.set(DASH);
+		dailySummary2.hiTHW.set(DASH);
+		dailySummary2.lowTHW.set(DASH);
+		// Degree days in tenths of a degree F - Day.
+		dailySummary2.integratedHeatDD65.set((short) (dayStatistics.heatDD65
+				* this.archiveInterval / MINUTES_PER_DAY));
+		dailySummary2.hiWetBulb.set(DASH);
+		dailySummary2.lowWetBulb.set(DASH);
+		dailySummary2.avgWetBulb.set(DASH);
+		dailySummary2.integratedCoolDD65.set((short) (dayStatistics.coolDD65
+				* this.archiveInterval / MINUTES_PER_DAY));
+		for (int i = 0; i < dailySummary2.reserved2.length; i++) {
+			dailySummary2.reserved2[i].set((byte) 0);
+		}
+
+		// Minutes of each wind direction are packed in the same way as the
+		// time values.
+		for (int i = 0; i < dayStatistics.directionMinutes.length; i++) {
+			int fieldIndex = (i / 2) * 3;
+			int minutes = dayStatistics.directionMinutes[i];
+			if (i % 2 == 0) {
+				dailySummary2.dirBins[fieldIndex].set((byte) minutes);
+				dailySummary2.dirBins[fieldIndex + 2]
+						.set((byte) ((dailySummary2.dirBins[fieldIndex + 2]
+								.get() & 0xF0) | ((minutes >> 8) & 0x0F)));
+			} else {
+				dailySummary2.dirBins[fieldIndex + 1].set((byte) minutes);
+				dailySummary2.dirBins[fieldIndex + 2]
+						.set((byte) ((dailySummary2.dirBins[fieldIndex + 2]
+								.get() & 0x0F) | ((minutes >> 4) & 0xF0)));
+			}
+		}
+
+		if (solar) {
+			setTimeValue(dailySummary2.timeValues, 0,
+					dayStatistics.timeHiSolar);
+		}
+	}
+
+	/**
+	 * Packs the time in minutes past midnight into 12 bits of the time values.
+	 * Two time values share three bytes, the lower 8 bits are in their own
+	 * byte and the upper 4 bits are in the third byte.
+	 *
+	 * @param timeValues
+	 * @param index
+	 *            index of the time value
+	 * @param minute
+	 */
+	private static void setTimeValue(Unsigned8[] timeValues, int index,
+			int minute) {
+		int fieldIndex = (index / 2) * 3;
+		short shared = timeValues[fieldIndex + 2].get();
+		if (index % 2 == 0) {
+			timeValues[fieldIndex].set((short) (minute & 0xFF));
+			timeValues[fieldIndex + 2].set((short) ((shared & 0xF0)
+					| ((minute >> 8) & 0x0F)));
+		} else {
+			timeValues[fieldIndex + 1].set((short) (minute & 0xFF));
+			timeValues[fieldIndex + 2].set((short) ((shared & 0x0F)
+					| ((minute >> 4) & 0xF0)));
+		}
+	}
+
+	/**
+	 * @return the directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @param directory
+	 *            the directory to set
+	 */
+	public void setDirectory(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @return the dateStart
+	 */
+	public LocalDate getDateStart() {
+		return dateStart;
+	}
+
+	/**
+	 * @param dateStart
+	 *            the dateStart to set
+	 */
+	public void setDateStart(LocalDate dateStart) {
+		this.dateStart = dateStart;
+	}
+
+	/**
+	 * @return the dateEnd
+	 */
+	public LocalDate getDateEnd() {
+		return dateEnd;
+	}
+
+	/**
+	 * @param dateEnd
+	 *            the dateEnd to set
+	 */
+	public void setDateEnd(LocalDate dateEnd) {
+		this.dateEnd = dateEnd;
+	}
+
+	/**
+	 * @return the archiveInterval
+	 */
+	public int getArchiveInterval() {
+		return archiveInterval;
+	}
+
+	/**
+	 * Sets the archive interval in minutes. The interval must divide the day
+	 * into whole periods and must not be longer than two hours, which is the
+	 * longest interval of the station.
+	 *
+	 * @param archiveInterval
+	 *            the archiveInterval to set
+	 */
+	public void setArchiveInterval(int archiveInterval) {
+		if (archiveInterval < 1 || archiveInterval > 120
+				|| MINUTES_PER_DAY % archiveInterval != 0) {
+			throw new IllegalArgumentException("Invalid archive interval: "
+					+ archiveInterval);
+		}
+		this.archiveInterval = archiveInterval;
+	}
+
+	/**
+	 * @return the sensorProfile
+	 */
+	public SensorProfile getSensorProfile() {
+		return sensorProfile;
+	}
+
+	/**
+	 * @param sensorProfile
+	 *            the sensorProfile to set
+	 */
+	public void setSensorProfile(SensorProfile sensorProfile) {
+		this.sensorProfile = sensorProfile;
+	}
+
+	/**
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed
+	 *            the seed to set
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Weather with seasonal and daily cycles and random variation. The values
+	 * are in the raw units of the weather data record.
+	 */
+	private static class WeatherModel {
+		private final Random random;
+
+		// Slowly changing state.
+		private double temperatureAnomaly;
+		private double pressure = 29920;
+		private double speed = 50;
+		private double etRemainder;
+
+		// Values of the current record.
+		private int outTemp;
+		private int hiOutTemp;
+		private int lowOutTemp;
+		private int inTemp;
+		private int outHum;
+		private int inHum;
+		private int barometer;
+		private boolean raining;
+		private int rain;
+		private int rainRate;
+		private int windSpeed;
+		private int hiWindSpeed;
+		private int windDirection;
+		private int hiWindDirection;
+		private int numWindSamples;
+		private int solarRad;
+		private int hiSolarRad;
+		private int uv;
+		private int hiUV;
+		private int et;
+		private int soilTemp;
+
+		WeatherModel(Random random) {
+			this.random = random;
+			this.windDirection = random.nextInt(16);
+		}
+
+		/**
+		 * Computes the values of the record at the end of the archive period.
+		 *
+		 * @param date
+		 * @param minute
+		 *            minutes past midnight
+		 * @param interval
+		 *            archive interval in minutes
+		 */
+		void next(LocalDate date, int minute, int interval) {
+			double step = Math.sqrt(interval);
+
+			// Seasonal cycle from -1 in the middle of January to 1 in the
+			// middle of July and daily cycle with the highest value at 15:00.
+			double seasonal = -Math.cos(2 * Math.PI
+					* (date.getDayOfYear() - 15) / 365.25);
+			double daily = Math.cos(2 * Math.PI * (minute - 900)
+					/ MINUTES_PER_DAY);
+
+			// Temperature in tenths of a degree F.
+			temperatureAnomaly = clamp(temperatureAnomaly + 2 * step
+					* random.nextGaussian(), -150, 150);
+			outTemp = (int) Math.round(500 + 200 * seasonal + 100 * daily
+					+ temperatureAnomaly);
+			hiOutTemp = outTemp + random.nextInt(1 + 2 * interval);
+			lowOutTemp = outTemp - random.nextInt(1 + 2 * interval);
+			inTemp = (int) Math.round(700 + 5 * random.nextGaussian());
+			soilTemp = (int) Math.round(500 + 150 * seasonal);
+
+			// Rain periods start and stop at random.
+			if (raining) {
+				raining = random.nextDouble() >= 0.01 * interval;
+			} else {
+				raining = random.nextDouble() < 0.0005 * interval;
+			}
+			// Rain in thousandths of an inch, which is how the reader reads
+			// the rain clicks, and rain rate per hour.
+			rain = raining ? 10 * random.nextInt(1 + interval) : 0;
+			rainRate = rain * 60 / interval;
+
+			// Humidity in tenths of a percent.
+			outHum = (int) clamp(Math.round(650 - 250 * daily
+					+ (raining ? 300 : 0) + 20 * random.nextGaussian()), 100,
+					1000);
+			inHum = (int) Math.round(450 + 10 * random.nextGaussian());
+
+			// Pressure in thousandths of an inch Hg.
+			pressure = clamp(pressure + 3 * step * random.nextGaussian(),
+					29000, 30800);
+			barometer = (int) Math.round(pressure);
+
+			// Wind speed in tenths of an MPH, which returns towards the mean.
+			speed = clamp(speed + (60 - speed) * 0.01 * interval + 5 * step
+					* random.nextGaussian(), 0, 500);
+			windSpeed = (int) Math.round(speed);
+			hiWindSpeed = windSpeed + random.nextInt(11 + windSpeed / 2);
+			if (random.nextInt(20) == 0) {
+				windDirection = (windDirection + (random.nextBoolean() ? 1
+						: 15)) % 16;
+			}
+			hiWindDirection = (windDirection + random.nextInt(3) + 15) % 16;
+			numWindSamples = 24 * interval;
+
+			// Solar radiation in watts per meter squared between sunrise and
+			// sunset, with longer days in summer.
+			double dayLength = 60 * (12 + 3.5 * seasonal);
+			double sunrise = 720 - dayLength / 2;
+			if (minute > sunrise && minute < sunrise + dayLength) {
+				double elevation = Math.sin(Math.PI * (minute - sunrise)
+						/ dayLength);
+				solarRad = (int) Math.round((800 + 200 * seasonal) * elevation
+						* (raining ? 0.3 : 1)
+						* (0.8 + 0.2 * random.nextDouble()));
+			} else {
+				solarRad = 0;
+			}
+			hiSolarRad = solarRad + random.nextInt(1 + solarRad / 10);
+
+			// UV in tenths of a UV index.
+			uv = (int) Math.min(127, solarRad * (55 + 35 * seasonal) / 1000);
+			hiUV = Math.min(127, uv + random.nextInt(3));
+
+			// ET in thousandths of an inch accumulates with the radiation.
+			etRemainder += solarRad * interval * 0.0004;
+			et = (int) Math.min(127, Math.floor(etRemainder));
+			etRemainder -= et;
+		}
+
+		private static double clamp(double value, double min, double max) {
+			return Math.max(min, Math.min(max, value));
+		}
+	}
+
+	/**
+	 * Statistics of the records of a single day, which are written to the
+	 * daily summaries.
+	 */
+	private static class DayStatistics {
+		private int records;
+		private int hiOutTemp = Integer.MIN_VALUE;
+		private int lowOutTemp = Integer.MAX_VALUE;
+		private int hiInTemp = Integer.MIN_VALUE;
+		private int lowInTemp = Integer.MAX_VALUE;
+		private int hiOutHum = Integer.MIN_VALUE;
+		private int lowOutHum = Integer.MAX_VALUE;
+		private int hiInHum = Integer.MIN_VALUE;
+		private int lowInHum = Integer.MAX_VALUE;
+		private int hiBar = Integer.MIN_VALUE;
+		private int lowBar = Integer.MAX_VALUE;
+		private int hiSpeed = Integer.MIN_VALUE;
+		private int dirHiSpeed;
+		private int hiRainRate = Integer.MIN_VALUE;
+		private int hiSolar = Integer.MIN_VALUE;
+		private int hiUV = Integer.MIN_VALUE;
+		private int timeHiOutTemp;
+		private int timeLowOutTemp;
+		private int timeHiInTemp;
+		private int timeLowInTemp;
+		private int timeHiOutHum;
+		private int timeLowOutHum;
+		private int timeHiInHum;
+		private int timeLowInHum;
+		private int timeHiBar;
+		private int timeLowBar;
+		private int timeHiSpeed;
+		private int timeHiRainRate;
+		private int timeHiSolar;
+		private int timeHiUV;
+		private long sumOutTemp;
+		private long sumInTemp;
+		private long sumOutHum;
+		private long sumBar;
+		private long sumSpeed;
+		private long sumSolar;
+		private int rainTotal;
+		private int etTotal;
+		private int numWindPackets;
+		private int sunLightRecords;
+		private long heatDD65;
+		private long coolDD65;
+		private final int[] directionMinutes = new int[16];
+
+		/**
+		 * Adds the current record of the weather model.
+		 *
+		 * @param weatherModel
+		 * @param minute
+		 * @param interval
+		 */
+		void add(WeatherModel weatherModel, int minute, int interval) {
+			records++;
+			if (weatherModel.hiOutTemp > hiOutTemp) {
+				hiOutTemp = weatherModel.hiOutTemp;
+				timeHiOutTemp = minute;
+			}
+			if (weatherModel.lowOutTemp < lowOutTemp) {
+				lowOutTemp = weatherModel.lowOutTemp;
+				timeLowOutTemp = minute;
+			}
+			if (weatherModel.inTemp > hiInTemp) {
+				hiInTemp = weatherModel.inTemp;
+				timeHiInTemp = minute;
+			}
+			if (weatherModel.inTemp < lowInTemp) {
+				lowInTemp = weatherModel.inTemp;
+				timeLowInTemp = minute;
+			}
+			if (weatherModel.outHum > hiOutHum) {
+				hiOutHum = weatherModel.outHum;
+				timeHiOutHum = minute;
+			}
+			if (weatherModel.outHum < lowOutHum) {
+				lowOutHum = weatherModel.outHum;
+				timeLowOutHum = minute;
+			}
+			if (weatherModel.inHum > hiInHum) {
+				hiInHum = weatherModel.inHum;
+				timeHiInHum = minute;
+			}
+			if (weatherModel.inHum < lowInHum) {
+				lowInHum = weatherModel.inHum;
+				timeLowInHum = minute;
+			}
+			if (weatherModel.barometer > hiBar) {
+				hiBar = weatherModel.barometer;
+				timeHiBar = minute;
+			}
+			if (weatherModel.barometer < lowBar) {
+				lowBar = weatherModel.barometer;
+				timeLowBar = minute;
+			}
+			if (weatherModel.hiWindSpeed > hiSpeed) {
+				hiSpeed = weatherModel.hiWindSpeed;
+				dirHiSpeed = weatherModel.hiWindDirection;
+				timeHiSpeed = minute;
+			}
+			if (weatherModel.rainRate > hiRainRate) {
+				hiRainRate = weatherModel.rainRate;
+				timeHiRainRate = minute;
+			}
+			if (weatherModel.hiSolarRad > hiSolar) {
+				hiSolar = weatherModel.hiSolarRad;
+				timeHiSolar = minute;
+			}
+			if (weatherModel.hiUV > hiUV) {
+				hiUV = weatherModel.hiUV;
+				timeHiUV = minute;
+			}
+			sumOutTemp += weatherModel.outTemp;
+			sumInTemp += weatherModel.inTemp;
+			sumOutHum += weatherModel.outHum;
+			sumBar += weatherModel.barometer;
+			sumSpeed += weatherModel.windSpeed;
+			sumSolar += weatherModel.solarRad;
+			rainTotal += weatherModel.rain;
+			etTotal += weatherModel.et;
+			numWindPackets += weatherModel.numWindSamples;
+			if (weatherModel.solarRad > 150) {
+				sunLightRecords++;
+			}
+			heatDD65 += Math.max(0, 650 - weatherModel.outTemp);
+			coolDD65 += Math.max(0, weatherModel.outTemp - 650);
+			if (weatherModel.windSpeed > 0) {
+				directionMinutes[weatherModel.windDirection] += interval;
+			}
+		}
+	}
+}
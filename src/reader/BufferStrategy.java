@@ -0,0 +1,38 @@
+package reader;
+
+/**
+ * Strategy used by WlkReader for bringing the content of a *.wlk file into a
+ * byte buffer from which the structs are decoded.
+ * 
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public enum BufferStrategy {
+	/**
+	 * The whole file is copied into a byte array on the heap and wrapped into
+	 * a byte buffer.
+	 */
+	HEAP,
+
+	/**
+	 * The file is mapped read-only into memory with FileChannel.map. No copy
+	 * of the file is made on the heap, the pages are loaded by the operating
+	 * system when they are accessed.
+	 */
+	MAPPED,
+
+	/**
+	 * The whole file is read through a file channel into a direct byte buffer
+	 * which is allocated outside of the heap.
+	 */
+	DIRECT,
+
+	/**
+	 * Only the header block is read first. Then the daily summaries and
+	 * weather data records are read with positional reads for the days that
+	 * are inside the specified date time range only. This is the cheapest
+	 * strategy when reading a small part of a month.
+	 */
+	SPARSE
+}
@@ -0,0 +1,413 @@
+package reader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+
+import data.DataConverter;
+import data.WeatherField;
+
+/**
+ * Exporter of the weather data records into CSV or TSV. The records are
+ * written straight from the buffers of the files while they are visited, so
+ * neither record objects nor strings are created and the memory does not grow
+ * with the number of records. Values are converted with the DataConverter in
+ * the units of the reader and formatted with a fixed number of decimals,
+ * without trailing zeros. Undefined values are written as empty fields.
+ * <p>
+ * The first column holds the date and time of the record (yyyy-MM-dd HH:mm),
+ * followed by a column for each value of the selected fields. Fields with more
+ * than one value have a column for each value, e.g. EXTRA_TEMP_1 to
+ * EXTRA_TEMP_7. Lines end with a line feed.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class CsvExporter {
+	// Size of the buffer, which is written out whenever it is almost full.
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// Longest line of a record with all the fields is far below this limit.
+	private static final int MAX_LINE = 4096;
+
+	// Largest number of decimals.
+	private static final int MAX_DECIMALS = 9;
+
+	// Largest scaled value which is formatted from a long, above it the
+	// value is formatted by Double.toString.
+	private static final double MAX_SCALED = 1e15;
+
+	// Powers of ten for counting the digits of the scaled values.
+	private static final long[] POWERS = new long[17];
+
+	static {
+		POWERS[0] = 1;
+		for (int i = 1; i < POWERS.length; i++) {
+			POWERS[i] = 10 * POWERS[i - 1];
+		}
+	}
+
+	// Properties
+	private final Set<WeatherField> fields;
+	private char separator = ',';
+	private int decimals = 3;
+	private boolean header = true;
+
+	/**
+	 * Constructor for exporting all the fields.
+	 */
+	public CsvExporter() {
+		this(EnumSet.allOf(WeatherField.class));
+	}
+
+	/**
+	 * Constructor for setting the exported fields. Columns are in the order
+	 * of the fields in the WeatherField enum.
+	 *
+	 * @param fields
+	 */
+	public CsvExporter(Set<WeatherField> fields) {
+		this.fields = EnumSet.noneOf(WeatherField.class);
+		this.fields.addAll(fields);
+	}
+
+	/**
+	 * @return the exported fields
+	 */
+	public Set<WeatherField> getFields() {
+		return fields;
+	}
+
+	/**
+	 * @return the separator of the columns
+	 */
+	public char getSeparator() {
+		return separator;
+	}
+
+	/**
+	 * Sets the separator of the columns, e.g. '\t' for TSV.
+	 *
+	 * @param separator
+	 *            the separator to set, a single ASCII character
+	 */
+	public void setSeparator(char separator) throws IllegalArgumentException {
+		if (separator > 127 || "\n -.:0123456789".indexOf(separator) >= 0) {
+			throw new IllegalArgumentException(
+					"Separator must be an ASCII character which is not a part of the values!");
+		}
+		this.separator = separator;
+	}
+
+	/**
+	 * @return the largest number of decimals of the values
+	 */
+	public int getDecimals() {
+		return decimals;
+	}
+
+	/**
+	 * Sets the largest number of decimals of the values. Values are rounded
+	 * to the decimals and trailing zeros are left out. Fields with integer
+	 * values are always written without decimals.
+	 *
+	 * @param decimals
+	 *            the decimals to set (0 to 9)
+	 */
+	public void setDecimals(int decimals) throws IllegalArgumentException {
+		if (decimals < 0 || decimals > MAX_DECIMALS) {
+			throw new IllegalArgumentException(
+					"Number of decimals must be between 0 and " + MAX_DECIMALS
+							+ "!");
+		}
+		this.decimals = decimals;
+	}
+
+	/**
+	 * @return whether the first line holds the names of the columns
+	 */
+	public boolean isHeader() {
+		return header;
+	}
+
+	/**
+	 * @param header
+	 *            the header to set
+	 */
+	public void setHeader(boolean header) {
+		this.header = header;
+	}
+
+	/**
+	 * Exports the records of the reader into the writer. The writer is
+	 * flushed but not closed.
+	 *
+	 * @param wlkReader
+	 * @param writer
+	 * @return number of exported records
+	 */
+	public long export(WlkReader wlkReader, final Writer writer)
+			throws IOException, ArithmeticException {
+		final char[] chars = new char[BUFFER_SIZE];
+		long rows = export(wlkReader, new Output() {
+			@Override
+			public void write(byte[] bytes, int length) throws IOException {
+				// Lines hold only ASCII characters.
+				for (int i = 0; i < length; i++) {
+					chars[i] = (char) bytes[i];
+				}
+				writer.write(chars, 0, length);
+			}
+		});
+		writer.flush();
+		return rows;
+	}
+
+	/**
+	 * Exports the records of the reader into the channel, e.g. a file
+	 * channel. The channel is not closed.
+	 *
+	 * @param wlkReader
+	 * @param channel
+	 * @return number of exported records
+	 */
+	public long export(WlkReader wlkReader, final WritableByteChannel channel)
+			throws IOException, ArithmeticException {
+		return export(wlkReader, new Output() {
+			@Override
+			public void write(byte[] bytes, int length) throws IOException {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		});
+	}
+
+	private long export(WlkReader wlkReader, Output output)
+			throws IOException, ArithmeticException {
+		LineWriter lineWriter = new LineWriter(new DataConverter(
+				wlkReader.isUnit()), output);
+		if (header) {
+			lineWriter.writeHeader();
+		}
+		try {
+			wlkReader.visit(lineWriter);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		lineWriter.flush();
+		return lineWriter.rows;
+	}
+
+	/**
+	 * Destination of the formatted lines.
+	 */
+	private interface Output {
+		void write(byte[] bytes, int length) throws IOException;
+	}
+
+	/**
+	 * Visitor which formats each record into a line of the buffer.
+	 */
+	private class LineWriter implements WlkRecordVisitor {
+		private final DataConverter dataConverter;
+		private final Output output;
+
+		// Columns of the values by their fields and indexes.
+		private final WeatherField[] columnFields;
+		private final int[] columnIndexes;
+
+		// Buffer with the lines, which are not written out yet.
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int length;
+
+		// Days since 1970-01-01 and the formatted date of the last record.
+		private long epochDay = Long.MIN_VALUE;
+		private final byte[] date = new byte[10];
+
+		private long rows;
+
+		LineWriter(DataConverter dataConverter, Output output) {
+			this.dataConverter = dataConverter;
+			this.output = output;
+			List<WeatherField> columnFieldList = new ArrayList<WeatherField>();
+			List<Integer> columnIndexList = new ArrayList<Integer>();
+			for (WeatherField field : fields) {
+				for (int index = 0; index < field.getWidth(); index++) {
+					columnFieldList.add(field);
+					columnIndexList.add(index);
+				}
+			}
+			columnFields = columnFieldList.toArray(new WeatherField[0]);
+			columnIndexes = new int[columnIndexList.size()];
+			for (int i = 0; i < columnIndexes.length; i++) {
+				columnIndexes[i] = columnIndexList.get(i);
+			}
+		}
+
+		void writeHeader() throws IOException {
+			writeAscii("DATE_TIME");
+			for (int i = 0; i < columnFields.length; i++) {
+				buffer[length++] = (byte) separator;
+				writeAscii(columnFields[i].name());
+				if (columnFields[i].getWidth() > 1) {
+					writeAscii("_" + (columnIndexes[i] + 1));
+				}
+				if (length > BUFFER_SIZE - MAX_LINE) {
+					flush();
+				}
+			}
+			buffer[length++] = '\n';
+		}
+
+		private void writeAscii(String text) {
+			for (int i = 0; i < text.length(); i++) {
+				buffer[length++] = (byte) text.charAt(i);
+			}
+		}
+
+		@Override
+		public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+			return true;
+		}
+
+		@Override
+		public void onRecord(long epochMinute, RecordCursor recordCursor) {
+			// Record with time 00:00 belongs to the next date, so the date is
+			// taken from the minutes of the record.
+			long day = Math.floorDiv(epochMinute, TimeWindow.MINUTES_PER_DAY);
+			if (day != epochDay) {
+				epochDay = day;
+				LocalDate localDate = new LocalDate(1970, 1, 1)
+						.plusDays((int) day);
+				writeNumber(date, 0, localDate.getYear(), 4);
+				date[4] = '-';
+				writeNumber(date, 5, localDate.getMonthOfYear(), 2);
+				date[7] = '-';
+				writeNumber(date, 8, localDate.getDayOfMonth(), 2);
+			}
+			int minuteOfDay = (int) (epochMinute - day
+					* TimeWindow.MINUTES_PER_DAY);
+			System.arraycopy(date, 0, buffer, length, date.length);
+			length += date.length;
+			buffer[length++] = ' ';
+			writeNumber(buffer, length, minuteOfDay / 60, 2);
+			buffer[length + 2] = ':';
+			writeNumber(buffer, length + 3, minuteOfDay % 60, 2);
+			length += 5;
+
+			ByteBuffer recordBuffer = recordCursor.getBuffer();
+			int recordOffset = recordCursor.getPosition();
+			for (int i = 0; i < columnFields.length; i++) {
+				buffer[length++] = (byte) separator;
+				WeatherField field = columnFields[i];
+				double value = field.getValue(recordBuffer, recordOffset,
+						columnIndexes[i], dataConverter);
+				length = formatDouble(value,
+						field.isInteger() ? 0 : decimals, buffer, length);
+			}
+			buffer[length++] = '\n';
+			rows++;
+
+			if (length > BUFFER_SIZE - MAX_LINE) {
+				try {
+					flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+
+		void flush() throws IOException {
+			if (length > 0) {
+				output.write(buffer, length);
+				length = 0;
+			}
+		}
+	}
+
+	/**
+	 * Writes a non-negative number with the specified number of digits,
+	 * padded with leading zeros.
+	 */
+	private static void writeNumber(byte[] bytes, int at, int number,
+			int digits) {
+		for (int i = at + digits - 1; i >= at; i--) {
+			bytes[i] = (byte) ('0' + number % 10);
+			number /= 10;
+		}
+	}
+
+	/**
+	 * Formats the value rounded to the number of decimals, without trailing
+	 * zeros in the decimals. NaN is formatted as an empty string. The value
+	 * is scaled to a long and its digits are written backwards, so the only
+	 * divisions are by the constant 10.
+	 *
+	 * @param value
+	 * @param decimals
+	 *            largest number of decimals (0 to 9)
+	 * @param bytes
+	 * @param at
+	 *            index of the first byte
+	 * @return index after the last byte
+	 */
+	static int formatDouble(double value, int decimals, byte[] bytes, int at) {
+		if (Double.isNaN(value)) {
+			return at;
+		}
+		double scaled = Math.abs(value) * POWERS[decimals];
+		if (Double.isInfinite(value) || scaled >= MAX_SCALED) {
+			// Values of the weather fields never get here.
+			String text = Double.toString(value);
+			for (int i = 0; i < text.length(); i++) {
+				bytes[at++] = (byte) text.charAt(i);
+			}
+			return at;
+		}
+
+		long rounded = Math.round(scaled);
+		if (value < 0 && rounded != 0) {
+			bytes[at++] = '-';
+		}
+
+		// Trailing zeros of the decimals are left out.
+		int fractionDigits = decimals;
+		while (fractionDigits > 0 && rounded % 10 == 0) {
+			rounded /= 10;
+			fractionDigits--;
+		}
+		int digits = 1;
+		while (digits < POWERS.length && rounded >= POWERS[digits]) {
+			digits++;
+		}
+		int integerDigits = Math.max(1, digits - fractionDigits);
+		int end = at + integerDigits
+				+ (fractionDigits > 0 ? fractionDigits + 1 : 0);
+
+		int i = end - 1;
+		for (int k = 0; k < fractionDigits; k++) {
+			bytes[i--] = (byte) ('0' + rounded % 10);
+			rounded /= 10;
+		}
+		if (fractionDigits > 0) {
+			bytes[i--] = '.';
+		}
+		for (int k = 0; k < integerDigits; k++) {
+			bytes[i--] = (byte) ('0' + rounded % 10);
+			rounded /= 10;
+		}
+		return end;
+	}
+}
@@ -0,0 +1,73 @@
+package reader;
+
+import java.util.Arrays;
+
+/**
+ * Highs and lows of a single day from the daily summaries, which are used for
+ * skipping days that cannot contain a matching record. The values are raw
+ * values of the daily summaries and are stored in a short array at the
+ * indexes defined below. Undefined values are Short.MIN_VALUE.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+final class DayExtremes {
+	static final int LOW_OUT_TEMP = 0;
+	static final int HI_OUT_TEMP = 1;
+	static final int LOW_IN_TEMP = 2;
+	static final int HI_IN_TEMP = 3;
+	static final int LOW_OUT_HUM = 4;
+	static final int HI_OUT_HUM = 5;
+	static final int LOW_IN_HUM = 6;
+	static final int HI_IN_HUM = 7;
+	static final int LOW_BAR = 8;
+	static final int HI_BAR = 9;
+	static final int HI_SPEED = 10;
+	static final int HI_RAIN_RATE = 11;
+	static final int HI_SOLAR = 12;
+
+	// Number of values.
+	static final int SIZE = 13;
+
+	private DayExtremes() {
+	}
+
+	/**
+	 * Reads the highs and lows from the daily summaries. If the data types of
+	 * the daily summaries are wrong, then all the values are undefined.
+	 *
+	 * @param summaryCursor
+	 * @return highs and lows of the day
+	 */
+	static short[] read(SummaryCursor summaryCursor) {
+		if (summaryCursor.getDataType1() != 2
+				|| summaryCursor.getDataType2() != 3) {
+			return undefined();
+		}
+		short[] extremes = new short[SIZE];
+		extremes[LOW_OUT_TEMP] = summaryCursor.getLowOutTemp();
+		extremes[HI_OUT_TEMP] = summaryCursor.getHiOutTemp();
+		extremes[LOW_IN_TEMP] = summaryCursor.getLowInTemp();
+		extremes[HI_IN_TEMP] = summaryCursor.getHiInTemp();
+		extremes[LOW_OUT_HUM] = summaryCursor.getLowOutHum();
+		extremes[HI_OUT_HUM] = summaryCursor.getHiOutHum();
+		extremes[LOW_IN_HUM] = summaryCursor.getLowInHum();
+		extremes[HI_IN_HUM] = summaryCursor.getHiInHum();
+		extremes[LOW_BAR] = summaryCursor.getLowBar();
+		extremes[HI_BAR] = summaryCursor.getHiBar();
+		extremes[HI_SPEED] = summaryCursor.getHiSpeed();
+		extremes[HI_RAIN_RATE] = summaryCursor.getHiRainRate();
+		extremes[HI_SOLAR] = summaryCursor.getHiSolar();
+		return extremes;
+	}
+
+	/**
+	 * @return highs and lows with all the values undefined
+	 */
+	static short[] undefined() {
+		short[] extremes = new short[SIZE];
+		Arrays.fill(extremes, Short.MIN_VALUE);
+		return extremes;
+	}
+}
@@ -0,0 +1,272 @@
+package reader;
+
+import java.io.File;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import data.WeatherDataColumns;
+import data.WeatherField;
+
+/**
+ * Cache of decoded months, which can be shared by many readers and threads.
+ * Each entry holds all the days of a single file and is identified by the
+ * path, the size and the modification time of the file, the unit conversion
+ * and the selected fields, so a changed file is decoded again. The least
+ * recently used months are evicted when the estimated size of the cached data
+ * exceeds the maximum size.
+ * <p>
+ * Days are kept in a compact form, which is never handed out: the raw daily
+ * summaries and the converted values of the records in columns. Each read
+ * creates its own daily summaries and records from them, so the data of the
+ * readers is the same with or without the cache.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class MonthCache {
+	// Properties
+	private final long maximumSize;
+
+	// Months in access order, the least recently used first.
+	private final LinkedHashMap<Key, Month> months = new LinkedHashMap<Key, Month>(
+			16, 0.75f, true);
+	private long size;
+
+	// Statistics
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Constructor for setting the maximum estimated size of the cached data.
+	 *
+	 * @param maximumSize
+	 *            maximum size in bytes
+	 */
+	public MonthCache(long maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException(
+					"Maximum size must be positive!");
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * @return the maximumSize
+	 */
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the estimated size of the cached data in bytes
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of cached months
+	 */
+	public synchronized int getMonthCount() {
+		return months.size();
+	}
+
+	/**
+	 * @return the number of reads of a month that was cached
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of reads of a month that had to be decoded
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of evicted months
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Removes all the cached months. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		months.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the cached days of the month and counts a hit or a miss.
+	 *
+	 * @param key
+	 * @return cached days or null if the month is not cached
+	 */
+	synchronized List<Day> get(Key key) {
+		Month month = months.get(key);
+		if (month == null) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return month.days;
+	}
+
+	/**
+	 * Caches the days of the month. Older versions of the same file are
+	 * removed, then the least recently used months are evicted until the
+	 * cached data fits into the maximum size. Months larger than the maximum
+	 * size are not cached.
+	 *
+	 * @param key
+	 * @param days
+	 *            all the days of the month
+	 */
+	synchronized void put(Key key, List<Day> days) {
+		Month month = new Month(days);
+		if (month.size > maximumSize) {
+			return;
+		}
+
+		for (Iterator<Map.Entry<Key, Month>> entries = months.entrySet()
+				.iterator(); entries.hasNext();) {
+			Map.Entry<Key, Month> entry = entries.next();
+			if (entry.getKey().isOlderVersion(key)) {
+				size -= entry.getValue().size;
+				entries.remove();
+			}
+		}
+
+		Month previous = months.put(key, month);
+		if (previous != null) {
+			size -= previous.size;
+		}
+		size += month.size;
+
+		// The iterator returns the least recently used months first.
+		Iterator<Month> iterator = months.values().iterator();
+		while (size > maximumSize && iterator.hasNext()) {
+			size -= iterator.next().size;
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Days of a single month with their estimated size.
+	 */
+	private static class Month {
+		private final List<Day> days;
+		private final long size;
+
+		Month(List<Day> days) {
+			this.days = days;
+			long size = 0;
+			for (Day day : days) {
+				size += day.getSize();
+			}
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Single day of a month in the compact form. The bytes of the two daily
+	 * summaries are kept as they are in the file and the records are kept as
+	 * converted values in columns. Neither is changed after the day is
+	 * cached.
+	 */
+	static class Day {
+		// Day of the month and days since 1970-01-01.
+		final int day;
+		final long epochDay;
+
+		// Daily summary 1 and 2, as they are stored in the file.
+		final byte[] summaries;
+
+		// Converted values of all the records of the day.
+		final WeatherDataColumns records;
+
+		Day(int day, long epochDay, byte[] summaries,
+				WeatherDataColumns records) {
+			this.day = day;
+			this.epochDay = epochDay;
+			this.summaries = summaries;
+			this.records = records;
+		}
+
+		/**
+		 * @return estimated size of the day in bytes
+		 */
+		long getSize() {
+			// Timestamp and the values of each row, integer values take 4
+			// bytes and the others 8 bytes.
+			long rowSize = 4;
+			for (WeatherField field : records.getFields()) {
+				rowSize += field.getWidth() * (field.isInteger() ? 4 : 8);
+			}
+			return summaries.length + rowSize * records.size();
+		}
+	}
+
+	/**
+	 * Identifies a decoded month by the file and by the settings of the
+	 * reader which change the decoded records. Daily summaries are decoded
+	 * on each read, so the selected summary values are not a part of the key.
+	 */
+	static class Key {
+		private final String path;
+		private final long length;
+		private final long lastModified;
+		private final boolean unit;
+		private final Set<WeatherField> fields;
+
+		Key(File file, boolean unit, Set<WeatherField> fields) {
+			this.path = file.getAbsolutePath();
+			this.length = file.length();
+			this.lastModified = file.lastModified();
+			this.unit = unit;
+			this.fields = EnumSet.noneOf(WeatherField.class);
+			this.fields.addAll(fields);
+		}
+
+		/**
+		 * Checks whether the key is of the same file, but the file changed
+		 * since.
+		 */
+		boolean isOlderVersion(Key key) {
+			return path.equals(key.path)
+					&& (length != key.length || lastModified != key.lastModified);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) object;
+			return path.equals(key.path) && length == key.length
+					&& lastModified == key.lastModified && unit == key.unit
+					&& fields.equals(key.fields);
+		}
+
+		@Override
+		public int hashCode() {
+			int hashCode = path.hashCode();
+			hashCode = 31 * hashCode
+					+ (int) (lastModified ^ lastModified >>> 32);
+			hashCode = 31 * hashCode + (unit ? 1 : 0);
+			return 31 * hashCode + fields.hashCode();
+		}
+	}
+}
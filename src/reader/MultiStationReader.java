@@ -0,0 +1,349 @@
+package reader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+
+import data.DailyWeatherData;
+import data.QuantileSketch;
+import data.StationWeatherDataRecord;
+import data.WeatherDataRecord;
+import data.WeatherField;
+
+/**
+ * Reader of several stations, each with its own directory of *.wlk files. The
+ * weather data records of all the stations are merged into a single stream in
+ * chronological order, in which each record is tagged with the id of its
+ * station. Records of different stations with the same time are ordered in
+ * the order of the stations in the map.
+ * <p>
+ * Each station is read lazily by the iterator of its own reader. While the
+ * records of the current day of a station are merged, the next day of the
+ * station is already decoded by a task of the executor, so the stations are
+ * decoded in parallel. At most two days of each station are held in memory,
+ * regardless of the length of the date time range.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class MultiStationReader {
+	// Readers of the stations in the order of the map.
+	private final Map<String, WlkReader> readers = new LinkedHashMap<String, WlkReader>();
+
+	/**
+	 * Constructor for setting the directories of the stations by the ids of
+	 * the stations. It will read all the available data with no date and time
+	 * constrains.
+	 *
+	 * @param directories
+	 */
+	public MultiStationReader(Map<String, File> directories) {
+		this(directories, null, null, true);
+	}
+
+	/**
+	 * Constructor for setting the directories of the stations by the ids of
+	 * the stations, the date time range and whether there should be unit
+	 * conversion. The same settings are used for all the stations.
+	 *
+	 * @param directories
+	 * @param dateTimeStart
+	 * @param dateTimeEnd
+	 * @param unit
+	 */
+	public MultiStationReader(Map<String, File> directories,
+			DateTime dateTimeStart, DateTime dateTimeEnd, boolean unit) {
+		for (Map.Entry<String, File> entry : directories.entrySet()) {
+			readers.put(entry.getKey(), new WlkReader(entry.getValue(),
+					dateTimeStart, dateTimeEnd, unit));
+		}
+	}
+
+	/**
+	 * @return the ids of the stations in the order of the map
+	 */
+	public Set<String> getStationIds() {
+		return Collections.unmodifiableSet(readers.keySet());
+	}
+
+	/**
+	 * Returns the reader of the station, whose settings such as the fields,
+	 * the filter or the buffer strategy can be changed before reading.
+	 *
+	 * @param stationId
+	 * @return reader of the station or null if there is no such station
+	 */
+	public WlkReader getReader(String stationId) {
+		return readers.get(stationId);
+	}
+
+	/**
+	 * Reads the quantile sketches of the specified fields of each station and
+	 * merges them into sketches of all the stations.
+	 *
+	 * @param fields
+	 *            fields with a single value
+	 * @return merged sketches by the fields
+	 */
+	public Map<WeatherField, QuantileSketch> readSketches(
+			Set<WeatherField> fields) throws IOException,
+			IllegalArgumentException, ArithmeticException {
+		Map<WeatherField, QuantileSketch> sketches = new EnumMap<WeatherField, QuantileSketch>(
+				WeatherField.class);
+		for (WeatherField field : fields) {
+			sketches.put(field, new QuantileSketch(field));
+		}
+		for (WlkReader wlkReader : readers.values()) {
+			for (QuantileSketch sketch : wlkReader.readSketches(fields)
+					.values()) {
+				sketches.get(sketch.getField()).merge(sketch);
+			}
+		}
+		return sketches;
+	}
+
+	/**
+	 * Returns a sequential stream of the weather data records of all the
+	 * stations in chronological order. The days are decoded by tasks of the
+	 * common fork join pool. Closing the stream closes the files that are
+	 * currently being read.
+	 *
+	 * @return stream of station tagged weather data records
+	 */
+	public Stream<StationWeatherDataRecord> streamRecords()
+			throws IOException {
+		return streamRecords(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns a sequential stream of the weather data records of all the
+	 * stations in chronological order, whose days are decoded by tasks of the
+	 * specified executor. Tasks never wait for each other, so any number of
+	 * threads is enough.
+	 *
+	 * @param executor
+	 * @return stream of station tagged weather data records
+	 */
+	public Stream<StationWeatherDataRecord> streamRecords(Executor executor)
+			throws IOException {
+		MergeIterator iterator = new MergeIterator(executor);
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(iterator,
+						Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * Iterator which merges the records of the stations with a priority queue
+	 * of the stations, ordered by the time of their current record.
+	 */
+	private class MergeIterator implements
+			Iterator<StationWeatherDataRecord>, Closeable {
+		private final List<Station> stations = new ArrayList<Station>();
+		private final PriorityQueue<Station> queue;
+
+		// Whether the first records of the stations were taken.
+		private boolean started;
+
+		// Station whose current record was returned last. It is moved to its
+		// next record only when the next record of the stream is needed.
+		private Station returned;
+
+		MergeIterator(Executor executor) throws IOException {
+			this.queue = new PriorityQueue<Station>(Math.max(readers.size(),
+					1), Comparator.comparingLong(
+					(Station station) -> station.epochMinute)
+					.thenComparingInt(station -> station.order));
+			try {
+				for (Map.Entry<String, WlkReader> entry : readers.entrySet()) {
+					stations.add(new Station(entry.getKey(), stations.size(),
+							entry.getValue().iterator(), executor));
+				}
+			} catch (IOException | RuntimeException e) {
+				close();
+				throw e;
+			}
+
+			// All the stations start decoding their first day.
+			for (Station station : stations) {
+				station.prefetch();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (!started) {
+				started = true;
+				for (Station station : stations) {
+					if (station.advance()) {
+						queue.add(station);
+					}
+				}
+			}
+			if (returned != null) {
+				if (returned.advance()) {
+					queue.add(returned);
+				}
+				returned = null;
+			}
+			return !queue.isEmpty();
+		}
+
+		@Override
+		public StationWeatherDataRecord next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			returned = queue.poll();
+			return new StationWeatherDataRecord(returned.stationId,
+					returned.records.get(returned.index));
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Waits for the days that are being decoded and closes the files that
+		 * are currently being read.
+		 */
+		@Override
+		public void close() {
+			for (Station station : stations) {
+				station.close();
+			}
+		}
+	}
+
+	/**
+	 * Single station of the merge with its current day and the next day,
+	 * which is decoded in advance. Only one task of a station runs at a time,
+	 * so the iterator of its reader is never used by two threads at once.
+	 */
+	private static class Station {
+		private final String stationId;
+		private final int order;
+		private final WlkReader.DailyWeatherDataIterator days;
+		private final Executor executor;
+
+		// Next day or null at the end. It is null while no task runs.
+		private CompletableFuture<DailyWeatherData> nextDay;
+
+		// Records of the current day and the index of the current record.
+		private List<WeatherDataRecord> records;
+		private int index = -1;
+
+		// Time of the current record in minutes since 1970-01-01 00:00. The
+		// days since 1970-01-01 are computed once for each date.
+		private long epochMinute;
+		private LocalDate date;
+		private long epochDay;
+
+		Station(String stationId, int order,
+				WlkReader.DailyWeatherDataIterator days, Executor executor) {
+			this.stationId = stationId;
+			this.order = order;
+			this.days = days;
+			this.executor = executor;
+		}
+
+		/**
+		 * Starts decoding the next day.
+		 */
+		void prefetch() {
+			nextDay = CompletableFuture.supplyAsync(
+					() -> days.hasNext() ? days.next() : null, executor);
+		}
+
+		/**
+		 * Moves to the next record, taking the next days as needed.
+		 *
+		 * @return whether there is a next record
+		 */
+		boolean advance() {
+			index++;
+			while (records == null || index >= records.size()) {
+				DailyWeatherData dailyWeatherData = take();
+				if (dailyWeatherData == null) {
+					records = null;
+					return false;
+				}
+				records = dailyWeatherData.getWeatherDataRecords();
+				index = 0;
+			}
+
+			WeatherDataRecord record = records.get(index);
+			if (!record.getDate().equals(date)) {
+				date = record.getDate();
+				epochDay = TimeWindow.toEpochDay(date);
+			}
+			epochMinute = epochDay * TimeWindow.MINUTES_PER_DAY
+					+ record.getTime().getMillisOfDay() / 60000;
+			return true;
+		}
+
+		/**
+		 * Waits for the next day and starts decoding the day after it.
+		 *
+		 * @return next day or null at the end
+		 */
+		private DailyWeatherData take() {
+			if (nextDay == null) {
+				return null;
+			}
+			DailyWeatherData dailyWeatherData;
+			try {
+				dailyWeatherData = nextDay.join();
+			} catch (CompletionException e) {
+				// Input output errors of the iterator are unchecked.
+				nextDay = null;
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+			nextDay = null;
+			if (dailyWeatherData != null) {
+				prefetch();
+			}
+			return dailyWeatherData;
+		}
+
+		void close() {
+			if (nextDay != null) {
+				try {
+					nextDay.join();
+				} catch (RuntimeException e) {
+					// The station is closed anyway.
+				}
+				nextDay = null;
+			}
+			days.close();
+		}
+	}
+}
@@ -0,0 +1,350 @@
+package reader;
+
+import java.nio.ByteBuffer;
+
+import data.WeatherField;
+
+/**
+ * Flyweight cursor over the 88B weather data records in a byte buffer. The
+ * fields are read directly from the buffer at fixed offsets, so moving the
+ * cursor and reading the values does not allocate. The values are the raw
+ * values of the file in the same types as in the WeatherDataRecord struct.
+ * The byte buffer must be in LITTLE ENDIAN order.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public final class RecordCursor {
+	/**
+	 * Size of a single record in bytes.
+	 */
+	public static final int SIZE = 88;
+
+	private ByteBuffer buffer;
+	private int position;
+
+	/**
+	 * Constructor for a cursor which is not positioned yet.
+	 */
+	public RecordCursor() {
+	}
+
+	/**
+	 * Constructor for setting the buffer and the position of the record.
+	 *
+	 * @param buffer
+	 * @param position
+	 */
+	public RecordCursor(ByteBuffer buffer, int position) {
+		this.buffer = buffer;
+		this.position = position;
+	}
+
+	/**
+	 * Moves the cursor to the record at the position of the buffer.
+	 *
+	 * @param buffer
+	 * @param position
+	 * @return this cursor
+	 */
+	public RecordCursor reset(ByteBuffer buffer, int position) {
+		this.buffer = buffer;
+		this.position = position;
+		return this;
+	}
+
+	/**
+	 * Moves the cursor to the next record.
+	 *
+	 * @return this cursor
+	 */
+	public RecordCursor next() {
+		position += SIZE;
+		return this;
+	}
+
+	/**
+	 * @return the buffer
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return the position of the record in the buffer
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Reads the raw value of the field.
+	 *
+	 * @param field
+	 * @param index
+	 *            index of the value for fields with more than one value
+	 * @return raw value
+	 */
+	public short getRaw(WeatherField field, int index) {
+		return field.getRaw(buffer, position, index);
+	}
+
+	/**
+	 * Copies the record into a new byte array.
+	 *
+	 * @return bytes of the record
+	 */
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			bytes[i] = buffer.get(position + i);
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return the data type, which is 1 for weather data records
+	 */
+	public byte getDataType() {
+		return buffer.get(position);
+	}
+
+	/**
+	 * @return the archive interval in minutes
+	 */
+	public byte getArchiveInterval() {
+		return buffer.get(position + 1);
+	}
+
+	/**
+	 * @return the icon flags
+	 */
+	public byte getIconFlags() {
+		return buffer.get(position + 2);
+	}
+
+	/**
+	 * @return the more flags
+	 */
+	public byte getMoreFlags() {
+		return buffer.get(position + 3);
+	}
+
+	/**
+	 * @return the minutes past midnight at the end of the archive interval
+	 */
+	public short getPackedTime() {
+		return buffer.getShort(position + 4);
+	}
+
+	/**
+	 * @return the outsideTemp
+	 */
+	public short getOutsideTemp() {
+		return buffer.getShort(position + 6);
+	}
+
+	/**
+	 * @return the hiOutsideTemp
+	 */
+	public short getHiOutsideTemp() {
+		return buffer.getShort(position + 8);
+	}
+
+	/**
+	 * @return the lowOutsideTemp
+	 */
+	public short getLowOutsideTemp() {
+		return buffer.getShort(position + 10);
+	}
+
+	/**
+	 * @return the insideTemp
+	 */
+	public short getInsideTemp() {
+		return buffer.getShort(position + 12);
+	}
+
+	/**
+	 * @return the barometer
+	 */
+	public short getBarometer() {
+		return buffer.getShort(position + 14);
+	}
+
+	/**
+	 * @return the outsideHum
+	 */
+	public short getOutsideHum() {
+		return buffer.getShort(position + 16);
+	}
+
+	/**
+	 * @return the insideHum
+	 */
+	public short getInsideHum() {
+		return buffer.getShort(position + 18);
+	}
+
+	/**
+	 * @return the rain, which is unsigned
+	 */
+	public int getRain() {
+		return buffer.getShort(position + 20) & 0xFFFF;
+	}
+
+	/**
+	 * @return the hiRainRate
+	 */
+	public short getHiRainRate() {
+		return buffer.getShort(position + 22);
+	}
+
+	/**
+	 * @return the windSpeed
+	 */
+	public short getWindSpeed() {
+		return buffer.getShort(position + 24);
+	}
+
+	/**
+	 * @return the hiWindSpeed
+	 */
+	public short getHiWindSpeed() {
+		return buffer.getShort(position + 26);
+	}
+
+	/**
+	 * @return the windDirection
+	 */
+	public byte getWindDirection() {
+		return buffer.get(position + 28);
+	}
+
+	/**
+	 * @return the hiWindDirection
+	 */
+	public byte getHiWindDirection() {
+		return buffer.get(position + 29);
+	}
+
+	/**
+	 * @return the numWindSamples
+	 */
+	public short getNumWindSamples() {
+		return buffer.getShort(position + 30);
+	}
+
+	/**
+	 * @return the solarRad
+	 */
+	public short getSolarRad() {
+		return buffer.getShort(position + 32);
+	}
+
+	/**
+	 * @return the hiSolarRad
+	 */
+	public short getHiSolarRad() {
+		return buffer.getShort(position + 34);
+	}
+
+	/**
+	 * @return the UV
+	 */
+	public byte getUV() {
+		return buffer.get(position + 36);
+	}
+
+	/**
+	 * @return the hiUV
+	 */
+	public byte getHiUV() {
+		return buffer.get(position + 37);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 3)
+	 * @return the leafTemp
+	 */
+	public byte getLeafTemp(int index) {
+		return buffer.get(position + 38 + index);
+	}
+
+	/**
+	 * @return the extraRad
+	 */
+	public short getExtraRad() {
+		return buffer.getShort(position + 42);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 5)
+	 * @return the newSensors
+	 */
+	public short getNewSensors(int index) {
+		return buffer.getShort(position + 44 + 2 * index);
+	}
+
+	/**
+	 * @return the forecast
+	 */
+	public byte getForecast() {
+		return buffer.get(position + 56);
+	}
+
+	/**
+	 * @return the ET
+	 */
+	public byte getET() {
+		return buffer.get(position + 57);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 5)
+	 * @return the soilTemp
+	 */
+	public byte getSoilTemp(int index) {
+		return buffer.get(position + 58 + index);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 5)
+	 * @return the soilMoisture
+	 */
+	public byte getSoilMoisture(int index) {
+		return buffer.get(position + 64 + index);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 3)
+	 * @return the leafWetness
+	 */
+	public byte getLeafWetness(int index) {
+		return buffer.get(position + 70 + index);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 6)
+	 * @return the extraTemp
+	 */
+	public byte getExtraTemp(int index) {
+		return buffer.get(position + 74 + index);
+	}
+
+	/**
+	 * @param index
+	 *            index of the sensor (0 to 6)
+	 * @return the extraHum
+	 */
+	public byte getExtraHum(int index) {
+		return buffer.get(position + 81 + index);
+	}
+}
@@ -0,0 +1,284 @@
+package reader;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import data.DataConverter;
+import data.WeatherField;
+
+/**
+ * Filter of weather data records, which is pushed down into the reader. A
+ * filter is a conjunction of conditions on single value fields. The values of
+ * the conditions are in the same units as the values of the records, which
+ * means in metric units if unit conversion is enabled.
+ * <p>
+ * Days are skipped without decoding their records if the highs and lows of
+ * the daily summary show that no record of the day can match. The records of
+ * the remaining days are checked on their raw values before any object is
+ * created. Days without a matching record are left out of the result.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class RecordFilter {
+	// Lowest raw value which is not undefined.
+	private static final int LOWEST_VALUE = Short.MIN_VALUE + 1;
+
+	// Properties
+	private final List<Condition> conditions;
+
+	// Compiled filters for conversion to metric units and without conversion.
+	private volatile CompiledFilter metric;
+	private volatile CompiledFilter imperial;
+
+	private RecordFilter(List<Condition> conditions) {
+		this.conditions = Collections.unmodifiableList(conditions);
+	}
+
+	/**
+	 * Creates a filter for records with the value of the field greater than
+	 * the specified value.
+	 *
+	 * @param field
+	 * @param value
+	 * @return filter
+	 */
+	public static RecordFilter greaterThan(WeatherField field, double value) {
+		return between(field, Math.nextUp(value), Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Creates a filter for records with the value of the field less than the
+	 * specified value.
+	 *
+	 * @param field
+	 * @param value
+	 * @return filter
+	 */
+	public static RecordFilter lessThan(WeatherField field, double value) {
+		return between(field, Double.NEGATIVE_INFINITY, Math.nextDown(value));
+	}
+
+	/**
+	 * Creates a filter for records with the value of the field between the
+	 * minimum and the maximum value (both inclusive).
+	 *
+	 * @param field
+	 *            field with a single value
+	 * @param min
+	 * @param max
+	 * @return filter
+	 */
+	public static RecordFilter between(WeatherField field, double min,
+			double max) {
+		if (field.getWidth() != 1) {
+			throw new IllegalArgumentException(
+					"Only fields with a single value can be filtered!");
+		}
+		List<Condition> conditions = new ArrayList<Condition>();
+		conditions.add(new Condition(field, min, max));
+		return new RecordFilter(conditions);
+	}
+
+	/**
+	 * Creates a filter for records which match both this and the other
+	 * filter.
+	 *
+	 * @param other
+	 * @return filter
+	 */
+	public RecordFilter and(RecordFilter other) {
+		List<Condition> conditions = new ArrayList<Condition>(this.conditions);
+		conditions.addAll(other.conditions);
+		return new RecordFilter(conditions);
+	}
+
+	/**
+	 * Returns the filter compiled for the unit conversion of the data
+	 * converter. Filters are immutable, so the compiled filter is created only
+	 * once for each unit conversion.
+	 *
+	 * @param dataConverter
+	 * @return compiled filter
+	 */
+	CompiledFilter compile(DataConverter dataConverter) {
+		CompiledFilter compiledFilter = dataConverter.isUnit() ? metric
+				: imperial;
+		if (compiledFilter == null) {
+			compiledFilter = new CompiledFilter(conditions, dataConverter);
+			if (dataConverter.isUnit()) {
+				metric = compiledFilter;
+			} else {
+				imperial = compiledFilter;
+			}
+		}
+		return compiledFilter;
+	}
+
+	/**
+	 * Condition on the value of a single field.
+	 */
+	private static class Condition {
+		private final WeatherField field;
+		private final double min;
+		private final double max;
+
+		Condition(WeatherField field, double min, double max) {
+			this.field = field;
+			this.min = min;
+			this.max = max;
+		}
+	}
+
+	/**
+	 * Filter with the conditions converted to the raw values. For each
+	 * condition a table tells whether each of the 16-bit raw values matches.
+	 * The number of matching values below each raw value is used for checking
+	 * the range of the daily highs and lows in a single step.
+	 */
+	static class CompiledFilter {
+		private final WeatherField[] fields;
+		private final boolean[][] matches;
+		private final int[][] matchesBelow;
+
+		CompiledFilter(List<Condition> conditions,
+				DataConverter dataConverter) {
+			int size = conditions.size();
+			fields = new WeatherField[size];
+			matches = new boolean[size][];
+			matchesBelow = new int[size][];
+			for (int i = 0; i < size; i++) {
+				Condition condition = conditions.get(i);
+				fields[i] = condition.field;
+				matches[i] = new boolean[1 << 16];
+				matchesBelow[i] = new int[(1 << 16) + 1];
+				for (int raw = Short.MIN_VALUE; raw <= Short.MAX_VALUE; raw++) {
+					int index = raw - Short.MIN_VALUE;
+
+					// Undefined values (NaN) never match.
+					double value = condition.field.convert((short) raw,
+							dataConverter);
+					matches[i][index] = value >= condition.min
+							&& value <= condition.max;
+					matchesBelow[i][index + 1] = matchesBelow[i][index]
+							+ (matches[i][index] ? 1 : 0);
+				}
+			}
+		}
+
+		/**
+		 * Checks the raw values of the weather data record, which starts at
+		 * the specified offset in the byte buffer.
+		 *
+		 * @param buffer
+		 * @param recordOffset
+		 * @return whether the record matches all the conditions
+		 */
+		boolean matches(ByteBuffer buffer, int recordOffset) {
+			for (int i = 0; i < fields.length; i++) {
+				if (!matches[i][fields[i].getRaw(buffer, recordOffset, 0)
+						- Short.MIN_VALUE]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Checks the highs and lows of the daily summaries. Conditions on
+		 * fields without highs and lows in the daily summaries and undefined
+		 * highs and lows never exclude the day.
+		 *
+		 * @param extremes
+		 *            highs and lows of the day as read by DayExtremes
+		 * @return whether any record of the day can match all the conditions
+		 */
+		boolean mayMatch(short[] extremes) {
+			for (int i = 0; i < fields.length; i++) {
+				int low;
+				int high;
+				switch (fields[i]) {
+				case OUT_TEMP:
+				case MAX_OUT_TEMP:
+				case MIN_OUT_TEMP:
+					low = extremes[DayExtremes.LOW_OUT_TEMP];
+					high = extremes[DayExtremes.HI_OUT_TEMP];
+					break;
+				case IN_TEMP:
+					low = extremes[DayExtremes.LOW_IN_TEMP];
+					high = extremes[DayExtremes.HI_IN_TEMP];
+					break;
+				case OUT_HUMIDITY:
+					low = extremes[DayExtremes.LOW_OUT_HUM];
+					high = extremes[DayExtremes.HI_OUT_HUM];
+					break;
+				case IN_HUMIDITY:
+					low = extremes[DayExtremes.LOW_IN_HUM];
+					high = extremes[DayExtremes.HI_IN_HUM];
+					break;
+				case PRESSURE:
+					low = extremes[DayExtremes.LOW_BAR];
+					high = extremes[DayExtremes.HI_BAR];
+					break;
+				case WIND_SPEED:
+				case MAX_WIND_SPEED:
+					low = LOWEST_VALUE;
+					high = extremes[DayExtremes.HI_SPEED];
+					break;
+				case MAX_PRECIPITATION_RATE:
+					low = LOWEST_VALUE;
+					high = extremes[DayExtremes.HI_RAIN_RATE];
+					break;
+				case SOLAR_RAD:
+				case MAX_SOLAR_RAD:
+					low = LOWEST_VALUE;
+					high = extremes[DayExtremes.HI_SOLAR];
+					break;
+				default:
+					continue;
+				}
+				if (low == Short.MIN_VALUE || high == Short.MIN_VALUE
+						|| low > high) {
+					continue;
+				}
+
+				// No raw value between the low and the high matches.
+				int[] below = matchesBelow[i];
+				if (below[high - Short.MIN_VALUE + 1] == below[low
+						- Short.MIN_VALUE]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Checks the lowest and the highest raw values of the block of an
+		 * archive. Unlike the daily summaries, the block holds the range of
+		 * every field, including undefined values.
+		 *
+		 * @param block
+		 * @return whether any record of the block can match all the
+		 *         conditions
+		 */
+		boolean mayMatch(WlkArchive.Block block) {
+			if (block.getRecords() == 0) {
+				return false;
+			}
+			for (int i = 0; i < fields.length; i++) {
+				int low = block.getMin(fields[i], 0);
+				int high = block.getMax(fields[i], 0);
+				int[] below = matchesBelow[i];
+				if (below[high - Short.MIN_VALUE + 1] == below[low
+						- Short.MIN_VALUE]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+
+import data.QuantileSketch;
+import data.WeatherField;
+
+/**
+ * Side file with the quantile sketches of each day of a single *.wlk file. It
+ * is stored next to the file with the same name and the extension
+ * .wlk-sketch. The side file holds the size and the modification time of the
+ * *.wlk file, so that it is built again when the file changes.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+class SketchFile {
+	// Identifies the side file ("WLKS") and the version of its format.
+	private static final int MAGIC = 0x574C4B53;
+	private static final int VERSION = 1;
+
+	// Number of entries in the day index of the header block.
+	private static final int DAYS = 32;
+
+	// Properties
+	private final File wlkFile;
+	private final File file;
+
+	// Status of the *.wlk file when the sketches were built.
+	private long size;
+	private long lastModified;
+
+	// Fields of the sketches.
+	private Set<WeatherField> fields = EnumSet.noneOf(WeatherField.class);
+
+	// Sketches of each day by the fields or null if the day has no records.
+	// Index 0 is not used, the same as in the header block.
+	private final List<Map<WeatherField, QuantileSketch>> days = new ArrayList<Map<WeatherField, QuantileSketch>>(
+			Collections.<Map<WeatherField, QuantileSketch>> nCopies(DAYS, null));
+
+	/**
+	 * Constructor for setting the *.wlk file of the side file.
+	 *
+	 * @param wlkFile
+	 */
+	SketchFile(File wlkFile) {
+		this.wlkFile = wlkFile;
+		this.file = new File(wlkFile.getParentFile(),
+				FilenameUtils.removeExtension(wlkFile.getName())
+						+ ".wlk-sketch");
+	}
+
+	/**
+	 * @return the side file
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the fields of the sketches
+	 */
+	Set<WeatherField> getFields() {
+		return fields;
+	}
+
+	/**
+	 * @param day
+	 *            day of the month
+	 * @return sketches of the day or null if the day has no records
+	 */
+	Map<WeatherField, QuantileSketch> getDay(int day) {
+		return days.get(day);
+	}
+
+	/**
+	 * Removes all the sketches and takes the status of the *.wlk file before
+	 * the sketches are built again.
+	 *
+	 * @param fields
+	 */
+	void clear(Set<WeatherField> fields) {
+		this.size = wlkFile.length();
+		this.lastModified = wlkFile.lastModified();
+		this.fields = EnumSet.copyOf(fields);
+		for (int day = 0; day < DAYS; day++) {
+			days.set(day, null);
+		}
+	}
+
+	/**
+	 * Returns new empty sketches of the day, which are filled by the caller.
+	 *
+	 * @param day
+	 *            day of the month
+	 * @return sketches of the day by the fields
+	 */
+	Map<WeatherField, QuantileSketch> newDay(int day) {
+		Map<WeatherField, QuantileSketch> sketches = new EnumMap<WeatherField, QuantileSketch>(
+				WeatherField.class);
+		for (WeatherField field : fields) {
+			sketches.put(field, new QuantileSketch(field));
+		}
+		days.set(day, sketches);
+		return sketches;
+	}
+
+	/**
+	 * Loads the sketches from the side file. The sketches are up to date if
+	 * the *.wlk file did not change since they were built and they hold all
+	 * the specified fields. If the side file does not exist, is of another
+	 * version or is damaged, then no sketch is loaded.
+	 *
+	 * @param fields
+	 * @return whether the loaded sketches are up to date
+	 */
+	boolean load(Set<WeatherField> fields) throws IOException {
+		this.fields = EnumSet.noneOf(WeatherField.class);
+		if (!file.isFile()) {
+			return false;
+		}
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return false;
+			}
+			long size = in.readLong();
+			long lastModified = in.readLong();
+			Set<WeatherField> loadedFields = EnumSet
+					.noneOf(WeatherField.class);
+			int fieldsSize = in.readByte();
+			for (int i = 0; i < fieldsSize; i++) {
+				loadedFields.add(WeatherField.valueOf(in.readUTF()));
+			}
+
+			// Fields of an outdated side file are kept, so that the sketches
+			// are built again with the same fields.
+			this.fields = loadedFields;
+			if (size != wlkFile.length()
+					|| lastModified != wlkFile.lastModified()) {
+				return false;
+			}
+			for (int day = in.readByte(); day > 0; day = in.readByte()) {
+				Map<WeatherField, QuantileSketch> sketches = new EnumMap<WeatherField, QuantileSketch>(
+						WeatherField.class);
+				for (int i = 0; i < loadedFields.size(); i++) {
+					QuantileSketch sketch = QuantileSketch.readFrom(in);
+					sketches.put(sketch.getField(), sketch);
+				}
+				days.set(day, sketches);
+			}
+			this.size = size;
+			this.lastModified = lastModified;
+		} catch (IOException | IllegalArgumentException
+				| IndexOutOfBoundsException e) {
+			// Damaged side file is built again from the *.wlk file.
+			for (int day = 0; day < DAYS; day++) {
+				days.set(day, null);
+			}
+			return false;
+		}
+		return this.fields.containsAll(fields);
+	}
+
+	/**
+	 * Saves the sketches into the side file. The sketches are first written
+	 * into a temporary file, which then replaces the side file, so that
+	 * readers never see a partially written side file.
+	 */
+	void save() throws IOException {
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(size);
+			out.writeLong(lastModified);
+			out.writeByte(fields.size());
+			for (WeatherField field : fields) {
+				out.writeUTF(field.name());
+			}
+			for (int day = 1; day < DAYS; day++) {
+				if (days.get(day) != null) {
+					out.writeByte(day);
+					for (WeatherField field : fields) {
+						days.get(day).get(field).writeTo(out);
+					}
+				}
+			}
+			// Day 0 marks the end of the days.
+			out.writeByte(0);
+		}
+		Files.move(temporaryFile.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+}
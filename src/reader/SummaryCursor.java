@@ -0,0 +1,501 @@
+package reader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight cursor over the two daily summaries at the beginning of each day
+ * in a byte buffer. Daily summary 1 is at the position of the cursor and daily
+ * summary 2 follows it. The fields are read directly from the buffer at fixed
+ * offsets, so moving the cursor and reading the values does not allocate.
+ * The values are the raw values of the file in the same types as in the
+ * DailySummary1 and DailySummary2 structs. The byte buffer must be in LITTLE
+ * ENDIAN order.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public final class SummaryCursor {
+	/**
+	 * Size of both daily summaries in bytes.
+	 */
+	public static final int SIZE = 2 * RecordCursor.SIZE;
+
+	/**
+	 * Packed value which means that no data is available.
+	 */
+	public static final int NO_DATA = 0x0FFF;
+
+	// Offsets of the arrays of the packed 12-bit values.
+	private static final int TIME_VALUES_1 = 61;
+	private static final int DIR_BINS = RecordCursor.SIZE + 36;
+	private static final int TIME_VALUES_2 = RecordCursor.SIZE + 60;
+
+	private ByteBuffer buffer;
+	private int position;
+
+	/**
+	 * Constructor for a cursor which is not positioned yet.
+	 */
+	public SummaryCursor() {
+	}
+
+	/**
+	 * Constructor for setting the buffer and the position of daily summary 1.
+	 *
+	 * @param buffer
+	 * @param position
+	 */
+	public SummaryCursor(ByteBuffer buffer, int position) {
+		this.buffer = buffer;
+		this.position = position;
+	}
+
+	/**
+	 * Moves the cursor to the daily summaries at the position of the buffer.
+	 *
+	 * @param buffer
+	 * @param position
+	 *            position of daily summary 1
+	 * @return this cursor
+	 */
+	public SummaryCursor reset(ByteBuffer buffer, int position) {
+		this.buffer = buffer;
+		this.position = position;
+		return this;
+	}
+
+	/**
+	 * @return the buffer
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return the position of daily summary 1 in the buffer
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Reads a 12-bit value from an array where two values are packed in three
+	 * bytes. The low bytes of the values come first and the high nibbles are
+	 * in the third byte.
+	 *
+	 * @param offset
+	 *            offset of the array inside of the daily summaries
+	 * @param index
+	 * @return packed value
+	 */
+	private int getPacked(int offset, int index) {
+		int fieldIndex = position + offset + (index / 2) * 3;
+		int highNibbles = buffer.get(fieldIndex + 2) & 0xFF;
+		if (index % 2 == 0) {
+			return (buffer.get(fieldIndex) & 0xFF) + ((highNibbles & 0x0F) << 8);
+		} else {
+			return (buffer.get(fieldIndex + 1) & 0xFF)
+					+ ((highNibbles & 0xF0) << 4);
+		}
+	}
+
+	// Daily summary 1
+
+	/**
+	 * @return the data type of daily summary 1, which is 2
+	 */
+	public byte getDataType1() {
+		return buffer.get(position);
+	}
+
+	/**
+	 * @return the dataSpan
+	 */
+	public short getDataSpan() {
+		return buffer.getShort(position + 2);
+	}
+
+	/**
+	 * @return the hiOutTemp
+	 */
+	public short getHiOutTemp() {
+		return buffer.getShort(position + 4);
+	}
+
+	/**
+	 * @return the lowOutTemp
+	 */
+	public short getLowOutTemp() {
+		return buffer.getShort(position + 6);
+	}
+
+	/**
+	 * @return the hiInTemp
+	 */
+	public short getHiInTemp() {
+		return buffer.getShort(position + 8);
+	}
+
+	/**
+	 * @return the lowInTemp
+	 */
+	public short getLowInTemp() {
+		return buffer.getShort(position + 10);
+	}
+
+	/**
+	 * @return the avgOutTemp
+	 */
+	public short getAvgOutTemp() {
+		return buffer.getShort(position + 12);
+	}
+
+	/**
+	 * @return the avgInTemp
+	 */
+	public short getAvgInTemp() {
+		return buffer.getShort(position + 14);
+	}
+
+	/**
+	 * @return the hiChill
+	 */
+	public short getHiChill() {
+		return buffer.getShort(position + 16);
+	}
+
+	/**
+	 * @return the lowChill
+	 */
+	public short getLowChill() {
+		return buffer.getShort(position + 18);
+	}
+
+	/**
+	 * @return the hiDew
+	 */
+	public short getHiDew() {
+		return buffer.getShort(position + 20);
+	}
+
+	/**
+	 * @return the lowDew
+	 */
+	public short getLowDew() {
+		return buffer.getShort(position + 22);
+	}
+
+	/**
+	 * @return the avgChill
+	 */
+	public short getAvgChill() {
+		return buffer.getShort(position + 24);
+	}
+
+	/**
+	 * @return the avgDew
+	 */
+	public short getAvgDew() {
+		return buffer.getShort(position + 26);
+	}
+
+	/**
+	 * @return the hiOutHum
+	 */
+	public short getHiOutHum() {
+		return buffer.getShort(position + 28);
+	}
+
+	/**
+	 * @return the lowOutHum
+	 */
+	public short getLowOutHum() {
+		return buffer.getShort(position + 30);
+	}
+
+	/**
+	 * @return the hiInHum
+	 */
+	public short getHiInHum() {
+		return buffer.getShort(position + 32);
+	}
+
+	/**
+	 * @return the lowInHum
+	 */
+	public short getLowInHum() {
+		return buffer.getShort(position + 34);
+	}
+
+	/**
+	 * @return the avgOutHum
+	 */
+	public short getAvgOutHum() {
+		return buffer.getShort(position + 36);
+	}
+
+	/**
+	 * @return the hiBar
+	 */
+	public short getHiBar() {
+		return buffer.getShort(position + 38);
+	}
+
+	/**
+	 * @return the lowBar
+	 */
+	public short getLowBar() {
+		return buffer.getShort(position + 40);
+	}
+
+	/**
+	 * @return the avgBar
+	 */
+	public short getAvgBar() {
+		return buffer.getShort(position + 42);
+	}
+
+	/**
+	 * @return the hiSpeed
+	 */
+	public short getHiSpeed() {
+		return buffer.getShort(position + 44);
+	}
+
+	/**
+	 * @return the avgSpeed
+	 */
+	public short getAvgSpeed() {
+		return buffer.getShort(position + 46);
+	}
+
+	/**
+	 * @return the dailyWindRunTotal
+	 */
+	public short getDailyWindRunTotal() {
+		return buffer.getShort(position + 48);
+	}
+
+	/**
+	 * @return the hi10MinSpeed
+	 */
+	public short getHi10MinSpeed() {
+		return buffer.getShort(position + 50);
+	}
+
+	/**
+	 * @return the dirHiSpeed, which is unsigned
+	 */
+	public short getDirHiSpeed() {
+		return (short) (buffer.get(position + 52) & 0xFF);
+	}
+
+	/**
+	 * @return the hi10MinDir, which is unsigned
+	 */
+	public short getHi10MinDir() {
+		return (short) (buffer.get(position + 53) & 0xFF);
+	}
+
+	/**
+	 * @return the dailyRainTotal
+	 */
+	public short getDailyRainTotal() {
+		return buffer.getShort(position + 54);
+	}
+
+	/**
+	 * @return the hiRainRate
+	 */
+	public short getHiRainRate() {
+		return buffer.getShort(position + 56);
+	}
+
+	/**
+	 * @return the dailyUVDose
+	 */
+	public short getDailyUVDose() {
+		return buffer.getShort(position + 58);
+	}
+
+	/**
+	 * @return the hiUV, which is unsigned
+	 */
+	public short getHiUV() {
+		return (short) (buffer.get(position + 60) & 0xFF);
+	}
+
+	/**
+	 * Returns the time of an extreme of daily summary 1 in minutes past
+	 * midnight (1 to 1440). The order of the times is the same as in the
+	 * DailySummary1 struct.
+	 *
+	 * @param index
+	 *            index of the time (0 to 17)
+	 * @return packed time or NO_DATA
+	 */
+	public int getTimeValue1(int index) {
+		return getPacked(TIME_VALUES_1, index);
+	}
+
+	// Daily summary 2
+
+	/**
+	 * @return the data type of daily summary 2, which is 3
+	 */
+	public byte getDataType2() {
+		return buffer.get(position + RecordCursor.SIZE);
+	}
+
+	/**
+	 * @return the todayWeather, which is unsigned
+	 */
+	public int getTodayWeather() {
+		return buffer.getShort(position + RecordCursor.SIZE + 2) & 0xFFFF;
+	}
+
+	/**
+	 * @return the numWindPackets, which is unsigned
+	 */
+	public int getNumWindPackets() {
+		return buffer.getShort(position + RecordCursor.SIZE + 4) & 0xFFFF;
+	}
+
+	/**
+	 * @return the hiSolar
+	 */
+	public short getHiSolar() {
+		return buffer.getShort(position + RecordCursor.SIZE + 6);
+	}
+
+	/**
+	 * @return the dailySolarEnergy
+	 */
+	public short getDailySolarEnergy() {
+		return buffer.getShort(position + RecordCursor.SIZE + 8);
+	}
+
+	/**
+	 * @return the minSunLight
+	 */
+	public short getMinSunLight() {
+		return buffer.getShort(position + RecordCursor.SIZE + 10);
+	}
+
+	/**
+	 * @return the dailyETTotal
+	 */
+	public short getDailyETTotal() {
+		return buffer.getShort(position + RecordCursor.SIZE + 12);
+	}
+
+	/**
+	 * @return the hiHeat
+	 */
+	public short getHiHeat() {
+		return buffer.getShort(position + RecordCursor.SIZE + 14);
+	}
+
+	/**
+	 * @return the lowHeat
+	 */
+	public short getLowHeat() {
+		return buffer.getShort(position + RecordCursor.SIZE + 16);
+	}
+
+	/**
+	 * @return the avgHeat
+	 */
+	public short getAvgHeat() {
+		return buffer.getShort(position + RecordCursor.SIZE + 18);
+	}
+
+	/**
+	 * @return the hiTHSW
+	 */
+	public short getHiTHSW() {
+		return buffer.getShort(position + RecordCursor.SIZE + 20);
+	}
+
+	/**
+	 * @return the lowTHSW
+	 */
+	public short getLowTHSW() {
+		return buffer.getShort(position + RecordCursor.SIZE + 22);
+	}
+
+	/**
+	 * @return the hiTHW
+	 */
+	public short getHiTHW() {
+		return buffer.getShort(position + RecordCursor.SIZE + 24);
+	}
+
+	/**
+	 * @return the lowTHW
+	 */
+	public short getLowTHW() {
+		return buffer.getShort(position + RecordCursor.SIZE + 26);
+	}
+
+	/**
+	 * @return the integratedHeatDD65
+	 */
+	public short getIntegratedHeatDD65() {
+		return buffer.getShort(position + RecordCursor.SIZE + 28);
+	}
+
+	/**
+	 * @return the hiWetBulb
+	 */
+	public short getHiWetBulb() {
+		return buffer.getShort(position + RecordCursor.SIZE + 30);
+	}
+
+	/**
+	 * @return the lowWetBulb
+	 */
+	public short getLowWetBulb() {
+		return buffer.getShort(position + RecordCursor.SIZE + 32);
+	}
+
+	/**
+	 * @return the avgWetBulb
+	 */
+	public short getAvgWetBulb() {
+		return buffer.getShort(position + RecordCursor.SIZE + 34);
+	}
+
+	/**
+	 * Returns the minutes of the wind from the direction. The directions are
+	 * in the order N, NNE, NE, ... NNW.
+	 *
+	 * @param index
+	 *            index of the direction (0 to 15)
+	 * @return minutes or NO_DATA
+	 */
+	public int getDirBin(int index) {
+		return getPacked(DIR_BINS, index);
+	}
+
+	/**
+	 * Returns the time of an extreme of daily summary 2 in minutes past
+	 * midnight (1 to 1440). The order of the times is the same as in the
+	 * DailySummary2 struct.
+	 *
+	 * @param index
+	 *            index of the time (0 to 9)
+	 * @return packed time or NO_DATA
+	 */
+	public int getTimeValue2(int index) {
+		return getPacked(TIME_VALUES_2, index);
+	}
+
+	/**
+	 * @return the integratedCoolDD65
+	 */
+	public short getIntegratedCoolDD65() {
+		return buffer.getShort(position + RecordCursor.SIZE + 75);
+	}
+}
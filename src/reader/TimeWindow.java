@@ -0,0 +1,123 @@
+package reader;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+
+/**
+ * Date time range of a single read represented with primitive values, so that
+ * days and records can be checked without creating date time objects. Minutes
+ * are counted from 1970-01-01 00:00 and days from 1970-01-01 in local time.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+class TimeWindow {
+	static final int MINUTES_PER_DAY = 1440;
+
+	private static final long MILLIS_PER_MINUTE = 60000L;
+	private static final long MILLIS_PER_DAY = MINUTES_PER_DAY
+			* MILLIS_PER_MINUTE;
+
+	// Times of the day for each minute, which are shared by all the records.
+	private static final LocalTime[] TIMES = new LocalTime[MINUTES_PER_DAY];
+
+	static {
+		for (int i = 0; i < MINUTES_PER_DAY; i++) {
+			TIMES[i] = LocalTime.fromMillisOfDay(i * MILLIS_PER_MINUTE);
+		}
+	}
+
+	// Records must be after the start minute and before the end minute.
+	private final long startMinute;
+	private final long endMinute;
+
+	// Days from start day to end day (both inclusive) are read.
+	private final long startDay;
+	private final long endDay;
+
+	/**
+	 * Constructs the window from the start and end date time of the reader.
+	 * Missing start or end date time means that the window is open on that
+	 * side.
+	 *
+	 * @param dateTimeStart
+	 * @param dateTimeEnd
+	 */
+	TimeWindow(DateTime dateTimeStart, DateTime dateTimeEnd) {
+		// Records are created in the default time zone. The start is rounded
+		// down and the end is rounded up to the whole minute, because both
+		// ends are exclusive.
+		DateTimeZone zone = DateTimeZone.getDefault();
+		if (dateTimeStart == null) {
+			startMinute = Long.MIN_VALUE;
+			startDay = Long.MIN_VALUE;
+		} else {
+			startMinute = Math.floorDiv(
+					zone.convertUTCToLocal(dateTimeStart.getMillis()),
+					MILLIS_PER_MINUTE);
+			startDay = toEpochDay(dateTimeStart.toLocalDate());
+		}
+		if (dateTimeEnd == null) {
+			endMinute = Long.MAX_VALUE;
+			endDay = Long.MAX_VALUE;
+		} else {
+			endMinute = -Math.floorDiv(
+					-zone.convertUTCToLocal(dateTimeEnd.getMillis()),
+					MILLIS_PER_MINUTE);
+			endDay = toEpochDay(dateTimeEnd.toLocalDate());
+		}
+	}
+
+	/**
+	 * @param epochDay
+	 * @return whether records of the day should be read
+	 */
+	boolean containsDay(long epochDay) {
+		return epochDay >= startDay && epochDay <= endDay;
+	}
+
+	/**
+	 * @param epochDay
+	 * @return whether all the records of the day should be read
+	 */
+	boolean containsWholeDay(long epochDay) {
+		// Records of the day are after 00:00 of the day and up to 00:00 of
+		// the next day.
+		return containsDay(epochDay)
+				&& startMinute <= epochDay * MINUTES_PER_DAY
+				&& endMinute > (epochDay + 1) * MINUTES_PER_DAY;
+	}
+
+	/**
+	 * @param epochMinute
+	 * @return whether the record at the specified minute should be read
+	 */
+	boolean containsMinute(long epochMinute) {
+		return epochMinute > startMinute && epochMinute < endMinute;
+	}
+
+	/**
+	 * Converts date to days since 1970-01-01.
+	 *
+	 * @param date
+	 * @return epoch day
+	 */
+	static long toEpochDay(LocalDate date) {
+		return date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis()
+				/ MILLIS_PER_DAY;
+	}
+
+	/**
+	 * Returns the shared time of the day for the specified minute of the day.
+	 * Minute 1440 (24:00) is returned as 00:00.
+	 *
+	 * @param minuteOfDay
+	 * @return time of the day
+	 */
+	static LocalTime getTime(int minuteOfDay) {
+		return TIMES[minuteOfDay % MINUTES_PER_DAY];
+	}
+}
@@ -0,0 +1,767 @@
+package reader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FilenameUtils;
+import org.joda.time.LocalDate;
+
+import data.WeatherField;
+
+/**
+ * Compressed columnar archive of the days of many *.wlk files in a single
+ * file with the extension .wlka. Each day is stored in its own block, which
+ * holds the two daily summaries as they are and the weather data records
+ * split into columns, one for each value of the 88 byte record. The columns
+ * are encoded as follows:
+ * <ul>
+ * <li>packed time with delta-of-delta encoding, which is zero for a constant
+ * archive interval,</li>
+ * <li>sensor values with zig-zag encoded deltas to the previous value,</li>
+ * <li>flags and the forecast XOR-ed with the previous value, so that a
+ * change of a single flag takes a single bit.</li>
+ * </ul>
+ * The first value of each column is stored as it is and the residuals of
+ * the other records are bit-packed with the width of the largest residual of
+ * the day. Columns of sensors that do not exist take only a few bytes per
+ * day and the values are decoded in a loop without branches. The archive is
+ * lossless, each block decodes back into the same bytes as the day in the
+ * *.wlk file.
+ * <p>
+ * The index of the blocks is stored at the end of the file. For each block it
+ * holds the date, the number of records, the location of the block and the
+ * lowest and the highest raw value of each column, so that days which cannot
+ * match a filter are skipped without reading their blocks. The archive is
+ * read with WlkReader, which is created with the archive file instead of a
+ * directory.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkArchive {
+	// Extension of the archive files.
+	public static final String EXTENSION = "wlka";
+
+	// Identifies the archive file ("WLKA") and the version of its format.
+	private static final int MAGIC = 0x574C4B41;
+	private static final int VERSION = 1;
+
+	// Size of the header and of the trailer with the offset of the index.
+	private static final int HEADER_SIZE = 8;
+	private static final int TRAILER_SIZE = 12;
+
+	// Size of the daily summaries at the start of each block and each day.
+	private static final int SUMMARIES_SIZE = 2 * WlkReader.RECORD_SIZE;
+
+	// Zero bytes at the end of each block.
+	private static final int PADDING = 4;
+
+	// Widest residual, which is read from a single integer at any bit offset.
+	private static final int MAX_WIDTH = 25;
+
+	// View of byte arrays as little endian integers at any index.
+	private static final VarHandle INTS = MethodHandles
+			.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+	// Offset of the packed time inside of the weather data record.
+	private static final int PACKED_TIME = 4;
+
+	// Offsets of the two byte values inside of the weather data record. All
+	// the other bytes are single byte values.
+	private static final int[] SHORT_OFFSETS = { PACKED_TIME, 6, 8, 10, 12,
+			14, 16, 18, 20, 22, 24, 26, 30, 32, 34, 42, 44, 46, 48, 50, 52, 54 };
+
+	// Offsets of the single byte flags, which are XOR-ed instead of deltas.
+	private static final int[] FLAG_OFFSETS = { 0, 1, 2, 3, 56 };
+
+	// Offsets and sizes of the columns, which cover the whole record, and the
+	// column of each offset (-1 for the second byte of a two byte value).
+	private static final int[] COLUMN_OFFSETS;
+	private static final int[] COLUMN_SIZES;
+	private static final int[] COLUMNS_BY_OFFSET = new int[WlkReader.RECORD_SIZE];
+
+	static {
+		List<Integer> offsets = new ArrayList<Integer>();
+		List<Integer> sizes = new ArrayList<Integer>();
+		int next = 0;
+		for (int offset = 0; offset < WlkReader.RECORD_SIZE; offset = next) {
+			int size = 1;
+			for (int shortOffset : SHORT_OFFSETS) {
+				if (shortOffset == offset) {
+					size = 2;
+				}
+			}
+			COLUMNS_BY_OFFSET[offset] = offsets.size();
+			if (size == 2) {
+				COLUMNS_BY_OFFSET[offset + 1] = -1;
+			}
+			offsets.add(offset);
+			sizes.add(size);
+			next = offset + size;
+		}
+		COLUMN_OFFSETS = new int[offsets.size()];
+		COLUMN_SIZES = new int[sizes.size()];
+		for (int i = 0; i < offsets.size(); i++) {
+			COLUMN_OFFSETS[i] = offsets.get(i);
+			COLUMN_SIZES[i] = sizes.get(i);
+		}
+	}
+
+	// Number of columns.
+	private static final int COLUMNS = COLUMN_OFFSETS.length;
+
+	// Size of the index entry of a block with the lowest and the highest
+	// value of each column.
+	private static final int INDEX_ENTRY_SIZE = 20 + 4 * COLUMNS;
+
+	// Properties
+	private final File file;
+	private List<Block> blocks = Collections.emptyList();
+
+	/**
+	 * Constructor for setting the archive file. The index of the blocks is
+	 * empty until it is loaded.
+	 *
+	 * @param file
+	 */
+	public WlkArchive(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * @return the file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the blocks in chronological order
+	 */
+	public List<Block> getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * Checks whether the file is an archive by its extension.
+	 *
+	 * @param file
+	 * @return whether the file is an archive
+	 */
+	public static boolean isArchive(File file) {
+		return FilenameUtils.isExtension(file.getName(), EXTENSION);
+	}
+
+	/**
+	 * Loads the index of the blocks from the end of the archive file.
+	 */
+	public void load() throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			load(channel);
+		}
+	}
+
+	/**
+	 * Loads the index of the blocks with the opened channel of the archive
+	 * file.
+	 *
+	 * @param channel
+	 */
+	void load(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE) {
+			throw new IOException("File " + file + " is not an archive!");
+		}
+		// Header, index and trailer are written in big endian order.
+		ByteBuffer buffer = WlkReader.readFromChannel(channel, 0, HEADER_SIZE,
+				null).order(ByteOrder.BIG_ENDIAN);
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("File " + file
+					+ " is not an archive of this version!");
+		}
+		buffer = WlkReader.readFromChannel(channel, size - TRAILER_SIZE,
+				TRAILER_SIZE, null).order(ByteOrder.BIG_ENDIAN);
+		long indexOffset = buffer.getLong(0);
+		if (buffer.getInt(8) != MAGIC || indexOffset < HEADER_SIZE
+				|| indexOffset > size - TRAILER_SIZE - 4) {
+			throw new IOException("Index of the archive " + file
+					+ " is damaged!");
+		}
+
+		buffer = WlkReader.readFromChannel(channel, indexOffset,
+				(int) (size - TRAILER_SIZE - indexOffset), null).order(
+				ByteOrder.BIG_ENDIAN);
+		int count = buffer.getInt();
+		if (count < 0 || buffer.remaining() != (long) count * INDEX_ENTRY_SIZE) {
+			throw new IOException("Index of the archive " + file
+					+ " is damaged!");
+		}
+		List<Block> blocks = new ArrayList<Block>(count);
+		for (int i = 0; i < count; i++) {
+			Block block = new Block(buffer.getInt(), buffer.getInt(),
+					buffer.getLong(), buffer.getInt());
+			for (int column = 0; column < COLUMNS; column++) {
+				block.mins[column] = buffer.getShort();
+				block.maxs[column] = buffer.getShort();
+			}
+			blocks.add(block);
+		}
+		this.blocks = Collections.unmodifiableList(blocks);
+	}
+
+	/**
+	 * Exports the days and records of the reader into an archive file. Days
+	 * and records are selected in the same way as by readData. The archive is
+	 * first written into a temporary file, which then replaces the archive
+	 * file.
+	 *
+	 * @param wlkReader
+	 * @param file
+	 *            archive file with the extension .wlka
+	 * @return archive with the loaded index
+	 */
+	public static WlkArchive export(WlkReader wlkReader, File file)
+			throws IOException, IllegalArgumentException, ArithmeticException {
+		if (!isArchive(file)) {
+			throw new IllegalArgumentException(
+					"Archive file must have the extension ." + EXTENSION + "!");
+		}
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		WlkArchive archive = new WlkArchive(file);
+		List<Block> blocks = new ArrayList<Block>();
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			BlockWriter blockWriter = new BlockWriter(out, blocks);
+			try {
+				wlkReader.visit(blockWriter);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			blockWriter.flush();
+
+			// Index of the blocks and the trailer.
+			long indexOffset = blockWriter.position;
+			out.writeInt(blocks.size());
+			for (Block block : blocks) {
+				out.writeInt((int) block.epochDay);
+				out.writeInt(block.records);
+				out.writeLong(block.offset);
+				out.writeInt(block.length);
+				for (int column = 0; column < COLUMNS; column++) {
+					out.writeShort(block.mins[column]);
+					out.writeShort(block.maxs[column]);
+				}
+			}
+			out.writeLong(indexOffset);
+			out.writeInt(MAGIC);
+		}
+		Files.move(temporaryFile.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		archive.blocks = Collections.unmodifiableList(blocks);
+		return archive;
+	}
+
+	/**
+	 * Decodes the encoded block into the same layout as the day has in the
+	 * *.wlk file, the two daily summaries followed by the weather data
+	 * records.
+	 *
+	 * @param encoded
+	 *            encoded block at the position 0
+	 * @param buffer
+	 *            buffer which is reused if it is large enough
+	 * @return buffer with the day at the position 0
+	 */
+	static ByteBuffer decode(ByteBuffer encoded, ByteBuffer buffer)
+			throws IOException {
+		BlockDecoder blockDecoder = new BlockDecoder(encoded);
+		int records = blockDecoder.readVarint();
+		int length = SUMMARIES_SIZE + records * WlkReader.RECORD_SIZE;
+		if (buffer == null || !buffer.hasArray()
+				|| buffer.capacity() < length) {
+			buffer = ByteBuffer.allocate(length);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		buffer.clear();
+		buffer.limit(length);
+
+		// Values are written straight into the array of the buffer in little
+		// endian order, the same as in the *.wlk file.
+		byte[] day = buffer.array();
+		int start = buffer.arrayOffset();
+		System.arraycopy(blockDecoder.in, blockDecoder.start, day, start,
+				SUMMARIES_SIZE);
+		try {
+			for (int column = 0; column < COLUMNS && records > 0; column++) {
+				int position = start + SUMMARIES_SIZE + COLUMN_OFFSETS[column];
+				if (COLUMN_OFFSETS[column] == PACKED_TIME) {
+					blockDecoder.decodeTime(day, position, records);
+				} else if (COLUMN_SIZES[column] == 2) {
+					blockDecoder.decodeShorts(day, position, records);
+				} else if (isFlags(column)) {
+					blockDecoder.decodeFlags(day, position, records);
+				} else {
+					blockDecoder.decodeBytes(day, position, records);
+				}
+			}
+		} catch (RuntimeException e) {
+			throw new IOException("Block of the archive is damaged!", e);
+		}
+		return buffer;
+	}
+
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Decoder of the columns of a single block. Each kind of column is
+	 * decoded in its own loop over the array of the encoded block, so that
+	 * the loops do not branch on the kind of the column for each value. The
+	 * residuals are read as whole little endian integers at their byte
+	 * offsets and shifted to their bit offsets.
+	 */
+	private static class BlockDecoder {
+		private final byte[] in;
+		private final int start;
+		private int position;
+
+		BlockDecoder(ByteBuffer encoded) {
+			this.in = encoded.array();
+			this.start = encoded.arrayOffset();
+			this.position = start + SUMMARIES_SIZE;
+		}
+
+		int readVarint() {
+			int value = 0;
+			for (int shift = 0;; shift += 7) {
+				byte b = in[position++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+		}
+
+		/**
+		 * Reads the width of the residuals of the column.
+		 */
+		private int readWidth() throws IOException {
+			int width = in[position++];
+			if (width < 0 || width > MAX_WIDTH) {
+				throw new IOException("Wrong width of residuals in block!");
+			}
+			return width;
+		}
+
+		/**
+		 * Moves the position after the residuals of the column.
+		 */
+		private void skipResiduals(int records, int width) {
+			position += ((records - 1) * width + 7) >>> 3;
+		}
+
+		/**
+		 * Fills the column with the first value if all the residuals are
+		 * zero, which is the case for the columns of missing sensors.
+		 */
+		private static void fill(byte[] day, int at, int records, int size,
+				int value) {
+			byte low = (byte) value;
+			byte high = (byte) (value >> 8);
+			for (int row = 1; row < records; row++) {
+				at += WlkReader.RECORD_SIZE;
+				day[at] = low;
+				if (size == 2) {
+					day[at + 1] = high;
+				}
+			}
+		}
+
+		void decodeTime(byte[] day, int at, int records) throws IOException {
+			int previous = (short) ((in[position] & 0xFF) | (in[position + 1] << 8));
+			position += 2;
+			int width = readWidth();
+			int mask = (1 << width) - 1;
+			int previousDelta = 0;
+			day[at] = (byte) previous;
+			day[at + 1] = (byte) (previous >> 8);
+			if (width == 0) {
+				fill(day, at, records, 2, previous);
+				return;
+			}
+			for (int row = 1, bit = position << 3; row < records; row++, bit += width) {
+				int residual = ((int) INTS.get(in, bit >>> 3) >>> (bit & 7))
+						& mask;
+				previousDelta += unzigzag(residual);
+				previous += previousDelta;
+				at += WlkReader.RECORD_SIZE;
+				day[at] = (byte) previous;
+				day[at + 1] = (byte) (previous >> 8);
+			}
+			skipResiduals(records, width);
+		}
+
+		void decodeShorts(byte[] day, int at, int records) throws IOException {
+			int previous = (short) ((in[position] & 0xFF) | (in[position + 1] << 8));
+			position += 2;
+			int width = readWidth();
+			int mask = (1 << width) - 1;
+			day[at] = (byte) previous;
+			day[at + 1] = (byte) (previous >> 8);
+			if (width == 0) {
+				fill(day, at, records, 2, previous);
+				return;
+			}
+			for (int row = 1, bit = position << 3; row < records; row++, bit += width) {
+				int residual = ((int) INTS.get(in, bit >>> 3) >>> (bit & 7))
+						& mask;
+				previous += unzigzag(residual);
+				at += WlkReader.RECORD_SIZE;
+				day[at] = (byte) previous;
+				day[at + 1] = (byte) (previous >> 8);
+			}
+			skipResiduals(records, width);
+		}
+
+		void decodeFlags(byte[] day, int at, int records) throws IOException {
+			int previous = in[position++];
+			int width = readWidth();
+			int mask = (1 << width) - 1;
+			day[at] = (byte) previous;
+			if (width == 0) {
+				fill(day, at, records, 1, previous);
+				return;
+			}
+			for (int row = 1, bit = position << 3; row < records; row++, bit += width) {
+				int residual = ((int) INTS.get(in, bit >>> 3) >>> (bit & 7))
+						& mask;
+				previous ^= residual;
+				at += WlkReader.RECORD_SIZE;
+				day[at] = (byte) previous;
+			}
+			skipResiduals(records, width);
+		}
+
+		void decodeBytes(byte[] day, int at, int records) throws IOException {
+			int previous = in[position++];
+			int width = readWidth();
+			int mask = (1 << width) - 1;
+			day[at] = (byte) previous;
+			if (width == 0) {
+				fill(day, at, records, 1, previous);
+				return;
+			}
+			for (int row = 1, bit = position << 3; row < records; row++, bit += width) {
+				int residual = ((int) INTS.get(in, bit >>> 3) >>> (bit & 7))
+						& mask;
+				previous += unzigzag(residual);
+				at += WlkReader.RECORD_SIZE;
+				day[at] = (byte) previous;
+			}
+			skipResiduals(records, width);
+		}
+	}
+
+	/**
+	 * @return whether the column holds single byte flags
+	 */
+	private static boolean isFlags(int column) {
+		for (int flagOffset : FLAG_OFFSETS) {
+			if (COLUMN_OFFSETS[column] == flagOffset) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the column of a value of the field.
+	 *
+	 * @param field
+	 * @param index
+	 *            index of the value for fields with more than one value
+	 * @return column of the value
+	 */
+	private static int getColumn(WeatherField field, int index) {
+		return COLUMNS_BY_OFFSET[field.getOffset() + index * field.getSize()];
+	}
+
+	/**
+	 * Visitor which encodes each visited day into a block and writes it into
+	 * the archive file.
+	 */
+	private static class BlockWriter implements WlkRecordVisitor {
+		private final DataOutputStream out;
+		private final List<Block> blocks;
+
+		// Position in the archive file.
+		private long position = HEADER_SIZE;
+
+		// Daily summaries and records of the current day.
+		private LocalDate date;
+		private byte[] day = new byte[SUMMARIES_SIZE + 1440
+				* WlkReader.RECORD_SIZE];
+		private int records;
+
+		// Encoded block and the residuals of a column, which are reused for
+		// all the days.
+		private byte[] encoded = new byte[1 << 16];
+		private int size;
+		private int[] residuals = new int[1440];
+
+		BlockWriter(DataOutputStream out, List<Block> blocks) {
+			this.out = out;
+			this.blocks = blocks;
+		}
+
+		@Override
+		public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+			flush();
+			this.date = date;
+			this.records = 0;
+			ByteBuffer buffer = summaryCursor.getBuffer();
+			int offset = summaryCursor.getPosition();
+			for (int i = 0; i < SUMMARIES_SIZE; i++) {
+				day[i] = buffer.get(offset + i);
+			}
+			return true;
+		}
+
+		@Override
+		public void onRecord(long epochMinute, RecordCursor recordCursor) {
+			int start = SUMMARIES_SIZE + records * WlkReader.RECORD_SIZE;
+			if (start + WlkReader.RECORD_SIZE > day.length) {
+				day = Arrays.copyOf(day, 2 * day.length);
+				residuals = Arrays.copyOf(residuals, 2 * residuals.length);
+			}
+			ByteBuffer buffer = recordCursor.getBuffer();
+			int offset = recordCursor.getPosition();
+			for (int i = 0; i < WlkReader.RECORD_SIZE; i++) {
+				day[start + i] = buffer.get(offset + i);
+			}
+			records++;
+		}
+
+		/**
+		 * Encodes and writes the current day.
+		 */
+		void flush() {
+			if (date == null) {
+				return;
+			}
+			Block block = new Block(TimeWindow.toEpochDay(date), records,
+					position, 0);
+			size = 0;
+			for (int i = 0; i < SUMMARIES_SIZE; i++) {
+				write(day[i]);
+			}
+			writeVarint(records);
+			for (int column = 0; column < COLUMNS; column++) {
+				encodeColumn(column, block);
+			}
+			// Padding, so that the decoder may read the last residuals as
+			// whole integers.
+			for (int i = 0; i < PADDING; i++) {
+				write(0);
+			}
+			block.length = size;
+			try {
+				out.write(encoded, 0, size);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			position += size;
+			blocks.add(block);
+			date = null;
+		}
+
+		/**
+		 * Encodes a single column of the current day and computes its lowest
+		 * and highest value. The first value is followed by the width of the
+		 * residuals and the bit-packed residuals of the other records.
+		 */
+		private void encodeColumn(int column, Block block) {
+			if (records == 0) {
+				return;
+			}
+			int columnSize = COLUMN_SIZES[column];
+			boolean time = COLUMN_OFFSETS[column] == PACKED_TIME;
+			boolean flags = isFlags(column);
+			int position = SUMMARIES_SIZE + COLUMN_OFFSETS[column];
+			int first = 0;
+			int previous = 0;
+			int previousDelta = 0;
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			int bits = 0;
+			for (int row = 0; row < records; row++) {
+				// Values are signed, the same as the raw values of the fields.
+				int value = columnSize == 2 ? (short) ((day[position] & 0xFF) | (day[position + 1] << 8))
+						: day[position];
+				position += WlkReader.RECORD_SIZE;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+
+				int residual = 0;
+				if (row == 0) {
+					first = value;
+				} else if (time) {
+					int delta = value - previous;
+					residual = zigzag(delta - previousDelta);
+					previousDelta = delta;
+				} else if (flags) {
+					residual = (value ^ previous) & 0xFF;
+				} else {
+					residual = zigzag(value - previous);
+				}
+				residuals[row] = residual;
+				bits |= residual;
+				previous = value;
+			}
+			block.mins[column] = (short) min;
+			block.maxs[column] = (short) max;
+
+			write(first);
+			if (columnSize == 2) {
+				write(first >> 8);
+			}
+			int width = 32 - Integer.numberOfLeadingZeros(bits);
+			write(width);
+			long pending = 0;
+			int pendingBits = 0;
+			for (int row = 1; row < records && width > 0; row++) {
+				pending |= (long) residuals[row] << pendingBits;
+				pendingBits += width;
+				while (pendingBits >= 8) {
+					write((int) pending);
+					pending >>>= 8;
+					pendingBits -= 8;
+				}
+			}
+			if (pendingBits > 0) {
+				write((int) pending);
+			}
+		}
+
+		private void write(int b) {
+			if (size == encoded.length) {
+				encoded = Arrays.copyOf(encoded, 2 * encoded.length);
+			}
+			encoded[size++] = (byte) b;
+		}
+
+		private void writeVarint(int value) {
+			while ((value & ~0x7F) != 0) {
+				write((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			write(value);
+		}
+	}
+
+	/**
+	 * Index entry of a single block, which holds a single day.
+	 */
+	public static class Block {
+		private final long epochDay;
+		private final int records;
+		private final long offset;
+		private int length;
+		private final short[] mins = new short[COLUMNS];
+		private final short[] maxs = new short[COLUMNS];
+
+		Block(long epochDay, int records, long offset, int length) {
+			this.epochDay = epochDay;
+			this.records = records;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/**
+		 * @return the date of the day
+		 */
+		public LocalDate getDate() {
+			return new LocalDate(1970, 1, 1).plusDays((int) epochDay);
+		}
+
+		/**
+		 * @return the days since 1970-01-01
+		 */
+		long getEpochDay() {
+			return epochDay;
+		}
+
+		/**
+		 * @return the number of weather data records
+		 */
+		public int getRecords() {
+			return records;
+		}
+
+		/**
+		 * @return the offset of the block in the archive file
+		 */
+		long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * @return the length of the encoded block in bytes
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Returns the lowest raw value of the field in the records of the
+		 * day. Undefined values are included.
+		 *
+		 * @param field
+		 * @param index
+		 *            index of the value for fields with more than one value
+		 * @return lowest raw value or 0 if the day has no records
+		 */
+		public short getMin(WeatherField field, int index) {
+			return mins[getColumn(field, index)];
+		}
+
+		/**
+		 * Returns the highest raw value of the field in the records of the
+		 * day. Undefined values are included.
+		 *
+		 * @param field
+		 * @param index
+		 *            index of the value for fields with more than one value
+		 * @return highest raw value or 0 if the day has no records
+		 */
+		public short getMax(WeatherField field, int index) {
+			return maxs[getColumn(field, index)];
+		}
+	}
+}
@@ -0,0 +1,333 @@
+package reader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.joda.time.LocalDate;
+
+import struct.DayIndex;
+import struct.HeaderBlock;
+import data.DataConverter;
+
+/**
+ * Follows the file of the current month, to which WeatherLink appends the
+ * weather data records. On each poll the header block is read again and only
+ * the records appended since the last poll are decoded and passed to the
+ * consumer. When the files of later months appear, the follower reads them
+ * month by month and moves to the latest.
+ * <p>
+ * The follower uses the settings of the reader. If the start date time of the
+ * reader is set, then the records of the current file after it are passed on
+ * the first poll. Since readData moves the start date time to the last record
+ * read, a follower created after readData continues where the read ended. If
+ * the start date time is not set, then only the records appended after the
+ * follower is created are passed.
+ * </p>
+ * <p>
+ * Records which are not yet completely written are read on the next poll.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkFollower implements Closeable {
+	// Properties
+	private final WlkReader wlkReader;
+	private final Consumer<data.WeatherDataRecord> consumer;
+	private final DataConverter dataConverter;
+	private final TimeWindow window;
+	private final RecordFilter.CompiledFilter filter;
+
+	// File that is followed, its month and its size and modification time at
+	// the last poll.
+	private File file;
+	private LocalDate month;
+	private long length = -1;
+	private long lastModified;
+
+	// Number of records of each day (including the daily summaries), which
+	// were already read. Index 0 is not used, the same as in the header block.
+	private final int[] recordsRead = new int[32];
+
+	// Number of records passed to the consumer during the current poll.
+	private int passed;
+
+	private final RecordCursor recordCursor = new RecordCursor();
+	private ByteBuffer buffer;
+
+	// Watch service of the directory while the follower is watching.
+	private WatchService watchService;
+
+	/**
+	 * Constructor for setting the reader, whose settings are used, and the
+	 * consumer of the new records. A queue can be used as the consumer by
+	 * passing its add method.
+	 *
+	 * @param wlkReader
+	 * @param consumer
+	 */
+	public WlkFollower(WlkReader wlkReader,
+			Consumer<data.WeatherDataRecord> consumer) throws IOException,
+			ArithmeticException {
+		this.wlkReader = wlkReader;
+		this.consumer = consumer;
+		this.dataConverter = new DataConverter(wlkReader.isUnit());
+		this.window = new TimeWindow(wlkReader.getDateTimeStart(), null);
+		this.filter = wlkReader.getFilter() == null ? null : wlkReader
+				.getFilter().compile(dataConverter);
+
+		File latestFile = getLatestFile();
+		if (latestFile != null) {
+			follow(latestFile);
+
+			// Without the start date time the records that are already in
+			// the file are skipped.
+			if (wlkReader.getDateTimeStart() == null) {
+				readFile(false);
+			}
+		}
+	}
+
+	/**
+	 * @return the file that is followed or null if there is no file yet
+	 */
+	public synchronized File getFile() {
+		return file;
+	}
+
+	/**
+	 * Reads the records that were appended since the last poll. If the files
+	 * of later months appeared, then the rest of the current file is read
+	 * first and then all the records of each new file, month by month.
+	 *
+	 * @return number of records passed to the consumer
+	 */
+	public synchronized int poll() throws IOException, ArithmeticException {
+		passed = 0;
+		if (file != null
+				&& (file.length() != length || file.lastModified() != lastModified)) {
+			readFile(true);
+		}
+
+		// More than one month may appear between two polls, e.g. after a long
+		// pause, so none of the months in between is skipped.
+		for (File newerFile : getNewerFiles()) {
+			follow(newerFile);
+			readFile(true);
+		}
+		return passed;
+	}
+
+	/**
+	 * Polls each time the directory changes, until the follower is closed or
+	 * the thread is interrupted. On file systems where the watch service does
+	 * not report changes promptly, poll can be called periodically instead.
+	 */
+	public void watch() throws IOException, ArithmeticException,
+			InterruptedException {
+		File directory = wlkReader.getDirectory();
+		Path path = (directory.isDirectory() ? directory : directory
+				.getAbsoluteFile().getParentFile()).toPath();
+		try (WatchService watchService = path.getFileSystem()
+				.newWatchService()) {
+			synchronized (this) {
+				this.watchService = watchService;
+			}
+			path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+			poll();
+
+			while (true) {
+				WatchKey watchKey;
+				try {
+					watchKey = watchService.take();
+				} catch (ClosedWatchServiceException e) {
+					return;
+				}
+				watchKey.pollEvents();
+				poll();
+				if (!watchKey.reset()) {
+					return;
+				}
+			}
+		} finally {
+			synchronized (this) {
+				this.watchService = null;
+			}
+		}
+	}
+
+	/**
+	 * Stops watching the directory.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+
+	/**
+	 * Returns the file of the latest month. If the reader is created with a
+	 * single file, then only this file is followed.
+	 *
+	 * @return latest file or null if there are no files
+	 */
+	private File getLatestFile() {
+		File directory = wlkReader.getDirectory();
+		if (directory.isFile()) {
+			return directory;
+		}
+
+		File latestFile = null;
+		for (File candidate : FileUtils.listFiles(directory,
+				FileFilterUtils.suffixFileFilter("wlk"), null)) {
+			if (latestFile == null
+					|| candidate.getName().compareTo(latestFile.getName()) > 0) {
+				latestFile = candidate;
+			}
+		}
+		return latestFile;
+	}
+
+	/**
+	 * Returns the files of the months after the file that is followed, in
+	 * chronological order. If the reader is created with a single file, then
+	 * only this file is followed.
+	 *
+	 * @return newer files or all the files if none is followed yet
+	 */
+	private List<File> getNewerFiles() {
+		List<File> newerFiles = new ArrayList<File>();
+		File directory = wlkReader.getDirectory();
+		if (directory.isFile()) {
+			if (file == null) {
+				newerFiles.add(directory);
+			}
+			return newerFiles;
+		}
+
+		for (File candidate : FileUtils.listFiles(directory,
+				FileFilterUtils.suffixFileFilter("wlk"), null)) {
+			if (file == null
+					|| candidate.getName().compareTo(file.getName()) > 0) {
+				newerFiles.add(candidate);
+			}
+		}
+		newerFiles.sort(Comparator.comparing(File::getName));
+		return newerFiles;
+	}
+
+	/**
+	 * Starts following the file. None of its records were read yet.
+	 *
+	 * @param file
+	 */
+	private void follow(File file) {
+		this.file = file;
+		this.month = new LocalDate(FilenameUtils.removeExtension(file
+				.getName()));
+		this.length = -1;
+		Arrays.fill(recordsRead, 0);
+	}
+
+	/**
+	 * Reads the header block and then the records of each day that were not
+	 * read yet.
+	 *
+	 * @param pass
+	 *            whether the records are passed to the consumer or only
+	 *            counted as read
+	 */
+	private void readFile(boolean pass) throws IOException,
+			ArithmeticException {
+		// File status is taken before reading, so that records appended
+		// during the read are read on the next poll.
+		length = file.length();
+		lastModified = file.lastModified();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			HeaderBlock headerBlock = new HeaderBlock();
+			headerBlock.setByteBuffer(WlkReader.readFromChannel(channel, 0,
+					WlkReader.HEADER_SIZE, null), 0);
+			long recordsInFile = (channel.size() - WlkReader.HEADER_SIZE)
+					/ WlkReader.RECORD_SIZE;
+
+			int day = 0;
+			for (DayIndex dayIndex : headerBlock.dayIndex) {
+				int startPos = dayIndex.startPos.get();
+
+				// Records of the day which are already in the file. The
+				// first two records are the daily summaries.
+				int recordsInDay = (int) Math.min(
+						dayIndex.recordsInDay.get(), recordsInFile - startPos);
+				int first = Math.max(recordsRead[day], 2);
+				if (recordsInDay > first) {
+					recordsRead[day] = first
+							+ readRecords(channel, day, startPos, first,
+									recordsInDay, pass);
+				} else if (recordsInDay > 0) {
+					recordsRead[day] = recordsInDay;
+				}
+				day++;
+			}
+		}
+	}
+
+	/**
+	 * Reads the records of the day from the first to the last (exclusive)
+	 * record. Reading stops at the first record which is not yet written.
+	 *
+	 * @return number of records read
+	 */
+	private int readRecords(FileChannel channel, int day, int startPos,
+			int first, int last, boolean pass) throws IOException {
+		buffer = WlkReader.readFromChannel(channel, (long) (startPos + first)
+				* WlkReader.RECORD_SIZE + WlkReader.HEADER_SIZE, (last - first)
+				* WlkReader.RECORD_SIZE, buffer);
+
+		LocalDate date = month.plusDays(day - 1);
+		LocalDate nextDate = date.plusDays(1);
+		long dayMinute = TimeWindow.toEpochDay(date)
+				* TimeWindow.MINUTES_PER_DAY;
+		for (int i = 0; i < last - first; i++) {
+			int offset = i * WlkReader.RECORD_SIZE;
+			recordCursor.reset(buffer, offset);
+			if (recordCursor.getDataType() != 1) {
+				return i;
+			}
+
+			int packedTime = recordCursor.getPackedTime();
+			if (pass && window.containsMinute(dayMinute + packedTime)
+					&& (filter == null || filter.matches(buffer, offset))) {
+				data.WeatherDataRecord record = new data.WeatherDataRecord();
+				wlkReader.setWeatherRecord(record, recordCursor,
+						dataConverter,
+						packedTime >= TimeWindow.MINUTES_PER_DAY ? nextDate
+								: date, TimeWindow.getTime(packedTime));
+				consumer.accept(record);
+				passed++;
+			}
+		}
+		return last - first;
+	}
+}
@@ -0,0 +1,350 @@
+package reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.joda.time.LocalDate;
+
+import struct.DayIndex;
+import struct.HeaderBlock;
+
+/**
+ * Sidecar index of a directory with *.wlk files. For each file the index
+ * holds the month, the size and the modification time of the file, the total
+ * number of records, the day index of the header block and the highs and lows
+ * of the daily summaries of each day.
+ * <p>
+ * The reader selects the files and the days, and skips the days that cannot
+ * match the filter with the index alone. Only the files whose size or
+ * modification time changed since the last refresh are read again.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkIndex {
+	// Identifies the index file ("WLKI") and the version of its format.
+	private static final int MAGIC = 0x574C4B49;
+	private static final int VERSION = 1;
+
+	// Number of entries in the day index of the header block.
+	private static final int DAYS = 32;
+
+	// Properties
+	private final File directory;
+	private final File indexFile;
+
+	// Entries by file name. The names (yyyy-MM) sort in chronological order.
+	private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+	/**
+	 * Constructor for setting the directory with the *.wlk files and the file
+	 * where the index is stored. The index is empty until it is loaded or
+	 * refreshed.
+	 *
+	 * @param directory
+	 * @param indexFile
+	 */
+	public WlkIndex(File directory, File indexFile) {
+		this.directory = directory;
+		this.indexFile = indexFile;
+	}
+
+	/**
+	 * @return the directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the indexFile
+	 */
+	public File getIndexFile() {
+		return indexFile;
+	}
+
+	/**
+	 * Loads the index from the index file. If the index file does not exist,
+	 * is of another version or is damaged, then the index is left empty and
+	 * is built again on the next refresh.
+	 */
+	public void load() throws IOException {
+		entries.clear();
+		if (!indexFile.isFile()) {
+			return;
+		}
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return;
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				Entry entry = new Entry(in.readUTF());
+				entry.month = new LocalDate(in.readShort(), in.readByte(), 1);
+				entry.size = in.readLong();
+				entry.lastModified = in.readLong();
+				entry.totalRecords = in.readInt();
+				for (int day = 0; day < DAYS; day++) {
+					entry.recordsInDay[day] = in.readShort();
+					entry.startPos[day] = in.readInt();
+					if (entry.recordsInDay[day] > 0) {
+						for (int j = 0; j < DayExtremes.SIZE; j++) {
+							entry.extremes[day][j] = in.readShort();
+						}
+					}
+				}
+				entries.put(entry.name, entry);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			// Damaged index is built again from the files.
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Saves the index into the index file. The index is first written into a
+	 * temporary file, which then replaces the index file, so that readers
+	 * never see a partially written index.
+	 */
+	public void save() throws IOException {
+		File temporaryFile = new File(indexFile.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			for (Entry entry : entries.values()) {
+				out.writeUTF(entry.name);
+				out.writeShort(entry.month.getYear());
+				out.writeByte(entry.month.getMonthOfYear());
+				out.writeLong(entry.size);
+				out.writeLong(entry.lastModified);
+				out.writeInt(entry.totalRecords);
+				for (int day = 0; day < DAYS; day++) {
+					out.writeShort(entry.recordsInDay[day]);
+					out.writeInt(entry.startPos[day]);
+					if (entry.recordsInDay[day] > 0) {
+						for (int j = 0; j < DayExtremes.SIZE; j++) {
+							out.writeShort(entry.extremes[day][j]);
+						}
+					}
+				}
+			}
+		}
+		Files.move(temporaryFile.toPath(), indexFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Brings the index up to date with the directory. Files whose size and
+	 * modification time are the same as in the index are not read. New and
+	 * changed files are read again and removed files are left out of the
+	 * index.
+	 *
+	 * @return whether the index changed
+	 */
+	public boolean refresh() throws IOException, ArithmeticException {
+		boolean changed = false;
+		Collection<File> files = FileUtils.listFiles(directory,
+				FileFilterUtils.suffixFileFilter("wlk"), null);
+
+		// Remove entries of the files which no longer exist.
+		Map<String, File> filesByName = new TreeMap<String, File>();
+		for (File file : files) {
+			filesByName.put(file.getName(), file);
+		}
+		for (Iterator<String> iterator = entries.keySet().iterator(); iterator
+				.hasNext();) {
+			if (!filesByName.containsKey(iterator.next())) {
+				iterator.remove();
+				changed = true;
+			}
+		}
+
+		for (File file : filesByName.values()) {
+			Entry entry = entries.get(file.getName());
+			if (entry == null || entry.size != file.length()
+					|| entry.lastModified != file.lastModified()) {
+				entries.put(file.getName(), readEntry(file));
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the indexed files in chronological order.
+	 *
+	 * @return list of indexed files
+	 */
+	public List<File> getFiles() {
+		List<File> files = new ArrayList<File>(entries.size());
+		for (String name : entries.keySet()) {
+			files.add(new File(directory, name));
+		}
+		return files;
+	}
+
+	/**
+	 * Returns the entry of the file or null if the file is not indexed.
+	 *
+	 * @param file
+	 * @return entry of the file
+	 */
+	public Entry getEntry(File file) {
+		if (!directory.equals(file.getParentFile())) {
+			return null;
+		}
+		return entries.get(file.getName());
+	}
+
+	/**
+	 * Reads the header block and the daily summaries of each day of the file.
+	 * Only the daily summaries are read, not the weather data records.
+	 *
+	 * @param file
+	 * @return entry of the file
+	 */
+	private static Entry readEntry(File file) throws IOException,
+			ArithmeticException {
+		Entry entry = new Entry(file.getName());
+		entry.month = new LocalDate(FilenameUtils.removeExtension(file
+				.getName()));
+
+		// File status is taken before reading, so that a file that changes
+		// while it is read is read again on the next refresh.
+		entry.size = file.length();
+		entry.lastModified = file.lastModified();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			HeaderBlock headerBlock = new HeaderBlock();
+			headerBlock.setByteBuffer(WlkReader.readFromChannel(channel, 0,
+					WlkReader.HEADER_SIZE, null), 0);
+			entry.totalRecords = headerBlock.totalRecords.get();
+
+			SummaryCursor summaryCursor = new SummaryCursor();
+			ByteBuffer summaryBuffer = null;
+			int day = 0;
+			for (DayIndex dayIndex : headerBlock.dayIndex) {
+				entry.recordsInDay[day] = dayIndex.recordsInDay.get();
+				entry.startPos[day] = dayIndex.startPos.get();
+				if (entry.recordsInDay[day] >= 2) {
+					summaryBuffer = WlkReader.readFromChannel(channel,
+							(long) entry.startPos[day] * WlkReader.RECORD_SIZE
+									+ WlkReader.HEADER_SIZE,
+							2 * WlkReader.RECORD_SIZE, summaryBuffer);
+					entry.extremes[day] = DayExtremes.read(summaryCursor
+							.reset(summaryBuffer, 0));
+				}
+				day++;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Index entry of a single file. Index 0 of the days is not used, the same
+	 * as in the header block.
+	 */
+	public static class Entry {
+		private final String name;
+		private LocalDate month;
+		private long size;
+		private long lastModified;
+		private int totalRecords;
+		private final short[] recordsInDay = new short[DAYS];
+		private final int[] startPos = new int[DAYS];
+		private final short[][] extremes = new short[DAYS][];
+
+		Entry(String name) {
+			this.name = name;
+			for (int day = 0; day < DAYS; day++) {
+				extremes[day] = DayExtremes.undefined();
+			}
+		}
+
+		/**
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the first day of the month of the file
+		 */
+		public LocalDate getMonth() {
+			return month;
+		}
+
+		/**
+		 * @return the size
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return the lastModified
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * @return the totalRecords
+		 */
+		public int getTotalRecords() {
+			return totalRecords;
+		}
+
+		/**
+		 * @param day
+		 * @return the number of records of the day
+		 */
+		public int getRecordsInDay(int day) {
+			return recordsInDay[day];
+		}
+
+		/**
+		 * @param day
+		 * @return the index of the first record of the day
+		 */
+		public int getStartPos(int day) {
+			return startPos[day];
+		}
+
+		/**
+		 * @param day
+		 * @return highs and lows of the day
+		 */
+		short[] getExtremes(int day) {
+			return extremes[day];
+		}
+	}
+}
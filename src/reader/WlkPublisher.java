@@ -0,0 +1,296 @@
+package reader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import data.DailyWeatherData;
+
+/**
+ * Publisher of the data of a reader. Each subscriber gets its own lazy
+ * iterator of the reader, so the data is decoded day by day only as the
+ * subscriber requests it. Items are delivered by tasks of the executor, one
+ * task at a time for each subscription. Completion is signalled as soon as
+ * the end is known without decoding, otherwise on the next request.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+class WlkPublisher<T> implements Flow.Publisher<T> {
+	// Properties
+	private final WlkReader wlkReader;
+	private final Function<WlkReader.DailyWeatherDataIterator, Items<T>> items;
+	private final Executor executor;
+
+	/**
+	 * Constructor for setting the reader, the function which creates the
+	 * items from the days of the reader and the executor for delivery.
+	 *
+	 * @param wlkReader
+	 * @param items
+	 * @param executor
+	 */
+	WlkPublisher(WlkReader wlkReader,
+			Function<WlkReader.DailyWeatherDataIterator, Items<T>> items,
+			Executor executor) {
+		this.wlkReader = wlkReader;
+		this.items = items;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber must not be null!");
+		}
+
+		// The files are selected with the settings of the reader at the time
+		// of the subscription.
+		WlkReader.DailyWeatherDataIterator days;
+		try {
+			days = wlkReader.iterator();
+		} catch (IOException e) {
+			WlkSubscription<T> subscription = new WlkSubscription<T>(
+					subscriber, null, new Items<T>() {
+						@Override
+						public boolean hasNext() {
+							return false;
+						}
+
+						@Override
+						public T next() {
+							throw new NoSuchElementException();
+						}
+
+						@Override
+						public boolean isFinished() {
+							return true;
+						}
+					}, executor);
+			subscriber.onSubscribe(subscription);
+			subscription.fail(e);
+			return;
+		}
+		subscriber.onSubscribe(new WlkSubscription<T>(subscriber, days, items
+				.apply(days), executor));
+	}
+
+	/**
+	 * Iterator over the items of a subscription, which can also tell whether
+	 * it is finished without decoding the next item.
+	 */
+	interface Items<T> extends Iterator<T> {
+		/**
+		 * Checks whether all items were returned, without decoding a day or
+		 * opening a file. False does not mean there is a next item.
+		 *
+		 * @return true if there are no more items
+		 */
+		boolean isFinished();
+	}
+
+	/**
+	 * Returns the items over the days.
+	 *
+	 * @param days
+	 * @return items over days
+	 */
+	static Items<DailyWeatherData> days(
+			final WlkReader.DailyWeatherDataIterator days) {
+		return new Items<DailyWeatherData>() {
+			@Override
+			public boolean hasNext() {
+				return days.hasNext();
+			}
+
+			@Override
+			public DailyWeatherData next() {
+				return days.next();
+			}
+
+			@Override
+			public boolean isFinished() {
+				return days.isFinished();
+			}
+		};
+	}
+
+	/**
+	 * Returns the items over the weather data records of the days. Only the
+	 * current day is held.
+	 *
+	 * @param days
+	 * @return items over weather data records
+	 */
+	static Items<data.WeatherDataRecord> records(
+			final WlkReader.DailyWeatherDataIterator days) {
+		return new Items<data.WeatherDataRecord>() {
+			private Iterator<data.WeatherDataRecord> records = Collections
+					.emptyIterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!records.hasNext()) {
+					if (!days.hasNext()) {
+						return false;
+					}
+					records = days.next().getWeatherDataRecords().iterator();
+				}
+				return true;
+			}
+
+			@Override
+			public data.WeatherDataRecord next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return records.next();
+			}
+
+			@Override
+			public boolean isFinished() {
+				return !records.hasNext() && days.isFinished();
+			}
+		};
+	}
+
+	/**
+	 * Subscription of a single subscriber. Requests and cancellation only
+	 * schedule the delivery, which then runs in a single task at a time. The
+	 * file which is currently read is closed as soon as the subscription is
+	 * cancelled, completed or failed.
+	 */
+	private static class WlkSubscription<T> implements Flow.Subscription,
+			Runnable {
+		private final Flow.Subscriber<? super T> subscriber;
+		private final WlkReader.DailyWeatherDataIterator days;
+		private final Items<T> items;
+		private final Executor executor;
+
+		// Number of requested items which were not delivered yet.
+		private final AtomicLong demand = new AtomicLong();
+
+		// Number of times the delivery was scheduled and not run yet.
+		private final AtomicInteger scheduled = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		// Error to signal, if the request was not valid or the files could
+		// not be selected.
+		private volatile Throwable error;
+
+		// Whether the terminal signal was delivered. Only used by the task.
+		private boolean done;
+
+		WlkSubscription(Flow.Subscriber<? super T> subscriber,
+				WlkReader.DailyWeatherDataIterator days, Items<T> items,
+				Executor executor) {
+			this.subscriber = subscriber;
+			this.days = days;
+			this.items = items;
+			this.executor = executor;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				fail(new IllegalArgumentException(
+						"Number of requested items must be positive!"));
+				return;
+			}
+
+			// Demand is capped at Long.MAX_VALUE, which means unbounded.
+			demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE
+					: current + n);
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		/**
+		 * Signals the error to the subscriber.
+		 */
+		void fail(Throwable error) {
+			this.error = error;
+			schedule();
+		}
+
+		private void schedule() {
+			if (scheduled.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		/**
+		 * Delivers items while there is demand and then runs again if the
+		 * delivery was scheduled in the meantime.
+		 */
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				deliver();
+				missed = scheduled.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void deliver() {
+			if (done) {
+				return;
+			}
+			try {
+				// Demand is checked first, so no day is decoded and no file
+				// is opened unless an item was requested.
+				while (!cancelled && error == null && demand.get() > 0) {
+					if (!items.hasNext()) {
+						finish();
+						subscriber.onComplete();
+						return;
+					}
+					subscriber.onNext(items.next());
+					demand.decrementAndGet();
+				}
+			} catch (RuntimeException e) {
+				// Input output errors of the iterator are unchecked.
+				error = e;
+			}
+
+			if (error != null) {
+				finish();
+				subscriber.onError(error);
+			} else if (cancelled) {
+				finish();
+			} else if (items.isFinished()) {
+				// The end is signalled without a further request only if it
+				// is known without decoding, otherwise on the next request.
+				finish();
+				subscriber.onComplete();
+			}
+		}
+
+		/**
+		 * Closes the file which is currently read.
+		 */
+		private void finish() {
+			done = true;
+			if (days != null) {
+				try {
+					days.close();
+				} catch (RuntimeException e) {
+					// The subscription ends anyway.
+				}
+			}
+		}
+	}
+}
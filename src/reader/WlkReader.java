@@ -1,28 +1,43 @@
 package reader;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
-
-import javolution.io.Struct.Signed8;
-import javolution.io.Struct.Unsigned8;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
 
-import struct.DailySummary1;
-import struct.DailySummary2;
 import struct.DayIndex;
 import struct.HeaderBlock;
-import struct.WeatherDataRecord;
 
 import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
@@ -31,6 +46,11 @@ import org.joda.time.LocalTime;
 import data.DailySummary;
 import data.DailyWeatherData;
 import data.DataConverter;
+import data.QuantileSketch;
+import data.RawWeatherDataRecord;
+import data.SummaryField;
+import data.WeatherDataColumns;
+import data.WeatherField;
 
 /**
  * Class for reading *.wlk files and converting data to user specified metric
@@ -41,6 +61,12 @@ import data.DataConverter;
  * @since 1.0
  */
 public class WlkReader {
+	// Size of the header block at the beginning of each file.
+	static final int HEADER_SIZE = 212;
+
+	// Size of each daily summary and weather data record.
+	static final int RECORD_SIZE = 88;
+
 	// Properties
 	private File directory;
 	private DateTime dateTimeStart;
@@ -50,6 +76,42 @@ public class WlkReader {
 	// will take place (from imperial to metric).
 	private boolean unit = true;
 
+	// Default is reading the whole file into the heap. Mapping the files is
+	// cheaper for large archives, but the mapped file stays locked on some
+	// operating systems until the buffer is garbage collected.
+	private BufferStrategy bufferStrategy = BufferStrategy.HEAP;
+
+	// Pool for decoding files in parallel. If it is not set, then a pool with
+	// the specified parallelism is created for each read. By default the
+	// files are decoded sequentially.
+	private ForkJoinPool forkJoinPool;
+	private int parallelism = 1;
+
+	// Fields of the weather data records and groups of the daily summary
+	// values which are decoded. Values that are not selected are never read
+	// from the buffer and stay null. By default everything is decoded.
+	private Set<WeatherField> fields = EnumSet.allOf(WeatherField.class);
+	private Set<SummaryField> summaryFields = EnumSet
+			.allOf(SummaryField.class);
+
+	// Filter of the weather data records. If it is not set, then all the
+	// records inside the date time range are read.
+	private RecordFilter filter;
+
+	// File of the sidecar index of the directory. If it is not set, then the
+	// header blocks of the files are read on each read. The loaded index is
+	// kept between reads and refreshed at the start of each read.
+	private File indexFile;
+	private WlkIndex index;
+
+	// Cache of decoded months, which may be shared with other readers. It is
+	// not used for reads with a filter and for reading columns.
+	private MonthCache monthCache;
+
+	// Whether the quantile sketches of each file are kept in a side file
+	// next to the file.
+	private boolean sketchFiles;
+
 	/**
 	 * @return the directory
 	 */
@@ -63,6 +125,7 @@ public class WlkReader {
 	 */
 	public void setDirectory(File directory) {
 		this.directory = directory;
+		this.index = null;
 	}
 
 	/**
@@ -110,6 +173,177 @@ public class WlkReader {
 		this.unit = unit;
 	}
 
+	/**
+	 * @return the bufferStrategy
+	 */
+	public BufferStrategy getBufferStrategy() {
+		return bufferStrategy;
+	}
+
+	/**
+	 * @param bufferStrategy
+	 *            the bufferStrategy to set
+	 */
+	public void setBufferStrategy(BufferStrategy bufferStrategy) {
+		this.bufferStrategy = bufferStrategy;
+	}
+
+	/**
+	 * @return the forkJoinPool
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	/**
+	 * @param forkJoinPool
+	 *            the forkJoinPool to set, which is used for decoding in
+	 *            parallel. The pool is not shut down by the reader.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * @return the parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism
+	 *            the parallelism to set, which is used when no fork join pool
+	 *            is set. Value 1 means sequential decoding.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"Parallelism must be at least 1!");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the fields of the weather data records which are decoded
+	 */
+	public Set<WeatherField> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Selects the fields of the weather data records which are decoded. Date
+	 * and time of the records are always set.
+	 * 
+	 * @param fields
+	 *            the fields to set
+	 */
+	public void setFields(Set<WeatherField> fields) {
+		this.fields = EnumSet.noneOf(WeatherField.class);
+		this.fields.addAll(fields);
+	}
+
+	/**
+	 * @return the groups of the daily summary values which are decoded
+	 */
+	public Set<SummaryField> getSummaryFields() {
+		return summaryFields;
+	}
+
+	/**
+	 * Selects the groups of the daily summary values which are decoded. Date
+	 * and data span of the daily summaries are always set.
+	 * 
+	 * @param summaryFields
+	 *            the summaryFields to set
+	 */
+	public void setSummaryFields(Set<SummaryField> summaryFields) {
+		this.summaryFields = EnumSet.noneOf(SummaryField.class);
+		this.summaryFields.addAll(summaryFields);
+	}
+
+	/**
+	 * @return the filter
+	 */
+	public RecordFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * Sets the filter of the weather data records. Days without a matching
+	 * record are left out of the result. Null removes the filter.
+	 * 
+	 * @param filter
+	 *            the filter to set
+	 */
+	public void setFilter(RecordFilter filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * @return the indexFile
+	 */
+	public File getIndexFile() {
+		return indexFile;
+	}
+
+	/**
+	 * Sets the file of the sidecar index of the directory. The index is
+	 * created on the first read and afterwards only the files whose size or
+	 * modification time changed are read again. Files and days are then
+	 * selected from the index without reading the header blocks, and files
+	 * without a selected day are not opened. The index is not used if the
+	 * reader is created with a single file. Null disables the index.
+	 * 
+	 * @param indexFile
+	 *            the indexFile to set
+	 */
+	public void setIndexFile(File indexFile) {
+		this.indexFile = indexFile;
+		this.index = null;
+	}
+
+	/**
+	 * @return the monthCache
+	 */
+	public MonthCache getMonthCache() {
+		return monthCache;
+	}
+
+	/**
+	 * Sets the cache of decoded months. Each file is decoded whole and the
+	 * days and records inside the date time range are taken from the cache
+	 * on the following reads, until the file changes. Each read gets its own
+	 * daily summaries and records. Reads with a filter and reading columns do
+	 * not use the cache. Null disables the cache.
+	 * 
+	 * @param monthCache
+	 *            the monthCache to set
+	 */
+	public void setMonthCache(MonthCache monthCache) {
+		this.monthCache = monthCache;
+	}
+
+	/**
+	 * @return whether the quantile sketches are kept in side files
+	 */
+	public boolean isSketchFiles() {
+		return sketchFiles;
+	}
+
+	/**
+	 * Sets whether the quantile sketches of each day are kept in a side file
+	 * next to each file. The side file is built on the first read of the
+	 * sketches and built again when the file changes. Afterwards only the
+	 * records of the days at the ends of the date time range are read.
+	 * 
+	 * @param sketchFiles
+	 *            the sketchFiles to set
+	 */
+	public void setSketchFiles(boolean sketchFiles) {
+		this.sketchFiles = sketchFiles;
+	}
+
 	/**
 	 * Constructor for setting root directory where the *.wlk files are
 	 * contained. It will read all the available data with no date and time
@@ -177,25 +411,20 @@ public class WlkReader {
 	/**
 	 * Read data, convert it to right type and according to specified
 	 * metric/imperial units.
+	 * <p>
+	 * If a fork join pool or a parallelism level larger than one is set, then
+	 * the files and the days inside each file are decoded in parallel. The
+	 * returned list is in both cases ordered chronologically.
+	 * </p>
 	 * 
 	 * @return list of converted data
 	 */
 	public List<DailyWeatherData> readData() throws IOException,
 			IllegalArgumentException, UnsupportedOperationException,
 			ArithmeticException {
-		// First we get all the files with *.wlk extension in specified
-		// directory (usally DavisVan).
-		Collection<File> fileList = null;
-		// If we create WlkReader with a file instead a directory, we create fileList
-		// collection only with one file to parse.
-		if(this.directory.exists() && !this.directory.isDirectory() && this.directory.isFile()) {
-			if(this.directory.getCanonicalPath().endsWith("wlk")) {
-				fileList = new ArrayList<>(Arrays.asList(this.directory));
-			}
-		} else {
-			fileList = FileUtils.listFiles(this.directory,
-					FileFilterUtils.suffixFileFilter("wlk"), null);
-		}
+		// First we get the files which are inside the specified date time
+		// range in chronological order.
+		List<File> selectedFiles = getSelectedFiles();
 
 		// A collection where we will save data and later return it.
 		List<DailyWeatherData> dailyWeatherDataList = new ArrayList<DailyWeatherData>();
@@ -204,657 +433,1947 @@ public class WlkReader {
 		// choice.
 		DataConverter dataConverter = new DataConverter(this.unit);
 
-		// Then we iterate over all the files.
-		for (File file : fileList) {
-			// File name (yyyy-MM) is converted to date time.
-			DateTime fileDateTime = new DateTime(
-					FilenameUtils.removeExtension(file.getName()));
-
-			// We need to add one month so that file is read even if date time
-			// for reading records is set to the last day in month.
-			fileDateTime = fileDateTime.plusMonths(1);
+		// Date time range for checking days and records.
+		TimeWindow window = new TimeWindow(this.dateTimeStart,
+				this.dateTimeEnd);
 
-			// Check whether date time of the specified date time is before date
-			// time parsed from file name. If the date time is not set then we
-			// read all the files. The end date time plus one month must be
-			// after
-			// file date time.
+		if (this.forkJoinPool == null && this.parallelism <= 1) {
+			for (File file : selectedFiles) {
+				dailyWeatherDataList.addAll(readFile(file, dataConverter,
+						window, false));
+			}
+		} else {
+			// Use the pool of the user or create one for this read only.
+			ForkJoinPool pool = this.forkJoinPool;
+			if (pool == null) {
+				pool = new ForkJoinPool(this.parallelism);
+			}
 
-			if ((this.dateTimeStart == null && this.dateTimeEnd == null)
-					|| (this.dateTimeStart == null && this.dateTimeEnd != null && this.dateTimeEnd
-							.plusMonths(1).isAfter(fileDateTime))
-					|| (this.dateTimeStart != null && this.dateTimeEnd == null && this.dateTimeStart
-							.isBefore(fileDateTime))
-					|| (this.dateTimeStart != null && this.dateTimeEnd != null
-							&& this.dateTimeStart.isBefore(fileDateTime) && this.dateTimeEnd
-							.plusMonths(1).isAfter(fileDateTime))) {
-				// The offset of daily summary record 1.
-				int offset = 0;
-
-				// First we get bytes from file by calling method
-				// getBytesFromFile.
-				byte[] bytes = getBytesFromFile(new File(file.getPath()));
-
-				// Then we create byte buffer and set the order to LITTLE
-				// ENDIAN.
-				ByteBuffer buffer = ByteBuffer.wrap(bytes);
-				buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-				/*
-				 * Then we create and initialize object HeaderBlock, that
-				 * represents header in a file that we are reading from. We also
-				 * set current byte buffer for this struct.
-				 */
-				HeaderBlock headerBlock = new HeaderBlock();
-				headerBlock.setByteBuffer(buffer, offset);
-
-				// Here we create instance of different data.
-				DailySummary1 dailySummary1 = new DailySummary1();
-				dailySummary1.setByteBuffer(buffer, offset);
-
-				DailySummary2 dailySummary2 = new DailySummary2();
-				WeatherDataRecord weatherDataRecord = new WeatherDataRecord();
-
-				/*
-				 * Now we iterate through array of dayIndex and if the number of
-				 * records in day is larger than zero, then we calculate offset
-				 * (this is the start of daily summary 1 of the day). We also
-				 * set variable day which counts the number of cycles through
-				 * for loop. It should be noted that index 0 is not being used
-				 * in header block which means that indeks for day 1 is on index
-				 * 1. That is why we set the number of loops on -1.
-				 */
-				int day = -1;
-				for (DayIndex dayIndex : headerBlock.dayIndex) {
-					// Increment number of days gone by in file.
-					day++;
-
-					// Check if record contains any data.
-					if (dayIndex.recordsInDay.get() > 0) {
-
-						// Create date time from file date and number of days.
-						DateTime dateTimeDay = new DateTime(fileDateTime
-								.minusMonths(1).getYear(), fileDateTime
-								.minusMonths(1).getMonthOfYear(), day, 0, 0);
-
-						// Check all the possibilities.
-						if ((this.dateTimeStart == null && this.dateTimeEnd == null)
-								|| (this.dateTimeStart == null
-										&& this.dateTimeEnd != null && this.dateTimeEnd
-										.toLocalDate().compareTo(
-												dateTimeDay.toLocalDate()) >= 0)
-								|| (this.dateTimeStart != null
-										&& this.dateTimeEnd == null && this.dateTimeStart
-										.toLocalDate().compareTo(
-												dateTimeDay.toLocalDate()) <= 0)
-								|| (this.dateTimeStart != null
-										&& this.dateTimeEnd != null
-										&& this.dateTimeStart.toLocalDate()
-												.compareTo(
-														dateTimeDay
-																.toLocalDate()) <= 0 && this.dateTimeEnd
-										.toLocalDate().compareTo(
-												dateTimeDay.toLocalDate()) >= 0)) {
-							/*
-							 * First we compute offset. We need to add 212,
-							 * because the first 212B is used by header. The
-							 * multiplication with 88 is because each record
-							 * takes 88B of space.
-							 */
-							offset = (int) (dayIndex.startPos.get() * 88 + 212);
-							dailySummary1.setByteBufferPosition(offset);
-
-							// Check for correct data type.
-							if (dailySummary1.dataType.get() == 2) {
-								// Daily summary for this day.
-								DailySummary dailySummary = new DailySummary();
-
-								// Set data from daily summary 1.
-								setDataDailySummary1(dailySummary,
-										dailySummary1, dataConverter,
-										fileDateTime, day);
-
-								// Continue with added offset for getting daily
-								// summary 2.
-								offset += 88;
-								dailySummary2.setByteBuffer(buffer, offset);
-
-								// Check for correct data type.
-								if (dailySummary2.dataType.get() == 3) {
-									// Save data for daily summary 2.
-									setDailySummary2(dailySummary,
-											dailySummary2, dataConverter);
-
-									// Storing weather data records for each
-									// measurement.
-									List<data.WeatherDataRecord> weatherDataRecordList = new ArrayList<data.WeatherDataRecord>();
-
-									// Here we subtracted records in day by two,
-									// because we have
-									// already accounted daily summary 1 and
-									// daily
-									// summary 2.
-									for (int i = 0; i < dayIndex.recordsInDay
-											.get() - 2; i++) {
-										offset += 88;
-										weatherDataRecord.setByteBuffer(buffer,
-												offset);
-
-										// Check for correct data type.
-										if (weatherDataRecord.dataType.get() == 1) {
-											// We get the hours from packed time
-											// by
-											// dividing it with 60 (represents
-											// minutes)
-											// and round it to the nearest
-											// integer.
-											short hours = (short) Math
-													.floor(weatherDataRecord.packedTime
-															.get() / 60);
-
-											// We get the minutes from packed
-											// time
-											// by computing the reminder
-											// when dividing packed time with 60
-											short minutes = (short) (weatherDataRecord.packedTime
-													.get() % 60);
-
-											/*
-											 * Now we can create date time on
-											 * the basis of values from the name
-											 * of the file (year, month) and
-											 * packed time from weather data
-											 * record (day, hours, minutes).
-											 * Because the record with time
-											 * 00:00 (hours = 24) belongs to
-											 * previous day (interval of records
-											 * is from 00:00 - 23:59) we need to
-											 * set hours and minutes to 00:00
-											 * (24:00 -> 00:00) and add a day.
-											 */
-
-											DateTime dateRecord;
-											if (hours == 24) {
-												dateRecord = new DateTime(
-														fileDateTime
-																.minusMonths(1)
-																.getYear(),
-														fileDateTime
-																.minusMonths(1)
-																.getMonthOfYear(),
-														day, 0, 0);
-												dateRecord = dateRecord
-														.plusDays(1);
-											} else {
-												dateRecord = new DateTime(
-														fileDateTime
-																.minusMonths(1)
-																.getYear(),
-														fileDateTime
-																.minusMonths(1)
-																.getMonthOfYear(),
-														day, hours, minutes);
-											}
-
-											// Again check for date time.
-											if ((this.dateTimeStart == null && this.dateTimeEnd == null)
-													|| (this.dateTimeStart == null
-															&& this.dateTimeEnd != null && this.dateTimeEnd
-																.isAfter(dateRecord))
-													|| (this.dateTimeStart != null
-															&& this.dateTimeEnd == null && this.dateTimeStart
-																.isBefore(dateRecord))
-													|| (this.dateTimeStart != null
-															&& this.dateTimeEnd != null
-															&& this.dateTimeStart
-																	.isBefore(dateRecord) && this.dateTimeEnd
-																.isAfter(dateRecord))) {
-												// Create a new
-												// WeatherDataRecord.
-												data.WeatherDataRecord weatherRecord = new data.WeatherDataRecord();
-
-												// Saving data.
-												setWeatherRecord(weatherRecord,
-														weatherDataRecord,
-														dataConverter,
-														dateRecord);
-
-												// Setting the date and time of
-												// the
-												// user input record to the
-												// date time of the last record.
-												if (this.dateTimeStart != null) {
-													this.dateTimeStart = dateRecord;
-												}
-
-												// Storing it into the list.
-												weatherDataRecordList
-														.add(weatherRecord);
-											}
-										} else {
-											throw new ArithmeticException(
-													"Error in offset. Wrong data type for weather data record!");
-										}
-									}
-
-									// Here we will store daily summary as well
-									// as
-									// weather data record.
-									DailyWeatherData dailyWeatherData = new DailyWeatherData(
-											dailySummary, weatherDataRecordList);
-
-									// Add it to the list of daily weather data
-									// which is in the end returned.
-									dailyWeatherDataList.add(dailyWeatherData);
-								} else {
-									throw new ArithmeticException(
-											"Error in offset. Wrong data type for daily summary 2!");
-								}
-							} else {
-								throw new ArithmeticException(
-										"Error in offset. Wrong data type for daily summary 1!");
-							}
-						}
+			try {
+				// Each file is decoded in its own task. The results are joined
+				// in the order of the files.
+				List<FileTask> fileTasks = new ArrayList<FileTask>();
+				for (File file : selectedFiles) {
+					FileTask fileTask = new FileTask(file, dataConverter,
+							window);
+					fileTasks.add(fileTask);
+					pool.execute(fileTask);
+				}
+				for (FileTask fileTask : fileTasks) {
+					dailyWeatherDataList.addAll(fileTask.join());
+				}
+			} catch (RuntimeException e) {
+				// Input output exceptions are wrapped inside of the tasks.
+				for (Throwable cause = e; cause != null; cause = cause
+						.getCause()) {
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
 					}
 				}
+				throw e;
+			} finally {
+				if (pool != this.forkJoinPool) {
+					pool.shutdown();
+				}
+			}
+		}
+
+		// Setting the date and time of the user input record to the date time
+		// of the last record.
+		if (this.dateTimeStart != null) {
+			DateTime lastDateTime = getLastDateTime(dailyWeatherDataList);
+			if (lastDateTime != null) {
+				this.dateTimeStart = lastDateTime;
 			}
 		}
 		return dailyWeatherDataList;
 	}
 
-	private void setWeatherRecord(data.WeatherDataRecord weatherRecord,
-			WeatherDataRecord weatherDataRecord, DataConverter dataConverter,
-			DateTime dateRecord) {
-		weatherRecord.setArchiveInterval(weatherDataRecord.archiveInterval
-				.get());
-		weatherRecord.setIconFlags(weatherDataRecord.iconFlags.get());
-		weatherRecord.setTime(dateRecord.toLocalTime());
-		weatherRecord.setNumwindSamples((int) weatherDataRecord.numWindSamples
-				.get());
-		weatherRecord.setOutTemp(dataConverter
-				.convertTemperature(weatherDataRecord.outsideTemp.get()));
-		weatherRecord.setMaxOutTemp(dataConverter
-				.convertTemperature(weatherDataRecord.hiOutsideTemp.get()));
-		weatherRecord.setMinOutTemp(dataConverter
-				.convertTemperature(weatherDataRecord.lowOutsideTemp.get()));
-		weatherRecord.setInTemp(dataConverter
-				.convertTemperature(weatherDataRecord.insideTemp.get()));
-		weatherRecord.setPressure(dataConverter
-				.convertPressure(weatherDataRecord.barometer.get()));
-		weatherRecord.setOutHumidity(dataConverter
-				.convertHumidity(weatherDataRecord.outsideHum.get()));
-		weatherRecord.setInHumidity(dataConverter
-				.convertHumidity(weatherDataRecord.insideHum.get()));
-		weatherRecord.setPrecipitation(dataConverter
-				.convertPrecipitation((short) weatherDataRecord.rain.get()));
-		weatherRecord.setMaxPrecipitationRate(dataConverter
-				.convertPrecipitation(weatherDataRecord.hiRainRate.get()));
-		weatherRecord.setWindSpeed(dataConverter
-				.convertWindSpeed(weatherDataRecord.windSpeed.get()));
-		weatherRecord.setMaxWindSpeed(dataConverter
-				.convertWindSpeed(weatherDataRecord.hiWindSpeed.get()));
-		weatherRecord.setWindDirection(dataConverter
-				.convertWindDirection((short) weatherDataRecord.windDirection
-						.get()));
-		weatherRecord.setMaxWindDirection(dataConverter
-				.convertWindDirection((short) weatherDataRecord.hiWindDirection
-						.get()));
-		weatherRecord.setSolarRad(dataConverter
-				.convertSolarEnergy(weatherDataRecord.solarRad.get()));
-		weatherRecord.setMaxSolarRad(dataConverter
-				.convertSolarEnergy(weatherDataRecord.hiSolarRad.get()));
-		weatherRecord.setUV(dataConverter
-				.convertUV((short) weatherDataRecord.UV.get()));
-		weatherRecord.setMaxUV(dataConverter
-				.convertUV((short) weatherDataRecord.hiUV.get()));
-		weatherRecord.setLeafTemp(this.computeExtraSensors(
-				weatherDataRecord.leafTemp, dataConverter));
-		weatherRecord.setExtraRad((double) weatherDataRecord.extraRad.get());
-		weatherRecord.setForecast((int) weatherDataRecord.forecast.get());
-		weatherRecord.setET(dataConverter
-				.convertPrecipitation((short) weatherDataRecord.ET.get()));
-		weatherRecord.setSoilTemp(this.computeExtraSensors(
-				weatherDataRecord.soilTemp, dataConverter));
-		// Setting soil moisture!
-		// weatherRecord.setSoilMoisture...
-		// Setting leaf wetness!
-		// weatherRecord.setLeafWetness...
-		weatherRecord.setExtraTemp(this.computeExtraSensors(
-				weatherDataRecord.extraTemp, dataConverter));
-		// Setting extra humidity!
-		// weatherRecord.setExtraHumidity...
-
+	/**
+	 * Returns an iterator which reads the data lazily, file by file and day by
+	 * day. Only one file is held in memory at a time, so the memory use does
+	 * not depend on the length of the date time range. Unlike readData, the
+	 * iterator does not move the start date time of the reader.
+	 * <p>
+	 * Input output errors are thrown as UncheckedIOException. The iterator
+	 * should be closed if it is not read to the end.
+	 * </p>
+	 * 
+	 * @return iterator over converted data
+	 */
+	public DailyWeatherDataIterator iterator() throws IOException {
+		return new DailyWeatherDataIterator(getSelectedFiles(),
+				new DataConverter(this.unit), new TimeWindow(
+						this.dateTimeStart, this.dateTimeEnd));
 	}
 
-	private void setDailySummary2(DailySummary dailySummary,
-			DailySummary2 dailySummary2, DataConverter dataConverter) {
-		dailySummary.setNumWindPackets(dailySummary2.numWindPackets.get());
-		dailySummary.setDailySolarEnergy(dataConverter
-				.convertSolarEnergy(dailySummary2.dailySolarEnergy.get()));
-		dailySummary.setMinSunLight((int) dailySummary2.minSunLight.get());
-		dailySummary.setDailyETTotal(dataConverter
-				.convertPrecipitation(dailySummary2.dailyETTotal.get()));
-		dailySummary.setIntegratedHeatDD65(dataConverter
-				.convertTemperature(dailySummary2.integratedHeatDD65.get()));
-		dailySummary.setWindDirectionDistribution(this
-				.computeWindDirectionDistribution(dailySummary2.dirBins));
-		dailySummary.setIntegratedCoolDD65(dataConverter
-				.convertTemperature(dailySummary2.integratedCoolDD65.get()));
-
-		// Maximum values.
-		dailySummary.setMaxSolar((double) dailySummary2.hiSolar.get());
-		dailySummary.setTimeMaxSolar(this.computeTimeValue(0,
-				dailySummary2.timeValues));
-		dailySummary.setMaxHeatIndex(dataConverter
-				.convertTemperature(dailySummary2.hiHeat.get()));
-		dailySummary.setTimeMaxSolar(this.computeTimeValue(1,
-				dailySummary2.timeValues));
-		dailySummary.setMaxTHSWIndex(dataConverter
-				.convertTemperature(dailySummary2.hiTHSW.get()));
-		dailySummary.setTimeMaxTHSWIndex(this.computeTimeValue(3,
-				dailySummary2.timeValues));
-		dailySummary.setMaxTHWIndex(dataConverter
-				.convertTemperature(dailySummary2.hiTHW.get()));
-		dailySummary.setTimeMaxTHWIndex(this.computeTimeValue(5,
-				dailySummary2.timeValues));
-
-		// Minimum values.
-		dailySummary.setMinHeatIndex(dataConverter
-				.convertTemperature(dailySummary2.lowHeat.get()));
-		dailySummary.setTimeMinHeatIndex(this.computeTimeValue(2,
-				dailySummary2.timeValues));
-		dailySummary.setMinTHSWIndex(dataConverter
-				.convertTemperature(dailySummary2.lowTHSW.get()));
-		dailySummary.setTimeMinTHSWIndex(this.computeTimeValue(4,
-				dailySummary2.timeValues));
-		dailySummary.setMinTHWIndex(dataConverter
-				.convertTemperature(dailySummary2.lowTHW.get()));
-		dailySummary.setTimeMinTHWIndex(this.computeTimeValue(6,
-				dailySummary2.timeValues));
-
-		// Avg values.
-		dailySummary.setAvgHeatIndex(dataConverter
-				.convertTemperature(dailySummary2.avgHeat.get()));
-
-	}
-
-	/**
-	 * Set data for daily summary 1 values.
+	/**
+	 * Returns a sequential stream of data which is read lazily in the same way
+	 * as by the iterator. Closing the stream closes the file that is currently
+	 * being read.
 	 * 
-	 * @param dailySummary
-	 * @param dailySummary1
-	 * @param dataConverter
-	 * @param fileDateTime
-	 * @param day
+	 * @return stream of converted data
 	 */
-	private void setDataDailySummary1(DailySummary dailySummary,
-			DailySummary1 dailySummary1, DataConverter dataConverter,
-			DateTime fileDateTime, int day) {
-		dailySummary.setDate(new LocalDate(fileDateTime.minusMonths(1)
-				.getYear(), fileDateTime.minusMonths(1).getMonthOfYear(), day));
-		if (dailySummary1.dataSpan.get() != Short.MIN_VALUE) {
-			dailySummary.setDataSpan((int) dailySummary1.dataSpan.get());
-		}
-		dailySummary.setWindRun(dataConverter
-				.convertWindRun(dailySummary1.dailyWindRunTotal.get()));
-		dailySummary.setDailyRain(dataConverter
-				.convertPrecipitation(dailySummary1.dailyRainTotal.get()));
-		dailySummary.setDailyUVDose(dataConverter
-				.convertUV(dailySummary1.dailyUVDose.get()));
-
-		// Maximum values.
-		dailySummary.setMaxOutTemp(dataConverter
-				.convertTemperature(dailySummary1.hiOutTemp.get()));
-		dailySummary.setTimeMaxOutTemp(this.computeTimeValue(0,
-				dailySummary1.timeValues));
-		dailySummary.setMaxInTemp(dataConverter
-				.convertTemperature(dailySummary1.hiInTemp.get()));
-		dailySummary.setTimeMaxInTemp(this.computeTimeValue(2,
-				dailySummary1.timeValues));
-		dailySummary.setMaxWindChill(dataConverter
-				.convertTemperature(dailySummary1.hiChill.get()));
-		dailySummary.setTimeMaxWindChill(this.computeTimeValue(4,
-				dailySummary1.timeValues));
-		dailySummary.setMaxDewPoint(dataConverter
-				.convertTemperature(dailySummary1.hiDew.get()));
-		dailySummary.setTimeMaxDewPoint(this.computeTimeValue(6,
-				dailySummary1.timeValues));
-		dailySummary.setMaxOutHum(dataConverter
-				.convertHumidity(dailySummary1.hiOutHum.get()));
-		dailySummary.setTimeMaxOutHum(this.computeTimeValue(8,
-				dailySummary1.timeValues));
-		dailySummary.setMaxInHum(dataConverter
-				.convertHumidity(dailySummary1.hiInHum.get()));
-		dailySummary.setTimeMaxInHum(this.computeTimeValue(10,
-				dailySummary1.timeValues));
-		dailySummary.setMaxPressure(dataConverter
-				.convertPressure(dailySummary1.hiBar.get()));
-		dailySummary.setTimeMaxPressure(this.computeTimeValue(12,
-				dailySummary1.timeValues));
-		dailySummary.setMaxWindSpeed(dataConverter
-				.convertWindSpeed(dailySummary1.hiSpeed.get()));
-		dailySummary.setMaxWindSpeedDir(dataConverter
-				.convertWindDirection(dailySummary1.dirHiSpeed.get()));
-		dailySummary.setTimeMaxWindSpeed(this.computeTimeValue(14,
-				dailySummary1.timeValues));
-		dailySummary.setMaxAvg10MinWindSpeed(dataConverter
-				.convertWindSpeed(dailySummary1.hi10MinSpeed.get()));
-		dailySummary.setMaxAvg10MinWindSpeedDir(dataConverter
-				.convertWindDirection(dailySummary1.hi10MinDir.get()));
-		dailySummary.setTimeMaxAvg10MinWindSpeed(this.computeTimeValue(15,
-				dailySummary1.timeValues));
-		dailySummary.setMaxRainRate(dataConverter
-				.convertPrecipitation(dailySummary1.hiRainRate.get()));
-		dailySummary.setTimeMaxRainRate(this.computeTimeValue(16,
-				dailySummary1.timeValues));
-		dailySummary
-				.setMaxUV(dataConverter.convertUV(dailySummary1.hiUV.get()));
-		dailySummary.setTimeMaxUV(this.computeTimeValue(17,
-				dailySummary1.timeValues));
-
-		// Minimum values.
-		dailySummary.setMinOutTemp(dataConverter
-				.convertTemperature(dailySummary1.lowOutTemp.get()));
-		dailySummary.setTimeMinOutTemp(this.computeTimeValue(1,
-				dailySummary1.timeValues));
-		dailySummary.setMinInTemp(dataConverter
-				.convertTemperature(dailySummary1.lowInTemp.get()));
-		dailySummary.setTimeMinInTemp(this.computeTimeValue(3,
-				dailySummary1.timeValues));
-		dailySummary.setMinWindChill(dataConverter
-				.convertTemperature(dailySummary1.lowChill.get()));
-		dailySummary.setTimeMinWindChill(this.computeTimeValue(5,
-				dailySummary1.timeValues));
-		dailySummary.setMinDewPoint(dataConverter
-				.convertTemperature(dailySummary1.lowDew.get()));
-		dailySummary.setTimeMinDewPoint(this.computeTimeValue(7,
-				dailySummary1.timeValues));
-		dailySummary.setMinOutHum(dataConverter
-				.convertHumidity(dailySummary1.lowOutHum.get()));
-		dailySummary.setTimeMinOutHum(this.computeTimeValue(9,
-				dailySummary1.timeValues));
-		dailySummary.setMinInHum(dataConverter
-				.convertHumidity(dailySummary1.lowInHum.get()));
-		dailySummary.setTimeMinInHum(this.computeTimeValue(11,
-				dailySummary1.timeValues));
-		dailySummary.setMinPressure(dataConverter
-				.convertPressure(dailySummary1.lowBar.get()));
-		dailySummary.setTimeMinPressure(this.computeTimeValue(13,
-				dailySummary1.timeValues));
-
-		// Average values.
-		dailySummary.setAvgOutTemp(dataConverter
-				.convertTemperature(dailySummary1.avgOutTemp.get()));
-		dailySummary.setAvgInTemp(dataConverter
-				.convertTemperature(dailySummary1.avgInTemp.get()));
-		dailySummary.setAvgWindChill(dataConverter
-				.convertTemperature(dailySummary1.avgChill.get()));
-		dailySummary.setAvgDewPoint(dataConverter
-				.convertTemperature(dailySummary1.avgDew.get()));
-		dailySummary.setAvgOutHum(dataConverter
-				.convertHumidity(dailySummary1.avgOutHum.get()));
-		dailySummary.setAvgPressure(dataConverter
-				.convertPressure(dailySummary1.avgBar.get()));
-		dailySummary.setAvgWindSpeed(dataConverter
-				.convertWindSpeed(dailySummary1.avgSpeed.get()));
-
+	public Stream<DailyWeatherData> streamData() throws IOException {
+		DailyWeatherDataIterator iterator = iterator();
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(iterator,
+						Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
 	}
 
 	/**
-	 * Returns the contents of the file in a byte array.
+	 * Returns a sequential stream of weather data records which is read
+	 * lazily day by day. Daily summaries are decoded as well, but are not part
+	 * of the stream.
 	 * 
-	 * The author: Example Depot
-	 * (http://www.exampledepot.com/egs/java.io/file2bytearray.html)
-	 * 
-	 * @param file
-	 *            file from which the content is read
-	 * @return contents of the file in a byte array
+	 * @return stream of converted weather data records
 	 */
-	public static byte[] getBytesFromFile(File file) throws IOException {
-		InputStream inputStream = new FileInputStream(file);
-
-		// Get the size of the file.
-		long length = file.length();
-
-		/*
-		 * You cannot create an array using a long type. It needs to be an int
-		 * type. Before converting to an int type, check to ensure that file is
-		 * not larger than Integer.MAX_VALUE.
-		 */
-		if (length > Integer.MAX_VALUE) {
-			// Close the input stream.
-			inputStream.close();
-			return null;
-		} else {
-			// Create the byte array to hold the data.
-			byte[] bytes = new byte[(int) length];
-
-			// Read in the bytes.
-			int offset = 0;
-			int numRead = 0;
-
-			while (offset < bytes.length
-					&& (numRead = inputStream.read(bytes, offset, bytes.length
-							- offset)) >= 0) {
-				offset += numRead;
-			}
-
-			// Ensure that all the bytes have been read in.
-			if (offset < bytes.length) {
-				// Close the input stream.
-				inputStream.close();
-				throw new IOException("Could not completely read file "
-						+ file.getName());
-			}
-
-			// Close the input stream and return bytes.
-			inputStream.close();
-			return bytes;
-		}
+	public Stream<data.WeatherDataRecord> streamRecords() throws IOException {
+		return streamData().flatMap(
+				dailyWeatherData -> dailyWeatherData.getWeatherDataRecords()
+						.stream());
 	}
 
 	/**
-	 * Computes time values from structure read from the files.
+	 * Returns a publisher of data which is read lazily in the same way as by
+	 * the iterator. Each subscriber reads the data on its own and only as far
+	 * as it requested, so a slow subscriber does not force the data into
+	 * memory. Cancelling the subscription closes the file that is currently
+	 * being read. Items are delivered by tasks of the common fork join pool.
 	 * 
-	 * @param index
-	 * @param timeValues
-	 * @return computed time values
+	 * @return publisher of converted data
 	 */
-	private LocalTime computeTimeValue(int index, Unsigned8[] timeValues) {
-		// Compute field index from index. Integer division (rounded down).
-		int fieldIndex = (int) ((index / 2) * 3);
+	public Flow.Publisher<DailyWeatherData> publishData() {
+		return publishData(ForkJoinPool.commonPool());
+	}
 
-		// Packed time which we will get from time values.
-		int packedTime;
+	/**
+	 * Returns a publisher of data, whose items are delivered by tasks of the
+	 * specified executor.
+	 * 
+	 * @param executor
+	 * @return publisher of converted data
+	 */
+	public Flow.Publisher<DailyWeatherData> publishData(Executor executor) {
+		return new WlkPublisher<DailyWeatherData>(this, WlkPublisher::days,
+				executor);
+	}
 
-		// If index is even.
-		if (index % 2 == 0) {
-			packedTime = timeValues[fieldIndex].get()
-					+ ((timeValues[fieldIndex + 2].get() & 0x0F) << 8);
-		} else {
-			packedTime = timeValues[fieldIndex + 1].get()
-					+ ((timeValues[fieldIndex + 2].get() & 0xF0) << 4);
-		}
+	/**
+	 * Returns a publisher of weather data records, which are read lazily day
+	 * by day in the same way as by the publisher of data. Items are delivered
+	 * by tasks of the common fork join pool.
+	 * 
+	 * @return publisher of converted weather data records
+	 */
+	public Flow.Publisher<data.WeatherDataRecord> publishRecords() {
+		return publishRecords(ForkJoinPool.commonPool());
+	}
 
-		// A value of 0x0FFF or 0x07FF indicates no data available (i. e.
-		// invalid data).
-		if (packedTime == 0x0FFF || packedTime == 0x07FF
-				|| packedTime == 0x1000 || packedTime == 0x0800) {
-			return null;
-		} else {
-			// We get the hours by dividning packed time with 60 and rounding it
-			// down to the nearest integer value.
-			short hourOfDay = (short) Math.floor(packedTime / 60);
+	/**
+	 * Returns a publisher of weather data records, whose items are delivered
+	 * by tasks of the specified executor.
+	 * 
+	 * @param executor
+	 * @return publisher of converted weather data records
+	 */
+	public Flow.Publisher<data.WeatherDataRecord> publishRecords(
+			Executor executor) {
+		return new WlkPublisher<data.WeatherDataRecord>(this,
+				WlkPublisher::records, executor);
+	}
 
-			// Number of minutes is always between 1 and 1440. If extreme is
-			// recorded
-			// at 00:00 it means it was recorded at the end of day (23:59 -
-			// 00:00). So
-			// 1 means 00:00 - 00:01 and 1440 means 23:59 - 00:00.
-			if (hourOfDay == 24) {
-				hourOfDay = 0;
+	/**
+	 * Visits the days and weather data records straight from the buffers of
+	 * the files, without creating daily summary and weather data record
+	 * objects. Days and records are selected in the same way as by readData.
+	 * The month cache is not used and, like the iterator, the start date time
+	 * of the reader is not moved.
+	 * 
+	 * @param visitor
+	 */
+	public void visit(WlkRecordVisitor visitor) throws IOException,
+			ArithmeticException {
+		// The converter is only used for compiling the filter.
+		DataConverter dataConverter = new DataConverter(this.unit);
+		TimeWindow window = new TimeWindow(this.dateTimeStart,
+				this.dateTimeEnd);
+		DayDecoder dayDecoder = new DayDecoder();
+
+		for (File file : getSelectedFiles()) {
+			try (MonthFile monthFile = openMonthFile(file, dataConverter,
+					window)) {
+				for (DayTask dayTask : monthFile.dayTasks) {
+					dayDecoder.visit(dayTask, visitor);
+				}
 			}
-
-			// We get the minutes by computing the reminder when dividing with
-			// 60.
-			short minuteOfHour = (short) (packedTime % 60);
-
-			// Return computed time.
-			return new LocalTime(hourOfDay, minuteOfHour);
 		}
 	}
 
 	/**
-	 * Computes wind direction in degrees according to direction values.
+	 * Read weather data records which keep their raw bytes and convert the
+	 * values only when their getters are called. All the records share the
+	 * data converter of this read. Daily summaries are not decoded and, like
+	 * the iterator, the start date time of the reader is not moved.
 	 * 
-	 * @param direction
-	 * @return converted direction
+	 * @return list of raw weather data records
 	 */
-	private Integer[] computeWindDirectionDistribution(Signed8[] direction) {
-		// If index is even.
-		Integer[] windDirectionDistribution = new Integer[16];
-
-		for (int i = 0; i < 16; i++) {
-			// Compute field index from index. Integer division (rounded down).
-			int fieldIndex = (int) ((i / 2) * 3);
-
-			// Minutes.
-			int minutes;
+	public List<RawWeatherDataRecord> readRawRecords() throws IOException,
+			ArithmeticException {
+		final List<RawWeatherDataRecord> rawWeatherDataRecordList = new ArrayList<RawWeatherDataRecord>();
+		final DataConverter dataConverter = new DataConverter(this.unit);
 
-			if (i % 2 == 0) {
-				minutes = direction[fieldIndex].get()
-						+ ((direction[fieldIndex + 2].get() & 0x0F) << 8);
-			} else {
-				minutes = direction[fieldIndex + 1].get()
-						+ ((direction[fieldIndex + 2].get() & 0xF0) << 4);
+		visit(new WlkRecordVisitor() {
+			@Override
+			public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+				return true;
 			}
 
-			// A value of 0x0FFF or 0x07FF indicates no data available (i. e.
-			// invalid data).
-			if (minutes == 0x0FFF || minutes == 0x07FF) {
-				windDirectionDistribution[i] = null;
-			} else {
-				// Saving values.
-				windDirectionDistribution[i] = minutes;
+			@Override
+			public void onRecord(long epochMinute, RecordCursor recordCursor) {
+				rawWeatherDataRecordList.add(new RawWeatherDataRecord(
+						recordCursor.toByteArray(), (int) epochMinute,
+						dataConverter));
 			}
-		}
-
-		return windDirectionDistribution;
+		});
+		return rawWeatherDataRecordList;
 	}
 
 	/**
-	 * Extra temperature sensors. At the moment this sensors are not used by
-	 * Davis Vantage Pro2 (reserved for future use).
+	 * Read weather data records into columns of primitive values without
+	 * creating an object for each record. Daily summaries are not decoded.
+	 * Only the selected fields are stored in the columns.
 	 * 
-	 * @param temperatureSensors
+	 * @return columns of converted weather data records
+	 */
+	public WeatherDataColumns readColumns() throws IOException,
+			ArithmeticException {
+		WeatherDataColumns weatherDataColumns = new WeatherDataColumns(
+				this.fields);
+		visit(new ColumnCollector(weatherDataColumns, new DataConverter(
+				this.unit)));
+		return weatherDataColumns;
+	}
+
+	/**
+	 * Read only the daily summaries of the days inside the specified date
+	 * time range. For each day only the two daily summaries at the start of
+	 * the day are read from the file with positional reads, whatever the
+	 * buffer strategy, so the weather data records are never read. Only the
+	 * selected summary fields are converted.
+	 * <p>
+	 * A day is read if it is at least partly inside the date time range. The
+	 * filter and the month cache are not used and, like the iterator, the
+	 * start date time of the reader is not moved.
+	 * </p>
+	 * 
+	 * @return list of daily summaries in chronological order
+	 */
+	public List<DailySummary> readSummaries() throws IOException,
+			ArithmeticException {
+		List<DailySummary> dailySummaryList = new ArrayList<DailySummary>();
+		DataConverter dataConverter = new DataConverter(this.unit);
+		TimeWindow window = new TimeWindow(this.dateTimeStart,
+				this.dateTimeEnd);
+		DayDecoder dayDecoder = new DayDecoder();
+
+		for (File file : getSelectedFiles()) {
+			try (MonthFile monthFile = openMonthFile(file, dataConverter,
+					window, BufferStrategy.SPARSE, null)) {
+				for (DayTask dayTask : monthFile.dayTasks) {
+					dailySummaryList.add(dayDecoder.decodeSummary(dayTask));
+				}
+			}
+		}
+		return dailySummaryList;
+	}
+
+	/**
+	 * Read quantile sketches of the specified fields of the weather data
+	 * records inside the specified date time range. The raw values are added
+	 * to the sketches straight from the buffers of the files.
+	 * <p>
+	 * If side files are enabled and no filter is set, then the sketches of
+	 * the days that are whole inside the date time range are merged from the
+	 * side files, and only the records of the days at the ends of the range
+	 * are read from the files with positional reads. Like the iterator, the
+	 * start date time of the reader is not moved.
+	 * </p>
+	 * 
+	 * @param fields
+	 *            fields with a single value
+	 * @return sketches by the fields
+	 */
+	public Map<WeatherField, QuantileSketch> readSketches(
+			Set<WeatherField> fields) throws IOException,
+			IllegalArgumentException, ArithmeticException {
+		Map<WeatherField, QuantileSketch> sketches = new EnumMap<WeatherField, QuantileSketch>(
+				WeatherField.class);
+		for (WeatherField field : fields) {
+			sketches.put(field, new QuantileSketch(field));
+		}
+		DataConverter dataConverter = new DataConverter(this.unit);
+		SketchCollector sketchCollector = new SketchCollector(dataConverter,
+				sketches);
+		if (!this.sketchFiles || this.filter != null
+				|| WlkArchive.isArchive(this.directory)) {
+			visit(sketchCollector);
+			return sketches;
+		}
+
+		TimeWindow window = new TimeWindow(this.dateTimeStart,
+				this.dateTimeEnd);
+		DayDecoder dayDecoder = new DayDecoder();
+		for (File file : getSelectedFiles()) {
+			SketchFile sketchFile = getSketchFile(file, sketches.keySet(),
+					dataConverter);
+			try (MonthFile monthFile = openMonthFile(file, dataConverter,
+					window, BufferStrategy.SPARSE, null)) {
+				for (DayTask dayTask : monthFile.dayTasks) {
+					Map<WeatherField, QuantileSketch> daySketches = sketchFile
+							.getDay(dayTask.day);
+					if (daySketches != null
+							&& window.containsWholeDay(monthFile.firstDay
+									+ dayTask.day - 1)) {
+						for (QuantileSketch sketch : sketches.values()) {
+							sketch.merge(daySketches.get(sketch.getField()));
+						}
+					} else {
+						dayDecoder.visit(dayTask, sketchCollector);
+					}
+				}
+			}
+		}
+		return sketches;
+	}
+
+	/**
+	 * Returns the side file with the sketches of each day of the file. If the
+	 * side file is missing or out of date, then the sketches are built from
+	 * the records of the file and saved.
+	 * 
+	 * @param file
+	 * @param fields
+	 * @param dataConverter
+	 * @return up to date side file
+	 */
+	private SketchFile getSketchFile(File file, Set<WeatherField> fields,
+			DataConverter dataConverter) throws IOException {
+		SketchFile sketchFile = new SketchFile(file);
+		if (sketchFile.load(fields)) {
+			return sketchFile;
+		}
+
+		// Fields of the side file are kept, so that other reads of the
+		// directory do not build the side file again.
+		Set<WeatherField> allFields = EnumSet.noneOf(WeatherField.class);
+		allFields.addAll(fields);
+		allFields.addAll(sketchFile.getFields());
+		sketchFile.clear(allFields);
+		SketchCollector sketchCollector = new SketchCollector(dataConverter,
+				sketchFile);
+		DayDecoder dayDecoder = new DayDecoder();
+		try (MonthFile monthFile = openMonthFile(file, dataConverter,
+				new TimeWindow(null, null), this.bufferStrategy, null)) {
+			for (DayTask dayTask : monthFile.dayTasks) {
+				dayDecoder.visit(dayTask, sketchCollector);
+			}
+		}
+		sketchFile.save();
+		return sketchFile;
+	}
+
+	/**
+	 * Returns all the files with *.wlk extension in specified directory which
+	 * are inside the specified date time range. Files are sorted in
+	 * chronological order.
+	 * 
+	 * @return list of files to read
+	 */
+	private List<File> getSelectedFiles() throws IOException {
+		// First we get all the files with *.wlk extension in specified
+		// directory (usally DavisVan).
+		Collection<File> fileList = null;
+		// If we create WlkReader with a file instead a directory, we create fileList
+		// collection only with one file to parse.
+		if(this.directory.exists() && !this.directory.isDirectory() && this.directory.isFile()) {
+			if(this.directory.getCanonicalPath().endsWith("wlk")) {
+				fileList = new ArrayList<>(Arrays.asList(this.directory));
+			} else if (WlkArchive.isArchive(this.directory)) {
+				// Days of an archive are selected from its blocks.
+				return new ArrayList<>(Arrays.asList(this.directory));
+			}
+		} else if (this.indexFile != null) {
+			fileList = getIndex().getFiles();
+		} else {
+			fileList = FileUtils.listFiles(this.directory,
+					FileFilterUtils.suffixFileFilter("wlk"), null);
+		}
+
+		// Files that are inside the specified date time range.
+		List<File> selectedFiles = new ArrayList<File>();
+
+		// Then we iterate over all the files.
+		for (File file : fileList) {
+			// File name (yyyy-MM) is converted to date time.
+			DateTime fileDateTime = getFileDateTime(file);
+
+			// Check whether date time of the specified date time is before date
+			// time parsed from file name. If the date time is not set then we
+			// read all the files. The end date time plus one month must be
+			// after
+			// file date time.
+
+			if ((this.dateTimeStart == null && this.dateTimeEnd == null)
+					|| (this.dateTimeStart == null && this.dateTimeEnd != null && this.dateTimeEnd
+							.plusMonths(1).isAfter(fileDateTime))
+					|| (this.dateTimeStart != null && this.dateTimeEnd == null && this.dateTimeStart
+							.isBefore(fileDateTime))
+					|| (this.dateTimeStart != null && this.dateTimeEnd != null
+							&& this.dateTimeStart.isBefore(fileDateTime) && this.dateTimeEnd
+							.plusMonths(1).isAfter(fileDateTime))) {
+				selectedFiles.add(file);
+			}
+		}
+
+		// The names of the files (yyyy-MM) sort in chronological order.
+		Collections.sort(selectedFiles, new Comparator<File>() {
+			@Override
+			public int compare(File file1, File file2) {
+				return file1.getName().compareTo(file2.getName());
+			}
+		});
+		return selectedFiles;
+	}
+
+	/**
+	 * Returns the sidecar index of the directory, which is brought up to date
+	 * with the directory. The index is loaded from the index file only once
+	 * and saved only if it changed.
+	 * 
+	 * @return up to date index
+	 */
+	private WlkIndex getIndex() throws IOException {
+		if (this.index == null) {
+			this.index = new WlkIndex(this.directory, this.indexFile);
+			this.index.load();
+		}
+		if (this.index.refresh()) {
+			this.index.save();
+		}
+		return this.index;
+	}
+
+	/**
+	 * Converts the file name (yyyy-MM) to date time. We need to add one month
+	 * so that file is read even if date time for reading records is set to
+	 * the last day in month.
+	 * 
+	 * @param file
+	 * @return date time of the month following the month of the file
+	 */
+	private static DateTime getFileDateTime(File file) {
+		return new DateTime(FilenameUtils.removeExtension(file.getName()))
+				.plusMonths(1);
+	}
+
+	/**
+	 * Computes the date time of the last weather data record in the list.
+	 * Record with time 00:00 belongs to the end of the day, which means it is
+	 * recorded at the beginning of the next day.
+	 * 
+	 * @param dailyWeatherDataList
+	 * @return date time of the last record or null if there are no records
+	 */
+	private static DateTime getLastDateTime(
+			List<DailyWeatherData> dailyWeatherDataList) {
+		for (int i = dailyWeatherDataList.size() - 1; i >= 0; i--) {
+			DailyWeatherData dailyWeatherData = dailyWeatherDataList.get(i);
+			List<data.WeatherDataRecord> records = dailyWeatherData
+					.getWeatherDataRecords();
+			if (!records.isEmpty()) {
+				data.WeatherDataRecord record = records.get(records.size() - 1);
+				return record.getDate().toDateTime(record.getTime());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Read all the days of a single file that are inside the specified date
+	 * time range. If the month cache is used, then the days are taken from
+	 * the cache.
+	 * 
+	 * @param file
+	 * @param dataConverter
+	 * @param window
+	 * @param parallel
+	 *            whether days are decoded in parallel tasks of the current
+	 *            fork join pool
+	 * @return list of daily weather data in the file
+	 */
+	private List<DailyWeatherData> readFile(File file,
+			DataConverter dataConverter, TimeWindow window, boolean parallel)
+			throws IOException {
+		if (!isCached()) {
+			return decodeFile(file, dataConverter, window, parallel);
+		}
+
+		MonthCache.Key key = new MonthCache.Key(file, dataConverter.isUnit(),
+				this.fields);
+		List<MonthCache.Day> month = this.monthCache.get(key);
+		if (month == null) {
+			// The whole file is decoded, so that any date time range can be
+			// read from the cache.
+			month = cacheFile(file, dataConverter);
+			this.monthCache.put(key, month);
+		}
+
+		// Each read creates its own daily summaries and records from the
+		// cached days, so they can be changed by the caller.
+		LocalDate firstDate = new LocalDate(FilenameUtils
+				.removeExtension(file.getName()));
+		SummaryCursor summaryCursor = new SummaryCursor();
+		List<DailyWeatherData> dailyWeatherDataList = new ArrayList<DailyWeatherData>();
+		for (MonthCache.Day day : month) {
+			if (!window.containsDay(day.epochDay)) {
+				continue;
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(day.summaries).order(
+					ByteOrder.LITTLE_ENDIAN);
+			DailySummary dailySummary = new DailySummary();
+			summaryCursor.reset(buffer, 0);
+			setDataDailySummary1(dailySummary, summaryCursor, dataConverter,
+					firstDate.plusDays(day.day - 1));
+			setDailySummary2(dailySummary, summaryCursor, dataConverter);
+
+			// Dates are shared by all the records of the day, the same as
+			// when the day is decoded from the file.
+			List<data.WeatherDataRecord> records = new ArrayList<data.WeatherDataRecord>();
+			WeatherDataColumns columns = day.records;
+			LocalDate date = dailySummary.getDate();
+			LocalDate nextDate = null;
+			for (int row = 0; row < columns.size(); row++) {
+				int timestamp = columns.getTimestamp(row);
+				if (!window.containsMinute(timestamp)) {
+					continue;
+				}
+				int packedTime = (int) (timestamp - day.epochDay
+						* TimeWindow.MINUTES_PER_DAY);
+				LocalDate dateRecord = date;
+				if (packedTime >= TimeWindow.MINUTES_PER_DAY) {
+					if (nextDate == null) {
+						nextDate = date.plusDays(1);
+					}
+					dateRecord = nextDate;
+				}
+				data.WeatherDataRecord weatherRecord = new data.WeatherDataRecord();
+				weatherRecord.setDate(dateRecord);
+				weatherRecord.setTime(TimeWindow.getTime(packedTime));
+				columns.getValues(row, weatherRecord);
+				records.add(weatherRecord);
+			}
+			dailyWeatherDataList.add(new DailyWeatherData(dailySummary,
+					records));
+		}
+		return dailyWeatherDataList;
+	}
+
+	/**
+	 * Decodes all the days of a single file into the compact form of the
+	 * month cache.
+	 * 
+	 * @param file
+	 * @param dataConverter
+	 * @return days of the file
+	 */
+	private List<MonthCache.Day> cacheFile(File file,
+			DataConverter dataConverter) throws IOException {
+		List<MonthCache.Day> days = new ArrayList<MonthCache.Day>();
+		DayDecoder dayDecoder = new DayDecoder();
+		try (MonthFile monthFile = openMonthFile(file, dataConverter,
+				new TimeWindow(null, null))) {
+			for (DayTask dayTask : monthFile.dayTasks) {
+				days.add(dayDecoder.decodeCached(dayTask));
+			}
+		}
+		return Collections.unmodifiableList(days);
+	}
+
+	/**
+	 * @return whether the months are read through the cache
+	 */
+	private boolean isCached() {
+		// An archive holds many months, so it is never cached as a whole.
+		return this.monthCache != null && this.filter == null
+				&& !WlkArchive.isArchive(this.directory);
+	}
+
+	/**
+	 * Decodes all the days of a single file that are inside the specified
+	 * date time range.
+	 * 
+	 * @param file
+	 * @param dataConverter
+	 * @param window
+	 * @param parallel
+	 *            whether days are decoded in parallel tasks of the current
+	 *            fork join pool
+	 * @return list of daily weather data in the file
+	 */
+	private List<DailyWeatherData> decodeFile(File file,
+			DataConverter dataConverter, TimeWindow window, boolean parallel)
+			throws IOException {
+		List<DailyWeatherData> dailyWeatherDataList = new ArrayList<DailyWeatherData>();
+
+		try (MonthFile monthFile = openMonthFile(file, dataConverter, window)) {
+			if (parallel) {
+				ForkJoinTask.invokeAll(monthFile.dayTasks);
+				for (DayTask dayTask : monthFile.dayTasks) {
+					DailyWeatherData dailyWeatherData = dayTask.join();
+					if (dailyWeatherData != null) {
+						dailyWeatherDataList.add(dailyWeatherData);
+					}
+				}
+			} else {
+				// The cursors are reused for all the days.
+				DayDecoder dayDecoder = new DayDecoder();
+				for (DayTask dayTask : monthFile.dayTasks) {
+					DailyWeatherData dailyWeatherData = dayDecoder
+							.decode(dayTask);
+					if (dailyWeatherData != null) {
+						dailyWeatherDataList.add(dailyWeatherData);
+					}
+				}
+			}
+		}
+		return dailyWeatherDataList;
+	}
+
+	/**
+	 * Opens a single file and selects the days that are inside the specified
+	 * date time range.
+	 * <p>
+	 * With the sparse buffer strategy only the header block is read. The
+	 * records of the selected days are later read from the file with
+	 * positional reads.
+	 * </p>
+	 * <p>
+	 * If the file is indexed, then the days are selected and checked against
+	 * the filter from the index. The header block is not read and the file is
+	 * not opened at all if no day is selected.
+	 * </p>
+	 * 
+	 * @param file
+	 * @param dataConverter
+	 * @param window
+	 * @return opened file which must be closed after the days are decoded
+	 */
+	private MonthFile openMonthFile(File file, DataConverter dataConverter,
+			TimeWindow window) throws IOException {
+		return openMonthFile(file, dataConverter, window, this.bufferStrategy,
+				this.filter);
+	}
+
+	/**
+	 * Opens a single file with the specified buffer strategy and filter and
+	 * selects the days that are inside the specified date time range.
+	 * 
+	 * @param file
+	 * @param dataConverter
+	 * @param window
+	 * @param bufferStrategy
+	 * @param filter
+	 *            filter of the records or null if all the records are read
+	 * @return opened file which must be closed after the days are decoded
+	 */
+	private MonthFile openMonthFile(File file, DataConverter dataConverter,
+			TimeWindow window, BufferStrategy bufferStrategy,
+			RecordFilter filter) throws IOException {
+		if (WlkArchive.isArchive(file)) {
+			return openArchive(file, dataConverter, window, filter);
+		}
+
+		MonthFile monthFile = new MonthFile(file, window);
+		if (filter != null) {
+			monthFile.filter = filter.compile(dataConverter);
+		}
+
+		WlkIndex.Entry entry = this.index == null ? null : this.index
+				.getEntry(file);
+		if (entry != null) {
+			for (int day = 0; day < 32; day++) {
+				if (entry.getRecordsInDay(day) > 0
+						&& window.containsDay(monthFile.firstDay + day - 1)
+						&& (monthFile.filter == null || monthFile.filter
+								.mayMatch(entry.getExtremes(day)))) {
+					int offset = entry.getStartPos(day) * RECORD_SIZE
+							+ HEADER_SIZE;
+					monthFile.dayTasks.add(new DayTask(monthFile, offset,
+							entry.getRecordsInDay(day), dataConverter, day));
+				}
+			}
+			monthFile.checked = true;
+
+			if (!monthFile.dayTasks.isEmpty()) {
+				if (bufferStrategy == BufferStrategy.SPARSE) {
+					monthFile.channel = FileChannel.open(file.toPath(),
+							StandardOpenOption.READ);
+				} else {
+					monthFile.buffer = getBufferFromFile(file,
+							bufferStrategy);
+				}
+			}
+			return monthFile;
+		}
+
+		// Byte buffer which holds the header block and in all but sparse
+		// mode also all the records of the file.
+		ByteBuffer buffer;
+		if (bufferStrategy == BufferStrategy.SPARSE) {
+			monthFile.channel = FileChannel.open(file.toPath(),
+					StandardOpenOption.READ);
+			try {
+				buffer = readFromChannel(monthFile.channel, 0, HEADER_SIZE,
+						null);
+			} catch (IOException e) {
+				monthFile.close();
+				throw e;
+			}
+		} else {
+			// We get the byte buffer with the content of the file according
+			// to the selected buffer strategy. The order of the buffer is
+			// already set to LITTLE ENDIAN.
+			buffer = getBufferFromFile(file, bufferStrategy);
+			monthFile.buffer = buffer;
+		}
+
+		/*
+		 * Then we create and initialize object HeaderBlock, that represents
+		 * header in a file that we are reading from. We also set current byte
+		 * buffer for this struct.
+		 */
+		HeaderBlock headerBlock = new HeaderBlock();
+		headerBlock.setByteBuffer(buffer, 0);
+
+		/*
+		 * Now we iterate through array of dayIndex and if the number of records
+		 * in day is larger than zero, then we calculate offset (this is the
+		 * start of daily summary 1 of the day). We also set variable day which
+		 * counts the number of cycles through for loop. It should be noted that
+		 * index 0 is not being used in header block which means that indeks for
+		 * day 1 is on index 1. That is why we set the number of loops on -1.
+		 */
+		int day = -1;
+		for (DayIndex dayIndex : headerBlock.dayIndex) {
+			// Increment number of days gone by in file.
+			day++;
+
+			// Check if record contains any data.
+			if (dayIndex.recordsInDay.get() > 0) {
+
+				// Check whether the day is inside the date time range.
+				if (window.containsDay(monthFile.firstDay + day - 1)) {
+					/*
+					 * First we compute offset. We need to add 212, because the
+					 * first 212B is used by header. The multiplication with 88
+					 * is because each record takes 88B of space.
+					 */
+					int offset = (int) (dayIndex.startPos.get() * RECORD_SIZE + HEADER_SIZE);
+
+					monthFile.dayTasks.add(new DayTask(monthFile, offset,
+							dayIndex.recordsInDay.get(), dataConverter, day));
+				}
+			}
+		}
+		return monthFile;
+	}
+
+	/**
+	 * Opens an archive and selects the days that are inside the specified
+	 * date time range from the index of its blocks. Days are also checked
+	 * against the filter with the lowest and the highest values of the
+	 * blocks, so that blocks which cannot match are never read. The days are
+	 * counted from 1970-01-01 and the offset of each day is the index of its
+	 * block.
+	 * 
+	 * @param file
+	 * @param dataConverter
+	 * @param window
+	 * @param filter
+	 *            filter of the records or null if all the records are read
+	 * @return opened archive which must be closed after the days are decoded
+	 */
+	private MonthFile openArchive(File file, DataConverter dataConverter,
+			TimeWindow window, RecordFilter filter) throws IOException {
+		MonthFile monthFile = new MonthFile(new LocalDate(1970, 1, 1), window);
+		if (filter != null) {
+			monthFile.filter = filter.compile(dataConverter);
+		}
+		monthFile.channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ);
+		monthFile.archive = new WlkArchive(file);
+		try {
+			monthFile.archive.load(monthFile.channel);
+		} catch (IOException e) {
+			monthFile.close();
+			throw e;
+		}
+
+		List<WlkArchive.Block> blocks = monthFile.archive.getBlocks();
+		for (int i = 0; i < blocks.size(); i++) {
+			WlkArchive.Block block = blocks.get(i);
+			if (window.containsDay(block.getEpochDay())
+					&& (monthFile.filter == null || monthFile.filter
+							.mayMatch(block))) {
+				monthFile.dayTasks.add(new DayTask(monthFile, i, block
+						.getRecords() + 2, dataConverter, (int) block
+						.getEpochDay() + 1));
+			}
+		}
+		monthFile.checked = true;
+		return monthFile;
+	}
+
+	/**
+	 * A single opened file with the days selected for reading.
+	 */
+	private static class MonthFile implements Closeable {
+		// First day of the month of the file.
+		private final LocalDate month;
+		private final TimeWindow window;
+
+		// Days since 1970-01-01 of the first day in the file.
+		private final long firstDay;
+
+		// Buffer with the whole file or null in sparse mode.
+		private ByteBuffer buffer;
+
+		// File channel for positional reads. It is only opened in sparse mode
+		// and for archives.
+		private FileChannel channel;
+
+		// Index of the blocks if the file is an archive.
+		private WlkArchive archive;
+
+		// Filter of the records or null if all the records are read.
+		private RecordFilter.CompiledFilter filter;
+
+		// Whether the days were already checked against the filter with the
+		// highs and lows from the index.
+		private boolean checked;
+
+		// Days inside the specified date time range.
+		private final List<DayTask> dayTasks = new ArrayList<DayTask>();
+
+		MonthFile(File file, TimeWindow window) {
+			this(new LocalDate(FilenameUtils.removeExtension(file.getName())),
+					window);
+		}
+
+		MonthFile(LocalDate month, TimeWindow window) {
+			this.month = month;
+			this.window = window;
+			this.firstDay = TimeWindow.toEpochDay(month);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Decoder for the days of files. The cursors and the buffer for sparse
+	 * reads are reused for all the days, which means that a decoder must not
+	 * be shared between threads.
+	 */
+	private class DayDecoder {
+		private final SummaryCursor summaryCursor = new SummaryCursor();
+		private final RecordCursor recordCursor = new RecordCursor();
+
+		// Visitor which converts the days into objects. It is only created
+		// when days are decoded.
+		private DayCollector dayCollector;
+
+		// Buffer for the records of one day in sparse mode.
+		private ByteBuffer dayBuffer;
+
+		// Buffer for the encoded block of one day of an archive.
+		private ByteBuffer archiveBuffer;
+
+		// Buffer and offset of the day which is currently decoded.
+		private ByteBuffer recordBuffer;
+		private int offset;
+
+		/**
+		 * Decodes the day. Returns null if no record of the day matches the
+		 * filter.
+		 */
+		DailyWeatherData decode(DayTask dayTask) throws IOException {
+			if (dayCollector == null) {
+				dayCollector = new DayCollector(dayTask.dataConverter);
+			}
+			if (!visit(dayTask, dayCollector)) {
+				return null;
+			}
+
+			// Days without a matching record are left out.
+			if (dayTask.monthFile.filter != null
+					&& dayCollector.weatherDataRecordList.isEmpty()) {
+				return null;
+			}
+
+			// Here we will store daily summary as well as weather data
+			// record.
+			return new DailyWeatherData(dayCollector.dailySummary,
+					dayCollector.weatherDataRecordList);
+		}
+
+		/**
+		 * Visits the daily summaries and the weather data records of the day
+		 * that are inside the specified date time range and match the filter.
+		 * 
+		 * @return whether the day was visited
+		 */
+		boolean visit(DayTask dayTask, WlkRecordVisitor visitor)
+				throws IOException {
+			if (!mayMatch(dayTask)) {
+				return false;
+			}
+			locate(dayTask);
+			summaryCursor.reset(recordBuffer, offset);
+
+			// Check for correct data types of daily summaries.
+			checkDataTypes();
+
+			MonthFile monthFile = dayTask.monthFile;
+			if (!visitor.onDay(monthFile.month.plusDays(dayTask.day - 1),
+					summaryCursor)) {
+				return true;
+			}
+
+			// Minutes since 1970-01-01 at the start of the day. Record with
+			// time 00:00 (packed time 1440) belongs to the end of the day.
+			RecordFilter.CompiledFilter filter = monthFile.filter;
+			long dayMinute = (monthFile.firstDay + dayTask.day - 1)
+					* TimeWindow.MINUTES_PER_DAY;
+
+			// Here we subtracted records in day by two, because we have
+			// already accounted daily summary 1 and daily summary 2. The
+			// cursor starts after the daily summaries.
+			recordCursor.reset(recordBuffer, offset + RECORD_SIZE);
+			for (int i = 0; i < dayTask.recordsInDay - 2; i++) {
+				recordCursor.next();
+
+				// Check for correct data type.
+				if (recordCursor.getDataType() != 1) {
+					throw new ArithmeticException(
+							"Error in offset. Wrong data type for weather data record!");
+				}
+
+				// Packed time represents minutes past midnight. Check for
+				// date time and then for the filter on the raw values.
+				long recordMinute = dayMinute + recordCursor.getPackedTime();
+				if (monthFile.window.containsMinute(recordMinute)
+						&& (filter == null || filter.matches(recordBuffer,
+								recordCursor.getPosition()))) {
+					visitor.onRecord(recordMinute, recordCursor);
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Decodes the day into the compact form of the month cache, with the
+		 * bytes of the daily summaries and all the records in columns.
+		 */
+		MonthCache.Day decodeCached(DayTask dayTask) throws IOException {
+			WeatherDataColumns records = new WeatherDataColumns(
+					WlkReader.this.fields, dayTask.recordsInDay - 2);
+			final byte[] summaries = new byte[2 * RECORD_SIZE];
+			visit(dayTask, new ColumnCollector(records, dayTask.dataConverter) {
+				@Override
+				public boolean onDay(LocalDate date,
+						SummaryCursor summaryCursor) {
+					ByteBuffer buffer = summaryCursor.getBuffer();
+					int position = summaryCursor.getPosition();
+					for (int i = 0; i < summaries.length; i++) {
+						summaries[i] = buffer.get(position + i);
+					}
+					return true;
+				}
+			});
+			return new MonthCache.Day(dayTask.day, dayTask.monthFile.firstDay
+					+ dayTask.day - 1, summaries, records);
+		}
+
+		/**
+		 * Checks the highs and lows in the daily summaries of the day against
+		 * the filter. In sparse mode only the daily summaries are read for the
+		 * check. Days with wrong data types are not excluded, so that the
+		 * error is reported when the day is decoded.
+		 */
+		private boolean mayMatch(DayTask dayTask) throws IOException {
+			RecordFilter.CompiledFilter filter = dayTask.monthFile.filter;
+			if (filter == null || dayTask.monthFile.checked) {
+				return true;
+			}
+
+			return filter.mayMatch(DayExtremes.read(readSummary(dayTask)));
+		}
+
+		/**
+		 * Decodes only the daily summaries of the day. In sparse mode only
+		 * the two daily summaries are read from the file.
+		 */
+		DailySummary decodeSummary(DayTask dayTask) throws IOException {
+			readSummary(dayTask);
+			checkDataTypes();
+
+			DailySummary dailySummary = new DailySummary();
+			setDataDailySummary1(dailySummary, summaryCursor,
+					dayTask.dataConverter,
+					dayTask.monthFile.month.plusDays(dayTask.day - 1));
+			setDailySummary2(dailySummary, summaryCursor,
+					dayTask.dataConverter);
+			return dailySummary;
+		}
+
+		/**
+		 * Resets the summary cursor to the daily summaries of the day. In
+		 * sparse mode only the daily summaries are read.
+		 */
+		private SummaryCursor readSummary(DayTask dayTask) throws IOException {
+			ByteBuffer summaryBuffer = dayTask.monthFile.buffer;
+			int summaryOffset = dayTask.offset;
+			if (summaryBuffer == null) {
+				// Daily summaries are stored at the start of the block of an
+				// archive as they are.
+				long position = dayTask.monthFile.archive == null ? summaryOffset
+						: dayTask.monthFile.archive.getBlocks()
+								.get(dayTask.offset).getOffset();
+				dayBuffer = readFromChannel(dayTask.monthFile.channel,
+						position, 2 * RECORD_SIZE, dayBuffer);
+				summaryBuffer = dayBuffer;
+				summaryOffset = 0;
+			}
+			return summaryCursor.reset(summaryBuffer, summaryOffset);
+		}
+
+		/**
+		 * Checks for correct data types of the daily summaries at the summary
+		 * cursor.
+		 */
+		private void checkDataTypes() throws ArithmeticException {
+			if (summaryCursor.getDataType1() != 2) {
+				throw new ArithmeticException(
+						"Error in offset. Wrong data type for daily summary 1!");
+			}
+			if (summaryCursor.getDataType2() != 3) {
+				throw new ArithmeticException(
+						"Error in offset. Wrong data type for daily summary 2!");
+			}
+		}
+
+		/**
+		 * Sets the buffer and offset of the day. In sparse mode we read only
+		 * the records of this day and start at the beginning of the day
+		 * buffer. The block of an archive is decoded into the day buffer.
+		 */
+		private void locate(DayTask dayTask) throws IOException {
+			recordBuffer = dayTask.monthFile.buffer;
+			offset = dayTask.offset;
+			if (dayTask.monthFile.archive != null) {
+				WlkArchive.Block block = dayTask.monthFile.archive.getBlocks()
+						.get(dayTask.offset);
+				archiveBuffer = readFromChannel(dayTask.monthFile.channel,
+						block.getOffset(), block.getLength(), archiveBuffer);
+				dayBuffer = WlkArchive.decode(archiveBuffer, dayBuffer);
+				recordBuffer = dayBuffer;
+				offset = 0;
+			} else if (recordBuffer == null) {
+				dayBuffer = readFromChannel(dayTask.monthFile.channel, offset,
+						dayTask.recordsInDay * RECORD_SIZE, dayBuffer);
+				recordBuffer = dayBuffer;
+				offset = 0;
+			}
+		}
+	}
+
+	/**
+	 * Visitor which stores the selected fields of the weather data records in
+	 * columns. Daily summaries are not decoded.
+	 */
+	private static class ColumnCollector implements WlkRecordVisitor {
+		private final WeatherDataColumns weatherDataColumns;
+		private final Set<WeatherField> fields;
+		private final DataConverter dataConverter;
+
+		ColumnCollector(WeatherDataColumns weatherDataColumns,
+				DataConverter dataConverter) {
+			this.weatherDataColumns = weatherDataColumns;
+			this.fields = weatherDataColumns.getFields();
+			this.dataConverter = dataConverter;
+		}
+
+		@Override
+		public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+			return true;
+		}
+
+		@Override
+		public void onRecord(long epochMinute, RecordCursor recordCursor) {
+			ByteBuffer buffer = recordCursor.getBuffer();
+			int position = recordCursor.getPosition();
+			int row = weatherDataColumns.addRow((int) epochMinute);
+			for (WeatherField field : fields) {
+				for (int index = 0; index < field.getWidth(); index++) {
+					weatherDataColumns.setValue(field, row, index, field
+							.getValue(buffer, position, index, dataConverter));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visitor which converts the daily summaries and the weather data records
+	 * of a day into objects. Only the selected fields are converted.
+	 */
+	private class DayCollector implements WlkRecordVisitor {
+		private final DataConverter dataConverter;
+
+		// Daily summary and weather data records of the current day.
+		private DailySummary dailySummary;
+		private List<data.WeatherDataRecord> weatherDataRecordList;
+
+		// Dates are shared by all the records of the day. Record with time
+		// 00:00 (packed time 1440) is recorded at the next day.
+		private LocalDate date;
+		private LocalDate nextDate;
+
+		DayCollector(DataConverter dataConverter) {
+			this.dataConverter = dataConverter;
+		}
+
+		@Override
+		public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+			this.date = date;
+			this.nextDate = null;
+
+			// Set data from daily summary 1 and daily summary 2.
+			dailySummary = new DailySummary();
+			setDataDailySummary1(dailySummary, summaryCursor, dataConverter,
+					date);
+			setDailySummary2(dailySummary, summaryCursor, dataConverter);
+
+			weatherDataRecordList = new ArrayList<data.WeatherDataRecord>();
+			return true;
+		}
+
+		@Override
+		public void onRecord(long epochMinute, RecordCursor recordCursor) {
+			int packedTime = recordCursor.getPackedTime();
+			LocalDate dateRecord = date;
+			if (packedTime >= TimeWindow.MINUTES_PER_DAY) {
+				if (nextDate == null) {
+					nextDate = date.plusDays(1);
+				}
+				dateRecord = nextDate;
+			}
+
+			// Create a new WeatherDataRecord, save the data and store it into
+			// the list.
+			data.WeatherDataRecord weatherRecord = new data.WeatherDataRecord();
+			setWeatherRecord(weatherRecord, recordCursor, dataConverter,
+					dateRecord, TimeWindow.getTime(packedTime));
+			weatherDataRecordList.add(weatherRecord);
+		}
+	}
+
+	/**
+	 * Visitor which adds the defined raw values of the records to quantile
+	 * sketches. The values are either added to the same sketches for all the
+	 * days or to new sketches of each day of a side file.
+	 */
+	private static class SketchCollector implements WlkRecordVisitor {
+		private final DataConverter dataConverter;
+		private final SketchFile sketchFile;
+
+		// Sketches of the current day and their fields.
+		private Map<WeatherField, QuantileSketch> sketches;
+		private WeatherField[] fields;
+		private QuantileSketch[] fieldSketches;
+
+		SketchCollector(DataConverter dataConverter,
+				Map<WeatherField, QuantileSketch> sketches) {
+			this.dataConverter = dataConverter;
+			this.sketchFile = null;
+			setSketches(sketches);
+		}
+
+		SketchCollector(DataConverter dataConverter, SketchFile sketchFile) {
+			this.dataConverter = dataConverter;
+			this.sketchFile = sketchFile;
+		}
+
+		private void setSketches(Map<WeatherField, QuantileSketch> sketches) {
+			this.sketches = sketches;
+			this.fields = sketches.keySet().toArray(new WeatherField[0]);
+			this.fieldSketches = sketches.values().toArray(
+					new QuantileSketch[0]);
+		}
+
+		@Override
+		public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+			if (sketchFile != null) {
+				setSketches(sketchFile.newDay(date.getDayOfMonth()));
+			}
+			return !sketches.isEmpty();
+		}
+
+		@Override
+		public void onRecord(long epochMinute, RecordCursor recordCursor) {
+			ByteBuffer buffer = recordCursor.getBuffer();
+			int position = recordCursor.getPosition();
+			for (int i = 0; i < fields.length; i++) {
+				short raw = fields[i].getRaw(buffer, position, 0);
+				if (!Double.isNaN(fields[i].convert(raw, dataConverter))) {
+					fieldSketches[i].add(raw);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Task for decoding a single file. The days of the file are decoded in
+	 * parallel day tasks.
+	 */
+	private class FileTask extends RecursiveTask<List<DailyWeatherData>> {
+		private static final long serialVersionUID = 1L;
+
+		private final File file;
+		private final DataConverter dataConverter;
+		private final TimeWindow window;
+
+		FileTask(File file, DataConverter dataConverter, TimeWindow window) {
+			this.file = file;
+			this.dataConverter = dataConverter;
+			this.window = window;
+		}
+
+		@Override
+		protected List<DailyWeatherData> compute() {
+			try {
+				return readFile(file, dataConverter, window, true);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Task for decoding a single day. It holds the location of the day in the
+	 * file, which is also used when days are decoded sequentially.
+	 */
+	private class DayTask extends RecursiveTask<DailyWeatherData> {
+		private static final long serialVersionUID = 1L;
+
+		private final MonthFile monthFile;
+		private final int offset;
+		private final int recordsInDay;
+		private final DataConverter dataConverter;
+		private final int day;
+
+		DayTask(MonthFile monthFile, int offset, int recordsInDay,
+				DataConverter dataConverter, int day) {
+			this.monthFile = monthFile;
+			this.offset = offset;
+			this.recordsInDay = recordsInDay;
+			this.dataConverter = dataConverter;
+			this.day = day;
+		}
+
+		@Override
+		protected DailyWeatherData compute() {
+			try {
+				// Cursors are not thread safe, so each task has its own.
+				return new DayDecoder().decode(this);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Iterator which reads the data lazily, file by file and day by day. It
+	 * holds only the file that is currently being read.
+	 */
+	public class DailyWeatherDataIterator implements
+			Iterator<DailyWeatherData>, Closeable {
+		private final Iterator<File> files;
+		private final DataConverter dataConverter;
+		private final TimeWindow window;
+		private final DayDecoder dayDecoder = new DayDecoder();
+
+		// File that is currently being read and the index of its next day.
+		private MonthFile monthFile;
+		private int dayTaskIndex;
+
+		// Days of the current file if the months are read through the cache.
+		private Iterator<DailyWeatherData> cachedDays;
+
+		// Next decoded day. Days without a record that matches the filter are
+		// skipped, so the day is decoded before it is returned.
+		private DailyWeatherData nextDailyWeatherData;
+
+		DailyWeatherDataIterator(List<File> files,
+				DataConverter dataConverter, TimeWindow window) {
+			this.files = files.iterator();
+			this.dataConverter = dataConverter;
+			this.window = window;
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (nextDailyWeatherData == null) {
+					if (cachedDays != null && cachedDays.hasNext()) {
+						nextDailyWeatherData = cachedDays.next();
+					} else if (monthFile != null
+							&& dayTaskIndex < monthFile.dayTasks.size()) {
+						nextDailyWeatherData = dayDecoder
+								.decode(monthFile.dayTasks.get(dayTaskIndex++));
+					} else {
+						// Move to the next file with at least one selected
+						// day.
+						close();
+						cachedDays = null;
+						if (!files.hasNext()) {
+							return false;
+						}
+						if (isCached()) {
+							cachedDays = readFile(files.next(), dataConverter,
+									window, false).iterator();
+						} else {
+							monthFile = openMonthFile(files.next(),
+									dataConverter, window);
+							dayTaskIndex = 0;
+						}
+					}
+				}
+				return true;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public DailyWeatherData next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			DailyWeatherData dailyWeatherData = nextDailyWeatherData;
+			nextDailyWeatherData = null;
+			return dailyWeatherData;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Checks whether all days were returned, without decoding a day or
+		 * opening a file. The remaining days of the current file may still
+		 * be skipped by the filter, so false does not mean there is a next
+		 * day.
+		 *
+		 * @return true if there are no more days
+		 */
+		boolean isFinished() {
+			return nextDailyWeatherData == null
+					&& (cachedDays == null || !cachedDays.hasNext())
+					&& (monthFile == null
+							|| dayTaskIndex >= monthFile.dayTasks.size())
+					&& !files.hasNext();
+		}
+
+		/**
+		 * Closes the file that is currently being read.
+		 */
+		@Override
+		public void close() {
+			if (monthFile != null) {
+				try {
+					monthFile.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} finally {
+					monthFile = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Set data of the weather data record. Only the selected fields are read
+	 * from the buffer and converted.
+	 * 
+	 * @param weatherRecord
+	 * @param recordCursor
+	 * @param dataConverter
+	 * @param date
+	 * @param time
+	 */
+	void setWeatherRecord(data.WeatherDataRecord weatherRecord,
+			RecordCursor recordCursor, DataConverter dataConverter,
+			LocalDate date, LocalTime time) {
+		Set<WeatherField> fields = this.fields;
+
+		weatherRecord.setDate(date);
+		weatherRecord.setTime(time);
+		if (fields.contains(WeatherField.ARCHIVE_INTERVAL)) {
+			weatherRecord.setArchiveInterval(recordCursor.getArchiveInterval());
+		}
+		if (fields.contains(WeatherField.ICON_FLAGS)) {
+			weatherRecord.setIconFlags(recordCursor.getIconFlags());
+		}
+		if (fields.contains(WeatherField.NUM_WIND_SAMPLES)) {
+			weatherRecord
+					.setNumwindSamples((int) recordCursor.getNumWindSamples());
+		}
+		if (fields.contains(WeatherField.OUT_TEMP)) {
+			weatherRecord.setOutTemp(dataConverter
+					.convertTemperature(recordCursor.getOutsideTemp()));
+		}
+		if (fields.contains(WeatherField.MAX_OUT_TEMP)) {
+			weatherRecord.setMaxOutTemp(dataConverter
+					.convertTemperature(recordCursor.getHiOutsideTemp()));
+		}
+		if (fields.contains(WeatherField.MIN_OUT_TEMP)) {
+			weatherRecord.setMinOutTemp(dataConverter
+					.convertTemperature(recordCursor.getLowOutsideTemp()));
+		}
+		if (fields.contains(WeatherField.IN_TEMP)) {
+			weatherRecord.setInTemp(dataConverter
+					.convertTemperature(recordCursor.getInsideTemp()));
+		}
+		if (fields.contains(WeatherField.PRESSURE)) {
+			weatherRecord.setPressure(dataConverter
+					.convertPressure(recordCursor.getBarometer()));
+		}
+		if (fields.contains(WeatherField.OUT_HUMIDITY)) {
+			weatherRecord.setOutHumidity(dataConverter
+					.convertHumidity(recordCursor.getOutsideHum()));
+		}
+		if (fields.contains(WeatherField.IN_HUMIDITY)) {
+			weatherRecord.setInHumidity(dataConverter
+					.convertHumidity(recordCursor.getInsideHum()));
+		}
+		if (fields.contains(WeatherField.PRECIPITATION)) {
+			weatherRecord.setPrecipitation(dataConverter
+					.convertPrecipitation((short) recordCursor.getRain()));
+		}
+		if (fields.contains(WeatherField.MAX_PRECIPITATION_RATE)) {
+			weatherRecord.setMaxPrecipitationRate(dataConverter
+					.convertPrecipitation(recordCursor.getHiRainRate()));
+		}
+		if (fields.contains(WeatherField.WIND_SPEED)) {
+			weatherRecord.setWindSpeed(dataConverter
+					.convertWindSpeed(recordCursor.getWindSpeed()));
+		}
+		if (fields.contains(WeatherField.MAX_WIND_SPEED)) {
+			weatherRecord.setMaxWindSpeed(dataConverter
+					.convertWindSpeed(recordCursor.getHiWindSpeed()));
+		}
+		if (fields.contains(WeatherField.WIND_DIRECTION)) {
+			weatherRecord.setWindDirection(dataConverter
+					.convertWindDirection((short) recordCursor.getWindDirection()));
+		}
+		if (fields.contains(WeatherField.MAX_WIND_DIRECTION)) {
+			weatherRecord.setMaxWindDirection(dataConverter
+					.convertWindDirection((short) recordCursor.getHiWindDirection()));
+		}
+		if (fields.contains(WeatherField.SOLAR_RAD)) {
+			weatherRecord.setSolarRad(dataConverter
+					.convertSolarEnergy(recordCursor.getSolarRad()));
+		}
+		if (fields.contains(WeatherField.MAX_SOLAR_RAD)) {
+			weatherRecord.setMaxSolarRad(dataConverter
+					.convertSolarEnergy(recordCursor.getHiSolarRad()));
+		}
+		if (fields.contains(WeatherField.UV)) {
+			weatherRecord.setUV(dataConverter
+					.convertUV((short) recordCursor.getUV()));
+		}
+		if (fields.contains(WeatherField.MAX_UV)) {
+			weatherRecord.setMaxUV(dataConverter
+					.convertUV((short) recordCursor.getHiUV()));
+		}
+		if (fields.contains(WeatherField.LEAF_TEMP)) {
+			weatherRecord.setLeafTemp(this.computeExtraSensors(
+					recordCursor,
+					WeatherField.LEAF_TEMP, dataConverter));
+		}
+		if (fields.contains(WeatherField.EXTRA_RAD)) {
+			weatherRecord.setExtraRad((double) recordCursor.getExtraRad());
+		}
+		if (fields.contains(WeatherField.FORECAST)) {
+			weatherRecord.setForecast((int) recordCursor.getForecast());
+		}
+		if (fields.contains(WeatherField.ET)) {
+			weatherRecord.setET(dataConverter
+					.convertPrecipitation((short) recordCursor.getET()));
+		}
+		if (fields.contains(WeatherField.SOIL_TEMP)) {
+			weatherRecord.setSoilTemp(this.computeExtraSensors(
+					recordCursor,
+					WeatherField.SOIL_TEMP, dataConverter));
+		}
+		// Setting soil moisture!
+		// weatherRecord.setSoilMoisture...
+		// Setting leaf wetness!
+		// weatherRecord.setLeafWetness...
+		if (fields.contains(WeatherField.EXTRA_TEMP)) {
+			weatherRecord.setExtraTemp(this.computeExtraSensors(
+					recordCursor,
+					WeatherField.EXTRA_TEMP, dataConverter));
+		}
+		// Setting extra humidity!
+		// weatherRecord.setExtraHumidity...
+
+	}
+
+	/**
+	 * Set data for daily summary 2 values. Only the selected groups of values
+	 * are read from the buffer and converted.
+	 * 
+	 * @param dailySummary
+	 * @param summaryCursor
+	 * @param dataConverter
+	 */
+	private void setDailySummary2(DailySummary dailySummary,
+			SummaryCursor summaryCursor, DataConverter dataConverter) {
+		Set<SummaryField> summaryFields = this.summaryFields;
+
+		if (summaryFields.contains(SummaryField.WIND_SPEED)) {
+			dailySummary.setNumWindPackets(summaryCursor.getNumWindPackets());
+		}
+		if (summaryFields.contains(SummaryField.SOLAR)) {
+			dailySummary.setDailySolarEnergy(dataConverter
+					.convertSolarEnergy(summaryCursor.getDailySolarEnergy()));
+			dailySummary.setMinSunLight((int) summaryCursor.getMinSunLight());
+			dailySummary.setMaxSolar((double) summaryCursor.getHiSolar());
+			dailySummary.setTimeMaxSolar(this.computeTimeValue(summaryCursor
+					.getTimeValue2(0)));
+		}
+		if (summaryFields.contains(SummaryField.ET)) {
+			dailySummary.setDailyETTotal(dataConverter
+					.convertPrecipitation(summaryCursor.getDailyETTotal()));
+		}
+		if (summaryFields.contains(SummaryField.DEGREE_DAYS)) {
+			dailySummary.setIntegratedHeatDD65(dataConverter
+					.convertDegreeDays(summaryCursor.getIntegratedHeatDD65()));
+			dailySummary.setIntegratedCoolDD65(dataConverter
+					.convertDegreeDays(summaryCursor.getIntegratedCoolDD65()));
+		}
+		if (summaryFields.contains(SummaryField.WIND_DIRECTION_DISTRIBUTION)) {
+			dailySummary.setWindDirectionDistribution(this
+					.computeWindDirectionDistribution(summaryCursor));
+		}
+		if (summaryFields.contains(SummaryField.HEAT_INDEX)) {
+			dailySummary.setMaxHeatIndex(dataConverter
+					.convertTemperature(summaryCursor.getHiHeat()));
+			dailySummary.setTimeMaxHeatIndex(this.computeTimeValue(summaryCursor
+					.getTimeValue2(1)));
+			dailySummary.setMinHeatIndex(dataConverter
+					.convertTemperature(summaryCursor.getLowHeat()));
+			dailySummary.setTimeMinHeatIndex(this.computeTimeValue(summaryCursor
+					.getTimeValue2(2)));
+			dailySummary.setAvgHeatIndex(dataConverter
+					.convertTemperature(summaryCursor.getAvgHeat()));
+		}
+		if (summaryFields.contains(SummaryField.THSW_INDEX)) {
+			dailySummary.setMaxTHSWIndex(dataConverter
+					.convertTemperature(summaryCursor.getHiTHSW()));
+			dailySummary.setTimeMaxTHSWIndex(this.computeTimeValue(summaryCursor
+					.getTimeValue2(3)));
+			dailySummary.setMinTHSWIndex(dataConverter
+					.convertTemperature(summaryCursor.getLowTHSW()));
+			dailySummary.setTimeMinTHSWIndex(this.computeTimeValue(summaryCursor
+					.getTimeValue2(4)));
+		}
+		if (summaryFields.contains(SummaryField.THW_INDEX)) {
+			dailySummary.setMaxTHWIndex(dataConverter
+					.convertTemperature(summaryCursor.getHiTHW()));
+			dailySummary.setTimeMaxTHWIndex(this.computeTimeValue(summaryCursor
+					.getTimeValue2(5)));
+			dailySummary.setMinTHWIndex(dataConverter
+					.convertTemperature(summaryCursor.getLowTHW()));
+			dailySummary.setTimeMinTHWIndex(this.computeTimeValue(summaryCursor
+					.getTimeValue2(6)));
+		}
+	}
+
+	/**
+	 * Set data for daily summary 1 values. Only the selected groups of values
+	 * are read from the buffer and converted.
+	 * 
+	 * @param dailySummary
+	 * @param summaryCursor
+	 * @param dataConverter
+	 * @param date
+	 */
+	private void setDataDailySummary1(DailySummary dailySummary,
+			SummaryCursor summaryCursor, DataConverter dataConverter,
+			LocalDate date) {
+		Set<SummaryField> summaryFields = this.summaryFields;
+
+		dailySummary.setDate(date);
+		if (summaryCursor.getDataSpan() != Short.MIN_VALUE) {
+			dailySummary.setDataSpan((int) summaryCursor.getDataSpan());
+		}
+		if (summaryFields.contains(SummaryField.OUT_TEMP)) {
+			dailySummary.setMaxOutTemp(dataConverter
+					.convertTemperature(summaryCursor.getHiOutTemp()));
+			dailySummary.setTimeMaxOutTemp(this.computeTimeValue(summaryCursor
+					.getTimeValue1(0)));
+			dailySummary.setMinOutTemp(dataConverter
+					.convertTemperature(summaryCursor.getLowOutTemp()));
+			dailySummary.setTimeMinOutTemp(this.computeTimeValue(summaryCursor
+					.getTimeValue1(1)));
+			dailySummary.setAvgOutTemp(dataConverter
+					.convertTemperature(summaryCursor.getAvgOutTemp()));
+		}
+		if (summaryFields.contains(SummaryField.IN_TEMP)) {
+			dailySummary.setMaxInTemp(dataConverter
+					.convertTemperature(summaryCursor.getHiInTemp()));
+			dailySummary.setTimeMaxInTemp(this.computeTimeValue(summaryCursor
+					.getTimeValue1(2)));
+			dailySummary.setMinInTemp(dataConverter
+					.convertTemperature(summaryCursor.getLowInTemp()));
+			dailySummary.setTimeMinInTemp(this.computeTimeValue(summaryCursor
+					.getTimeValue1(3)));
+			dailySummary.setAvgInTemp(dataConverter
+					.convertTemperature(summaryCursor.getAvgInTemp()));
+		}
+		if (summaryFields.contains(SummaryField.WIND_CHILL)) {
+			dailySummary.setMaxWindChill(dataConverter
+					.convertTemperature(summaryCursor.getHiChill()));
+			dailySummary.setTimeMaxWindChill(this.computeTimeValue(summaryCursor
+					.getTimeValue1(4)));
+			dailySummary.setMinWindChill(dataConverter
+					.convertTemperature(summaryCursor.getLowChill()));
+			dailySummary.setTimeMinWindChill(this.computeTimeValue(summaryCursor
+					.getTimeValue1(5)));
+			dailySummary.setAvgWindChill(dataConverter
+					.convertTemperature(summaryCursor.getAvgChill()));
+		}
+		if (summaryFields.contains(SummaryField.DEW_POINT)) {
+			dailySummary.setMaxDewPoint(dataConverter
+					.convertTemperature(summaryCursor.getHiDew()));
+			dailySummary.setTimeMaxDewPoint(this.computeTimeValue(summaryCursor
+					.getTimeValue1(6)));
+			dailySummary.setMinDewPoint(dataConverter
+					.convertTemperature(summaryCursor.getLowDew()));
+			dailySummary.setTimeMinDewPoint(this.computeTimeValue(summaryCursor
+					.getTimeValue1(7)));
+			dailySummary.setAvgDewPoint(dataConverter
+					.convertTemperature(summaryCursor.getAvgDew()));
+		}
+		if (summaryFields.contains(SummaryField.OUT_HUMIDITY)) {
+			dailySummary.setMaxOutHum(dataConverter
+					.convertHumidity(summaryCursor.getHiOutHum()));
+			dailySummary.setTimeMaxOutHum(this.computeTimeValue(summaryCursor
+					.getTimeValue1(8)));
+			dailySummary.setMinOutHum(dataConverter
+					.convertHumidity(summaryCursor.getLowOutHum()));
+			dailySummary.setTimeMinOutHum(this.computeTimeValue(summaryCursor
+					.getTimeValue1(9)));
+			dailySummary.setAvgOutHum(dataConverter
+					.convertHumidity(summaryCursor.getAvgOutHum()));
+		}
+		if (summaryFields.contains(SummaryField.IN_HUMIDITY)) {
+			dailySummary.setMaxInHum(dataConverter
+					.convertHumidity(summaryCursor.getHiInHum()));
+			dailySummary.setTimeMaxInHum(this.computeTimeValue(summaryCursor
+					.getTimeValue1(10)));
+			dailySummary.setMinInHum(dataConverter
+					.convertHumidity(summaryCursor.getLowInHum()));
+			dailySummary.setTimeMinInHum(this.computeTimeValue(summaryCursor
+					.getTimeValue1(11)));
+		}
+		if (summaryFields.contains(SummaryField.PRESSURE)) {
+			dailySummary.setMaxPressure(dataConverter
+					.convertPressure(summaryCursor.getHiBar()));
+			dailySummary.setTimeMaxPressure(this.computeTimeValue(summaryCursor
+					.getTimeValue1(12)));
+			dailySummary.setMinPressure(dataConverter
+					.convertPressure(summaryCursor.getLowBar()));
+			dailySummary.setTimeMinPressure(this.computeTimeValue(summaryCursor
+					.getTimeValue1(13)));
+			dailySummary.setAvgPressure(dataConverter
+					.convertPressure(summaryCursor.getAvgBar()));
+		}
+		if (summaryFields.contains(SummaryField.WIND_SPEED)) {
+			dailySummary.setWindRun(dataConverter
+					.convertWindRun(summaryCursor.getDailyWindRunTotal()));
+			dailySummary.setMaxWindSpeed(dataConverter
+					.convertWindSpeed(summaryCursor.getHiSpeed()));
+			dailySummary.setMaxWindSpeedDir(dataConverter
+					.convertWindDirection(summaryCursor.getDirHiSpeed()));
+			dailySummary.setTimeMaxWindSpeed(this.computeTimeValue(summaryCursor
+					.getTimeValue1(14)));
+			dailySummary.setMaxAvg10MinWindSpeed(dataConverter
+					.convertWindSpeed(summaryCursor.getHi10MinSpeed()));
+			dailySummary.setMaxAvg10MinWindSpeedDir(dataConverter
+					.convertWindDirection(summaryCursor.getHi10MinDir()));
+			dailySummary.setTimeMaxAvg10MinWindSpeed(this.computeTimeValue(summaryCursor
+					.getTimeValue1(15)));
+			dailySummary.setAvgWindSpeed(dataConverter
+					.convertWindSpeed(summaryCursor.getAvgSpeed()));
+		}
+		if (summaryFields.contains(SummaryField.PRECIPITATION)) {
+			dailySummary.setDailyRain(dataConverter
+					.convertPrecipitation(summaryCursor.getDailyRainTotal()));
+			dailySummary.setMaxRainRate(dataConverter
+					.convertPrecipitation(summaryCursor.getHiRainRate()));
+			dailySummary.setTimeMaxRainRate(this.computeTimeValue(summaryCursor
+					.getTimeValue1(16)));
+		}
+		if (summaryFields.contains(SummaryField.UV)) {
+			dailySummary.setDailyUVDose(dataConverter
+					.convertUV(summaryCursor.getDailyUVDose()));
+			dailySummary.setMaxUV(dataConverter.convertUV(summaryCursor.getHiUV()));
+			dailySummary.setTimeMaxUV(this.computeTimeValue(summaryCursor
+					.getTimeValue1(17)));
+		}
+	}
+
+	/**
+	 * Returns the contents of the file in a byte array.
+	 * 
+	 * The author: Example Depot
+	 * (http://www.exampledepot.com/egs/java.io/file2bytearray.html)
+	 * 
+	 * @param file
+	 *            file from which the content is read
+	 * @return contents of the file in a byte array
+	 */
+	public static byte[] getBytesFromFile(File file) throws IOException {
+		InputStream inputStream = new FileInputStream(file);
+
+		// Get the size of the file.
+		long length = file.length();
+
+		/*
+		 * You cannot create an array using a long type. It needs to be an int
+		 * type. Before converting to an int type, check to ensure that file is
+		 * not larger than Integer.MAX_VALUE.
+		 */
+		if (length > Integer.MAX_VALUE) {
+			// Close the input stream.
+			inputStream.close();
+			return null;
+		} else {
+			// Create the byte array to hold the data.
+			byte[] bytes = new byte[(int) length];
+
+			// Read in the bytes.
+			int offset = 0;
+			int numRead = 0;
+
+			while (offset < bytes.length
+					&& (numRead = inputStream.read(bytes, offset, bytes.length
+							- offset)) >= 0) {
+				offset += numRead;
+			}
+
+			// Ensure that all the bytes have been read in.
+			if (offset < bytes.length) {
+				// Close the input stream.
+				inputStream.close();
+				throw new IOException("Could not completely read file "
+						+ file.getName());
+			}
+
+			// Close the input stream and return bytes.
+			inputStream.close();
+			return bytes;
+		}
+	}
+
+	/**
+	 * Returns the contents of the file in a byte buffer with the byte order set
+	 * to LITTLE ENDIAN. The way the content is brought into memory depends on
+	 * the specified buffer strategy. The returned buffer is read-only when the
+	 * file is mapped. The sparse strategy does not read the whole file and is
+	 * therefore not supported by this method.
+	 * 
+	 * @param file
+	 *            file from which the content is read
+	 * @param bufferStrategy
+	 *            strategy for reading the file
+	 * @return contents of the file in a byte buffer
+	 */
+	public static ByteBuffer getBufferFromFile(File file,
+			BufferStrategy bufferStrategy) throws IOException {
+		ByteBuffer buffer;
+		if (bufferStrategy == BufferStrategy.SPARSE) {
+			throw new IllegalArgumentException(
+					"Sparse strategy does not read the whole file!");
+		} else if (bufferStrategy == BufferStrategy.HEAP) {
+			buffer = ByteBuffer.wrap(getBytesFromFile(file));
+		} else {
+			try (FileChannel channel = FileChannel.open(file.toPath(),
+					StandardOpenOption.READ)) {
+				long length = channel.size();
+
+				// The same limitation as for the byte array applies to the
+				// buffers.
+				if (length > Integer.MAX_VALUE) {
+					throw new IOException("File " + file.getName()
+							+ " is too large to be read into a buffer");
+				}
+
+				if (bufferStrategy == BufferStrategy.MAPPED) {
+					// The mapping stays valid after the channel is closed.
+					buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+							length);
+				} else {
+					buffer = ByteBuffer.allocateDirect((int) length);
+					while (buffer.hasRemaining()) {
+						if (channel.read(buffer) < 0) {
+							throw new IOException(
+									"Could not completely read file "
+											+ file.getName());
+						}
+					}
+					buffer.flip();
+				}
+			}
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	/**
+	 * Reads the specified number of bytes from the channel starting at the
+	 * specified position in the file. The read does not change the position of
+	 * the channel. The given buffer is reused if it is large enough, otherwise
+	 * a new one is allocated.
+	 * 
+	 * @param channel
+	 *            channel from which the content is read
+	 * @param position
+	 *            position in the file
+	 * @param length
+	 *            number of bytes to read
+	 * @param buffer
+	 *            buffer to reuse, may be null
+	 * @return buffer with the content positioned at zero
+	 */
+	static ByteBuffer readFromChannel(FileChannel channel, long position,
+			int length, ByteBuffer buffer) throws IOException {
+		if (buffer == null || buffer.capacity() < length) {
+			buffer = ByteBuffer.allocate(length);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		buffer.clear();
+		buffer.limit(length);
+
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of file at position "
+						+ (position + buffer.position()));
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Computes time value from the packed time read from the files.
+	 * 
+	 * @param packedTime
+	 * @return computed time value
+	 */
+	private LocalTime computeTimeValue(int packedTime) {
+		// A value of 0x0FFF or 0x07FF indicates no data available (i. e.
+		// invalid data).
+		if (packedTime == 0x0FFF || packedTime == 0x07FF
+				|| packedTime == 0x1000 || packedTime == 0x0800) {
+			return null;
+		} else {
+			// We get the hours by dividning packed time with 60 and rounding it
+			// down to the nearest integer value.
+			short hourOfDay = (short) Math.floor(packedTime / 60);
+
+			// Number of minutes is always between 1 and 1440. If extreme is
+			// recorded
+			// at 00:00 it means it was recorded at the end of day (23:59 -
+			// 00:00). So
+			// 1 means 00:00 - 00:01 and 1440 means 23:59 - 00:00.
+			if (hourOfDay == 24) {
+				hourOfDay = 0;
+			}
+
+			// We get the minutes by computing the reminder when dividing with
+			// 60.
+			short minuteOfHour = (short) (packedTime % 60);
+
+			// Return computed time.
+			return new LocalTime(hourOfDay, minuteOfHour);
+		}
+	}
+
+	/**
+	 * Computes wind direction in degrees according to direction values.
+	 * 
+	 * @param summaryCursor
+	 * @return converted direction
+	 */
+	private Integer[] computeWindDirectionDistribution(
+			SummaryCursor summaryCursor) {
+		Integer[] windDirectionDistribution = new Integer[16];
+
+		for (int i = 0; i < 16; i++) {
+			// Minutes.
+			int minutes = summaryCursor.getDirBin(i);
+
+			// A value of 0x0FFF or 0x07FF indicates no data available (i. e.
+			// invalid data).
+			if (minutes == 0x0FFF || minutes == 0x07FF) {
+				windDirectionDistribution[i] = null;
+			} else {
+				// Saving values.
+				windDirectionDistribution[i] = minutes;
+			}
+		}
+
+		return windDirectionDistribution;
+	}
+
+	/**
+	 * Extra temperature sensors. At the moment this sensors are not used by
+	 * Davis Vantage Pro2 (reserved for future use).
+	 * 
+	 * @param recordCursor
+	 * @param field
+	 *            field of the temperature sensors
+	 * @param dataConverter
 	 * @return converted values
 	 */
-	private Double[] computeExtraSensors(Signed8[] temperatureSensors,
-			DataConverter dataConverter) {
-		Double[] computedTemperature = new Double[temperatureSensors.length];
-		for (int i = 0; i < temperatureSensors.length; i++) {
+	private Double[] computeExtraSensors(RecordCursor recordCursor,
+			WeatherField field, DataConverter dataConverter) {
+		Double[] computedTemperature = new Double[field.getWidth()];
+		for (int i = 0; i < computedTemperature.length; i++) {
 			computedTemperature[i] = dataConverter
-					.convertTemperature((short) (temperatureSensors[i].get() - 90));
+					.convertTemperature((short) (recordCursor.getRaw(field, i) - 90));
 		}
 
 		return computedTemperature;
@@ -0,0 +1,42 @@
+package reader;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Visitor of the raw days and weather data records of a reader. The reader
+ * calls the visitor straight from the buffer of the file, so no daily summary
+ * or weather data record objects are created. The cursors are reused, which
+ * means that they are only valid during the call and must not be kept.
+ * <p>
+ * Days and records are visited in chronological order. Only the days and
+ * records inside the date time range of the reader and, if a filter is set,
+ * the records that match the filter are visited. The values are raw values
+ * of the file, which can be converted with the fields or the data converter.
+ * </p>
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public interface WlkRecordVisitor {
+	/**
+	 * Visits the daily summaries of the day, before its weather data records.
+	 *
+	 * @param date
+	 * @param summaryCursor
+	 *            cursor over both daily summaries of the day
+	 * @return whether the weather data records of the day are visited
+	 */
+	boolean onDay(LocalDate date, SummaryCursor summaryCursor);
+
+	/**
+	 * Visits a weather data record of the current day.
+	 *
+	 * @param epochMinute
+	 *            minutes since 1970-01-01 00:00 at the end of the archive
+	 *            interval. Record with time 00:00 belongs to the next day.
+	 * @param recordCursor
+	 *            cursor over the record
+	 */
+	void onRecord(long epochMinute, RecordCursor recordCursor);
+}
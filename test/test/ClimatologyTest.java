@@ -0,0 +1,155 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analysis.Climatology;
+import analysis.MonthNormal;
+import analysis.MonthSummary;
+import data.DailySummary;
+import generator.WlkGenerator;
+import reader.WlkReader;
+
+/**
+ * JUnit tests for the climatology of two generated winters.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class ClimatologyTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	WlkReader wlkReaderTest;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		// Winter from 1.12.2010 to 28.2.2011 and January 2012 up to 20.1.2012.
+		File directory = folder.newFolder("davisvan");
+		WlkGenerator wlkGenerator = new WlkGenerator(directory, new LocalDate(
+				2010, 12, 1), new LocalDate(2011, 2, 28));
+		wlkGenerator.setArchiveInterval(30);
+		wlkGenerator.generate();
+		wlkGenerator.setDateStart(new LocalDate(2012, 1, 1));
+		wlkGenerator.setDateEnd(new LocalDate(2012, 1, 20));
+		wlkGenerator.setSeed(2);
+		wlkGenerator.generate();
+
+		wlkReaderTest = new WlkReader(directory);
+	}
+
+	/**
+	 * Test method for {@link analysis.Climatology#of(reader.WlkReader)}.
+	 */
+	@Test
+	public void testOf() {
+		Climatology climatology = null;
+		List<DailySummary> dailySummaryList = null;
+		try {
+			climatology = Climatology.of(wlkReaderTest);
+			dailySummaryList = wlkReaderTest.readSummaries();
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		assertEquals("Specified number of months is not equal!", 4,
+				climatology.getMonths().size());
+		assertNull(climatology.getMonth(2011, 3));
+
+		// Check January 2011 against its daily summaries.
+		MonthSummary monthSummary = climatology.getMonth(2011, 1);
+		double precipitation = 0, heatingDegreeDays = 0;
+		double maxOutTemp = Double.NEGATIVE_INFINITY;
+		LocalDate dateMaxOutTemp = null;
+		int days = 0;
+		for (DailySummary dailySummary : dailySummaryList) {
+			if (dailySummary.getDate().getYear() == 2011
+					&& dailySummary.getDate().getMonthOfYear() == 1) {
+				precipitation += dailySummary.getDailyRain();
+				heatingDegreeDays += dailySummary.getIntegratedHeatDD65();
+				if (dailySummary.getMaxOutTemp() > maxOutTemp) {
+					maxOutTemp = dailySummary.getMaxOutTemp();
+					dateMaxOutTemp = dailySummary.getDate();
+				}
+				days++;
+			}
+		}
+		assertEquals("Specified number of days is not equal!", 31, days);
+		assertEquals("Specified number of days is not equal!", days,
+				monthSummary.getDays());
+		assertEquals("Specified precipitation does not match!",
+				precipitation, monthSummary.getPrecipitation(), 1e-9);
+		assertEquals("Specified degree days do not match!",
+				heatingDegreeDays, monthSummary.getHeatingDegreeDays(), 1e-9);
+		assertTrue("Winter must have heating degree days!",
+				monthSummary.getHeatingDegreeDays() > 0);
+		assertEquals("Specified temperature does not match!", maxOutTemp,
+				monthSummary.getMaxOutTemp(), 1e-9);
+		assertEquals("Specified date is not equal!", dateMaxOutTemp,
+				monthSummary.getDateMaxOutTemp());
+		assertTrue("Mean of the minimums must be below the mean!",
+				monthSummary.getMeanMinOutTemp() < monthSummary
+						.getAvgOutTemp());
+	}
+
+	/**
+	 * Test method for {@link analysis.Climatology#getNormal(int)}.
+	 */
+	@Test
+	public void testGetNormal() {
+		Climatology climatology = null;
+		try {
+			climatology = Climatology.of(wlkReaderTest);
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+		MonthSummary january2011 = climatology.getMonth(2011, 1);
+		MonthSummary january2012 = climatology.getMonth(2012, 1);
+
+		// Normals of January are the means of both years.
+		MonthNormal normal = climatology.getNormal(1);
+		assertEquals("Specified number of years is not equal!", 2,
+				normal.getYears());
+		assertEquals("Specified precipitation does not match!",
+				(january2011.getPrecipitation() + january2012
+						.getPrecipitation()) / 2, normal.getPrecipitation(),
+				1e-9);
+		assertEquals("Specified temperature does not match!",
+				(january2011.getAvgOutTemp() + january2012.getAvgOutTemp()) / 2,
+				normal.getAvgOutTemp(), 1e-9);
+		MonthSummary coldest = january2011.getMinOutTemp() < january2012
+				.getMinOutTemp() ? january2011 : january2012;
+		assertEquals("Specified temperature does not match!",
+				coldest.getMinOutTemp(), normal.getMinOutTemp(), 1e-9);
+		assertEquals("Specified date is not equal!",
+				coldest.getDateMinOutTemp(), normal.getDateMinOutTemp());
+
+		// Incomplete January 2012 is left out with the minimal days.
+		climatology.setMinDays(28);
+		normal = climatology.getNormal(1);
+		assertEquals("Specified number of years is not equal!", 1,
+				normal.getYears());
+		assertEquals("Specified precipitation does not match!",
+				january2011.getPrecipitation(), normal.getPrecipitation(), 1e-9);
+
+		assertNull(climatology.getNormal(7));
+		try {
+			climatology.getNormal(13);
+			fail("Month of the year must be between 1 and 12!");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
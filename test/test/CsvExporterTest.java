@@ -0,0 +1,167 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.RawWeatherDataRecord;
+import data.WeatherField;
+import reader.CsvExporter;
+import reader.WlkReader;
+
+/**
+ * JUnit tests for exporting the test files into CSV and TSV.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class CsvExporterTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	File directory;
+	CsvExporter csvExporterTest;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		directory = new File(getClass().getResource(".").getPath());
+		csvExporterTest = new CsvExporter(EnumSet.of(WeatherField.OUT_TEMP,
+				WeatherField.OUT_HUMIDITY, WeatherField.PRESSURE,
+				WeatherField.WIND_DIRECTION, WeatherField.EXTRA_TEMP));
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.CsvExporter#export(reader.WlkReader, java.io.Writer)}.
+	 */
+	@Test
+	public void testExportWriter() {
+		StringWriter writer = new StringWriter();
+		long rows = 0;
+		List<RawWeatherDataRecord> records = null;
+		try {
+			rows = csvExporterTest.export(new WlkReader(directory), writer);
+			records = new WlkReader(directory).readRawRecords();
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		String[] lines = writer.toString().split("\n");
+		assertEquals("Specified number of records is not equal!",
+				records.size(), rows);
+		assertEquals("Specified number of lines is not equal!", rows + 1,
+				lines.length);
+		assertEquals("Specified header is not equal!",
+				"DATE_TIME,OUT_TEMP,PRESSURE,OUT_HUMIDITY,WIND_DIRECTION,"
+						+ "EXTRA_TEMP_1,EXTRA_TEMP_2,EXTRA_TEMP_3,EXTRA_TEMP_4,"
+						+ "EXTRA_TEMP_5,EXTRA_TEMP_6,EXTRA_TEMP_7", lines[0]);
+
+		String[] header = lines[0].split(",");
+		for (int i = 0; i < records.size(); i++) {
+			RawWeatherDataRecord record = records.get(i);
+			String[] values = lines[i + 1].split(",", -1);
+			assertEquals("Specified number of columns is not equal!",
+					header.length, values.length);
+			assertEquals("Specified date time is not equal!", record
+					.getDateTime().toString("yyyy-MM-dd HH:mm"), values[0]);
+			for (int column = 1; column < header.length; column++) {
+				String name = header[column];
+				int index = 0;
+				if (name.startsWith("EXTRA_TEMP_")) {
+					index = Integer.parseInt(name.substring(11)) - 1;
+					name = "EXTRA_TEMP";
+				}
+				WeatherField field = WeatherField.valueOf(name);
+				double expected = record.getValue(field, index);
+				if (Double.isNaN(expected)) {
+					assertEquals("Undefined value must be empty!", "",
+							values[column]);
+				} else {
+					assertEquals("Specified value does not match!", expected,
+							Double.parseDouble(values[column]), 0.0005 + 1e-9);
+					if (field.isInteger()) {
+						assertFalse("Integer value must not have decimals!",
+								values[column].contains("."));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.CsvExporter#export(reader.WlkReader, java.nio.channels.WritableByteChannel)}
+	 * with tabs as separators, rounded values and no header.
+	 */
+	@Test
+	public void testExportChannel() {
+		DateTime dateTimeStart = new DateTime(2012, 8, 5, 14, 0);
+		DateTime dateTimeEnd = new DateTime(2012, 8, 6, 14, 0);
+		csvExporterTest.setDecimals(1);
+		csvExporterTest.setHeader(false);
+		try {
+			StringWriter writer = new StringWriter();
+			csvExporterTest.export(new WlkReader(directory, dateTimeStart,
+					dateTimeEnd), writer);
+
+			csvExporterTest.setSeparator('\t');
+			File file = folder.newFile("export.tsv");
+			long rows;
+			try (FileChannel channel = FileChannel.open(file.toPath(),
+					StandardOpenOption.WRITE)) {
+				rows = csvExporterTest.export(new WlkReader(directory,
+						dateTimeStart, dateTimeEnd), channel);
+			}
+			String tsv = new String(Files.readAllBytes(file.toPath()),
+					StandardCharsets.US_ASCII);
+			assertEquals("Specified export is not equal!", writer.toString()
+					.replace(',', '\t'), tsv);
+			assertEquals("Specified number of lines is not equal!", rows,
+					tsv.split("\n").length);
+			assertTrue("Record at 14:00 is not inside the range!",
+					tsv.startsWith("2012-08-05 14:01\t"));
+
+			// Values are rounded to a single decimal without trailing zeros.
+			for (String line : tsv.split("\n")) {
+				for (String value : line.substring(17).split("\t")) {
+					int point = value.indexOf('.');
+					assertTrue("Value must have at most one decimal!",
+							point < 0 || point == value.length() - 2);
+					assertFalse("Trailing zeros must be left out!",
+							value.endsWith(".0"));
+				}
+			}
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		try {
+			csvExporterTest.setSeparator('.');
+			fail("Separator must not be a part of the values!");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			csvExporterTest.setDecimals(10);
+			fail("Number of decimals must be between 0 and 9!");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
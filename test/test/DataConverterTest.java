@@ -5,6 +5,13 @@ package test;
 
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import javax.measure.converter.UnitConverter;
+import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -207,4 +214,121 @@ public class DataConverterTest {
 		assertEquals("The converted value does not match!", 209200,
 				dataConverterUnit.convertSolarEnergy((short) 5e1), 0.1);
 	}
+
+	/**
+	 * Test method for
+	 * {@link data.DataConverter#convertDegreeDays(java.lang.Short)}.
+	 */
+	@Test
+	public void testConvertDegreeDays() {
+		// Check for correct null values if invalid value is passed.
+		assertNull(dataConverter.convertDegreeDays(Short.MIN_VALUE));
+
+		// Check for correct value in imperial units.
+		assertEquals("The converted value does not match!", 18,
+				dataConverter.convertDegreeDays((short) 18e1), 0.01);
+
+		// Degree days are a difference, so zero stays zero in metric units.
+		assertEquals("The converted value does not match!", 0,
+				dataConverterUnit.convertDegreeDays((short) 0), 0.01);
+		assertEquals("The converted value does not match!", 10,
+				dataConverterUnit.convertDegreeDays((short) 18e1), 0.01);
+	}
+
+	/**
+	 * Test that the precomputed conversion tables give exactly the same values
+	 * as the unit converters over the whole 16-bit raw domain.
+	 */
+	@Test
+	public void testConversionTables() {
+		UnitConverter pressure = SI.MILLI(NonSI.INCH_OF_MERCURY)
+				.getConverterTo(SI.HECTO(SI.PASCAL));
+		UnitConverter windRun = SI.DECI(NonSI.MILE).getConverterTo(
+				SI.KILOMETER);
+		UnitConverter precipitation = SI.MILLI(NonSI.INCH).getConverterTo(
+				SI.MILLIMETER);
+		UnitConverter temperature = SI.DECI(NonSI.FAHRENHEIT).getConverterTo(
+				SI.CELSIUS);
+		UnitConverter windSpeed = SI.DECI(NonSI.MILES_PER_HOUR)
+				.getConverterTo(SI.METERS_PER_SECOND);
+
+		for (int i = Short.MIN_VALUE + 1; i <= Short.MAX_VALUE; i++) {
+			short value = (short) i;
+
+			// Check for conversion to metric units.
+			assertEquals(pressure.convert(value),
+					dataConverterUnit.convertPressure(value), 0);
+			assertEquals(windRun.convert(value),
+					dataConverterUnit.convertWindRun(value), 0);
+			assertEquals(precipitation.convert(value),
+					dataConverterUnit.convertPrecipitation(value), 0);
+			assertEquals(temperature.convert(value),
+					dataConverterUnit.convertTemperature(value), 0);
+			assertEquals(windSpeed.convert(value),
+					dataConverterUnit.convertWindSpeed(value), 0);
+
+			// Check for values in imperial units.
+			assertEquals(value / 1e3, dataConverter.convertPressure(value), 0);
+			assertEquals(value / 1e1, dataConverter.convertTemperature(value),
+					0);
+
+			// Check for rounding of humidity.
+			assertEquals(
+					new BigDecimal((double) value / 10).setScale(0,
+							RoundingMode.HALF_UP).intValue(), dataConverter
+							.convertHumidity(value).intValue());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link data.DataConverter#convertTemperatureValue(short)} and
+	 * {@link data.DataConverter#convertTemperature(short[], double[])}.
+	 */
+	@Test
+	public void testConvertTemperatureValue() {
+		// Check for NaN if invalid value is passed.
+		assertTrue(Double.isNaN(dataConverter
+				.convertTemperatureValue(Short.MIN_VALUE)));
+
+		// Check for conversion to metric units.
+		assertEquals("The converted value does not match!", 36.7,
+				dataConverterUnit.convertTemperatureValue((short) 98e1), 0.1);
+
+		// Check for batch conversion into a given array.
+		double[] converted = new double[3];
+		assertSame(converted, dataConverterUnit.convertTemperature(
+				new short[] { (short) -6.5e1, Short.MIN_VALUE, (short) 32e1 },
+				converted));
+		assertEquals("The converted value does not match!", -21.4,
+				converted[0], 0.1);
+		assertTrue(Double.isNaN(converted[1]));
+		assertEquals("The converted value does not match!", 0, converted[2],
+				0.1);
+	}
+
+	/**
+	 * Test method for
+	 * {@link data.DataConverter#convertWindDirectionValue(short)} and
+	 * {@link data.DataConverter#convertHumidity(short[], double[])}.
+	 */
+	@Test
+	public void testConvertValues() {
+		// Check for NaN if invalid value is passed.
+		assertTrue(Double.isNaN(dataConverter
+				.convertWindDirectionValue((short) 255)));
+
+		// Raw byte 255 is sign extended to -1.
+		assertTrue(Double.isNaN(dataConverter
+				.convertWindDirectionValue((short) -1)));
+		assertEquals("The converted value does not match!", 157.5,
+				dataConverter.convertWindDirectionValue((short) 7), 0.1);
+
+		// Check for batch conversion into a new array.
+		double[] converted = dataConverter.convertHumidity(new short[] {
+				(short) 50.9e1, Short.MIN_VALUE }, null);
+		assertEquals("The converted value does not match!", 51, converted[0],
+				0);
+		assertTrue(Double.isNaN(converted[1]));
+	}
 }
@@ -0,0 +1,162 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import analysis.Bucket;
+import analysis.Downsampler;
+import data.DailyWeatherData;
+import data.WeatherDataRecord;
+import reader.WlkReader;
+
+/**
+ * JUnit tests for aggregating the records of the test files into buckets.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class DownsamplerTest {
+	WlkReader wlkReaderTest;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		// Two days of the summer test file.
+		URL resourceURL = getClass().getResource(".");
+		wlkReaderTest = new WlkReader(new File(resourceURL.getPath()),
+				new DateTime(2012, 8, 5, 0, 0), new DateTime(2012, 8, 7, 0, 0));
+	}
+
+	/**
+	 * Test method for
+	 * {@link analysis.Downsampler#downsample(reader.WlkReader, int)}, which
+	 * must aggregate the same values as adding the decoded records.
+	 */
+	@Test
+	public void testDownsample() {
+		List<Bucket> buckets = null;
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		try {
+			buckets = Downsampler.downsample(wlkReaderTest, 60);
+			dailyWeatherDataList = wlkReaderTest.readData();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		List<Bucket> recordBuckets = new ArrayList<Bucket>();
+		Downsampler downsampler = new Downsampler(60, recordBuckets::add);
+		for (DailyWeatherData dailyWeatherData : dailyWeatherDataList) {
+			for (WeatherDataRecord record : dailyWeatherData
+					.getWeatherDataRecords()) {
+				downsampler.add(record);
+			}
+		}
+		downsampler.flush();
+
+		// Two days of hourly buckets. Both ends of the range are excluded, so
+		// the first and the last bucket lack one record.
+		assertEquals("Specified number of buckets is not equal!", 48,
+				buckets.size());
+		assertEquals("Specified number of buckets is not equal!", 48,
+				recordBuckets.size());
+		for (int i = 0; i < buckets.size(); i++) {
+			Bucket bucket = buckets.get(i), recordBucket = recordBuckets
+					.get(i);
+			assertEquals("Specified start is not equal!",
+					recordBucket.getStart(), bucket.getStart());
+			assertEquals("Specified number of records is not equal!",
+					recordBucket.getRecords(), bucket.getRecords());
+			assertEquals("Specified outdoor temperature does not match!",
+					recordBucket.getOutTemp(), bucket.getOutTemp(), 1e-9);
+			assertEquals("Specified pressure does not match!",
+					recordBucket.getPressure(), bucket.getPressure(), 1e-9);
+			assertEquals("Specified precipitation does not match!",
+					recordBucket.getPrecipitation(),
+					bucket.getPrecipitation(), 1e-9);
+			assertEquals("Specified wind speed does not match!",
+					recordBucket.getMaxWindSpeed(), bucket.getMaxWindSpeed(),
+					1e-9);
+			assertEquals("Specified wind direction does not match!",
+					recordBucket.getWindDirection(),
+					bucket.getWindDirection(), 1e-9);
+		}
+
+		// Check the bucket from 5.8.2012 14:00 to 15:00 against the records.
+		Bucket bucket = buckets.get(14);
+		assertEquals("Specified start is not equal!", new LocalDateTime(2012,
+				8, 5, 14, 0), bucket.getStart());
+		double sum = 0, max = Double.NEGATIVE_INFINITY;
+		int count = 0;
+		for (WeatherDataRecord record : dailyWeatherDataList.get(0)
+				.getWeatherDataRecords()) {
+			int minuteOfDay = record.getTime().getMillisOfDay() / 60000;
+			if (minuteOfDay > 14 * 60 && minuteOfDay <= 15 * 60) {
+				sum += record.getOutTemp();
+				max = Math.max(max, record.getMaxWindSpeed());
+				count++;
+			}
+		}
+		assertEquals("Specified number of records is not equal!", count,
+				bucket.getRecords());
+		assertEquals("Specified outdoor temperature does not match!", sum
+				/ count, bucket.getOutTemp(), 1e-9);
+		assertEquals("Specified wind speed does not match!", max,
+				bucket.getMaxWindSpeed(), 1e-9);
+	}
+
+	/**
+	 * Test method for {@link analysis.Downsampler#add(data.WeatherDataRecord)}
+	 * with invalid settings and records out of order.
+	 */
+	@Test
+	public void testAdd() {
+		try {
+			new Downsampler(0, bucket -> {
+			});
+			fail("Length of the buckets must be positive!");
+		} catch (IllegalArgumentException e) {
+		}
+
+		List<Bucket> buckets = new ArrayList<Bucket>();
+		Downsampler downsampler = new Downsampler(10, buckets::add);
+		WeatherDataRecord record = new WeatherDataRecord();
+		record.setDate(new LocalDateTime(2012, 8, 5, 0, 0).toLocalDate());
+		record.setTime(new LocalDateTime(2012, 8, 5, 0, 20).toLocalTime());
+		record.setWindDirection(350.0);
+		downsampler.add(record);
+
+		// Record at the end of the previous bucket.
+		record.setTime(new LocalDateTime(2012, 8, 5, 0, 10).toLocalTime());
+		try {
+			downsampler.add(record);
+			fail("Records must be added in chronological order!");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// Mean direction of 350 and 30 degrees is 10 degrees.
+		record.setTime(new LocalDateTime(2012, 8, 5, 0, 15).toLocalTime());
+		record.setWindDirection(30.0);
+		downsampler.add(record);
+		downsampler.flush();
+		assertEquals("Specified number of buckets is not equal!", 1,
+				buckets.size());
+		assertEquals("Specified wind direction does not match!", 10,
+				buckets.get(0).getWindDirection(), 1e-9);
+		assertTrue("Outdoor temperature should be undefined!",
+				Double.isNaN(buckets.get(0).getOutTemp()));
+	}
+}
@@ -0,0 +1,196 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.DataConverter;
+import data.QuantileSketch;
+import data.StationWeatherDataRecord;
+import data.WeatherDataRecord;
+import data.WeatherField;
+import generator.WlkGenerator;
+import reader.MultiStationReader;
+
+/**
+ * JUnit tests for merging the records of several stations. The stations are
+ * generated with different date ranges and archive intervals.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class MultiStationReaderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// Directories of the stations by the ids of the stations.
+	private Map<String, File> directories;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		// Station A records every 5 minutes from 1.8. to 3.8.2012, station B
+		// every 10 minutes from 2.8. to 4.8.2012 and station C has no files.
+		File directoryA = folder.newFolder("a");
+		WlkGenerator wlkGenerator = new WlkGenerator(directoryA,
+				new LocalDate(2012, 8, 1), new LocalDate(2012, 8, 3));
+		wlkGenerator.setArchiveInterval(5);
+		wlkGenerator.generate();
+
+		File directoryB = folder.newFolder("b");
+		wlkGenerator.setDirectory(directoryB);
+		wlkGenerator.setDateStart(new LocalDate(2012, 8, 2));
+		wlkGenerator.setDateEnd(new LocalDate(2012, 8, 4));
+		wlkGenerator.setArchiveInterval(10);
+		wlkGenerator.setSeed(2);
+		wlkGenerator.generate();
+
+		directories = new LinkedHashMap<String, File>();
+		directories.put("A", directoryA);
+		directories.put("B", directoryB);
+		directories.put("C", folder.newFolder("c"));
+	}
+
+	/**
+	 * Checks that the records are in chronological order and that records
+	 * with the same time are in the order of the stations.
+	 *
+	 * @param records
+	 */
+	private static void assertOrdered(List<StationWeatherDataRecord> records) {
+		for (int i = 1; i < records.size(); i++) {
+			WeatherDataRecord previous = records.get(i - 1)
+					.getWeatherDataRecord();
+			WeatherDataRecord current = records.get(i).getWeatherDataRecord();
+			DateTime previousDateTime = previous.getDate().toDateTime(
+					previous.getTime());
+			DateTime currentDateTime = current.getDate().toDateTime(
+					current.getTime());
+			assertFalse("Records are not in chronological order!",
+					currentDateTime.isBefore(previousDateTime));
+			if (currentDateTime.equals(previousDateTime)) {
+				assertTrue("Records are not in the order of the stations!",
+						records.get(i - 1).getStationId()
+								.compareTo(records.get(i).getStationId()) < 0);
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.MultiStationReader#streamRecords()}.
+	 */
+	@Test
+	public void testStreamRecords() {
+		MultiStationReader multiStationReader = new MultiStationReader(
+				directories);
+		List<StationWeatherDataRecord> records = null;
+		try (Stream<StationWeatherDataRecord> stream = multiStationReader
+				.streamRecords()) {
+			records = stream.collect(Collectors.toList());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Three days with 288 records and three days with 144 records.
+		assertEquals("Specified number of records is not equal!",
+				3 * 288 + 3 * 144, records.size());
+		assertEquals("Specified number of records is not equal!", 3 * 288,
+				records.stream()
+						.filter(record -> record.getStationId().equals("A"))
+						.count());
+		assertOrdered(records);
+
+		// The first record is from station A and the last from station B.
+		assertEquals("Specified station is not equal!", "A", records.get(0)
+				.getStationId());
+		assertEquals("Specified station is not equal!", "B",
+				records.get(records.size() - 1).getStationId());
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.MultiStationReader#streamRecords(java.util.concurrent.Executor)}
+	 * with a single thread and a date time range.
+	 */
+	@Test
+	public void testStreamRecordsExecutor() {
+		// Only the records between 2.8.2012 12:00 and 3.8.2012 12:00.
+		MultiStationReader multiStationReader = new MultiStationReader(
+				directories, new DateTime(2012, 8, 2, 12, 0), new DateTime(
+						2012, 8, 3, 12, 0), true);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		List<StationWeatherDataRecord> records = null;
+		try (Stream<StationWeatherDataRecord> stream = multiStationReader
+				.streamRecords(executor)) {
+			records = stream.collect(Collectors.toList());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+
+		// Both ends of the date time range are excluded.
+		assertEquals("Specified number of records is not equal!",
+				287 + 143, records.size());
+		assertOrdered(records);
+
+		// Stream can be closed before all the records are read.
+		try (Stream<StationWeatherDataRecord> stream = multiStationReader
+				.streamRecords()) {
+			assertEquals("Specified number of records is not equal!", 10,
+					stream.limit(10).count());
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.MultiStationReader#readSketches(java.util.Set)}.
+	 */
+	@Test
+	public void testReadSketches() {
+		MultiStationReader multiStationReader = new MultiStationReader(
+				directories);
+		Set<WeatherField> fields = EnumSet.of(WeatherField.OUT_TEMP);
+		try {
+			QuantileSketch sketch = multiStationReader.readSketches(fields)
+					.get(WeatherField.OUT_TEMP);
+
+			// Merged sketch holds the values of both stations.
+			QuantileSketch sketchA = multiStationReader.getReader("A")
+					.readSketches(fields).get(WeatherField.OUT_TEMP);
+			QuantileSketch sketchB = multiStationReader.getReader("B")
+					.readSketches(fields).get(WeatherField.OUT_TEMP);
+			assertEquals("Specified number of values is not equal!",
+					3 * 288 + 3 * 144, sketch.getCount());
+			DataConverter dataConverter = new DataConverter(true);
+			assertEquals("Specified quantile does not match!", Math.max(
+					sketchA.getQuantile(1, dataConverter),
+					sketchB.getQuantile(1, dataConverter)), sketch.getQuantile(
+					1, dataConverter), 1e-9);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import data.DataConverter;
+import data.QuantileSketch;
+import data.WeatherField;
+
+/**
+ * JUnit tests for computing, merging and storing quantile sketches.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class QuantileSketchTest {
+	DataConverter dataConverter;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		dataConverter = new DataConverter(false);
+	}
+
+	/**
+	 * Test method for
+	 * {@link data.QuantileSketch#getQuantile(double, data.DataConverter)}.
+	 */
+	@Test
+	public void testGetQuantile() {
+		// Temperatures from 0.1 F to 100.0 F in tenths of a degree, added in
+		// descending order.
+		QuantileSketch sketch = new QuantileSketch(WeatherField.OUT_TEMP);
+		assertTrue(Double.isNaN(sketch.getQuantile(0.5, dataConverter)));
+		for (int raw = 1000; raw > 0; raw--) {
+			sketch.add((short) raw);
+		}
+		assertEquals("Specified number of values is not equal!", 1000,
+				sketch.getCount());
+		assertEquals("Specified quantile does not match!", 0.1,
+				sketch.getQuantile(0, dataConverter), 1e-9);
+		assertEquals("Specified quantile does not match!", 50,
+				sketch.getQuantile(0.5, dataConverter), 1e-9);
+		assertEquals("Specified quantile does not match!", 99,
+				sketch.getQuantile(0.99, dataConverter), 1e-9);
+		assertEquals("Specified quantile does not match!", 100,
+				sketch.getQuantile(1, dataConverter), 1e-9);
+
+		// Quantiles are converted to metric units on request.
+		assertEquals("Specified quantile does not match!", 10,
+				sketch.getQuantile(0.5, new DataConverter(true)), 1e-9);
+
+		try {
+			sketch.getQuantile(1.5, dataConverter);
+			fail("Quantile must be between 0 and 1!");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new QuantileSketch(WeatherField.EXTRA_TEMP);
+			fail("Sketches are only supported for fields with a single value!");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * Test method for {@link data.QuantileSketch#merge(data.QuantileSketch)}
+	 * and storing of the merged sketch.
+	 */
+	@Test
+	public void testMerge() {
+		// Wind speeds of two days with different ranges.
+		QuantileSketch sketch1 = new QuantileSketch(WeatherField.WIND_SPEED);
+		QuantileSketch sketch2 = new QuantileSketch(WeatherField.WIND_SPEED);
+		QuantileSketch expected = new QuantileSketch(WeatherField.WIND_SPEED);
+		for (int raw = 0; raw < 300; raw++) {
+			QuantileSketch sketch = raw % 3 == 0 ? sketch1 : sketch2;
+			sketch.add((short) (raw * 7 % 500 - 100));
+			expected.add((short) (raw * 7 % 500 - 100));
+		}
+		sketch1.merge(sketch2);
+
+		QuantileSketch stored = null;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			sketch1.writeTo(new DataOutputStream(bytes));
+			stored = QuantileSketch.readFrom(new DataInputStream(
+					new ByteArrayInputStream(bytes.toByteArray())));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+
+		double[] quantiles = { 0, 0.25, 0.5, 0.95, 0.99, 1 };
+		for (QuantileSketch sketch : new QuantileSketch[] { sketch1, stored }) {
+			assertEquals("Specified field is not equal!",
+					WeatherField.WIND_SPEED, sketch.getField());
+			assertEquals("Specified number of values is not equal!", 300,
+					sketch.getCount());
+			assertArrayEquals("Specified quantiles do not match!",
+					expected.getQuantiles(quantiles, dataConverter),
+					sketch.getQuantiles(quantiles, dataConverter), 1e-9);
+		}
+
+		try {
+			sketch1.merge(new QuantileSketch(WeatherField.OUT_TEMP));
+			fail("Only sketches of the same field can be merged!");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
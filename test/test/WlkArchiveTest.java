@@ -0,0 +1,237 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.DailySummary;
+import data.DailyWeatherData;
+import data.WeatherField;
+import reader.RecordCursor;
+import reader.RecordFilter;
+import reader.SummaryCursor;
+import reader.WlkArchive;
+import reader.WlkReader;
+import reader.WlkRecordVisitor;
+
+/**
+ * JUnit tests for exporting the test files into an archive and reading them
+ * back from the archive.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkArchiveTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	File directory;
+	File archiveFile;
+	WlkArchive wlkArchive;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		directory = new File(getClass().getResource(".").getPath());
+		archiveFile = new File(folder.getRoot(), "davisvan.wlka");
+		wlkArchive = WlkArchive.export(new WlkReader(directory), archiveFile);
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.WlkArchive#export(reader.WlkReader, java.io.File)}.
+	 */
+	@Test
+	public void testExport() {
+		List<byte[]> expectedBytes = null;
+		List<byte[]> bytes = null;
+		WlkArchive loadedArchive = new WlkArchive(archiveFile);
+		try {
+			expectedBytes = readBytes(new WlkReader(directory));
+			bytes = readBytes(new WlkReader(archiveFile));
+			loadedArchive.load();
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Daily summaries and records are decoded into the same bytes.
+		assertEquals("Specified number of days and records is not equal!",
+				expectedBytes.size(), bytes.size());
+		for (int i = 0; i < expectedBytes.size(); i++) {
+			assertArrayEquals("Specified bytes are not equal!",
+					expectedBytes.get(i), bytes.get(i));
+		}
+
+		// Index of the blocks holds a block for each day.
+		List<WlkArchive.Block> blocks = loadedArchive.getBlocks();
+		assertEquals("Specified number of blocks is not equal!", wlkArchive
+				.getBlocks().size(), blocks.size());
+		assertEquals("Specified date is not equal!", new LocalDate(2012, 2, 1),
+				blocks.get(0).getDate());
+		long length = 0;
+		int records = 0;
+		short maxOutTemp = Short.MIN_VALUE;
+		for (WlkArchive.Block block : blocks) {
+			length += block.getLength();
+			records += block.getRecords();
+			maxOutTemp = (short) Math.max(maxOutTemp,
+					block.getMax(WeatherField.OUT_TEMP, 0));
+		}
+		assertEquals("Specified number of records is not equal!",
+				expectedBytes.size() - blocks.size(), records);
+		assertTrue("Blocks must be smaller than the days!", length < 0.5
+				* records * RecordCursor.SIZE);
+		assertTrue("Archive must be smaller than the files!",
+				archiveFile.length() < FileUtils.sizeOf(new File(directory,
+						"2012-02.wlk"))
+						+ FileUtils.sizeOf(new File(directory, "2012-08.wlk")));
+		assertTrue("August must be warmer than 30 degrees Celsius!",
+				maxOutTemp > 860);
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readData()} of an archive with
+	 * a date time range and a filter.
+	 */
+	@Test
+	public void testReadData() {
+		DateTime dateTimeStart = new DateTime(2012, 2, 5, 14, 0);
+		DateTime dateTimeEnd = new DateTime(2012, 8, 10, 9, 30);
+		RecordFilter recordFilter = RecordFilter.greaterThan(
+				WeatherField.OUT_TEMP, 30);
+		try {
+			for (RecordFilter filter : new RecordFilter[] { null,
+					recordFilter }) {
+				WlkReader wlkReader = new WlkReader(directory, dateTimeStart,
+						dateTimeEnd);
+				wlkReader.setFilter(filter);
+				WlkReader archiveReader = new WlkReader(archiveFile,
+						dateTimeStart, dateTimeEnd);
+				archiveReader.setFilter(filter);
+				List<DailyWeatherData> expectedList = wlkReader.readData();
+				assertDaysEquals(expectedList, archiveReader.readData());
+
+				// The iterator reads the same days as readData.
+				List<DailyWeatherData> iteratedList = new ArrayList<DailyWeatherData>();
+				archiveReader = new WlkReader(archiveFile, dateTimeStart,
+						dateTimeEnd);
+				archiveReader.setFilter(filter);
+				archiveReader.iterator().forEachRemaining(iteratedList::add);
+				assertDaysEquals(expectedList, iteratedList);
+			}
+
+			List<DailySummary> expectedSummaries = new WlkReader(directory)
+					.readSummaries();
+			List<DailySummary> summaries = new WlkReader(archiveFile)
+					.readSummaries();
+			assertEquals("Specified number of days is not equal!",
+					expectedSummaries.size(), summaries.size());
+			for (int i = 0; i < summaries.size(); i++) {
+				assertEquals("Specified date is not equal!", expectedSummaries
+						.get(i).getDate(), summaries.get(i).getDate());
+				assertEquals("Specified temperature does not match!",
+						expectedSummaries.get(i).getMaxOutTemp(), summaries
+								.get(i).getMaxOutTemp());
+			}
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkArchive#load()} of a file which is not
+	 * an archive.
+	 */
+	@Test
+	public void testLoadDamaged() {
+		try {
+			File file = folder.newFile("damaged.wlka");
+			FileUtils.copyFile(new File(directory, "2012-02.wlk"), file);
+			new WlkArchive(file).load();
+			fail("File is not an archive!");
+		} catch (IOException e) {
+		}
+
+		try {
+			WlkArchive.export(new WlkReader(directory),
+					folder.newFile("davisvan.wlk"));
+			fail("Archive must have the extension .wlka!");
+		} catch (IllegalArgumentException e) {
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the bytes of the daily summaries and the records of all the days.
+	 */
+	private static List<byte[]> readBytes(WlkReader wlkReader)
+			throws IOException, ArithmeticException {
+		final List<byte[]> bytes = new ArrayList<byte[]>();
+		wlkReader.visit(new WlkRecordVisitor() {
+			@Override
+			public boolean onDay(LocalDate date, SummaryCursor summaryCursor) {
+				byte[] summaries = new byte[SummaryCursor.SIZE];
+				ByteBuffer buffer = summaryCursor.getBuffer();
+				for (int i = 0; i < summaries.length; i++) {
+					summaries[i] = buffer.get(summaryCursor.getPosition() + i);
+				}
+				bytes.add(summaries);
+				return true;
+			}
+
+			@Override
+			public void onRecord(long epochMinute, RecordCursor recordCursor) {
+				bytes.add(recordCursor.toByteArray());
+			}
+		});
+		return bytes;
+	}
+
+	/**
+	 * Checks that the days and their records are equal.
+	 */
+	private static void assertDaysEquals(List<DailyWeatherData> expectedList,
+			List<DailyWeatherData> dailyWeatherDataList) {
+		assertFalse("Some days should be read!", expectedList.isEmpty());
+		assertEquals("Specified number of days is not equal!",
+				expectedList.size(), dailyWeatherDataList.size());
+		for (int i = 0; i < expectedList.size(); i++) {
+			assertEquals("Specified date is not equal!", expectedList.get(i)
+					.getDailySummary().getDate(), dailyWeatherDataList.get(i)
+					.getDailySummary().getDate());
+			List<data.WeatherDataRecord> expectedRecords = expectedList.get(i)
+					.getWeatherDataRecords();
+			List<data.WeatherDataRecord> records = dailyWeatherDataList.get(i)
+					.getWeatherDataRecords();
+			assertEquals("Specified number of records is not equal!",
+					expectedRecords.size(), records.size());
+			for (int j = 0; j < records.size(); j++) {
+				assertEquals("Specified time is not equal!", expectedRecords
+						.get(j).getTime(), records.get(j).getTime());
+				assertEquals("Specified outdoor temperature does not match!",
+						expectedRecords.get(j).getOutTemp(), records.get(j)
+								.getOutTemp());
+				assertEquals("Specified wind speed does not match!",
+						expectedRecords.get(j).getWindSpeed(), records.get(j)
+								.getWindSpeed());
+			}
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.WeatherDataRecord;
+import generator.WlkGenerator;
+import reader.WlkFollower;
+import reader.WlkReader;
+
+/**
+ * JUnit tests for following a file to which records are appended. Appending
+ * is simulated by writing a file with fewer records of the last day first and
+ * the complete generated file later.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkFollowerTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// Generated complete files and the directory which is followed.
+	private File generated;
+	private File directory;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		// Two days with 5 minute interval, which means 288 records and two
+		// daily summaries in each day.
+		generated = folder.newFolder("generated");
+		WlkGenerator wlkGenerator = new WlkGenerator(generated, new LocalDate(
+				2012, 8, 1), new LocalDate(2012, 8, 2));
+		wlkGenerator.setArchiveInterval(5);
+		wlkGenerator.generate();
+
+		wlkGenerator.setDateStart(new LocalDate(2012, 9, 1));
+		wlkGenerator.setDateEnd(new LocalDate(2012, 9, 1));
+		wlkGenerator.generate();
+
+		wlkGenerator.setDateStart(new LocalDate(2012, 10, 1));
+		wlkGenerator.setDateEnd(new LocalDate(2012, 10, 1));
+		wlkGenerator.generate();
+
+		directory = folder.newFolder("davisvan");
+	}
+
+	/**
+	 * Writes the file of the generated month with only the specified number
+	 * of records (including daily summaries) in the second day.
+	 *
+	 * @param recordsInDay
+	 */
+	private void writePartialFile(int recordsInDay) throws IOException {
+		byte[] bytes = FileUtils.readFileToByteArray(new File(generated,
+				"2012-08.wlk"));
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(
+				ByteOrder.LITTLE_ENDIAN);
+
+		// Day index of the second day is after the id code, the total number
+		// of records and the first two day indexes.
+		int dayIndexOffset = 16 + 4 + 2 * 6;
+		int startPos = buffer.getInt(dayIndexOffset + 2);
+		buffer.putShort(dayIndexOffset, (short) recordsInDay);
+		FileUtils.writeByteArrayToFile(new File(directory, "2012-08.wlk"),
+				Arrays.copyOf(bytes, 212 + (startPos + recordsInDay) * 88));
+	}
+
+	/**
+	 * Test method for {@link reader.WlkFollower#poll()}.
+	 */
+	@Test
+	public void testPoll() {
+		List<WeatherDataRecord> records = new ArrayList<WeatherDataRecord>();
+		try {
+			writePartialFile(102);
+			WlkFollower wlkFollower = new WlkFollower(new WlkReader(directory),
+					records::add);
+			assertEquals("No records should be appended yet!", 0,
+					wlkFollower.poll());
+
+			// Appended records of the second day.
+			FileUtils.copyFileToDirectory(new File(generated, "2012-08.wlk"),
+					directory);
+			assertEquals("Specified number of records is not equal!", 188,
+					wlkFollower.poll());
+			assertEquals("Specified time is not equal!", new LocalTime(8, 25),
+					records.get(0).getTime());
+			assertEquals("Specified date is not equal!", new LocalDate(2012,
+					8, 2), records.get(0).getDate());
+			assertEquals("Specified date is not equal!", new LocalDate(2012,
+					8, 3), records.get(187).getDate());
+			assertEquals("No records should be appended!", 0,
+					wlkFollower.poll());
+
+			// The file of the next month.
+			FileUtils.copyFileToDirectory(new File(generated, "2012-09.wlk"),
+					directory);
+			assertEquals("Specified number of records is not equal!", 288,
+					wlkFollower.poll());
+			assertEquals("Specified file name is not equal!", "2012-09.wlk",
+					wlkFollower.getFile().getName());
+		} catch (IllegalArgumentException | ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+		assertEquals("Specified number of records is not equal!", 188 + 288,
+				records.size());
+	}
+
+	/**
+	 * Test method for {@link reader.WlkFollower#poll()} after the data is read
+	 * with the reader.
+	 */
+	@Test
+	public void testPollAfterReadData() {
+		List<WeatherDataRecord> records = new ArrayList<WeatherDataRecord>();
+		try {
+			writePartialFile(102);
+			WlkReader wlkReader = new WlkReader(directory, new DateTime(2012,
+					8, 2, 6, 0), null);
+			assertEquals("Specified number of records is not equal!", 28,
+					wlkReader.readData().get(0).getWeatherDataRecords()
+							.size());
+
+			// The follower continues after the last record read.
+			WlkFollower wlkFollower = new WlkFollower(wlkReader, records::add);
+			assertEquals("No records should be appended yet!", 0,
+					wlkFollower.poll());
+			FileUtils.copyFileToDirectory(new File(generated, "2012-08.wlk"),
+					directory);
+			assertEquals("Specified number of records is not equal!", 188,
+					wlkFollower.poll());
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+		assertEquals("Specified time is not equal!", new LocalTime(8, 25),
+				records.get(0).getTime());
+	}
+	/**
+	 * Test method for {@link reader.WlkFollower#poll()} when the files of two
+	 * months appear between two polls.
+	 */
+	@Test
+	public void testPollNewMonths() {
+		List<WeatherDataRecord> records = new ArrayList<WeatherDataRecord>();
+		try {
+			FileUtils.copyFileToDirectory(new File(generated, "2012-08.wlk"),
+					directory);
+			WlkFollower wlkFollower = new WlkFollower(new WlkReader(directory),
+					records::add);
+			assertEquals("No records should be appended yet!", 0,
+					wlkFollower.poll());
+
+			// Both months are read, in chronological order.
+			FileUtils.copyFileToDirectory(new File(generated, "2012-10.wlk"),
+					directory);
+			FileUtils.copyFileToDirectory(new File(generated, "2012-09.wlk"),
+					directory);
+			assertEquals("Specified number of records is not equal!",
+					288 + 288, wlkFollower.poll());
+			assertEquals("Specified file name is not equal!", "2012-10.wlk",
+					wlkFollower.getFile().getName());
+			assertEquals("No records should be appended!", 0,
+					wlkFollower.poll());
+		} catch (IllegalArgumentException | ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+		assertEquals("Specified date is not equal!", new LocalDate(2012, 9, 1),
+				records.get(0).getDate());
+		assertEquals("Specified date is not equal!",
+				new LocalDate(2012, 10, 1), records.get(288).getDate());
+	}
+}
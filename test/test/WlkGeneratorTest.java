@@ -0,0 +1,167 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.DailyWeatherData;
+import data.WeatherDataRecord;
+import generator.SensorProfile;
+import generator.WlkGenerator;
+import reader.WlkReader;
+
+/**
+ * JUnit tests for testing generated *.wlk files, which are read back with the
+ * reader.
+ *
+ * @author Jernej Jerin <jernej.jerin@gmail.com>
+ * @version %I%, %G%
+ * @since 1.0
+ */
+public class WlkGeneratorTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Test method for {@link generator.WlkGenerator#generate()}.
+	 */
+	@Test
+	public void testGenerate() {
+		List<File> files = null;
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		try {
+			// Date range over the end of the year with 5 minute interval.
+			WlkGenerator wlkGenerator = new WlkGenerator(folder.getRoot(),
+					new LocalDate(2011, 12, 30), new LocalDate(2012, 1, 2));
+			wlkGenerator.setArchiveInterval(5);
+			files = wlkGenerator.generate();
+			dailyWeatherDataList = new WlkReader(folder.getRoot()).readData();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Two files with four days in total.
+		assertEquals("Specified number of files is not equal!", 2,
+				files.size());
+		assertEquals("Specified file name is not equal!", "2011-12.wlk",
+				files.get(0).getName());
+		assertEquals("Specified number of days is not equal!", 4,
+				dailyWeatherDataList.size());
+
+		LocalDate date = new LocalDate(2011, 12, 30);
+		for (DailyWeatherData dailyWeatherData : dailyWeatherDataList) {
+			assertEquals("Specified date is not equal!", date,
+					dailyWeatherData.getDailySummary().getDate());
+			assertEquals("Specified data span is not equal!",
+					Integer.valueOf(1440), dailyWeatherData.getDailySummary()
+							.getDataSpan());
+
+			// Records from 00:05 to 00:00 of the next day.
+			List<WeatherDataRecord> records = dailyWeatherData
+					.getWeatherDataRecords();
+			assertEquals("Specified number of records is not equal!", 288,
+					records.size());
+			assertEquals("Specified time is not equal!", new LocalTime(0, 5),
+					records.get(0).getTime());
+			assertEquals("Specified date is not equal!", date.plusDays(1),
+					records.get(records.size() - 1).getDate());
+
+			// The summary is computed from the records.
+			double maxOutTemp = Double.NEGATIVE_INFINITY;
+			for (WeatherDataRecord record : records) {
+				assertEquals("Specified archive interval is not equal!",
+						5, record.getArchiveInterval());
+				maxOutTemp = Math.max(maxOutTemp, record.getMaxOutTemp());
+			}
+			assertEquals("Specified max temperature does not match!",
+					maxOutTemp, dailyWeatherData.getDailySummary()
+							.getMaxOutTemp().doubleValue(), 1e-9);
+			date = date.plusDays(1);
+		}
+	}
+
+	/**
+	 * Test method for {@link generator.WlkGenerator#generate()} with
+	 * different sensor profiles.
+	 */
+	@Test
+	public void testGenerateSensorProfile() {
+		WeatherDataRecord basicRecord = null, fullRecord = null;
+		try {
+			WlkGenerator wlkGenerator = new WlkGenerator(
+					folder.newFolder("basic"), new LocalDate(2012, 7, 1),
+					new LocalDate(2012, 7, 1));
+			wlkGenerator.setSensorProfile(SensorProfile.BASIC);
+			wlkGenerator.setArchiveInterval(60);
+			wlkGenerator.generate();
+			basicRecord = new WlkReader(wlkGenerator.getDirectory())
+					.readData().get(0).getWeatherDataRecords().get(11);
+
+			wlkGenerator.setDirectory(folder.newFolder("full"));
+			wlkGenerator.setSensorProfile(SensorProfile.FULL);
+			wlkGenerator.generate();
+			fullRecord = new WlkReader(wlkGenerator.getDirectory())
+					.readData().get(0).getWeatherDataRecords().get(11);
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Sensors outside of the profile are not available.
+		assertNotNull("Outdoor temperature should be available!",
+				basicRecord.getOutTemp());
+		assertNull("Indoor temperature should not be available!",
+				basicRecord.getInTemp());
+		assertNull("Solar radiation should not be available!",
+				basicRecord.getSolarRad());
+
+		// At noon in July there should be some solar radiation.
+		assertEquals("Specified outdoor temperature does not match!",
+				basicRecord.getOutTemp(), fullRecord.getOutTemp());
+		assertNotNull("Indoor temperature should be available!",
+				fullRecord.getInTemp());
+		assertTrue("Solar radiation should be positive!",
+				fullRecord.getSolarRad() > 0);
+	}
+
+	/**
+	 * Test method for {@link generator.WlkGenerator#generate()} with the same
+	 * seed.
+	 */
+	@Test
+	public void testGenerateSeed() {
+		boolean equal = false;
+		try {
+			File first = new WlkGenerator(folder.newFolder("first"),
+					new LocalDate(2012, 2, 27), new LocalDate(2012, 3, 2))
+					.generate().get(1);
+			File second = new WlkGenerator(folder.newFolder("second"),
+					new LocalDate(2012, 2, 27), new LocalDate(2012, 3, 2))
+					.generate().get(1);
+			equal = FileUtils.contentEquals(first, second);
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+		assertTrue("Files with the same seed should be equal!", equal);
+	}
+
+	/**
+	 * Test method for
+	 * {@link generator.WlkGenerator#setArchiveInterval(int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetArchiveInterval() {
+		new WlkGenerator(folder.getRoot(), new LocalDate(2012, 1, 1),
+				new LocalDate(2012, 1, 1)).setArchiveInterval(7);
+	}
+}
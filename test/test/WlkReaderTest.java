@@ -8,16 +8,46 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import org.apache.commons.io.FileUtils;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
 import org.joda.time.LocalTime;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import data.DailySummary;
 import data.DailyWeatherData;
+import data.DataConverter;
+import data.QuantileSketch;
+import data.RawWeatherDataRecord;
+import data.SummaryField;
+import data.WeatherDataColumns;
+import data.WeatherField;
 
+import reader.BufferStrategy;
+import reader.MonthCache;
+import reader.RecordCursor;
+import reader.RecordFilter;
+import reader.SummaryCursor;
+import reader.WlkIndex;
 import reader.WlkReader;
+import reader.WlkRecordVisitor;
 
 /**
  * JUnit tests for testing reading *.wlk files and returning correct data
@@ -31,6 +61,9 @@ public class WlkReaderTest {
 	WlkReader wlkReaderTest, wlkReaderDateTimeStartTest,
 			wlkReaderDateTimeEndTest, wlkReaderDateTimeStartEndTest, wlkReaderBooleanTest;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	/**
 	 * @throws java.lang.Exception
 	 */
@@ -265,4 +298,1046 @@ public class WlkReaderTest {
 		assertEquals("The length in bytes does not match!", 3680196,
 				bytes.length, 1);
 	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readData()} with different
+	 * buffer strategies.
+	 */
+	@Test
+	public void testReadDataBufferStrategy() {
+		for (BufferStrategy bufferStrategy : BufferStrategy.values()) {
+			List<DailyWeatherData> dailyWeatherDataList = null;
+			wlkReaderDateTimeStartEndTest.setBufferStrategy(bufferStrategy);
+			try {
+				dailyWeatherDataList = wlkReaderDateTimeStartEndTest.readData();
+			} catch (IllegalArgumentException | UnsupportedOperationException
+					| ArithmeticException | IOException e) {
+				fail(e.getMessage());
+			}
+
+			// From 2012-08-05 to 2012-08-17 should give 13,
+			// DailyWeatherData entities.
+			assertEquals("Specified list is not of this size!", 13,
+					dailyWeatherDataList.size());
+
+			// Check for correct pressure reading at 2012-08-17 02:19.
+			List<data.WeatherDataRecord> records = dailyWeatherDataList.get(
+					dailyWeatherDataList.size() - 1).getWeatherDataRecords();
+			assertEquals("Specified pressure does not match!", 1018.8, records
+					.get(records.size() - 1).getPressure(), 0.1);
+
+			// Reset start date time as the reader moves it to the last record.
+			wlkReaderDateTimeStartEndTest.setDateTimeStart(new DateTime(2012,
+					8, 5, 22, 5));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.WlkReader#getBufferFromFile(java.io.File, reader.BufferStrategy)}
+	 * .
+	 */
+	@Test
+	public void testGetBufferFromFile() {
+		URL resourceURL = getClass().getResource("2012-02.wlk");
+		for (BufferStrategy bufferStrategy : BufferStrategy.values()) {
+			// Sparse strategy does not read the whole file.
+			if (bufferStrategy == BufferStrategy.SPARSE) {
+				continue;
+			}
+			try {
+				ByteBuffer buffer = WlkReader.getBufferFromFile(new File(
+						resourceURL.getPath()), bufferStrategy);
+
+				// Check for length and byte order of the buffer.
+				assertEquals("The length in bytes does not match!", 3680196,
+						buffer.remaining());
+				assertEquals("The byte order does not match!",
+						ByteOrder.LITTLE_ENDIAN, buffer.order());
+			} catch (IOException e) {
+				fail(e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readData()} with parallel
+	 * decoding.
+	 */
+	@Test
+	public void testReadDataParallel() {
+		List<DailyWeatherData> sequentialList = null, parallelList = null;
+		try {
+			sequentialList = wlkReaderTest.readData();
+			wlkReaderTest.setParallelism(4);
+			parallelList = wlkReaderTest.readData();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Both lists should contain the same days in chronological order.
+		assertEquals("Specified list is not of this size!",
+				sequentialList.size(), parallelList.size());
+		for (int i = 0; i < sequentialList.size(); i++) {
+			assertEquals("Specified date is not equal!", sequentialList.get(i)
+					.getDailySummary().getDate(), parallelList.get(i)
+					.getDailySummary().getDate());
+			assertEquals("Specified number of records is not equal!",
+					sequentialList.get(i).getWeatherDataRecords().size(),
+					parallelList.get(i).getWeatherDataRecords().size());
+		}
+		assertTrue("Days are not in chronological order!", parallelList
+				.get(0).getDailySummary().getDate()
+				.isBefore(parallelList.get(30).getDailySummary().getDate()));
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#streamData()} and
+	 * {@link reader.WlkReader#streamRecords()}.
+	 */
+	@Test
+	public void testStreamData() {
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		long days = 0, records = 0;
+		data.WeatherDataRecord lastRecord = null;
+		try {
+			dailyWeatherDataList = wlkReaderDateTimeEndTest.readData();
+			try (Stream<DailyWeatherData> stream = wlkReaderDateTimeEndTest
+					.streamData()) {
+				days = stream.count();
+			}
+			try (Stream<data.WeatherDataRecord> stream = wlkReaderDateTimeEndTest
+					.streamRecords()) {
+				lastRecord = stream.reduce((first, second) -> second).get();
+			}
+			try (Stream<data.WeatherDataRecord> stream = wlkReaderDateTimeEndTest
+					.streamRecords()) {
+				records = stream.count();
+			}
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// The stream should contain the same days and records as the list.
+		assertEquals("Specified number of days is not equal!",
+				dailyWeatherDataList.size(), days);
+		long expectedRecords = 0;
+		for (DailyWeatherData dailyWeatherData : dailyWeatherDataList) {
+			expectedRecords += dailyWeatherData.getWeatherDataRecords().size();
+		}
+		assertEquals("Specified number of records is not equal!",
+				expectedRecords, records);
+
+		// The last record should be at 25.8.2012 18:29.
+		assertEquals("Specified date is not equal!", new LocalDate(2012, 8, 25),
+				lastRecord.getDate());
+		assertEquals("Specified time is not equal!", new LocalTime(18, 29),
+				lastRecord.getTime());
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readColumns()}.
+	 */
+	@Test
+	public void testReadColumns() {
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		WeatherDataColumns weatherDataColumns = null;
+		try {
+			dailyWeatherDataList = wlkReaderDateTimeEndTest.readData();
+			weatherDataColumns = wlkReaderDateTimeEndTest.readColumns();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Columns should contain the same records as the list.
+		int row = 0;
+		for (DailyWeatherData dailyWeatherData : dailyWeatherDataList) {
+			for (data.WeatherDataRecord record : dailyWeatherData
+					.getWeatherDataRecords()) {
+				data.WeatherDataRecord columnRecord = weatherDataColumns
+						.getRecord(row);
+				assertEquals("Specified date is not equal!", record.getDate(),
+						columnRecord.getDate());
+				assertEquals("Specified time is not equal!", record.getTime(),
+						columnRecord.getTime());
+				assertEquals("Specified pressure does not match!",
+						record.getPressure(), columnRecord.getPressure());
+				assertEquals("Specified outdoor temperature does not match!",
+						record.getOutTemp(), columnRecord.getOutTemp());
+				assertEquals("Specified humidity does not match!",
+						record.getOutHumidity(), columnRecord.getOutHumidity());
+				assertArrayEquals("Specified soil temperature does not match!",
+						record.getSoilTemp(), columnRecord.getSoilTemp());
+				row++;
+			}
+		}
+		assertEquals("Specified number of records is not equal!", row,
+				weatherDataColumns.size());
+
+		// Check for correct air temperature reading at 25.8.2012 18:29.
+		assertEquals("Specified outdoor temperature does not match!", 34.4,
+				weatherDataColumns.getDoubleColumn(WeatherField.OUT_TEMP)[row - 1],
+				0.1);
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readData()} with start and end
+	 * date time which are not on the whole minute.
+	 */
+	@Test
+	public void testReadDataPartialMinutes() {
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		try {
+			dailyWeatherDataList = new WlkReader(new File(getClass()
+					.getResource(".").getPath()), new DateTime(2012, 8, 5, 22,
+					5, 30), new DateTime(2012, 8, 5, 22, 10, 30)).readData();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Records from 22:06 to including 22:10 should be read.
+		List<data.WeatherDataRecord> records = dailyWeatherDataList.get(0)
+				.getWeatherDataRecords();
+		assertEquals("Specified list is not of this size!", 5, records.size());
+		assertEquals("Specified time is not equal!", new LocalTime(22, 6),
+				records.get(0).getTime());
+		assertEquals("Specified time is not equal!", new LocalTime(22, 10),
+				records.get(4).getTime());
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readData()} with selected
+	 * fields only.
+	 */
+	@Test
+	public void testReadDataFields() {
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		List<DailyWeatherData> projectedList = null;
+		WeatherDataColumns weatherDataColumns = null;
+		try {
+			dailyWeatherDataList = wlkReaderDateTimeStartEndTest.readData();
+			wlkReaderDateTimeStartEndTest.setDateTimeStart(new DateTime(2012,
+					8, 5, 22, 5));
+			wlkReaderDateTimeStartEndTest.setFields(EnumSet.of(
+					WeatherField.OUT_TEMP, WeatherField.PRESSURE,
+					WeatherField.PRECIPITATION));
+			wlkReaderDateTimeStartEndTest.setSummaryFields(EnumSet
+					.of(SummaryField.OUT_TEMP));
+			projectedList = wlkReaderDateTimeStartEndTest.readData();
+			wlkReaderDateTimeStartEndTest.setDateTimeStart(new DateTime(2012,
+					8, 5, 22, 5));
+			weatherDataColumns = wlkReaderDateTimeStartEndTest.readColumns();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		assertEquals("Specified list is not of this size!",
+				dailyWeatherDataList.size(), projectedList.size());
+		for (int i = 0; i < dailyWeatherDataList.size(); i++) {
+			DailySummary summary = dailyWeatherDataList.get(i)
+					.getDailySummary();
+			DailySummary projectedSummary = projectedList.get(i)
+					.getDailySummary();
+			assertEquals("Specified date is not equal!", summary.getDate(),
+					projectedSummary.getDate());
+			assertEquals("Specified max temperature does not match!",
+					summary.getMaxOutTemp(), projectedSummary.getMaxOutTemp());
+			assertNull("Pressure should not be decoded!",
+					projectedSummary.getMaxPressure());
+
+			List<data.WeatherDataRecord> records = dailyWeatherDataList.get(i)
+					.getWeatherDataRecords();
+			List<data.WeatherDataRecord> projectedRecords = projectedList
+					.get(i).getWeatherDataRecords();
+			assertEquals("Specified list is not of this size!",
+					records.size(), projectedRecords.size());
+			for (int j = 0; j < records.size(); j++) {
+				data.WeatherDataRecord record = records.get(j);
+				data.WeatherDataRecord projectedRecord = projectedRecords
+						.get(j);
+				assertEquals("Specified time is not equal!", record.getTime(),
+						projectedRecord.getTime());
+				assertEquals("Specified outdoor temperature does not match!",
+						record.getOutTemp(), projectedRecord.getOutTemp());
+				assertEquals("Specified pressure does not match!",
+						record.getPressure(), projectedRecord.getPressure());
+				assertEquals("Specified precipitation does not match!",
+						record.getPrecipitation(),
+						projectedRecord.getPrecipitation());
+				assertNull("Humidity should not be decoded!",
+						projectedRecord.getOutHumidity());
+				assertNull("Soil temperature should not be decoded!",
+						projectedRecord.getSoilTemp()[0]);
+			}
+		}
+
+		// Columns are created only for the selected fields.
+		assertEquals("Specified fields are not equal!", EnumSet.of(
+				WeatherField.OUT_TEMP, WeatherField.PRESSURE,
+				WeatherField.PRECIPITATION), weatherDataColumns.getFields());
+		assertNull("Humidity should not be decoded!",
+				weatherDataColumns.getIntColumn(WeatherField.OUT_HUMIDITY));
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readData()} with a filter of
+	 * the records.
+	 */
+	@Test
+	public void testReadDataFilter() {
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		try {
+			dailyWeatherDataList = wlkReaderTest.readData();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Records with outdoor temperature above 30 degrees Celsius and wind
+		// speed of at least 1 m/s, which should be found only in August.
+		RecordFilter recordFilter = RecordFilter.greaterThan(
+				WeatherField.OUT_TEMP, 30).and(
+				RecordFilter.between(WeatherField.WIND_SPEED, 1,
+						Double.POSITIVE_INFINITY));
+		List<data.WeatherDataRecord> expectedRecords = new ArrayList<data.WeatherDataRecord>();
+		for (DailyWeatherData dailyWeatherData : dailyWeatherDataList) {
+			for (data.WeatherDataRecord record : dailyWeatherData
+					.getWeatherDataRecords()) {
+				if (record.getOutTemp() != null && record.getOutTemp() > 30
+						&& record.getWindSpeed() != null
+						&& record.getWindSpeed() >= 1) {
+					expectedRecords.add(record);
+				}
+			}
+		}
+		assertFalse("Some records should match!", expectedRecords.isEmpty());
+
+		for (BufferStrategy bufferStrategy : BufferStrategy.values()) {
+			List<DailyWeatherData> filteredList = null;
+			WeatherDataColumns weatherDataColumns = null;
+			try {
+				WlkReader wlkReader = new WlkReader(new File(getClass()
+						.getResource(".").getPath()));
+				wlkReader.setBufferStrategy(bufferStrategy);
+				wlkReader.setFilter(recordFilter);
+				filteredList = wlkReader.readData();
+				weatherDataColumns = wlkReader.readColumns();
+			} catch (IllegalArgumentException | UnsupportedOperationException
+					| ArithmeticException | IOException e) {
+				fail(e.getMessage());
+			}
+
+			// Days without matching records are left out.
+			int i = 0;
+			for (DailyWeatherData dailyWeatherData : filteredList) {
+				assertFalse("Days without records should be left out!",
+						dailyWeatherData.getWeatherDataRecords().isEmpty());
+				assertEquals("Specified month is not equal!", 8,
+						dailyWeatherData.getDailySummary().getDate()
+								.getMonthOfYear());
+				for (data.WeatherDataRecord record : dailyWeatherData
+						.getWeatherDataRecords()) {
+					data.WeatherDataRecord expectedRecord = expectedRecords
+							.get(i++);
+					assertEquals("Specified date is not equal!",
+							expectedRecord.getDate(), record.getDate());
+					assertEquals("Specified time is not equal!",
+							expectedRecord.getTime(), record.getTime());
+					assertEquals("Specified outdoor temperature does not match!",
+							expectedRecord.getOutTemp(), record.getOutTemp());
+				}
+			}
+			assertEquals("Specified number of records is not equal!",
+					expectedRecords.size(), i);
+			assertEquals("Specified number of records is not equal!",
+					expectedRecords.size(), weatherDataColumns.size());
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#setIndexFile(java.io.File)}.
+	 */
+	@Test
+	public void testReadDataIndex() {
+		RecordFilter recordFilter = RecordFilter.greaterThan(
+				WeatherField.OUT_TEMP, 30);
+		try {
+			// Copy of the test files, so that the index can be written.
+			File directory = folder.newFolder("davisvan");
+			File indexFile = new File(directory, ".wlk-index");
+			for (String name : new String[] { "2012-02.wlk", "2012-08.wlk" }) {
+				FileUtils.copyFileToDirectory(new File(getClass()
+						.getResource(name).getPath()), directory);
+			}
+
+			WlkReader wlkReader = new WlkReader(directory);
+			wlkReader.setFilter(recordFilter);
+			List<DailyWeatherData> expectedList = wlkReader.readData();
+
+			for (BufferStrategy bufferStrategy : BufferStrategy.values()) {
+				WlkReader indexedReader = new WlkReader(directory);
+				indexedReader.setBufferStrategy(bufferStrategy);
+				indexedReader.setIndexFile(indexFile);
+				indexedReader.setFilter(recordFilter);
+				List<DailyWeatherData> dailyWeatherDataList = indexedReader
+						.readData();
+				assertTrue("Index file should be created!", indexFile.isFile());
+				assertEquals("Specified number of days is not equal!",
+						expectedList.size(), dailyWeatherDataList.size());
+				for (int i = 0; i < expectedList.size(); i++) {
+					assertEquals("Specified date is not equal!", expectedList
+							.get(i).getDailySummary().getDate(),
+							dailyWeatherDataList.get(i).getDailySummary()
+									.getDate());
+					assertEquals("Specified number of records is not equal!",
+							expectedList.get(i).getWeatherDataRecords().size(),
+							dailyWeatherDataList.get(i)
+									.getWeatherDataRecords().size());
+				}
+
+				// The second read uses the index which is kept in memory.
+				assertEquals("Specified number of days is not equal!",
+						expectedList.size(), indexedReader.readData().size());
+			}
+
+			// Only changed files are read again.
+			WlkIndex wlkIndex = new WlkIndex(directory, indexFile);
+			wlkIndex.load();
+			assertFalse("Index should be up to date!", wlkIndex.refresh());
+			File file = new File(directory, "2012-08.wlk");
+			assertTrue(file.setLastModified(file.lastModified() - 60000));
+			assertTrue("Index should be refreshed!", wlkIndex.refresh());
+			assertEquals("Specified number of files is not equal!", 2,
+					wlkIndex.getFiles().size());
+			WlkIndex.Entry entry = wlkIndex.getEntry(file);
+			assertEquals("Specified month is not equal!", new LocalDate(2012,
+					8, 1), entry.getMonth());
+			assertEquals("Specified file size is not equal!",
+					entry.getTotalRecords() * 88 + 212, entry.getSize());
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.WlkReader#setMonthCache(reader.MonthCache)}.
+	 */
+	@Test
+	public void testReadDataMonthCache() {
+		File directory = new File(getClass().getResource(".").getPath());
+		DateTime dateTimeStart = new DateTime(2012, 8, 5, 14, 2);
+		DateTime dateTimeEnd = new DateTime(2012, 8, 7, 10, 0);
+		MonthCache monthCache = new MonthCache(256L << 20);
+		try {
+			List<DailyWeatherData> expectedList = new WlkReader(directory,
+					dateTimeStart, dateTimeEnd).readData();
+
+			// The first read decodes the whole month, the second one takes
+			// the date time range from the cache.
+			for (int i = 0; i < 2; i++) {
+				WlkReader wlkReader = new WlkReader(directory, dateTimeStart,
+						dateTimeEnd);
+				wlkReader.setMonthCache(monthCache);
+				List<DailyWeatherData> dailyWeatherDataList = wlkReader
+						.readData();
+				assertEquals("Specified number of days is not equal!",
+						expectedList.size(), dailyWeatherDataList.size());
+				for (int j = 0; j < expectedList.size(); j++) {
+					List<data.WeatherDataRecord> expectedRecords = expectedList
+							.get(j).getWeatherDataRecords();
+					List<data.WeatherDataRecord> records = dailyWeatherDataList
+							.get(j).getWeatherDataRecords();
+					assertEquals("Specified number of records is not equal!",
+							expectedRecords.size(), records.size());
+					assertEquals("Specified time is not equal!",
+							expectedRecords.get(0).getTime(), records.get(0)
+									.getTime());
+				}
+			}
+			assertEquals("Specified number of misses is not equal!", 1,
+					monthCache.getMissCount());
+			assertEquals("Specified number of hits is not equal!", 1,
+					monthCache.getHitCount());
+
+			// Whole directory through the iterator.
+			WlkReader wlkReader = new WlkReader(directory);
+			wlkReader.setMonthCache(monthCache);
+			assertEquals("Specified number of days is not equal!",
+					wlkReaderTest.readData().size(), wlkReader.streamData()
+							.count());
+			assertEquals("Specified number of months is not equal!", 2,
+					monthCache.getMonthCount());
+
+			// A month that does not fit is not cached and others are evicted.
+			MonthCache smallCache = new MonthCache(monthCache.getSize() * 2 / 3);
+			wlkReader.setMonthCache(smallCache);
+			wlkReader.readData();
+			assertEquals("Specified number of evictions is not equal!", 1,
+					smallCache.getEvictionCount());
+			assertTrue("Cache should not be larger than its maximum size!",
+					smallCache.getSize() <= smallCache.getMaximumSize());
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.WlkReader#setMonthCache(reader.MonthCache)}, where
+	 * changing the data of one read must not change the data of the
+	 * following reads from the cache.
+	 */
+	@Test
+	public void testReadDataMonthCacheModified() {
+		File directory = new File(getClass().getResource(".").getPath());
+		MonthCache monthCache = new MonthCache(256L << 20);
+		try {
+			WlkReader wlkReader = new WlkReader(directory);
+			wlkReader.setMonthCache(monthCache);
+			DailyWeatherData first = wlkReader.readData().get(0);
+			int records = first.getWeatherDataRecords().size();
+			LocalDate date = first.getDailySummary().getDate();
+			Double outTemp = first.getWeatherDataRecords().get(0).getOutTemp();
+
+			// Data read through the cache can be changed like any other.
+			first.getWeatherDataRecords().get(0).setOutTemp(100.0);
+			first.getDailySummary().setDate(date.plusDays(1));
+			first.getWeatherDataRecords().clear();
+
+			wlkReader = new WlkReader(directory);
+			wlkReader.setMonthCache(monthCache);
+			DailyWeatherData second = wlkReader.readData().get(0);
+			assertEquals("Specified number of hits is not equal!", 2,
+					monthCache.getHitCount());
+			assertEquals("Specified number of records is not equal!",
+					records, second.getWeatherDataRecords().size());
+			assertEquals("Specified date is not equal!", date, second
+					.getDailySummary().getDate());
+			assertEquals("Specified outdoor temperature does not match!",
+					outTemp, second.getWeatherDataRecords().get(0)
+							.getOutTemp());
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Subscriber which collects the items and requests the specified number
+	 * of items at a time.
+	 */
+	private static class CollectingSubscriber<T> implements
+			Flow.Subscriber<T> {
+		private final List<T> items = new ArrayList<T>();
+		private final CountDownLatch completed = new CountDownLatch(1);
+		private final long batch;
+		private Flow.Subscription subscription;
+		private long requested;
+		private Throwable error;
+
+		CollectingSubscriber(long batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			requested = batch;
+			subscription.request(batch);
+		}
+
+		@Override
+		public void onNext(T item) {
+			items.add(item);
+			if (--requested == 0) {
+				requested = batch;
+				subscription.request(batch);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+			completed.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed.countDown();
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#publishData()}.
+	 */
+	@Test
+	public void testPublishData() {
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		CollectingSubscriber<DailyWeatherData> subscriber = new CollectingSubscriber<DailyWeatherData>(
+				1);
+		try {
+			dailyWeatherDataList = wlkReaderTest.readData();
+			wlkReaderTest.publishData().subscribe(subscriber);
+			assertTrue("Publisher should complete!",
+					subscriber.completed.await(60, TimeUnit.SECONDS));
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException | InterruptedException e) {
+			fail(e.getMessage());
+		}
+		assertNull("Publisher should not fail!", subscriber.error);
+		assertEquals("Specified number of days is not equal!",
+				dailyWeatherDataList.size(), subscriber.items.size());
+		for (int i = 0; i < dailyWeatherDataList.size(); i++) {
+			assertEquals("Specified date is not equal!", dailyWeatherDataList
+					.get(i).getDailySummary().getDate(), subscriber.items
+					.get(i).getDailySummary().getDate());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.WlkReader#publishRecords(java.util.concurrent.Executor)}
+	 * with cancellation and invalid requests.
+	 */
+	@Test
+	public void testPublishRecords() {
+		// Items are delivered in the thread which requests them.
+		Flow.Publisher<data.WeatherDataRecord> publisher = wlkReaderTest
+				.publishRecords(Runnable::run);
+
+		// Only the requested records are delivered.
+		CollectingSubscriber<data.WeatherDataRecord> subscriber = new CollectingSubscriber<data.WeatherDataRecord>(
+				Long.MAX_VALUE) {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				super.subscription = subscription;
+				subscription.request(10);
+			}
+		};
+		publisher.subscribe(subscriber);
+		assertEquals("Specified number of records is not equal!", 10,
+				subscriber.items.size());
+		assertEquals("Specified time is not equal!", new LocalTime(0, 2),
+				subscriber.items.get(1).getTime());
+
+		// Nothing is delivered after cancellation.
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(10);
+		assertEquals("Specified number of records is not equal!", 10,
+				subscriber.items.size());
+		assertEquals("Publisher should not complete!", 1,
+				subscriber.completed.getCount());
+
+		// Requests must be positive.
+		CollectingSubscriber<data.WeatherDataRecord> invalidSubscriber = new CollectingSubscriber<data.WeatherDataRecord>(
+				0);
+		publisher.subscribe(invalidSubscriber);
+		assertTrue("Publisher should fail!",
+				invalidSubscriber.error instanceof IllegalArgumentException);
+	}
+
+	/**
+	 * Test method for
+	 * {@link reader.WlkReader#publishRecords(java.util.concurrent.Executor)}
+	 * with the demand of exactly all records.
+	 */
+	@Test
+	public void testPublishRecordsExactDemand() {
+		int records = 0;
+		try {
+			for (DailyWeatherData dailyWeatherData : wlkReaderTest.readData()) {
+				records += dailyWeatherData.getWeatherDataRecords().size();
+			}
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Items are delivered in the thread which requests them.
+		CollectingSubscriber<data.WeatherDataRecord> subscriber = new CollectingSubscriber<data.WeatherDataRecord>(
+				Long.MAX_VALUE) {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				super.subscription = subscription;
+			}
+		};
+		wlkReaderTest.publishRecords(Runnable::run).subscribe(subscriber);
+		subscriber.subscription.request(records - 1);
+		assertEquals("Specified number of records is not equal!",
+				records - 1, subscriber.items.size());
+		assertEquals("Publisher should not complete!", 1,
+				subscriber.completed.getCount());
+
+		// The end is known after the last record without a further request.
+		subscriber.subscription.request(1);
+		assertEquals("Specified number of records is not equal!", records,
+				subscriber.items.size());
+		assertEquals("Publisher should complete!", 0,
+				subscriber.completed.getCount());
+		assertNull("Publisher should not fail!", subscriber.error);
+	}
+
+	/**
+	 * Test method for {@link reader.RecordCursor} and
+	 * {@link reader.SummaryCursor}, which must read the same values as the
+	 * structs.
+	 */
+	@Test
+	public void testCursors() {
+		URL resourceURL = getClass().getResource("2012-02.wlk");
+		try {
+			ByteBuffer buffer = WlkReader.getBufferFromFile(new File(
+					resourceURL.getPath()), BufferStrategy.HEAP);
+			// Records start after the 212B header block.
+			struct.WeatherDataRecord record = new struct.WeatherDataRecord();
+			RecordCursor recordCursor = new RecordCursor(buffer, 212);
+			for (; recordCursor.getPosition() < buffer.limit(); recordCursor
+					.next()) {
+				record.setByteBuffer(buffer, recordCursor.getPosition());
+				assertEquals("Specified data type is not equal!",
+						record.dataType.get(), recordCursor.getDataType());
+				if (recordCursor.getDataType() != 1) {
+					continue;
+				}
+				assertEquals("Specified time is not equal!",
+						record.packedTime.get(), recordCursor.getPackedTime());
+				assertEquals("Specified outside temperature is not equal!",
+						record.outsideTemp.get(),
+						recordCursor.getOutsideTemp());
+				assertEquals("Specified barometer is not equal!",
+						record.barometer.get(), recordCursor.getBarometer());
+				assertEquals("Specified rain is not equal!",
+						record.rain.get(), recordCursor.getRain());
+				assertEquals("Specified wind direction is not equal!",
+						record.windDirection.get(),
+						recordCursor.getWindDirection());
+				assertEquals("Specified extra temperature is not equal!",
+						record.extraTemp[6].get(),
+						recordCursor.getExtraTemp(6));
+			}
+
+			// Summaries of the first day, which start after the header.
+			SummaryCursor summaryCursor = new SummaryCursor(buffer, 212);
+			assertEquals("Specified data type is not equal!", 2,
+					summaryCursor.getDataType1());
+			assertEquals("Specified data type is not equal!", 3,
+					summaryCursor.getDataType2());
+			assertEquals("Specified data span is not equal!", 1440,
+					summaryCursor.getDataSpan());
+
+			// Bins above 127 minutes are unsigned.
+			assertEquals("Specified minutes are not equal!", 130,
+					summaryCursor.getDirBin(3));
+			assertEquals("Specified minutes are not equal!", 573,
+					summaryCursor.getDirBin(4));
+			assertEquals("Specified minutes are not equal!", 209,
+					summaryCursor.getDirBin(5));
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#visit(reader.WlkRecordVisitor)}.
+	 */
+	@Test
+	public void testVisit() {
+		final List<LocalDate> dates = new ArrayList<LocalDate>();
+		final List<Long> epochMinutes = new ArrayList<Long>();
+		final DataConverter dataConverter = new DataConverter(true);
+		final double[] maxOutTemp = { Double.NEGATIVE_INFINITY };
+		List<DailyWeatherData> dailyWeatherDataList = null;
+		try {
+			wlkReaderDateTimeStartEndTest.visit(new WlkRecordVisitor() {
+				@Override
+				public boolean onDay(LocalDate date,
+						SummaryCursor summaryCursor) {
+					dates.add(date);
+					return true;
+				}
+
+				@Override
+				public void onRecord(long epochMinute,
+						RecordCursor recordCursor) {
+					epochMinutes.add(epochMinute);
+
+					// Undefined values are converted to NaN.
+					double outTemp = dataConverter
+							.convertTemperatureValue(recordCursor
+									.getOutsideTemp());
+					if (!Double.isNaN(outTemp)) {
+						maxOutTemp[0] = Math.max(maxOutTemp[0], outTemp);
+					}
+				}
+			});
+			dailyWeatherDataList = wlkReaderDateTimeStartEndTest.readData();
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+
+		// Visitor should see the same days and records as the list.
+		assertEquals("Specified number of days is not equal!",
+				dailyWeatherDataList.size(), dates.size());
+		int row = 0;
+		double maxListOutTemp = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < dailyWeatherDataList.size(); i++) {
+			DailyWeatherData dailyWeatherData = dailyWeatherDataList.get(i);
+			assertEquals("Specified date is not equal!", dailyWeatherData
+					.getDailySummary().getDate(), dates.get(i));
+			for (data.WeatherDataRecord record : dailyWeatherData
+					.getWeatherDataRecords()) {
+				DateTime dateTime = record.getDate().toDateTime(
+						record.getTime(), DateTimeZone.UTC);
+				assertEquals("Specified date time is not equal!",
+						dateTime.getMillis() / 60000,
+						(long) epochMinutes.get(row));
+				if (record.getOutTemp() != null) {
+					maxListOutTemp = Math.max(maxListOutTemp,
+							record.getOutTemp());
+				}
+				row++;
+			}
+		}
+		assertEquals("Specified number of records is not equal!", row,
+				epochMinutes.size());
+		assertEquals("Specified outdoor temperature does not match!",
+				maxListOutTemp, maxOutTemp[0], 0.0);
+
+		// Records are not visited if the visitor skips the day.
+		epochMinutes.clear();
+		try {
+			wlkReaderTest.visit(new WlkRecordVisitor() {
+				@Override
+				public boolean onDay(LocalDate date,
+						SummaryCursor summaryCursor) {
+					return false;
+				}
+
+				@Override
+				public void onRecord(long epochMinute,
+						RecordCursor recordCursor) {
+					epochMinutes.add(epochMinute);
+				}
+			});
+		} catch (ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+		assertTrue("No record should be visited!", epochMinutes.isEmpty());
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readRawRecords()}.
+	 */
+	@Test
+	public void testReadRawRecords() {
+		for (WlkReader wlkReader : new WlkReader[] { wlkReaderTest,
+				wlkReaderBooleanTest }) {
+			List<RawWeatherDataRecord> rawRecords = null;
+			List<DailyWeatherData> dailyWeatherDataList = null;
+			try {
+				rawRecords = wlkReader.readRawRecords();
+				dailyWeatherDataList = wlkReader.readData();
+			} catch (IllegalArgumentException | UnsupportedOperationException
+					| ArithmeticException | IOException e) {
+				fail(e.getMessage());
+			}
+
+			// Raw records should convert to the same values as the list.
+			int row = 0;
+			for (DailyWeatherData dailyWeatherData : dailyWeatherDataList) {
+				for (data.WeatherDataRecord record : dailyWeatherData
+						.getWeatherDataRecords()) {
+					RawWeatherDataRecord rawRecord = rawRecords.get(row);
+					assertEquals("Specified date is not equal!",
+							record.getDate(), rawRecord.getDate());
+					assertEquals("Specified time is not equal!",
+							record.getTime(), rawRecord.getTime());
+					assertEquals("Specified outdoor temperature does not match!",
+							record.getOutTemp(), rawRecord.getOutTemp());
+					assertEquals("Specified pressure does not match!",
+							record.getPressure(), rawRecord.getPressure());
+					assertEquals("Specified humidity does not match!",
+							record.getOutHumidity(), rawRecord.getOutHumidity());
+					assertEquals("Specified precipitation does not match!",
+							record.getPrecipitation(),
+							rawRecord.getPrecipitation());
+					assertEquals("Specified wind direction does not match!",
+							record.getWindDirection(),
+							rawRecord.getWindDirection());
+					assertArrayEquals(
+							"Specified extra temperature does not match!",
+							record.getExtraTemp(), rawRecord.getExtraTemp());
+					assertEquals("Specified UV does not match!",
+							record.getUV(), rawRecord.toWeatherDataRecord()
+									.getUV());
+					row++;
+				}
+			}
+			assertEquals("Specified number of records is not equal!", row,
+					rawRecords.size());
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readSummaries()}, which must
+	 * read the same daily summaries as readData with all the buffer
+	 * strategies and with an index.
+	 */
+	@Test
+	public void testReadSummaries() {
+		try {
+			List<DailyWeatherData> dailyWeatherDataList = new WlkReader(
+					wlkReaderDateTimeStartEndTest.getDirectory(),
+					wlkReaderDateTimeStartEndTest.getDateTimeStart(),
+					wlkReaderDateTimeStartEndTest.getDateTimeEnd())
+					.readData();
+
+			for (BufferStrategy bufferStrategy : BufferStrategy.values()) {
+				wlkReaderDateTimeStartEndTest.setBufferStrategy(bufferStrategy);
+				List<DailySummary> dailySummaryList = wlkReaderDateTimeStartEndTest
+						.readSummaries();
+
+				// From 2012-08-05 to 2012-08-17 should give 13 daily summaries.
+				assertEquals("Specified list is not of this size!", 13,
+						dailySummaryList.size());
+				for (int i = 0; i < dailySummaryList.size(); i++) {
+					DailySummary expected = dailyWeatherDataList.get(i)
+							.getDailySummary();
+					DailySummary dailySummary = dailySummaryList.get(i);
+					assertEquals("Specified date is not equal!",
+							expected.getDate(), dailySummary.getDate());
+					assertEquals("Specified temperature does not match!",
+							expected.getMaxOutTemp(),
+							dailySummary.getMaxOutTemp());
+					assertEquals("Specified time is not equal!",
+							expected.getTimeMaxOutTemp(),
+							dailySummary.getTimeMaxOutTemp());
+					assertEquals("Specified rain does not match!",
+							expected.getDailyRain(), dailySummary.getDailyRain());
+					assertEquals("Specified degree days do not match!",
+							expected.getIntegratedHeatDD65(),
+							dailySummary.getIntegratedHeatDD65());
+					assertArrayEquals(
+							"Specified wind directions do not match!",
+							expected.getWindDirectionDistribution(),
+							dailySummary.getWindDirectionDistribution());
+				}
+			}
+
+			// The start date time is not moved.
+			assertEquals("Specified date time is not equal!", new DateTime(
+					2012, 8, 5, 22, 5),
+					wlkReaderDateTimeStartEndTest.getDateTimeStart());
+
+			// Days are selected from the index and only the selected summary
+			// fields are converted.
+			File directory = folder.newFolder("davisvan");
+			for (String name : new String[] { "2012-02.wlk", "2012-08.wlk" }) {
+				FileUtils.copyFileToDirectory(new File(getClass()
+						.getResource(name).getPath()), directory);
+			}
+			WlkReader indexedReader = new WlkReader(directory);
+			indexedReader.setIndexFile(new File(directory, ".wlk-index"));
+			indexedReader.setSummaryFields(EnumSet.of(SummaryField.DEGREE_DAYS));
+			List<DailySummary> dailySummaryList = indexedReader.readSummaries();
+			assertEquals("Specified list is not of this size!", wlkReaderTest
+					.readData().size(), dailySummaryList.size());
+			for (DailySummary dailySummary : dailySummaryList) {
+				assertNull(dailySummary.getMaxOutTemp());
+				assertTrue("Degree days must not be negative!",
+						dailySummary.getIntegratedHeatDD65() >= 0);
+			}
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test method for {@link reader.WlkReader#readSketches(java.util.Set)},
+	 * which must give the same quantiles as sorting the records, with and
+	 * without the side files.
+	 */
+	@Test
+	public void testReadSketches() {
+		Set<WeatherField> fields = EnumSet.of(WeatherField.OUT_TEMP,
+				WeatherField.WIND_SPEED, WeatherField.MAX_PRECIPITATION_RATE);
+		double[] quantiles = { 0, 0.5, 0.95, 0.99, 1 };
+		DataConverter dataConverter = new DataConverter(true);
+		try {
+			File directory = folder.newFolder("davisvan");
+			for (String name : new String[] { "2012-02.wlk", "2012-08.wlk" }) {
+				FileUtils.copyFileToDirectory(new File(getClass()
+						.getResource(name).getPath()), directory);
+			}
+
+			// Both ends of the date time range are inside of a day.
+			WlkReader wlkReader = new WlkReader(directory, new DateTime(2012,
+					8, 5, 22, 5), new DateTime(2012, 8, 17, 2, 20));
+			List<Double> outTemps = new ArrayList<Double>();
+			for (DailyWeatherData dailyWeatherData : new WlkReader(directory,
+					wlkReader.getDateTimeStart(), wlkReader.getDateTimeEnd())
+					.readData()) {
+				for (data.WeatherDataRecord record : dailyWeatherData
+						.getWeatherDataRecords()) {
+					if (record.getOutTemp() != null) {
+						outTemps.add(record.getOutTemp());
+					}
+				}
+			}
+			Collections.sort(outTemps);
+
+			Map<WeatherField, QuantileSketch> expected = wlkReader
+					.readSketches(fields);
+			QuantileSketch outTempSketch = expected.get(WeatherField.OUT_TEMP);
+			assertEquals("Specified number of values is not equal!",
+					outTemps.size(), outTempSketch.getCount());
+			for (double quantile : quantiles) {
+				int rank = Math.max(1,
+						(int) Math.ceil(quantile * outTemps.size()));
+				assertEquals("Specified quantile does not match!",
+						outTemps.get(rank - 1),
+						outTempSketch.getQuantile(quantile, dataConverter),
+						1e-9);
+			}
+
+			// The side files are built on the first read and then loaded.
+			wlkReader.setSketchFiles(true);
+			File sketchFile = new File(directory, "2012-08.wlk-sketch");
+			for (int i = 0; i < 3; i++) {
+				if (i == 2) {
+					// Changed file is sketched again.
+					File file = new File(directory, "2012-08.wlk");
+					assertTrue(file.setLastModified(file.lastModified() - 60000));
+				}
+				Map<WeatherField, QuantileSketch> sketches = wlkReader
+						.readSketches(fields);
+				assertTrue("Side file should be created!", sketchFile.isFile());
+				for (WeatherField field : fields) {
+					assertEquals("Specified number of values is not equal!",
+							expected.get(field).getCount(), sketches.get(field)
+									.getCount());
+					assertArrayEquals("Specified quantiles do not match!",
+							expected.get(field).getQuantiles(quantiles,
+									dataConverter), sketches.get(field)
+									.getQuantiles(quantiles, dataConverter),
+							1e-9);
+				}
+			}
+			assertFalse("Side file is only created for read files!", new File(
+					directory, "2012-02.wlk-sketch").exists());
+		} catch (IllegalArgumentException | UnsupportedOperationException
+				| ArithmeticException | IOException e) {
+			fail(e.getMessage());
+		}
+	}
 }
\ No newline at end of file